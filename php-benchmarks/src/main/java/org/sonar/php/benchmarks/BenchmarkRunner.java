@@ -0,0 +1,69 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.php.checks.CheckList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the JMH command line options, except that results are written as JSON
+ * (to jmh-result.json, unless -rff is given) so that they can be compared between two commits,
+ * and that {@link CheckBenchmark} runs all the checks unless "-p check=..." is given.
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+    if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListWithParams()
+      || commandLineOptions.shouldListProfilers() || commandLineOptions.shouldListResultFormats()) {
+      Main.main(args);
+      return;
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+    if (!commandLineOptions.getResultFormat().hasValue()) {
+      options.resultFormat(ResultFormatType.JSON);
+    }
+    if (!commandLineOptions.getParameter(CheckBenchmark.CHECK_PARAMETER).hasValue()) {
+      options.param(CheckBenchmark.CHECK_PARAMETER, checkClassNames());
+    }
+    new Runner(options.build()).run();
+  }
+
+  private static String[] checkClassNames() {
+    List<String> names = new ArrayList<>();
+    for (Class check : CheckList.getChecks()) {
+      names.add(check.getName());
+    }
+    return names.toArray(new String[names.size()]);
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.benchmarks;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Suppliers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.php.api.CharsetAwareVisitor;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.symbols.SymbolTableImpl;
+import org.sonar.php.tree.visitors.PHPCheckContext;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.visitors.CheckDispatcher;
+import org.sonar.plugins.php.api.visitors.FileContent;
+import org.sonar.plugins.php.api.visitors.Issue;
+import org.sonar.plugins.php.api.visitors.PHPCheck;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysis of a file by a single check. The checks to run are given by the "check" parameter,
+ * which {@link BenchmarkRunner} sets to all the checks of {@link org.sonar.php.checks.CheckList} by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CheckBenchmark {
+
+  public static final String CHECK_PARAMETER = "check";
+
+  @Param({Fixtures.MEDIUM, Fixtures.LARGE})
+  public String fixture;
+
+  /**
+   * Fully qualified name of the check class.
+   */
+  @Param({})
+  public String check;
+
+  private final File file = new File("fixture.php");
+  private PHPCheck phpCheck;
+  private FileContent content;
+  private CompilationUnitTree tree;
+  private SymbolTable symbolTable;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    phpCheck = (PHPCheck) Class.forName(check).newInstance();
+    if (phpCheck instanceof CharsetAwareVisitor) {
+      ((CharsetAwareVisitor) phpCheck).setCharset(Charsets.UTF_8);
+    }
+    phpCheck.init();
+
+    content = new FileContent(Fixtures.content(fixture));
+    tree = (CompilationUnitTree) PHPParserBuilder.createParser(Charsets.UTF_8).parse(content.text());
+    symbolTable = SymbolTableImpl.create(tree);
+  }
+
+  @Benchmark
+  public List<Issue> analyze() {
+    return CheckDispatcher.analyze(phpCheck, new PHPCheckContext(file, tree, Suppliers.ofInstance(symbolTable), content));
+  }
+
+}
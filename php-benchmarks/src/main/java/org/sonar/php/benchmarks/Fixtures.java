@@ -0,0 +1,90 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.benchmarks;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * PHP sources used by the benchmarks.
+ */
+public final class Fixtures {
+
+  public static final String SMALL = "small";
+  public static final String MEDIUM = "medium";
+  public static final String LARGE = "large";
+  public static final String TEMPLATE = "template";
+
+  private static final int LARGE_FIXTURE_REPETITIONS = 30;
+  private static final int TEMPLATE_FIXTURE_REPETITIONS = 20;
+
+  private Fixtures() {
+  }
+
+  /**
+   * @param name {@link #SMALL}, {@link #MEDIUM}, {@link #LARGE}, the large fixture being made of the medium one repeated,
+   * or {@link #TEMPLATE}, a view template mostly made of inline HTML, repeated in the same way.
+   * Any other name is the path of a PHP file, e.g. from the its/sources corpus, given with "-p fixture=...".
+   */
+  public static String content(String name) {
+    if (!SMALL.equals(name) && !MEDIUM.equals(name) && !LARGE.equals(name) && !TEMPLATE.equals(name)) {
+      return file(new File(name));
+    }
+    if (LARGE.equals(name)) {
+      String medium = resource(MEDIUM);
+      String body = medium.substring(medium.indexOf("<?php") + "<?php".length());
+      StringBuilder sb = new StringBuilder(medium);
+      for (int i = 1; i < LARGE_FIXTURE_REPETITIONS; i++) {
+        sb.append('\n').append(body);
+      }
+      return sb.toString();
+    }
+    if (TEMPLATE.equals(name)) {
+      String template = resource(TEMPLATE);
+      StringBuilder sb = new StringBuilder(template);
+      for (int i = 1; i < TEMPLATE_FIXTURE_REPETITIONS; i++) {
+        sb.append(template);
+      }
+      return sb.toString();
+    }
+    return resource(name);
+  }
+
+  private static String file(File file) {
+    try {
+      return Files.toString(file, Charsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to read fixture " + file, e);
+    }
+  }
+
+  private static String resource(String name) {
+    try {
+      return Resources.toString(Resources.getResource(Fixtures.class, "/fixtures/" + name + ".php"), Charsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to read fixture " + name, e);
+    }
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.benchmarks;
+
+import com.google.common.base.Charsets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.symbols.SymbolTableImpl;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Symbol table of a file made of a single fluent chain of method calls, such as the ones of query builders:
+ * the time per call of the chain should not depend on its length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FluentChainBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int calls;
+
+  private CompilationUnitTree tree;
+
+  @Setup
+  public void setUp() {
+    tree = (CompilationUnitTree) PHPParserBuilder.createParser(Charsets.UTF_8).parse(fluentChain(calls));
+  }
+
+  static String fluentChain(int calls) {
+    StringBuilder sb = new StringBuilder("<?php\n$qb = new QueryBuilder();\n$qb");
+    for (int i = 0; i < calls; i++) {
+      sb.append("\n  ->where")
+        .append(i)
+        .append("($this->field")
+        .append(i)
+        .append(", self::VALUE)");
+    }
+    return sb.append(";\n").toString();
+  }
+
+  @Benchmark
+  public SymbolTable symbolTable() {
+    return SymbolTableImpl.create(tree);
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.benchmarks;
+
+import com.google.common.base.Charsets;
+import com.sonar.sslr.api.typed.ActionParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.php.highlighter.SourceFileOffsets;
+import org.sonar.php.highlighter.SyntaxHighlighterVisitor;
+import org.sonar.php.highlighter.SyntaxHighlightingData;
+import org.sonar.php.metrics.FileMeasures;
+import org.sonar.php.metrics.MetricsVisitor;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.symbols.SymbolTableImpl;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.visitors.FileContent;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phases of the analysis of a file which do not depend on the active rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrontendBenchmark {
+
+  @Param({Fixtures.SMALL, Fixtures.MEDIUM, Fixtures.LARGE, Fixtures.TEMPLATE})
+  public String fixture;
+
+  private final File file = new File("fixture.php");
+  private ActionParser<Tree> parser;
+  private FileContent content;
+  private CompilationUnitTree tree;
+  private SourceFileOffsets offsets;
+
+  @Setup
+  public void setUp() {
+    parser = PHPParserBuilder.createParser(Charsets.UTF_8);
+    content = new FileContent(Fixtures.content(fixture));
+    tree = (CompilationUnitTree) parser.parse(content.text());
+    offsets = new SourceFileOffsets(content);
+  }
+
+  @Benchmark
+  public Tree parse() {
+    return parser.parse(content.text());
+  }
+
+  @Benchmark
+  public SymbolTable symbolTable() {
+    return SymbolTableImpl.create(tree);
+  }
+
+  @Benchmark
+  public FileMeasures metrics() {
+    return new MetricsVisitor().getFileMeasures(file, tree, new NoOpFileLinesContext());
+  }
+
+  @Benchmark
+  public List<SyntaxHighlightingData> syntaxHighlighting() {
+    return SyntaxHighlighterVisitor.getHighlightData(tree, offsets);
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.benchmarks;
+
+import org.sonar.api.measures.FileLinesContext;
+
+/**
+ * Discards the values computed by the metrics visitor.
+ */
+class NoOpFileLinesContext implements FileLinesContext {
+
+  @Override
+  public void setIntValue(String metricKey, int line, int value) {
+    // values are not needed by the benchmarks
+  }
+
+  @Override
+  public Integer getIntValue(String metricKey, int line) {
+    return null;
+  }
+
+  @Override
+  public void setStringValue(String metricKey, int line, String value) {
+    // values are not needed by the benchmarks
+  }
+
+  @Override
+  public String getStringValue(String metricKey, int line) {
+    return null;
+  }
+
+  @Override
+  public void save() {
+    // values are not needed by the benchmarks
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.benchmarks;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.visitors.PHPTreeSubscriber;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the traversal of {@link PHPTreeSubscriber} with the former one: recursive, with a linear lookup
+ * of the kind of each node in the list of subscribed kinds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PHPTreeSubscriberBenchmark {
+
+  /**
+   * Kinds subscribed to by a typical metrics visitor.
+   */
+  private static final List<Kind> NODES_TO_VISIT = ImmutableList.of(
+    Kind.CLASS_DECLARATION,
+    Kind.INTERFACE_DECLARATION,
+    Kind.TRAIT_DECLARATION,
+    Kind.FUNCTION_DECLARATION,
+    Kind.FUNCTION_EXPRESSION,
+    Kind.METHOD_DECLARATION,
+    Kind.IF_STATEMENT,
+    Kind.ELSEIF_CLAUSE,
+    Kind.FOR_STATEMENT,
+    Kind.FOREACH_STATEMENT,
+    Kind.WHILE_STATEMENT,
+    Kind.DO_WHILE_STATEMENT,
+    Kind.CASE_CLAUSE,
+    Kind.CATCH_BLOCK,
+    Kind.CONDITIONAL_AND,
+    Kind.CONDITIONAL_OR,
+    Kind.CONDITIONAL_EXPRESSION,
+    Kind.RETURN_STATEMENT,
+    Kind.THROW_STATEMENT,
+    Kind.EXPRESSION_STATEMENT);
+
+  @Param({Fixtures.SMALL, Fixtures.MEDIUM, Fixtures.LARGE})
+  public String fixture;
+
+  private Tree tree;
+
+  @Setup
+  public void setUp() {
+    tree = PHPParserBuilder.createParser(Charsets.UTF_8).parse(Fixtures.content(fixture));
+  }
+
+  @Benchmark
+  public int subscriber() {
+    CountingSubscriber subscriber = new CountingSubscriber();
+    subscriber.scanTree(tree);
+    return subscriber.count;
+  }
+
+  @Benchmark
+  public int recursiveListLookup() {
+    RecursiveListLookup subscriber = new RecursiveListLookup();
+    subscriber.visit(tree);
+    return subscriber.count;
+  }
+
+  private static class CountingSubscriber extends PHPTreeSubscriber {
+    private int count = 0;
+
+    @Override
+    public List<Kind> nodesToVisit() {
+      return NODES_TO_VISIT;
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      count++;
+    }
+  }
+
+  private static class RecursiveListLookup {
+    private int count = 0;
+
+    void visit(Tree tree) {
+      if (NODES_TO_VISIT.contains(tree.getKind())) {
+        count++;
+      }
+      PHPTree phpTree = (PHPTree) tree;
+      if (!phpTree.isLeaf()) {
+        for (Iterator<Tree> iter = phpTree.childrenIterator(); iter.hasNext();) {
+          Tree next = iter.next();
+          if (next != null) {
+            visit(next);
+          }
+        }
+      }
+    }
+  }
+
+}
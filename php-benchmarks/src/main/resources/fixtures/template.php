@@ -0,0 +1,133 @@
+<!DOCTYPE html>
+<html lang="en">
+<head>
+  <meta charset="utf-8">
+  <meta name="viewport" content="width=device-width, initial-scale=1">
+  <title><?= $this->escape($page->title) ?> - Catalog</title>
+  <link rel="stylesheet" href="/assets/css/bootstrap.min.css">
+  <link rel="stylesheet" href="/assets/css/catalog.css">
+  <script src="/assets/js/jquery.min.js"></script>
+  <script type="text/javascript">
+    var config = { locale: "en", currency: "EUR", pageSize: 20 };
+    $(function () {
+      $(".product .add-to-cart").on("click", function (event) {
+        event.preventDefault();
+        $.post($(this).attr("href"), { quantity: 1 }, function (data) {
+          $("#cart-count").text(data.count);
+        });
+      });
+    });
+  </script>
+</head>
+<body class="catalog">
+  <nav class="navbar navbar-default">
+    <div class="container">
+      <div class="navbar-header">
+        <a class="navbar-brand" href="/">Catalog</a>
+      </div>
+      <ul class="nav navbar-nav">
+        <li><a href="/products">Products</a></li>
+        <li><a href="/categories">Categories</a></li>
+        <li><a href="/about">About us</a></li>
+        <li><a href="/contact">Contact</a></li>
+      </ul>
+      <ul class="nav navbar-nav navbar-right">
+        <li><a href="/cart">Cart <span id="cart-count" class="badge"><?= count($cart) ?></span></a></li>
+      </ul>
+    </div>
+  </nav>
+  <div class="container">
+    <div class="row">
+      <aside class="col-md-3">
+        <h4>Categories</h4>
+        <ul class="list-group">
+          <?php foreach ($categories as $category): ?>
+          <li class="list-group-item">
+            <a href="/categories/<?= $category->id ?>"><?= $this->escape($category->name) ?></a>
+          </li>
+          <?php endforeach; ?>
+        </ul>
+        <div class="panel panel-default">
+          <div class="panel-heading">Newsletter</div>
+          <div class="panel-body">
+            <form action="/newsletter" method="post">
+              <div class="form-group">
+                <label for="email">Email address</label>
+                <input type="email" class="form-control" id="email" name="email" placeholder="you@example.com">
+              </div>
+              <button type="submit" class="btn btn-default">Subscribe</button>
+            </form>
+          </div>
+        </div>
+      </aside>
+      <main class="col-md-9">
+        <h1><?= $this->escape($page->title) ?></h1>
+        <p class="lead">
+          Browse our selection of products, carefully chosen by our team. Prices include taxes, and the delivery
+          is free for all the orders above 50 euros. Products can be returned within 30 days after the delivery.
+        </p>
+        <div class="row">
+          <?php foreach ($products as $product) { ?>
+          <div class="col-sm-6 col-md-4 product">
+            <div class="thumbnail">
+              <img src="/images/products/<?= $product->image ?>" alt="<?= $this->escape($product->name) ?>">
+              <div class="caption">
+                <h3><?= $this->escape($product->name) ?></h3>
+                <p class="description">
+                  <?php if ($product->discount > 0) { ?>
+                  <span class="label label-danger">-<?= $product->discount ?>%</span>
+                  <?php } ?>
+                  <?= $this->escape($product->summary) ?>
+                </p>
+                <p class="price"><?= number_format($product->price, 2) ?> &euro;</p>
+                <p>
+                  <a href="/cart/add/<?= $product->id ?>" class="btn btn-primary add-to-cart" role="button">Add to cart</a>
+                  <a href="/products/<?= $product->id ?>" class="btn btn-default" role="button">Details</a>
+                </p>
+              </div>
+            </div>
+          </div>
+          <?php } ?>
+        </div>
+        <nav>
+          <ul class="pagination">
+            <li class="<?= $page->number == 1 ? 'disabled' : '' ?>"><a href="?page=<?= $page->number - 1 ?>">&laquo;</a></li>
+            <li class="active"><a href="#"><?= $page->number ?></a></li>
+            <li><a href="?page=<?= $page->number + 1 ?>">&raquo;</a></li>
+          </ul>
+        </nav>
+      </main>
+    </div>
+  </div>
+  <footer class="footer">
+    <div class="container">
+      <div class="row">
+        <div class="col-md-4">
+          <h5>Customer service</h5>
+          <ul class="list-unstyled">
+            <li><a href="/help/orders">Orders and delivery</a></li>
+            <li><a href="/help/returns">Returns and refunds</a></li>
+            <li><a href="/help/payment">Payment methods</a></li>
+          </ul>
+        </div>
+        <div class="col-md-4">
+          <h5>About</h5>
+          <ul class="list-unstyled">
+            <li><a href="/about">Our story</a></li>
+            <li><a href="/jobs">Jobs</a></li>
+            <li><a href="/press">Press</a></li>
+          </ul>
+        </div>
+        <div class="col-md-4">
+          <h5>Follow us</h5>
+          <ul class="list-inline">
+            <li><a href="https://twitter.com/example">Twitter</a></li>
+            <li><a href="https://facebook.com/example">Facebook</a></li>
+          </ul>
+        </div>
+      </div>
+      <p class="text-muted">&copy; <?= date('Y') ?> Catalog. All rights reserved.</p>
+    </div>
+  </footer>
+</body>
+</html>
@@ -27,6 +27,7 @@ import org.sonar.plugins.php.api.tree.statement.BlockTree;
 import org.sonar.plugins.php.api.tree.statement.IfStatementTree;
 import org.sonar.plugins.php.api.tree.statement.StatementTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.api.visitors.SinglePassVisitorCheck;
 import org.sonar.squidbridge.annotations.ActivatedByDefault;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
@@ -41,7 +42,7 @@ import javax.annotation.Nullable;
 @ActivatedByDefault
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.READABILITY)
 @SqaleConstantRemediation("5min")
-public class CollapsibleIfStatementCheck extends PHPVisitorCheck {
+public class CollapsibleIfStatementCheck extends PHPVisitorCheck implements SinglePassVisitorCheck {
 
   public static final String KEY = "S1066";
   private static final String MESSAGE = "Merge this if statement with the enclosing one.";
@@ -19,21 +19,16 @@
  */
 package org.sonar.php.checks;
 
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
-import org.sonar.php.api.CharsetAwareVisitor;
 import org.sonar.php.parser.LexicalConstant;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -43,7 +38,7 @@ import java.util.regex.Pattern;
   priority = Priority.BLOCKER)
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.SECURITY_FEATURES)
 @SqaleConstantRemediation("5min")
-public class FileHeaderCheck extends PHPVisitorCheck implements CharsetAwareVisitor {
+public class FileHeaderCheck extends PHPVisitorCheck {
 
   public static final String KEY = "S1451";
   private static final String MESSAGE = "Add or update the header of this file.";
@@ -57,14 +52,8 @@ public class FileHeaderCheck extends PHPVisitorCheck implements CharsetAwareVisi
     type = "TEXT")
   public String headerFormat = DEFAULT_HEADER_FORMAT;
 
-  private Charset charset;
   private String[] expectedLines;
 
-  @Override
-  public void setCharset(Charset charset) {
-    this.charset = charset;
-  }
-
   @Override
   public void init() {
     expectedLines = headerFormat.split("(?:\r)?\n|\r");
@@ -72,12 +61,7 @@ public class FileHeaderCheck extends PHPVisitorCheck implements CharsetAwareVisi
 
   @Override
   public void visitCompilationUnit(CompilationUnitTree tree) {
-    List<String> lines;
-    try {
-      lines = Files.readLines(context().file(), charset);
-    } catch (IOException e) {
-      throw new IllegalStateException("Check S1451: Can't read the file", e);
-    }
+    List<String> lines = context().fileContent().lines();
 
     if (!lines.isEmpty() && !matches(expectedLines, lines)) {
       context().newIssue(this, MESSAGE);
@@ -86,18 +70,17 @@ public class FileHeaderCheck extends PHPVisitorCheck implements CharsetAwareVisi
 
   private static boolean matches(String[] expectedLines, List<String> lines) {
     boolean result;
+    int firstLine = 0;
 
     if (PHP_OPEN_TAG.matcher(lines.get(0)).matches()) {
-      lines.remove(0);
+      firstLine = 1;
     }
 
-    if (expectedLines.length <= lines.size()) {
+    if (expectedLines.length <= lines.size() - firstLine) {
       result = true;
 
-      Iterator<String> it = lines.iterator();
-      for (String expectedLine : expectedLines) {
-        String line = it.next();
-        if (!line.equals(expectedLine)) {
+      for (int i = 0; i < expectedLines.length; i++) {
+        if (!lines.get(firstLine + i).equals(expectedLines[i])) {
           result = false;
           break;
         }
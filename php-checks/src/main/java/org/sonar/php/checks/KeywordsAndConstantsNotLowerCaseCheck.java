@@ -30,6 +30,7 @@ import org.sonar.plugins.php.api.tree.Tree.Kind;
 import org.sonar.plugins.php.api.tree.expression.LiteralTree;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.api.visitors.SinglePassVisitorCheck;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
@@ -43,7 +44,7 @@ import java.util.regex.Pattern;
   tags = {Tags.CONVENTION, Tags.PSR2})
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.READABILITY)
 @SqaleConstantRemediation("1min")
-public class KeywordsAndConstantsNotLowerCaseCheck extends PHPVisitorCheck {
+public class KeywordsAndConstantsNotLowerCaseCheck extends PHPVisitorCheck implements SinglePassVisitorCheck {
 
   public static final String KEY = "S1781";
   private static final String MESSAGE = "Write this \"%s\" %s in lower case.";
@@ -64,7 +65,7 @@ public class KeywordsAndConstantsNotLowerCaseCheck extends PHPVisitorCheck {
   public void visitToken(SyntaxToken token) {
     super.visitToken(token);
 
-    if (KEYWORDS.contains(token.text().toLowerCase(Locale.ENGLISH))) {
+    if (!token.is(Kind.INLINE_HTML_TOKEN) && KEYWORDS.contains(token.text().toLowerCase(Locale.ENGLISH))) {
       check(token, token.text(), "keyword");
     }
   }
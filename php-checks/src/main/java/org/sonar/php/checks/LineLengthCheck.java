@@ -19,19 +19,15 @@
  */
 package org.sonar.php.checks;
 
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
-import org.sonar.php.api.CharsetAwareVisitor;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.io.IOException;
-import java.nio.charset.Charset;
 import java.util.List;
 
 @Rule(
@@ -41,33 +37,21 @@ import java.util.List;
   tags = {Tags.CONVENTION})
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.READABILITY)
 @SqaleConstantRemediation("1min")
-public class LineLengthCheck extends PHPVisitorCheck implements CharsetAwareVisitor {
+public class LineLengthCheck extends PHPVisitorCheck {
 
   public static final String KEY = "S103";
   private static final String MESSAGE = "Split this %s characters long line (which is greater than %s authorized).";
 
   public static final int DEFAULT = 120;
-  private Charset charset;
 
   @RuleProperty(
     key = "maximumLineLength",
     defaultValue = "" + DEFAULT)
   public int maximumLineLength = DEFAULT;
 
-  @Override
-  public void setCharset(Charset charset) {
-    this.charset = charset;
-  }
-
   @Override
   public void visitCompilationUnit(CompilationUnitTree tree) {
-    List<String> lines;
-
-    try {
-      lines = Files.readLines(context().file(), charset);
-    } catch (IOException e) {
-      throw new IllegalStateException("Check S103: Can't read the file", e);
-    }
+    List<String> lines = context().fileContent().lines();
 
     for (int i = 0; i < lines.size(); i++) {
       String line = lines.get(i);
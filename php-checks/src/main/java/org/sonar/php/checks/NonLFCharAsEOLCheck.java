@@ -19,21 +19,14 @@
  */
 package org.sonar.php.checks;
 
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
-import org.sonar.php.api.CharsetAwareVisitor;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.IOException;
-import java.nio.charset.Charset;
-
 @Rule(
   key = NonLFCharAsEOLCheck.KEY,
   name = "Only LF character (Unix-like) should be used to end lines",
@@ -41,34 +34,23 @@ import java.nio.charset.Charset;
   tags = {Tags.CONVENTION, Tags.PSR2})
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.READABILITY)
 @SqaleConstantRemediation("2min")
-public class NonLFCharAsEOLCheck extends PHPVisitorCheck implements CharsetAwareVisitor {
+public class NonLFCharAsEOLCheck extends PHPVisitorCheck {
 
   public static final String KEY = "S1779";
   private static final String MESSAGE = "Replace all non line feed end of line characters in this file \"%s\" by LF.";
 
-  private Charset charset;
-
-  @Override
-  public void setCharset(Charset charset) {
-    this.charset = charset;
-  }
-
 
   @Override
   public void visitCompilationUnit(CompilationUnitTree tree) {
-    File file = context().file();
-    try (BufferedReader reader = Files.newReader(file, charset)){
-      int c;
-      while ((c = reader.read()) != -1) {
-
-        if (c == '\r' || c == '\u2028' || c == '\u2029') {
-          String message = String.format(MESSAGE, file.getName());
-          context().newIssue(this, message);
-          break;
-        }
+    String text = context().fileContent().text();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+
+      if (c == '\r' || c == '\u2028' || c == '\u2029') {
+        String message = String.format(MESSAGE, context().file().getName());
+        context().newIssue(this, message);
+        break;
       }
-    } catch (IOException e) {
-      throw new IllegalStateException("Check S1779: Can't read the file", e);
     }
   }
 
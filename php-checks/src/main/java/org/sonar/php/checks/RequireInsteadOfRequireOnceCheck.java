@@ -26,6 +26,7 @@ import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.plugins.php.api.tree.expression.FunctionCallTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.api.visitors.SinglePassVisitorCheck;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
@@ -38,7 +39,7 @@ import java.util.List;
   tags = {Tags.BUG})
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.LOGIC_RELIABILITY)
 @SqaleConstantRemediation("5min")
-public class RequireInsteadOfRequireOnceCheck extends PHPVisitorCheck {
+public class RequireInsteadOfRequireOnceCheck extends PHPVisitorCheck implements SinglePassVisitorCheck {
 
   public static final String KEY = "S2003";
   private static final String MESSAGE = "Replace \"%s\" with \"%s\".";
@@ -19,21 +19,15 @@
  */
 package org.sonar.php.checks;
 
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
-import org.sonar.php.api.CharsetAwareVisitor;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 import org.sonar.squidbridge.annotations.ActivatedByDefault;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.util.List;
-
 @Rule(
   key = TabCharacterCheck.KEY,
   name = "Tabulation characters should not be used",
@@ -42,31 +36,15 @@ import java.util.List;
 @ActivatedByDefault
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.READABILITY)
 @SqaleConstantRemediation("2min")
-public class TabCharacterCheck extends PHPVisitorCheck implements CharsetAwareVisitor {
+public class TabCharacterCheck extends PHPVisitorCheck {
 
   public static final String KEY = "S105";
   private static final String MESSAGE = "Replace all tab characters in this file by sequences of white-spaces.";
 
-  private Charset charset;
-
-  @Override
-  public void setCharset(Charset charset) {
-    this.charset = charset;
-  }
-
   @Override
   public void visitCompilationUnit(CompilationUnitTree tree) {
-    List<String> lines;
-    try {
-      lines = Files.readLines(context().file(), charset);
-    } catch (IOException e) {
-      throw new IllegalStateException("Check S105: Can't read the file", e);
-    }
-    for (String line : lines) {
-      if (line.contains("\t")) {
-        context().newIssue(this, MESSAGE);
-        break;
-      }
+    if (context().fileContent().text().indexOf('\t') != -1) {
+      context().newIssue(this, MESSAGE);
     }
   }
 
@@ -19,19 +19,15 @@
  */
 package org.sonar.php.checks;
 
-import com.google.common.io.Files;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
-import org.sonar.php.api.CharsetAwareVisitor;
 import org.sonar.php.parser.LexicalConstant;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.io.IOException;
-import java.nio.charset.Charset;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -42,27 +38,16 @@ import java.util.regex.Pattern;
   tags = {Tags.CONVENTION, Tags.PSR2})
 @SqaleSubCharacteristic(RulesDefinition.SubCharacteristics.READABILITY)
 @SqaleConstantRemediation("1min")
-public class TrailingWhitespaceCheck extends PHPVisitorCheck implements CharsetAwareVisitor {
+public class TrailingWhitespaceCheck extends PHPVisitorCheck {
 
   public static final String KEY = "S1131";
   private static final String MESSAGE = "Remove the useless trailing whitespaces at the end of this line.";
 
-  private Charset charset;
   private static final Pattern WHITESPACE_PATTERN = Pattern.compile("[" + LexicalConstant.WHITESPACE + "]");
 
-  @Override
-  public void setCharset(Charset charset) {
-    this.charset = charset;
-  }
-
   @Override
   public void visitCompilationUnit(CompilationUnitTree tree) {
-    List<String> lines;
-    try {
-      lines = Files.readLines(context().file(), charset);
-    } catch (IOException e) {
-      throw new IllegalStateException("Check S1131: Can't read the file", e);
-    }
+    List<String> lines = context().fileContent().lines();
     for (int i = 0; i < lines.size(); i++) {
       String line = lines.get(i);
       if (line.length() > 0 && WHITESPACE_PATTERN.matcher(line.subSequence(line.length() - 1, line.length())).matches()) {
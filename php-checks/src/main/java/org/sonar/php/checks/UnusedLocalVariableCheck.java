@@ -41,8 +41,9 @@ import org.sonar.squidbridge.annotations.ActivatedByDefault;
 import org.sonar.squidbridge.annotations.SqaleConstantRemediation;
 import org.sonar.squidbridge.annotations.SqaleSubCharacteristic;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 @Rule(
   key = UnusedLocalVariableCheck.KEY,
@@ -57,7 +58,7 @@ public class UnusedLocalVariableCheck extends PHPVisitorCheck {
   public static final String KEY = "S1481";
   private static final String MESSAGE = "Remove this unused \"%s\" local variable.";
 
-  private List<IdentifierTree> exclusions = new ArrayList<>();
+  private Set<IdentifierTree> exclusions = Collections.newSetFromMap(new IdentityHashMap<IdentifierTree, Boolean>());
 
   @Override
   public void visitFunctionExpression(FunctionExpressionTree tree) {
@@ -21,6 +21,7 @@ package org.sonar.php.checks.formatting;
 
 import com.google.common.base.Preconditions;
 import org.sonar.php.api.PHPPunctuator;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
 
 public class TokenUtils {
@@ -39,6 +40,10 @@ public class TokenUtils {
    * Return true if the given token is one of the given types.
    */
   public static boolean isType(SyntaxToken token, PHPPunctuator... types) {
+    if (token.is(Kind.INLINE_HTML_TOKEN)) {
+      // never a punctuator, and its text would be copied from the source on each call
+      return false;
+    }
     boolean isOneOfType = false;
     for (PHPPunctuator type : types) {
       isOneOfType |= type.getValue().equals(token.text());
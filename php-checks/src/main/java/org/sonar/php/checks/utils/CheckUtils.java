@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.php.tree.impl.lexical.InternalSyntaxToken;
 import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 import org.sonar.plugins.php.api.tree.declaration.FunctionDeclarationTree;
@@ -105,8 +106,13 @@ public class CheckUtils {
 
   public static boolean isClosingTag(SyntaxToken token) {
     if (token.is(Kind.INLINE_HTML_TOKEN)) {
-      String text = token.text().trim();
-      return "?>".equals(text) || "%>".equals(text);
+      // inline HTML tokens start with "?>" or "%>", whose trailing whitespaces are skipped without copying the HTML
+      InternalSyntaxToken internalToken = (InternalSyntaxToken) token;
+      int end = internalToken.length();
+      while (end > 2 && internalToken.charAt(end - 1) <= ' ') {
+        end--;
+      }
+      return end == 2;
     }
     return false;
   }
@@ -20,18 +20,23 @@
 package org.sonar.php.checks.utils;
 
 import org.apache.commons.lang.ArrayUtils;
+import org.sonar.php.tree.impl.lexical.TokenTable;
 import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
-import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 
-public class TokenVisitor extends PHPVisitorCheck {
+/**
+ * View over the tokens of a tree, inline HTML tokens excepted, backed by the {@link TokenTable} of the file.
+ */
+public class TokenVisitor {
 
-  List<SyntaxToken> tokens = new ArrayList<>();
+  private final TokenTable table;
+  private final int first;
+  private final int last;
 
   public static List<SyntaxToken> tokens(Tree tree) {
     TokenVisitor visitor = new TokenVisitor(tree);
@@ -39,25 +44,34 @@ public class TokenVisitor extends PHPVisitorCheck {
   }
 
   public TokenVisitor(Tree tree) {
-    this.scan(tree);
+    this.table = TokenTable.of(tree);
+    SyntaxToken firstToken = TokenTable.firstToken(tree);
+    SyntaxToken lastToken = TokenTable.lastToken(tree);
+    if (firstToken == null || lastToken == null) {
+      this.first = 0;
+      this.last = -1;
+    } else {
+      this.first = table.indexOf(firstToken);
+      this.last = table.indexOf(lastToken);
+    }
   }
 
   private List<SyntaxToken> getTokens() {
-    return tokens;
-  }
-
-  @Override
-  public void visitToken(SyntaxToken token) {
-    super.visitToken(token);
-    if (token.is(Kind.TOKEN)) {
-      tokens.add(token);
+    List<SyntaxToken> tokens = new ArrayList<>();
+    for (int i = first; i <= last; i++) {
+      SyntaxToken token = table.get(i);
+      if (token.is(Kind.TOKEN)) {
+        tokens.add(token);
+      }
     }
+    return tokens;
   }
 
   @Nullable
   public SyntaxToken tokenByValue(String... tokenValues) {
-    for (SyntaxToken token : tokens) {
-      if (ArrayUtils.contains(tokenValues, token.text())) {
+    for (int i = first; i <= last; i++) {
+      SyntaxToken token = table.get(i);
+      if (token.is(Kind.TOKEN) && ArrayUtils.contains(tokenValues, token.text())) {
         return token;
       }
     }
@@ -65,28 +79,34 @@ public class TokenVisitor extends PHPVisitorCheck {
   }
 
   public SyntaxToken prevToken(SyntaxToken token) {
-    for (int i = 0; i < tokens.size(); i++) {
-      if (token.equals(tokens.get(i))) {
-        if (i > 0) {
-          return tokens.get(i - 1);
-        } else {
-          break;
-        }
+    int index = indexOf(token);
+    if (index < 0) {
+      return null;
+    }
+    for (int i = index - 1; i >= first; i--) {
+      if (table.get(i).is(Kind.TOKEN)) {
+        return table.get(i);
       }
     }
     return null;
   }
 
   public SyntaxToken nextToken(SyntaxToken token) {
-    for (int i = 0; i < tokens.size(); i++) {
-      if (token.equals(tokens.get(i))) {
-        if (i < tokens.size() - 1) {
-          return tokens.get(i + 1);
-        } else {
-          break;
-        }
+    int index = indexOf(token);
+    if (index < 0) {
+      return null;
+    }
+    for (int i = index + 1; i <= last; i++) {
+      if (table.get(i).is(Kind.TOKEN)) {
+        return table.get(i);
       }
     }
     return null;
   }
+
+  private int indexOf(SyntaxToken token) {
+    int index = table.indexOf(token);
+    return index >= first && index <= last && token.is(Kind.TOKEN) ? index : -1;
+  }
+
 }
@@ -0,0 +1,72 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.checks.utils;
+
+import com.google.common.base.Charsets;
+import org.junit.Test;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.php.api.tree.statement.BlockTree;
+import org.sonar.plugins.php.api.tree.statement.IfStatementTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class TokenVisitorTest {
+
+  private final CompilationUnitTree tree = (CompilationUnitTree) PHPParserBuilder.createParser(Charsets.UTF_8)
+    .parse("<?php if ($a) { ?> html <?php f(); } $b;");
+  private final IfStatementTree ifStatement = (IfStatementTree) tree.script().statements().get(0);
+
+  @Test
+  public void tokens_of_subtree() throws Exception {
+    List<String> values = new ArrayList<>();
+    for (SyntaxToken token : TokenVisitor.tokens(ifStatement)) {
+      values.add(token.text());
+    }
+    assertThat(values).containsExactly("if", "(", "$a", ")", "{", "f", "(", ")", ";", "}");
+  }
+
+  @Test
+  public void neighbours_skip_inline_html() throws Exception {
+    TokenVisitor visitor = new TokenVisitor(ifStatement);
+    BlockTree block = (BlockTree) ifStatement.statements().get(0);
+    SyntaxToken functionName = visitor.tokenByValue("f");
+
+    assertThat(visitor.nextToken(block.openCurlyBraceToken())).isSameAs(functionName);
+    assertThat(visitor.prevToken(functionName)).isSameAs(block.openCurlyBraceToken());
+    assertThat(visitor.prevToken(block.closeCurlyBraceToken()).text()).isEqualTo(";");
+  }
+
+  @Test
+  public void null_outside_of_subtree() throws Exception {
+    TokenVisitor visitor = new TokenVisitor(ifStatement);
+    SyntaxToken closeCurlyBrace = ((BlockTree) ifStatement.statements().get(0)).closeCurlyBraceToken();
+
+    assertThat(visitor.prevToken(ifStatement.ifToken())).isNull();
+    assertThat(visitor.nextToken(closeCurlyBrace)).isNull();
+    assertThat(visitor.nextToken(tree.eofToken())).isNull();
+    assertThat(visitor.tokenByValue("$b")).isNull();
+  }
+
+}
@@ -19,10 +19,13 @@
  */
 package org.sonar.php;
 
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.sonar.sslr.api.typed.ActionParser;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.php.api.CharsetAwareVisitor;
+import org.sonar.php.duplications.CpdToken;
+import org.sonar.php.duplications.CpdVisitor;
 import org.sonar.php.highlighter.SyntaxHighlighterVisitor;
 import org.sonar.php.highlighter.SymbolHighlighter;
 import org.sonar.php.highlighter.SymbolHighlightingData;
@@ -31,13 +34,19 @@ import org.sonar.php.highlighter.SourceFileOffsets;
 import org.sonar.php.metrics.FileMeasures;
 import org.sonar.php.metrics.MetricsVisitor;
 import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.profiling.AnalysisProfiler;
+import org.sonar.php.profiling.AnalysisProfiler.Snapshot;
 import org.sonar.php.tree.symbols.SymbolTableImpl;
-import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.php.tree.visitors.PHPCheckContext;
+import org.sonar.php.utils.AnalysisInterruptedException;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.visitors.CheckDispatcher;
+import org.sonar.plugins.php.api.visitors.FileContent;
 import org.sonar.plugins.php.api.visitors.Issue;
 import org.sonar.plugins.php.api.visitors.PHPCheck;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.util.List;
@@ -46,17 +55,29 @@ public class PHPAnalyzer {
 
   private final ActionParser<Tree> parser;
   private final ImmutableList<PHPCheck> checks;
+  private final CheckDispatcher checkDispatcher;
   private final Charset charset;
+  private final AnalysisProfiler profiler;
 
   private CompilationUnitTree currentFileTree;
   private File currentFile;
-  private SymbolTable currentFileSymbolTable;
+  private FileContent currentFileContent;
+  private Supplier<SymbolTableImpl> currentFileSymbolTable;
   private SourceFileOffsets currentFileOffsets;
 
   public PHPAnalyzer(Charset charset, ImmutableList<PHPCheck> checks) {
+    this(charset, checks, null);
+  }
+
+  /**
+   * @param profiler when not null, records the cost of each phase and of each check. Checks are then run
+   * one after the other, instead of sharing the walk of the tree, so that their costs can be told apart.
+   */
+  public PHPAnalyzer(Charset charset, ImmutableList<PHPCheck> checks, @Nullable AnalysisProfiler profiler) {
     this.parser = PHPParserBuilder.createParser(charset);
     this.checks = checks;
     this.charset = charset;
+    this.profiler = profiler;
 
     for (PHPCheck check : checks) {
       if (check instanceof CharsetAwareVisitor) {
@@ -64,33 +85,97 @@ public class PHPAnalyzer {
       }
       check.init();
     }
+    this.checkDispatcher = new CheckDispatcher(checks);
   }
 
   public void nextFile(File file) {
+    nextFile(file, FileContent.read(file, charset));
+  }
+
+  /**
+   * @param content content of the file, already decoded with the charset of this analyzer
+   */
+  public void nextFile(File file, FileContent content) {
     currentFile = file;
-    currentFileTree = (CompilationUnitTree) parser.parse(file);
-    currentFileSymbolTable = SymbolTableImpl.create(currentFileTree);
-    currentFileOffsets = new SourceFileOffsets(currentFile, charset);
+    currentFileContent = content;
+    Snapshot start = startProfiling();
+    currentFileTree = (CompilationUnitTree) parser.parse(currentFileContent.text());
+    stopProfiling(AnalysisProfiler.PARSING, start);
+    if (profiler != null) {
+      profiler.count(AnalysisProfiler.PARSING, PHPParserBuilder.backtracks(parser));
+    }
+    AnalysisInterruptedException.throwIfInterrupted();
+
+    currentFileSymbolTable = PHPCheckContext.lazySymbolTable(currentFileTree);
+    if (profiler != null) {
+      // built upfront, so that its cost is not attributed to the first check needing it
+      start = profiler.start();
+      currentFileSymbolTable.get();
+      profiler.stop(AnalysisProfiler.SYMBOL_TABLE, start);
+    }
+
+    currentFileOffsets = new SourceFileOffsets(currentFileContent);
   }
 
   public List<Issue> analyze() {
+    if (profiler == null) {
+      return checkDispatcher.analyze(currentFile, currentFileTree, currentFileSymbolTable, currentFileContent);
+    }
+
     ImmutableList.Builder<Issue> issuesBuilder = ImmutableList.builder();
     for (PHPCheck check : checks) {
-      issuesBuilder.addAll(check.analyze(currentFile, currentFileTree, currentFileSymbolTable));
+      AnalysisInterruptedException.throwIfInterrupted();
+      Snapshot start = profiler.start();
+      issuesBuilder.addAll(CheckDispatcher.analyze(check, newContext()));
+      profiler.stop(check.getClass().getName(), start);
     }
-
     return issuesBuilder.build();
   }
 
   public FileMeasures computeMeasures(FileLinesContext fileLinesContext) {
-    return new MetricsVisitor().getFileMeasures(currentFile, currentFileTree, fileLinesContext);
+    AnalysisInterruptedException.throwIfInterrupted();
+    Snapshot start = startProfiling();
+    FileMeasures measures = new MetricsVisitor().getFileMeasures(newContext(), fileLinesContext);
+    stopProfiling(AnalysisProfiler.METRICS, start);
+    return measures;
+  }
+
+  public List<CpdToken> computeCpdTokens() {
+    Snapshot start = startProfiling();
+    List<CpdToken> tokens = CpdVisitor.getTokens(currentFileTree);
+    stopProfiling(AnalysisProfiler.CPD_TOKENS, start);
+    return tokens;
   }
 
   public List<SyntaxHighlightingData> getSyntaxHighlighting() {
-    return SyntaxHighlighterVisitor.getHighlightData(currentFileTree, currentFileOffsets);
+    Snapshot start = startProfiling();
+    List<SyntaxHighlightingData> highlighting = SyntaxHighlighterVisitor.getHighlightData(currentFileTree, currentFileOffsets);
+    stopProfiling(AnalysisProfiler.SYNTAX_HIGHLIGHTING, start);
+    return highlighting;
   }
 
   public List<SymbolHighlightingData> getSymbolHighlighting() {
-    return SymbolHighlighter.getHighlightData(currentFileSymbolTable, currentFileOffsets);
+    Snapshot start = startProfiling();
+    List<SymbolHighlightingData> highlighting = SymbolHighlighter.getHighlightData(currentFileSymbolTable.get(), currentFileOffsets);
+    stopProfiling(AnalysisProfiler.SYMBOL_HIGHLIGHTING, start);
+    return highlighting;
+  }
+
+  /**
+   * Contexts of the current file share its content and its symbol table.
+   */
+  private PHPCheckContext newContext() {
+    return new PHPCheckContext(currentFile, currentFileTree, currentFileSymbolTable, currentFileContent);
+  }
+
+  @Nullable
+  private Snapshot startProfiling() {
+    return profiler == null ? null : profiler.start();
+  }
+
+  private void stopProfiling(String name, @Nullable Snapshot start) {
+    if (profiler != null && start != null) {
+      profiler.stop(name, start);
+    }
   }
 }
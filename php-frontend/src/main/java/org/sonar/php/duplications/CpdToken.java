@@ -0,0 +1,51 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.duplications;
+
+/**
+ * Token of a file as seen by the copy-paste detection: literals are normalized, so that code differing only by their
+ * values is still reported as duplicated.
+ */
+public class CpdToken {
+
+  private final String value;
+  private final int line;
+
+  public CpdToken(String value, int line) {
+    this.value = value;
+    this.line = line;
+  }
+
+  public String value() {
+    return value;
+  }
+
+  public int line() {
+    return line;
+  }
+
+  @Override
+  public String toString() {
+    return "CpdToken{" +
+      "value='" + value + '\'' +
+      ", line=" + line +
+      '}';
+  }
+}
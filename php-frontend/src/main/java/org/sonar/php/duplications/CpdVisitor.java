@@ -0,0 +1,114 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.duplications;
+
+import org.sonar.php.tree.impl.lexical.InternalSyntaxToken;
+import org.sonar.plugins.php.api.tree.ScriptTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.expression.ExpandableStringLiteralTree;
+import org.sonar.plugins.php.api.tree.expression.LiteralTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.php.api.tree.statement.UseStatementTree;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Produces the tokens used for copy-paste detection from the syntax tree of a file: string and numeric literals are
+ * normalized, and use statements are left out as they are expected to be similar from one file to another. Inline HTML
+ * tokens are replaced by a hash of their text, so that the tokens kept until copy-paste detection runs do not retain
+ * the HTML of templates.
+ */
+public class CpdVisitor extends PHPVisitorCheck {
+
+  public static final String NORMALIZED_CHARACTER_LITERAL = "$CHARS";
+  public static final String NORMALIZED_NUMERIC_LITERAL = "$NUMBER";
+  public static final String INLINE_HTML_PREFIX = "$HTML";
+
+  private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+  private static final long HASH_PRIME = 0x100000001b3L;
+
+  private final List<CpdToken> tokens = new ArrayList<>();
+
+  private CpdVisitor() {
+  }
+
+  public static List<CpdToken> getTokens(Tree tree) {
+    CpdVisitor visitor = new CpdVisitor();
+    tree.accept(visitor);
+    return visitor.tokens;
+  }
+
+  @Override
+  public void visitScript(ScriptTree tree) {
+    // ignore opening tag
+    scan(tree.statements());
+  }
+
+  @Override
+  public void visitUseStatement(UseStatementTree tree) {
+    // ignored
+  }
+
+  @Override
+  public void visitLiteral(LiteralTree tree) {
+    if (tree.is(Kind.NUMERIC_LITERAL)) {
+      addToken(NORMALIZED_NUMERIC_LITERAL, tree.token());
+    } else if (tree.is(Kind.REGULAR_STRING_LITERAL, Kind.HEREDOC_LITERAL)) {
+      addToken(NORMALIZED_CHARACTER_LITERAL, tree.token());
+    } else {
+      super.visitLiteral(tree);
+    }
+  }
+
+  @Override
+  public void visitExpandableStringLiteral(ExpandableStringLiteralTree tree) {
+    addToken(NORMALIZED_CHARACTER_LITERAL, tree.openDoubleQuoteToken());
+  }
+
+  @Override
+  public void visitToken(SyntaxToken token) {
+    InternalSyntaxToken internalToken = (InternalSyntaxToken) token;
+    if (internalToken.is(Kind.INLINE_HTML_TOKEN)) {
+      addToken(INLINE_HTML_PREFIX + Long.toHexString(hash(internalToken)), token);
+    } else if (!internalToken.isEOF()) {
+      // the text of the other tokens is materialized here, and retained by the CPD tokens until copy-paste detection
+      addToken(token.text(), token);
+    }
+  }
+
+  /**
+   * 64-bit FNV-1a hash of the text of the token, read without materializing it.
+   */
+  private static long hash(InternalSyntaxToken token) {
+    long hash = HASH_OFFSET;
+    for (int i = 0; i < token.length(); i++) {
+      hash = (hash ^ token.charAt(i)) * HASH_PRIME;
+    }
+    return hash;
+  }
+
+  private void addToken(String value, SyntaxToken token) {
+    tokens.add(new CpdToken(value, token.line()));
+  }
+
+}
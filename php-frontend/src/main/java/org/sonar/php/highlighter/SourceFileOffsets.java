@@ -19,63 +19,37 @@
  */
 package org.sonar.php.highlighter;
 
-import com.google.common.collect.Lists;
-import com.google.common.io.Files;
 import com.sonar.sslr.api.Token;
+import org.sonar.php.tree.impl.lexical.InternalSyntaxToken;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.php.api.visitors.FileContent;
 
 import java.io.File;
-import java.io.IOException;
 import java.nio.charset.Charset;
-import java.util.List;
 
 public class SourceFileOffsets {
-  private final int length;
-  private final List<Integer> lineStartOffsets = Lists.newArrayList();
+  private final FileContent content;
 
-  public SourceFileOffsets(String content) {
-    this.length = content.length();
-    initOffsets(content);
-  }
-
-  public SourceFileOffsets(File file, Charset charset) {
-    this(fileContent(file, charset));
+  public SourceFileOffsets(FileContent content) {
+    this.content = content;
   }
 
-  private static String fileContent(File file, Charset charset) {
-    String fileContent;
-    try {
-      fileContent = Files.toString(file, charset);
-    } catch (IOException e) {
-      throw new IllegalStateException("Could not read " + file, e);
-    }
-    return fileContent;
+  public SourceFileOffsets(String content) {
+    this(new FileContent(content));
   }
 
-  private void initOffsets(String toParse) {
-    lineStartOffsets.add(0);
-    int i = 0;
-    while (i < length) {
-      if (toParse.charAt(i) == '\n' || toParse.charAt(i) == '\r') {
-        int nextLineStartOffset = i + 1;
-        if (i < (length - 1) && toParse.charAt(i) == '\r' && toParse.charAt(i + 1) == '\n') {
-          nextLineStartOffset = i + 2;
-          i++;
-        }
-        lineStartOffsets.add(nextLineStartOffset);
-      }
-      i++;
-    }
+  public SourceFileOffsets(File file, Charset charset) {
+    this(FileContent.read(file, charset));
   }
 
   public int startOffset(Token token) {
-    int lineStartOffset = lineStartOffsets.get(token.getLine() - 1);
+    int lineStartOffset = content.lineStartOffset(token.getLine());
     int column = token.getColumn();
     return lineStartOffset + column;
   }
 
   public int startOffset(SyntaxToken token) {
-    int lineStartOffset = lineStartOffsets.get(token.line() - 1);
+    int lineStartOffset = content.lineStartOffset(token.line());
     int column = token.column();
     return lineStartOffset + column;
   }
@@ -85,6 +59,7 @@ public class SourceFileOffsets {
   }
 
   public int endOffset(SyntaxToken token) {
-    return startOffset(token) + token.text().length();
+    int length = token instanceof InternalSyntaxToken ? ((InternalSyntaxToken) token).length() : token.text().length();
+    return startOffset(token) + length;
   }
 }
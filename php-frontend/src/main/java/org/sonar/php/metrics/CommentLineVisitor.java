@@ -19,18 +19,25 @@
  */
 package org.sonar.php.metrics;
 
-import com.google.common.collect.Sets;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.squidbridge.recognizer.CodeRecognizer;
 
+import java.util.BitSet;
 import java.util.Set;
 
 public class CommentLineVisitor extends PHPVisitorCheck {
 
-  private Set<Integer> comments = Sets.newHashSet();
-  private Set<Integer> noSonarLines = Sets.newHashSet();
+  private static final String NOSONAR = "NOSONAR";
+
+  private static final double CODE_RECOGNIZER_SENSITIVITY = 0.9;
+  private static final CodeRecognizer CODE_RECOGNIZER = new CodeRecognizer(CODE_RECOGNIZER_SENSITIVITY, new PHPLanguageFootprint());
+
+  private BitSet comments = new BitSet();
+  private BitSet noSonarLines = new BitSet();
+  private BitSet commentedOutCodeLines = new BitSet();
 
   public CommentLineVisitor(CompilationUnitTree tree) {
     super.visitCompilationUnit(tree);
@@ -39,53 +46,104 @@ public class CommentLineVisitor extends PHPVisitorCheck {
   @Override
   public void visitToken(SyntaxToken token) {
     for (SyntaxTrivia trivia : token.trivias()) {
+      addCommentLines(trivia, comments, noSonarLines, commentedOutCodeLines);
+    }
+
+    super.visitToken(token);
+  }
+
+  /**
+   * Marks each line of the comment either as a NOSONAR line, or as a comment line when it contains a letter or a digit.
+   * Lines of the comment which look like code are also marked as commented-out code, unless the comment is a PHPDoc
+   * or a license header.
+   */
+  static void addCommentLines(SyntaxTrivia trivia, BitSet commentLines, BitSet noSonarLines, BitSet commentedOutCodeLines) {
+    String comment = trivia.text();
+    int start;
+    int end;
+    if (comment.startsWith("//")) {
+      start = 2;
+      end = comment.length();
+    } else if (comment.startsWith("#")) {
+      start = 1;
+      end = comment.length();
+    } else {
+      start = 2;
+      end = comment.length() - 2;
+    }
 
-      String[] commentLines = getContents(trivia.text())
-        .split("(\r)?\n|\r", -1);
-      int line = trivia.line();
-      for (String commentLine : commentLines) {
-        if (commentLine.contains("NOSONAR")) {
-          noSonarLines.add(line);
-        } else if (!isBlank(commentLine)) {
-          comments.add(line);
+    int line = trivia.line();
+    boolean mayBeCode = !comment.startsWith("/**") && !(comment.startsWith("/*") && line == 1);
+    int lineStart = 0;
+    // the occurrences of NOSONAR are searched once for the whole comment, each of them being reached by the line it starts on
+    int noSonarIndex = comment.indexOf(NOSONAR, start);
+    for (int i = 0; i <= comment.length(); i++) {
+      char c = i < comment.length() ? comment.charAt(i) : '\n';
+      if (c == '\n' || c == '\r') {
+        int contentStart = Math.max(lineStart, start);
+        int contentEnd = Math.min(i, end);
+        while (noSonarIndex >= 0 && noSonarIndex < contentStart) {
+          noSonarIndex = comment.indexOf(NOSONAR, noSonarIndex + 1);
+        }
+        boolean isNoSonar = noSonarIndex >= 0 && noSonarIndex + NOSONAR.length() <= contentEnd;
+        addCommentLine(comment, contentStart, contentEnd, line, isNoSonar, commentLines, noSonarLines);
+        if (mayBeCode && isCommentedOutCode(comment, lineStart, i)) {
+          commentedOutCodeLines.set(line);
+        }
+        if (c == '\r' && i + 1 < comment.length() && comment.charAt(i + 1) == '\n') {
+          i++;
         }
         line++;
+        lineStart = i + 1;
       }
-
     }
+  }
 
-    super.visitToken(token);
+  private static void addCommentLine(String comment, int start, int end, int line, boolean isNoSonar, BitSet commentLines, BitSet noSonarLines) {
+    if (isNoSonar) {
+      noSonarLines.set(line);
+    } else if (!isBlank(comment, start, end)) {
+      commentLines.set(line);
+    }
   }
 
-  private static boolean isBlank(CharSequence line) {
-    for (int i = 0; i < line.length(); i++) {
-      if (Character.isLetterOrDigit(line.charAt(i))) {
-        return false;
+  /**
+   * The line is recognized with its comment markers, unless it is made of them only.
+   */
+  private static boolean isCommentedOutCode(String comment, int start, int end) {
+    for (int i = start; i < end; i++) {
+      char c = comment.charAt(i);
+      if (!Character.isWhitespace(c) && c != '*' && c != '/') {
+        return CODE_RECOGNIZER.isLineOfCode(comment.substring(start, end));
       }
     }
 
-    return true;
+    return false;
   }
 
-  private static String getContents(String comment) {
-    if (comment.startsWith("//")) {
-      return comment.substring(2);
-    } else if (comment.startsWith("#")) {
-      return comment.substring(1);
-    } else {
-      return comment.substring(2, comment.length() - 2);
+  private static boolean isBlank(String comment, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (Character.isLetterOrDigit(comment.charAt(i))) {
+        return false;
+      }
     }
+
+    return true;
   }
 
   public Set<Integer> noSonarLines() {
-    return noSonarLines;
+    return MetricsVisitor.toSet(noSonarLines);
   }
 
   public Set<Integer> commentLines() {
-    return comments;
+    return MetricsVisitor.toSet(comments);
   }
 
   public int commentLineNumber() {
-    return comments.size();
+    return comments.cardinality();
+  }
+
+  public int commentedOutCodeLineNumber() {
+    return commentedOutCodeLines.cardinality();
   }
 }
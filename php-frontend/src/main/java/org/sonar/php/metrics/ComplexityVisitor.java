@@ -166,6 +166,13 @@ public class ComplexityVisitor extends PHPVisitorCheck {
     complexity++;
   }
 
+  /**
+   * @return complexity of the code visited so far
+   */
+  int currentComplexity() {
+    return complexity;
+  }
+
   public static int complexity(Tree tree) {
     ComplexityVisitor visitor = new ComplexityVisitor();
     tree.accept(visitor);
@@ -33,7 +33,7 @@ public class CounterVisitor extends PHPSubscriptionCheck {
   private int statementCounter = 0;
   private int classCounter = 0;
 
-  private static final Kind[] STATEMENT_NODES = {
+  static final Kind[] STATEMENT_NODES = {
     Kind.USE_STATEMENT,
     Kind.NAMESPACE_STATEMENT,
     Kind.CONSTANT_DECLARATION,
@@ -35,6 +35,7 @@ public class FileMeasures {
   private int linesOfCodeNumber;
   private int linesNumber;
   private int commentLinesNumber;
+  private int commentedOutCodeLinesNumber;
 
   private Set<Integer> noSonarLines;
 
@@ -54,6 +55,14 @@ public class FileMeasures {
     this.commentLinesNumber = commentLinesNumber;
   }
 
+  public double getCommentedOutCodeLinesNumber() {
+    return commentedOutCodeLinesNumber;
+  }
+
+  public void setCommentedOutCodeLinesNumber(int commentedOutCodeLinesNumber) {
+    this.commentedOutCodeLinesNumber = commentedOutCodeLinesNumber;
+  }
+
   public double getLinesNumber() {
     return linesNumber;
   }
@@ -137,6 +146,13 @@ public class FileMeasures {
     this.classComplexity += classComplexity;
   }
 
+  /**
+   * Sets the total complexity of functions without updating the function complexity distribution.
+   */
+  public void setFunctionComplexity(int functionComplexity) {
+    this.functionComplexity = functionComplexity;
+  }
+
   public void addFunctionComplexity(int functionComplexity) {
     this.functionComplexity += functionComplexity;
     functionComplexityDistribution.add(functionComplexity);
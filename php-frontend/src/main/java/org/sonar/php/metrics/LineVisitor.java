@@ -19,7 +19,6 @@
  */
 package org.sonar.php.metrics;
 
-import com.google.common.collect.Sets;
 import org.sonar.php.tree.impl.lexical.InternalSyntaxToken;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.tree.ScriptTree;
@@ -27,11 +26,12 @@ import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 
+import java.util.BitSet;
 import java.util.Set;
 
 public class LineVisitor extends PHPVisitorCheck {
 
-  private Set<Integer> lines = Sets.newHashSet();
+  private BitSet lines = new BitSet();
   private int lastLine = 0;
 
   public LineVisitor(CompilationUnitTree tree) {
@@ -49,11 +49,7 @@ public class LineVisitor extends PHPVisitorCheck {
     boolean isEOF = ((InternalSyntaxToken) token).isEOF();
 
     if (token.is(Tree.Kind.TOKEN) && !isEOF) {
-      String[] tokenLines = token.text().split("\n", -1);
-      for (int i = token.line(); i < token.line() + tokenLines.length; i++) {
-        lines.add(i);
-      }
-
+      addCodeLines(token, lines);
     }
 
     if (isEOF) {
@@ -61,12 +57,24 @@ public class LineVisitor extends PHPVisitorCheck {
     }
   }
 
+  /**
+   * Marks the lines spanned by the token, counting line feeds instead of splitting its text.
+   */
+  static void addCodeLines(SyntaxToken token, BitSet linesOfCode) {
+    String text = token.text();
+    int lastLine = token.line();
+    for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+      lastLine++;
+    }
+    linesOfCode.set(token.line(), lastLine + 1);
+  }
+
   public int getLinesOfCodeNumber() {
-    return lines.size();
+    return lines.cardinality();
   }
 
   public Set<Integer> getLinesOfCode() {
-    return lines;
+    return MetricsVisitor.toSet(lines);
   }
 
   public int getLinesNumber() {
@@ -21,18 +21,32 @@ package org.sonar.php.metrics;
 
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
+import org.sonar.php.tree.impl.lexical.InternalSyntaxToken;
+import org.sonar.php.tree.visitors.PHPCheckContext;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.ScriptTree;
 import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
-import org.sonar.plugins.php.api.visitors.PHPSubscriptionCheck;
+import org.sonar.plugins.php.api.tree.declaration.ClassDeclarationTree;
+import org.sonar.plugins.php.api.tree.declaration.FunctionDeclarationTree;
+import org.sonar.plugins.php.api.tree.declaration.MethodDeclarationTree;
+import org.sonar.plugins.php.api.tree.expression.FunctionExpressionTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
+import org.sonar.plugins.php.api.visitors.CheckContext;
 
 import java.io.File;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.Set;
 
-public class MetricsVisitor extends PHPSubscriptionCheck {
+/**
+ * Computes all measures of a file in a single walk of its tree: complexities of the file, its classes and its
+ * functions are deduced from the running complexity count when leaving each of them, instead of walking them again.
+ */
+public class MetricsVisitor extends ComplexityVisitor {
 
   private static final Number[] LIMITS_COMPLEXITY_FUNCTIONS = {1, 2, 4, 6, 8, 10, 12};
   private static final Number[] FILES_DISTRIBUTION_BOTTOM_LIMITS = {0, 5, 10, 20, 30, 60, 90};
@@ -49,6 +63,8 @@ public class MetricsVisitor extends PHPSubscriptionCheck {
     Kind.TRAIT_DECLARATION
   };
 
+  private static final Set<Kind> STATEMENT_NODES = EnumSet.copyOf(Arrays.asList(CounterVisitor.STATEMENT_NODES));
+
   public static Kind[] getClassNodes() {
     return CLASS_NODES;
   }
@@ -58,68 +74,141 @@ public class MetricsVisitor extends PHPSubscriptionCheck {
   }
 
   private FileMeasures fileMeasures;
-  private FileLinesContext fileLinesContext;
+  private int classNumber;
+  private int functionNumber;
+  private int statementNumber;
+
+  private SyntaxToken fileOpeningTagToken;
+  private BitSet linesOfCode;
+  private BitSet commentLines;
+  private BitSet noSonarLines;
+  private BitSet commentedOutCodeLines;
+  private int linesNumber;
+
+  /**
+   * @return empty measures, with the complexity distribution limits used by this visitor
+   */
+  public static FileMeasures newFileMeasures() {
+    return new FileMeasures(LIMITS_COMPLEXITY_FUNCTIONS, FILES_DISTRIBUTION_BOTTOM_LIMITS);
+  }
 
-  @Override
-  public List<Kind> nodesToVisit() {
-    List<Kind> result = new ArrayList<>(Arrays.asList(FUNCTION_NODES));
-    result.addAll(Arrays.asList(CLASS_NODES));
-    result.add(Kind.COMPILATION_UNIT);
-    return result;
+  public FileMeasures getFileMeasures(File file, CompilationUnitTree tree, FileLinesContext fileLinesContext) {
+    return getFileMeasures(new PHPCheckContext(file, tree), fileLinesContext);
   }
 
-  @Override
-  public void visitNode(Tree tree) {
-    if (tree.is(Kind.COMPILATION_UNIT)) {
-      fileMeasures.setFileComplexity(ComplexityVisitor.complexity(tree));
+  /**
+   * @param context context of the file, sharing its symbol table with the checks
+   */
+  public FileMeasures getFileMeasures(CheckContext context, FileLinesContext fileLinesContext) {
+    this.fileMeasures = newFileMeasures();
+    this.classNumber = 0;
+    this.functionNumber = 0;
+    this.statementNumber = 0;
+    this.fileOpeningTagToken = null;
+    this.linesOfCode = new BitSet();
+    this.commentLines = new BitSet();
+    this.noSonarLines = new BitSet();
+    this.commentedOutCodeLines = new BitSet();
+    this.linesNumber = 0;
+
+    int complexityBefore = currentComplexity();
+    super.analyze(context);
+
+    fileMeasures.setFileComplexity(currentComplexity() - complexityBefore);
+    fileMeasures.setClassNumber(classNumber);
+    fileMeasures.setFunctionNumber(functionNumber);
+    fileMeasures.setStatementNumber(statementNumber);
+    setLineAndCommentMeasures(fileLinesContext);
+    return this.fileMeasures;
+  }
 
-    } else if (tree.is(CLASS_NODES)) {
-      fileMeasures.addClassComplexity(ComplexityVisitor.complexity(tree));
+  @Override
+  public void visitScript(ScriptTree tree) {
+    fileOpeningTagToken = tree.fileOpeningTagToken();
+    super.visitScript(tree);
+  }
 
-    } else if (tree.is(FUNCTION_NODES)) {
-      fileMeasures.addFunctionComplexity(ComplexityVisitor.complexity(tree));
+  @Override
+  public void visitClassDeclaration(ClassDeclarationTree tree) {
+    int complexityBefore = currentComplexity();
+    super.visitClassDeclaration(tree);
+    if (tree.is(CLASS_NODES)) {
+      classNumber++;
+      fileMeasures.addClassComplexity(currentComplexity() - complexityBefore);
     }
   }
 
-  public FileMeasures getFileMeasures(File file, CompilationUnitTree tree, FileLinesContext fileLinesContext) {
-    this.fileMeasures = new FileMeasures(LIMITS_COMPLEXITY_FUNCTIONS, FILES_DISTRIBUTION_BOTTOM_LIMITS);
-    this.fileLinesContext = fileLinesContext;
+  @Override
+  public void visitFunctionDeclaration(FunctionDeclarationTree tree) {
+    int complexityBefore = currentComplexity();
+    super.visitFunctionDeclaration(tree);
+    addFunction(complexityBefore);
+  }
 
-    super.analyze(file, tree);
+  @Override
+  public void visitFunctionExpression(FunctionExpressionTree tree) {
+    int complexityBefore = currentComplexity();
+    super.visitFunctionExpression(tree);
+    addFunction(complexityBefore);
+  }
 
-    setCounterMeasures();
-    setLineAndCommentMeasures();
-    return this.fileMeasures;
+  @Override
+  public void visitMethodDeclaration(MethodDeclarationTree tree) {
+    int complexityBefore = currentComplexity();
+    super.visitMethodDeclaration(tree);
+    addFunction(complexityBefore);
   }
 
-  private void setCounterMeasures() {
-    CounterVisitor counter = new CounterVisitor(context().tree());
-    fileMeasures.setClassNumber(counter.getClassNumber());
-    fileMeasures.setFunctionNumber(counter.getFunctionNumber());
-    fileMeasures.setStatementNumber(counter.getStatementNumber());
+  private void addFunction(int complexityBefore) {
+    functionNumber++;
+    fileMeasures.addFunctionComplexity(currentComplexity() - complexityBefore);
   }
 
-  private void setLineAndCommentMeasures() {
-    LineVisitor lineVisitor = new LineVisitor(context().tree());
+  /**
+   * Every tree is scanned exactly once, which makes this the place to count statements whatever their kind.
+   */
+  @Override
+  protected void scan(Tree tree) {
+    if (STATEMENT_NODES.contains(tree.getKind())) {
+      statementNumber++;
+    }
+    super.scan(tree);
+  }
 
-    CommentLineVisitor commentVisitor = new CommentLineVisitor(context().tree());
+  @Override
+  public void visitToken(SyntaxToken token) {
+    for (SyntaxTrivia trivia : token.trivias()) {
+      CommentLineVisitor.addCommentLines(trivia, commentLines, noSonarLines, commentedOutCodeLines);
+    }
 
-    int linesNumber = lineVisitor.getLinesNumber();
+    if (((InternalSyntaxToken) token).isEOF()) {
+      linesNumber = token.line();
+    } else if (token.is(Kind.TOKEN) && token != fileOpeningTagToken) {
+      LineVisitor.addCodeLines(token, linesOfCode);
+    }
+  }
 
+  private void setLineAndCommentMeasures(FileLinesContext fileLinesContext) {
     fileMeasures.setLinesNumber(linesNumber);
-    fileMeasures.setLinesOfCodeNumber(lineVisitor.getLinesOfCodeNumber());
-    fileMeasures.setCommentLinesNumber(commentVisitor.commentLineNumber());
-    fileMeasures.setNoSonarLines(commentVisitor.noSonarLines());
-
-    Set<Integer> linesOfCode = lineVisitor.getLinesOfCode();
-    Set<Integer> commentLines = commentVisitor.commentLines();
+    fileMeasures.setLinesOfCodeNumber(linesOfCode.cardinality());
+    fileMeasures.setCommentLinesNumber(commentLines.cardinality());
+    fileMeasures.setCommentedOutCodeLinesNumber(commentedOutCodeLines.cardinality());
+    fileMeasures.setNoSonarLines(toSet(noSonarLines));
 
     for (int line = 1; line <= linesNumber; line++) {
-      fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, linesOfCode.contains(line) ? 1 : 0);
-      fileLinesContext.setIntValue(CoreMetrics.COMMENT_LINES_DATA_KEY, line, commentLines.contains(line) ? 1 : 0);
+      fileLinesContext.setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, linesOfCode.get(line) ? 1 : 0);
+      fileLinesContext.setIntValue(CoreMetrics.COMMENT_LINES_DATA_KEY, line, commentLines.get(line) ? 1 : 0);
     }
 
     fileLinesContext.save();
   }
 
+  static Set<Integer> toSet(BitSet lines) {
+    Set<Integer> result = new HashSet<>(lines.cardinality() * 2);
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      result.add(line);
+    }
+    return result;
+  }
+
 }
@@ -0,0 +1,57 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.metrics;
+
+import org.sonar.php.api.PHPKeyword;
+import org.sonar.squidbridge.recognizer.CamelCaseDetector;
+import org.sonar.squidbridge.recognizer.ContainsDetector;
+import org.sonar.squidbridge.recognizer.Detector;
+import org.sonar.squidbridge.recognizer.EndWithDetector;
+import org.sonar.squidbridge.recognizer.KeywordsDetector;
+import org.sonar.squidbridge.recognizer.LanguageFootprint;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Detectors used to recognize the comment lines which are commented-out code.
+ */
+class PHPLanguageFootprint implements LanguageFootprint {
+
+  private static final double CAMEL_CASE_PROBABILITY = 0.5;
+  private static final double CONDITIONAL_PROBABILITY = 0.95;
+  private static final double PHP_KEYWORDS_PROBABILITY = 0.3;
+  private static final double BOOLEAN_OPERATOR_PROBABILITY = 0.7;
+  private static final double END_WITH_DETECTOR_PROBABILITY = 0.95;
+  private final Set<Detector> detectors = new HashSet<>();
+
+  PHPLanguageFootprint() {
+    detectors.add(new EndWithDetector(END_WITH_DETECTOR_PROBABILITY, '}', ';', '{'));
+    detectors.add(new KeywordsDetector(BOOLEAN_OPERATOR_PROBABILITY, "||", "&&"));
+    detectors.add(new KeywordsDetector(PHP_KEYWORDS_PROBABILITY, PHPKeyword.getKeywordValues()));
+    detectors.add(new ContainsDetector(CONDITIONAL_PROBABILITY, "++", "for(", "if(", "while(", "catch(", "switch(", "try{", "else{"));
+    detectors.add(new CamelCaseDetector(CAMEL_CASE_PROBABILITY));
+  }
+
+  @Override
+  public Set<Detector> getDetectors() {
+    return detectors;
+  }
+}
@@ -0,0 +1,323 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser;
+
+import com.sonar.sslr.impl.typed.DelayedRuleInvocationExpression;
+import org.sonar.php.api.PHPKeyword;
+import org.sonar.php.api.PHPPunctuator;
+import org.sonar.php.utils.AnalysisInterruptedException;
+import org.sonar.sslr.grammar.GrammarRuleKey;
+import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
+import org.sonar.sslr.internal.vm.CompilationHandler;
+import org.sonar.sslr.internal.vm.Instruction;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.ParsingExpression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered choice between syntactic rules which only tries the alternatives able to start with the first token of the
+ * input, instead of trying all of them one after the other.
+ *
+ * <p>Each alternative declares the tokens it can start with: keywords, punctuators, {@link PHPLexicalGrammar#IDENTIFIER}
+ * for any word or {@link PHPLexicalGrammar#INLINE_HTML} for a closing tag. An alternative declaring none of them
+ * can start with any token. The first token is classified by looking ahead of the spacing, without creating any node,
+ * then the matching alternatives are tried in their declaration order, so that the result is the same as the one of
+ * the ordered choice between all the alternatives. Every alternative tried without success is reported to the
+ * {@link BacktrackCounter}. The dispatch and the backtracks throw {@link AnalysisInterruptedException} when the
+ * parsing thread has been interrupted, so that a match running for long can be stopped.
+ */
+final class FirstTokenDispatchExpression implements ParsingExpression {
+
+  private final LexerlessGrammarBuilder b;
+  private final BacktrackCounter backtracks;
+  private final List<GrammarRuleKey> alternatives = new ArrayList<>();
+  private final List<GrammarRuleKey[]> firstTokens = new ArrayList<>();
+
+  FirstTokenDispatchExpression(LexerlessGrammarBuilder b, BacktrackCounter backtracks) {
+    this.b = b;
+    this.backtracks = backtracks;
+  }
+
+  FirstTokenDispatchExpression alternative(GrammarRuleKey ruleKey, GrammarRuleKey... tokens) {
+    for (GrammarRuleKey token : tokens) {
+      if (!(token instanceof PHPKeyword || token instanceof PHPPunctuator
+        || token == PHPLexicalGrammar.IDENTIFIER || token == PHPLexicalGrammar.INLINE_HTML)) {
+        throw new IllegalArgumentException("Unsupported first token for " + ruleKey + ": " + token);
+      }
+    }
+    alternatives.add(ruleKey);
+    firstTokens.add(tokens);
+    return this;
+  }
+
+  @Override
+  public Instruction[] compile(CompilationHandler compiler) {
+    List<String> keywords = new ArrayList<>();
+    StringBuilder punctuation = new StringBuilder();
+    for (GrammarRuleKey[] tokens : firstTokens) {
+      for (GrammarRuleKey token : tokens) {
+        if (token instanceof PHPKeyword && !keywords.contains(((PHPKeyword) token).getValue())) {
+          keywords.add(((PHPKeyword) token).getValue());
+        } else if (token != PHPLexicalGrammar.IDENTIFIER && !(token instanceof PHPKeyword)) {
+          for (char c : firstChars(token)) {
+            if (punctuation.indexOf(String.valueOf(c)) < 0) {
+              punctuation.append(c);
+            }
+          }
+        }
+      }
+    }
+
+    // alternatives to try for each class of first token, the identical lists being compiled only once
+    Map<List<Integer>, Integer> blocks = new LinkedHashMap<>();
+    int[] keywordBlocks = new int[keywords.size()];
+    for (int i = 0; i < keywords.size(); i++) {
+      keywordBlocks[i] = block(blocks, selectKeyword(keywords.get(i)));
+    }
+    int[] punctuationBlocks = new int[punctuation.length()];
+    for (int i = 0; i < punctuation.length(); i++) {
+      punctuationBlocks[i] = block(blocks, selectChar(punctuation.charAt(i)));
+    }
+    int wordBlock = block(blocks, selectKeyword(null));
+    int otherBlock = block(blocks, selectChar('\0'));
+
+    Instruction[][] compiledAlternatives = new Instruction[alternatives.size()][];
+    for (int i = 0; i < alternatives.size(); i++) {
+      compiledAlternatives[i] = compiler.compile(new DelayedRuleInvocationExpression(b, alternatives.get(i)));
+    }
+
+    int length = 1;
+    int[] blockOffsets = new int[blocks.size()];
+    int block = 0;
+    for (List<Integer> selection : blocks.keySet()) {
+      blockOffsets[block] = length;
+      length += blockLength(selection, compiledAlternatives);
+      block++;
+    }
+
+    Instruction[] result = new Instruction[length];
+    result[0] = new DispatchInstruction(
+      toCharArrays(keywords), offsets(keywordBlocks, blockOffsets),
+      punctuation.toString().toCharArray(), offsets(punctuationBlocks, blockOffsets),
+      blockOffsets[wordBlock], blockOffsets[otherBlock]);
+    int index = 1;
+    for (List<Integer> selection : blocks.keySet()) {
+      for (int alternative : selection) {
+        Instruction[] instructions = compiledAlternatives[alternative];
+        result[index] = Instruction.choice(instructions.length + 2);
+        System.arraycopy(instructions, 0, result, index + 1, instructions.length);
+        index += instructions.length + 1;
+        result[index] = Instruction.commit(length - index);
+        result[index + 1] = new CountInstruction(backtracks);
+        index += 2;
+      }
+      result[index] = Instruction.backtrack();
+      index++;
+    }
+    return result;
+  }
+
+  /**
+   * @param keyword lower case value of a keyword, or null for any other word
+   */
+  private List<Integer> selectKeyword(String keyword) {
+    List<Integer> selection = new ArrayList<>();
+    for (int i = 0; i < alternatives.size(); i++) {
+      GrammarRuleKey[] tokens = firstTokens.get(i);
+      boolean selected = tokens.length == 0;
+      for (GrammarRuleKey token : tokens) {
+        selected |= token == PHPLexicalGrammar.IDENTIFIER || (token instanceof PHPKeyword && ((PHPKeyword) token).getValue().equals(keyword));
+      }
+      if (selected) {
+        selection.add(i);
+      }
+    }
+    return selection;
+  }
+
+  private List<Integer> selectChar(char c) {
+    List<Integer> selection = new ArrayList<>();
+    for (int i = 0; i < alternatives.size(); i++) {
+      GrammarRuleKey[] tokens = firstTokens.get(i);
+      boolean selected = tokens.length == 0;
+      for (GrammarRuleKey token : tokens) {
+        selected |= token != PHPLexicalGrammar.IDENTIFIER && !(token instanceof PHPKeyword) && new String(firstChars(token)).indexOf(c) >= 0;
+      }
+      if (selected) {
+        selection.add(i);
+      }
+    }
+    return selection;
+  }
+
+  private static char[] firstChars(GrammarRuleKey token) {
+    if (token == PHPLexicalGrammar.INLINE_HTML) {
+      return new char[] {'?', '%'};
+    }
+    return new char[] {((PHPPunctuator) token).getValue().charAt(0)};
+  }
+
+  private static int block(Map<List<Integer>, Integer> blocks, List<Integer> selection) {
+    Integer block = blocks.get(selection);
+    if (block == null) {
+      block = blocks.size();
+      blocks.put(selection, block);
+    }
+    return block;
+  }
+
+  private static int blockLength(List<Integer> selection, Instruction[][] compiledAlternatives) {
+    int length = 1;
+    for (int alternative : selection) {
+      length += compiledAlternatives[alternative].length + 3;
+    }
+    return length;
+  }
+
+  private static char[][] toCharArrays(List<String> texts) {
+    char[][] result = new char[texts.size()][];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = texts.get(i).toCharArray();
+    }
+    return result;
+  }
+
+  private static int[] offsets(int[] blocks, int[] blockOffsets) {
+    int[] result = new int[blocks.length];
+    for (int i = 0; i < blocks.length; i++) {
+      result[i] = blockOffsets[blocks[i]];
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "FirstTokenDispatch" + alternatives;
+  }
+
+  /**
+   * Jumps to the alternatives matching the first token, which is classified with the {@link LexicalTerminal} scanners
+   * of the spacing and of the words, and with the case insensitive keywords of {@link PHPLexicalGrammar}.
+   */
+  private static final class DispatchInstruction extends Instruction {
+
+    private final char[][] keywords;
+    private final int[] keywordOffsets;
+    private final char[] punctuation;
+    private final int[] punctuationOffsets;
+    private final int wordOffset;
+    private final int otherOffset;
+
+    DispatchInstruction(char[][] keywords, int[] keywordOffsets, char[] punctuation, int[] punctuationOffsets, int wordOffset, int otherOffset) {
+      this.keywords = keywords;
+      this.keywordOffsets = keywordOffsets;
+      this.punctuation = punctuation;
+      this.punctuationOffsets = punctuationOffsets;
+      this.wordOffset = wordOffset;
+      this.otherOffset = otherOffset;
+    }
+
+    @Override
+    public void execute(Machine machine) {
+      AnalysisInterruptedException.throwIfInterrupted();
+      machine.jump(offset(machine));
+    }
+
+    private int offset(Machine machine) {
+      int length = machine.length();
+      int start = LexicalTerminal.spacingEnd(machine, 0);
+      if (start == length) {
+        return otherOffset;
+      }
+      char c = machine.charAt(start);
+      if (LexicalTerminal.isIdentifierStart(c)) {
+        int end = start + 1;
+        while (end < length && LexicalTerminal.isIdentifierPart(machine.charAt(end))) {
+          end++;
+        }
+        for (int i = 0; i < keywords.length; i++) {
+          if (equalsIgnoreCase(keywords[i], machine, start, end)) {
+            return keywordOffsets[i];
+          }
+        }
+        return wordOffset;
+      }
+      for (int i = 0; i < punctuation.length; i++) {
+        if (punctuation[i] == c) {
+          return punctuationOffsets[i];
+        }
+      }
+      return otherOffset;
+    }
+
+    /**
+     * @param keyword lower case keyword
+     */
+    private static boolean equalsIgnoreCase(char[] keyword, Machine machine, int start, int end) {
+      if (keyword.length != end - start) {
+        return false;
+      }
+      for (int i = 0; i < keyword.length; i++) {
+        char c = machine.charAt(start + i);
+        if (c >= 'A' && c <= 'Z') {
+          c = (char) (c + ('a' - 'A'));
+        }
+        if (c != keyword[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return "Dispatch " + Arrays.deepToString(keywords) + " " + new String(punctuation);
+    }
+
+  }
+
+  private static final class CountInstruction extends Instruction {
+
+    private final BacktrackCounter backtracks;
+
+    CountInstruction(BacktrackCounter backtracks) {
+      this.backtracks = backtracks;
+    }
+
+    @Override
+    public void execute(Machine machine) {
+      AnalysisInterruptedException.throwIfInterrupted();
+      backtracks.increment();
+      machine.jump(1);
+    }
+
+    @Override
+    public String toString() {
+      return "CountBacktrack";
+    }
+
+  }
+
+}
@@ -0,0 +1,510 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser;
+
+import org.sonar.php.utils.AnalysisInterruptedException;
+import org.sonar.sslr.internal.matchers.Matcher;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+import org.sonar.sslr.internal.vm.ParsingExpression;
+
+/**
+ * Hand-written scanners of the lexical terminals of PHP. Each of them matches exactly the same input as the regular
+ * expression of {@link LexicalConstant} it replaces, without allocating nor backtracking over the input.
+ */
+enum LexicalTerminal {
+
+  LINE_TERMINATORS_AND_WHITESPACES("[" + LexicalConstant.LINE_TERMINATOR + LexicalConstant.WHITESPACE + "]*+") {
+    @Override
+    int scan(CharSequence input, int start) {
+      int i = start;
+      while (i < input.length() && isLineTerminatorOrWhitespace(input.charAt(i))) {
+        i++;
+      }
+      return i;
+    }
+  },
+
+  WHITESPACES("[" + LexicalConstant.WHITESPACE + "]*+") {
+    @Override
+    int scan(CharSequence input, int start) {
+      int i = start;
+      while (i < input.length() && isWhitespace(input.charAt(i))) {
+        i++;
+      }
+      return i;
+    }
+  },
+
+  COMMENT(LexicalConstant.COMMENT) {
+    @Override
+    int scan(CharSequence input, int start) {
+      int length = input.length();
+      if (start < length && input.charAt(start) == '#') {
+        return singleLineCommentEnd(input, start + 1);
+      }
+      if (start + 1 >= length || input.charAt(start) != '/') {
+        return -1;
+      }
+      if (input.charAt(start + 1) == '/') {
+        return singleLineCommentEnd(input, start + 2);
+      }
+      if (input.charAt(start + 1) == '*') {
+        for (int i = start + 2; i + 1 < length; i++) {
+          if (input.charAt(i) == '*' && input.charAt(i + 1) == '/') {
+            return i + 2;
+          }
+        }
+      }
+      return -1;
+    }
+  },
+
+  IDENTIFIER(LexicalConstant.IDENTIFIER) {
+    @Override
+    int scan(CharSequence input, int start) {
+      if (start >= input.length() || !isIdentifierStart(input.charAt(start))) {
+        return -1;
+      }
+      return identifierPartsEnd(input, start + 1);
+    }
+  },
+
+  IDENTIFIER_PART(LexicalConstant.IDENTIFIER_PART) {
+    @Override
+    int scan(CharSequence input, int start) {
+      return start < input.length() && isIdentifierPart(input.charAt(start)) ? (start + 1) : -1;
+    }
+  },
+
+  VAR_IDENTIFIER(LexicalConstant.VAR_IDENTIFIER) {
+    @Override
+    int scan(CharSequence input, int start) {
+      if (start >= input.length() || input.charAt(start) != '$') {
+        return -1;
+      }
+      return IDENTIFIER.scan(input, start + 1);
+    }
+  },
+
+  NUMERIC_LITERAL(LexicalConstant.NUMERIC_LITERAL) {
+    @Override
+    int scan(CharSequence input, int start) {
+      int integerEnd = digitsEnd(input, start);
+      int fractionEnd = -1;
+      if (integerEnd < input.length() && input.charAt(integerEnd) == '.') {
+        int end = digitsEnd(input, integerEnd + 1);
+        if (integerEnd > start || end > integerEnd + 1) {
+          fractionEnd = end;
+        }
+      }
+      if (integerEnd > start) {
+        int end = exponentEnd(input, integerEnd);
+        if (end >= 0) {
+          return end;
+        }
+      }
+      if (fractionEnd >= 0) {
+        int end = exponentEnd(input, fractionEnd);
+        return end >= 0 ? end : fractionEnd;
+      }
+      return integerEnd(input, start);
+    }
+  },
+
+  STRING_LITERAL(LexicalConstant.STRING_LITERAL) {
+    @Override
+    int scan(CharSequence input, int start) {
+      if (start >= input.length()) {
+        return -1;
+      }
+      switch (input.charAt(start)) {
+        case '"':
+          int end = encapsedCharactersEnd(input, start + 1);
+          return end < input.length() && input.charAt(end) == '"' ? (end + 1) : -1;
+        case '\'':
+          return singleQuotedStringEnd(input, start + 1);
+        case '`':
+          for (int i = start + 1; i < input.length(); i++) {
+            if (input.charAt(i) == '`') {
+              return i + 1;
+            }
+          }
+          return -1;
+        default:
+          return -1;
+      }
+    }
+  },
+
+  STRING_WITH_ENCAPS_VAR_CHARACTERS(LexicalConstant.STRING_WITH_ENCAPS_VAR_CHARACTERS) {
+    @Override
+    int scan(CharSequence input, int start) {
+      int end = encapsedCharactersEnd(input, start);
+      return end > start ? end : -1;
+    }
+  },
+
+  HEREDOC(LexicalConstant.HEREDOC) {
+    @Override
+    int scan(CharSequence input, int start) {
+      int length = input.length();
+      if (start + 2 >= length || input.charAt(start) != '<' || input.charAt(start + 1) != '<' || input.charAt(start + 2) != '<') {
+        return -1;
+      }
+      int labelStart = WHITESPACES.scan(input, start + 3);
+      if (labelStart < length && (input.charAt(labelStart) == '"' || input.charAt(labelStart) == '\'')) {
+        // quoted heredoc or nowdoc label
+        char quote = input.charAt(labelStart);
+        int labelEnd = heredocLabelEnd(input, labelStart + 1);
+        if (labelEnd > labelStart + 1 && labelEnd < length && input.charAt(labelEnd) == quote) {
+          int end = closingLabelEnd(input, labelEnd + 1, labelStart + 1, labelEnd);
+          if (end >= 0) {
+            return end;
+          }
+        }
+      }
+      // unquoted label, which like with the regular expression can start with some of the whitespaces when there is
+      // no closing label otherwise
+      for (int i = labelStart; i >= start + 3; i--) {
+        int labelEnd = heredocLabelEnd(input, i);
+        if (labelEnd > i) {
+          int end = closingLabelEnd(input, labelEnd, i, labelEnd);
+          if (end >= 0) {
+            return end;
+          }
+        }
+      }
+      return -1;
+    }
+  },
+
+  PHP_START_TAG(LexicalConstant.PHP_START_TAG) {
+    @Override
+    int scan(CharSequence input, int start) {
+      int length = input.length();
+      int i = indexOf(input, '<', start);
+      while (i >= 0 && i + 1 < length) {
+        char next = input.charAt(i + 1);
+        if (next == '%') {
+          return i + 2;
+        } else if (next == '?') {
+          return openingTagEnd(input, i + 2);
+        }
+        i = indexOf(input, '<', i + 1);
+      }
+      return length;
+    }
+  },
+
+  PHP_END_TAG(LexicalConstant.PHP_END_TAG) {
+    @Override
+    int scan(CharSequence input, int start) {
+      if (!isClosingTag(input, start)) {
+        return -1;
+      }
+      return PHP_START_TAG.scan(input, start + 2);
+    }
+  };
+
+  private final String regexp;
+
+  LexicalTerminal(String regexp) {
+    this.regexp = regexp;
+  }
+
+  /**
+   * @return the index following the terminal which starts at the given index of the input, or -1 when there is none
+   */
+  abstract int scan(CharSequence input, int start);
+
+  /**
+   * @return the regular expression of {@link LexicalConstant} matching the same input as this terminal
+   */
+  String regexp() {
+    return regexp;
+  }
+
+  /**
+   * @return the native parsing expression of this terminal, to use instead of its regular expression in the grammar
+   */
+  ParsingExpression expression() {
+    return new TerminalExpression(this);
+  }
+
+  /**
+   * @return the index following the whitespaces and the comments starting at the given index, as matched by
+   * {@link PHPLexicalGrammar#SPACING}
+   */
+  static int spacingEnd(CharSequence input, int start) {
+    int i = LINE_TERMINATORS_AND_WHITESPACES.scan(input, start);
+    int commentEnd = COMMENT.scan(input, i);
+    while (commentEnd >= 0) {
+      i = LINE_TERMINATORS_AND_WHITESPACES.scan(input, commentEnd);
+      commentEnd = COMMENT.scan(input, i);
+    }
+    return i;
+  }
+
+  static boolean isIdentifierStart(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || (c >= '\u007f' && c <= '\u00FF');
+  }
+
+  static boolean isIdentifierPart(char c) {
+    return isIdentifierStart(c) || isDigit(c);
+  }
+
+  private static boolean isLineTerminatorOrWhitespace(char c) {
+    return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || isWhitespace(c);
+  }
+
+  private static boolean isWhitespace(char c) {
+    switch (c) {
+      case '\t':
+      case '\u000B':
+      case '\f':
+      case ' ':
+      case '\u00A0':
+      case '\uFEFF':
+        return true;
+      default:
+        return c > '\u00A0' && Character.getType(c) == Character.SPACE_SEPARATOR;
+    }
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isHexadecimalDigit(char c) {
+    return isDigit(c) || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+  }
+
+  private static boolean isClosingTag(CharSequence input, int i) {
+    return i + 1 < input.length() && (input.charAt(i) == '?' || input.charAt(i) == '%') && input.charAt(i + 1) == '>';
+  }
+
+  /**
+   * Search of a single character in the same way as {@link String#indexOf(int, int)}, with a loop simple enough to be
+   * unrolled by the JIT compiler: most of the inline HTML of a template is skipped by it, up to the next "<".
+   */
+  private static int indexOf(CharSequence input, char c, int from) {
+    int length = input.length();
+    for (int i = from; i < length; i++) {
+      if (input.charAt(i) == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param start index following the "<?" of an opening tag
+   */
+  private static int openingTagEnd(CharSequence input, int start) {
+    if (start + 2 < input.length()
+      && Character.toLowerCase(input.charAt(start)) == 'p'
+      && Character.toLowerCase(input.charAt(start + 1)) == 'h'
+      && Character.toLowerCase(input.charAt(start + 2)) == 'p') {
+      return start + 3;
+    }
+    if (start < input.length() && input.charAt(start) == '=') {
+      return start + 1;
+    }
+    return start;
+  }
+
+  /**
+   * The "one-line" comment styles only comment to the end of the line or the current block of PHP code, whichever comes first.
+   */
+  private static int singleLineCommentEnd(CharSequence input, int start) {
+    int i = start;
+    while (i < input.length() && input.charAt(i) != '\n' && input.charAt(i) != '\r' && !isClosingTag(input, i)) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int identifierPartsEnd(CharSequence input, int start) {
+    int i = start;
+    while (i < input.length() && isIdentifierPart(input.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int digitsEnd(CharSequence input, int start) {
+    int i = start;
+    while (i < input.length() && isDigit(input.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * @return the index following the exponent starting at the given index, or -1 when there is none
+   */
+  private static int exponentEnd(CharSequence input, int start) {
+    int length = input.length();
+    if (start >= length || (input.charAt(start) != 'e' && input.charAt(start) != 'E')) {
+      return -1;
+    }
+    int i = start + 1;
+    if (i < length && (input.charAt(i) == '+' || input.charAt(i) == '-')) {
+      i++;
+    }
+    return i < length && isDigit(input.charAt(i)) ? digitsEnd(input, i) : -1;
+  }
+
+  private static int integerEnd(CharSequence input, int start) {
+    int length = input.length();
+    if (start >= length) {
+      return -1;
+    }
+    char c = input.charAt(start);
+    if (c >= '1' && c <= '9') {
+      return digitsEnd(input, start + 1);
+    }
+    if (c != '0') {
+      return -1;
+    }
+    char next = start + 1 < length ? input.charAt(start + 1) : '\0';
+    int i = start + 1;
+    if (next >= '0' && next <= '7') {
+      while (i < length && input.charAt(i) >= '0' && input.charAt(i) <= '7') {
+        i++;
+      }
+    } else if ((next == 'x' || next == 'X') && start + 2 < length && isHexadecimalDigit(input.charAt(start + 2))) {
+      i = start + 2;
+      while (i < length && isHexadecimalDigit(input.charAt(i))) {
+        i++;
+      }
+    } else if (next == 'b' && start + 2 < length && (input.charAt(start + 2) == '0' || input.charAt(start + 2) == '1')) {
+      i = start + 2;
+      while (i < length && (input.charAt(i) == '0' || input.charAt(i) == '1')) {
+        i++;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * '$' sign is allowed in double quoted string and heredoc only when it does not conflict with the
+   * encapsulated variable expression, i.e when it not followed with '{' or a starting identifier character.
+   */
+  private static int encapsedCharactersEnd(CharSequence input, int start) {
+    int length = input.length();
+    int i = start;
+    while (i < length) {
+      char c = input.charAt(i);
+      char next = i + 1 < length ? input.charAt(i + 1) : '\0';
+      if (c == '"'
+        || (c == '\\' && i + 1 == length)
+        || (c == '$' && i + 1 < length && (next == '{' || isIdentifierStart(next)))
+        || (c == '{' && next == '$')) {
+        return i;
+      }
+      i += c == '\\' ? 2 : 1;
+    }
+    return i;
+  }
+
+  private static int singleQuotedStringEnd(CharSequence input, int start) {
+    int length = input.length();
+    int i = start;
+    while (i < length) {
+      char c = input.charAt(i);
+      if (c == '\'') {
+        return i + 1;
+      }
+      i += c == '\\' ? 2 : 1;
+    }
+    return -1;
+  }
+
+  private static int heredocLabelEnd(CharSequence input, int start) {
+    int i = start;
+    while (i < input.length()) {
+      char c = input.charAt(i);
+      if (c == '\r' || c == '\n' || c == '\'' || c == '"') {
+        break;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * @return the index following the first occurrence of the label at the start of a line after the given index, or -1
+   */
+  private static int closingLabelEnd(CharSequence input, int start, int labelStart, int labelEnd) {
+    int length = input.length();
+    for (int i = start; i < length; i++) {
+      char c = input.charAt(i);
+      if (c == '\r' || c == '\n') {
+        int lineStart = c == '\r' && i + 1 < length && input.charAt(i + 1) == '\n' ? (i + 2) : (i + 1);
+        if (regionMatches(input, lineStart, labelStart, labelEnd)) {
+          return lineStart + labelEnd - labelStart;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static boolean regionMatches(CharSequence input, int start, int otherStart, int otherEnd) {
+    if (start + otherEnd - otherStart > input.length()) {
+      return false;
+    }
+    for (int i = otherStart; i < otherEnd; i++) {
+      if (input.charAt(start + i - otherStart) != input.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class TerminalExpression extends NativeExpression implements Matcher {
+
+    private final LexicalTerminal terminal;
+
+    TerminalExpression(LexicalTerminal terminal) {
+      this.terminal = terminal;
+    }
+
+    @Override
+    public void execute(Machine machine) {
+      AnalysisInterruptedException.throwIfInterrupted();
+      int end = terminal.scan(machine, 0);
+      if (end >= 0) {
+        machine.createLeafNode(this, end);
+        machine.jump(1);
+      } else {
+        machine.backtrack();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "Terminal " + terminal;
+    }
+
+  }
+
+}
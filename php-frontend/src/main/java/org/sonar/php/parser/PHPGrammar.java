@@ -479,23 +479,14 @@ public class PHPGrammar {
    * [ START ] Statement
    */
 
+  // The alternatives of the statement rules are only tried when they can start with the first token, see PHPLexicalGrammar#statementDispatch
   public StatementTree TOP_STATEMENT() {
     return b.<StatementTree>nonterminal(PHPLexicalGrammar.TOP_STATEMENT).is(
-      b.firstOf(
-        CLASS_DECLARATION(),
-        TRAIT_DECLARATION(),
-        FUNCTION_DECLARATION(),
-        INTERFACE_DECLARATION(),
-        NAMESPACE_STATEMENT(),
-        GROUP_USE_STATEMENT(),
-        USE_STATEMENT(),
-        CONSTANT_DECLARATION(),
-        HALT_COMPILER_STATEMENT(),
-        STATEMENT()));
+      (StatementTree) b.invokeRule(PHPLexicalGrammar.TOP_STATEMENT_DISPATCH));
   }
 
   public ExpressionStatementTree HALT_COMPILER_STATEMENT() {
-    return b.<ExpressionStatementTree>nonterminal().is(
+    return b.<ExpressionStatementTree>nonterminal(PHPLexicalGrammar.HALT_COMPILER_STATEMENT).is(
       f.haltCompilerStatement(
         b.token(HALT_COMPILER),
         b.token(LPARENTHESIS),
@@ -545,30 +536,7 @@ public class PHPGrammar {
 
   public StatementTree STATEMENT() {
     return b.<StatementTree>nonterminal(PHPLexicalGrammar.STATEMENT).is(
-      b.firstOf(
-        BLOCK(),
-        THROW_STATEMENT(),
-        IF_STATEMENT(),
-        WHILE_STATEMENT(),
-        DO_WHILE_STATEMENT(),
-        FOREACH_STATEMENT(),
-        FOR_STATEMENT(),
-        SWITCH_STATEMENT(),
-        BREAK_STATEMENT(),
-        CONTINUE_STATEMENT(),
-        RETURN_STATEMENT(),
-        EMPTY_STATEMENT(),
-        YIELD_STATEMENT(),
-        GLOBAL_STATEMENT(),
-        STATIC_STATEMENT(),
-        ECHO_STATEMENT(),
-        TRY_STATEMENT(),
-        DECLARE_STATEMENT(),
-        GOTO_STATEMENT(),
-        INLINE_HTML(),
-        UNSET_VARIABLE_STATEMENT(),
-        EXPRESSION_STATEMENT(),
-        LABEL()));
+      (StatementTree) b.invokeRule(PHPLexicalGrammar.STATEMENT_DISPATCH));
   }
 
   public ExpressionStatementTree ECHO_STATEMENT() {
@@ -631,15 +599,9 @@ public class PHPGrammar {
 
   public StatementTree INNER_STATEMENT() {
     return b.<StatementTree>nonterminal(PHPLexicalGrammar.INNER_STATEMENT).is(
-      b.firstOf(
-        FUNCTION_DECLARATION(),
-        CLASS_DECLARATION(),
-        TRAIT_DECLARATION(),
-        INTERFACE_DECLARATION(),
-        STATEMENT()));
+      (StatementTree) b.invokeRule(PHPLexicalGrammar.INNER_STATEMENT_DISPATCH));
   }
 
-
   public GlobalStatementTree GLOBAL_STATEMENT() {
     return b.<GlobalStatementTree>nonterminal(PHPLexicalGrammar.GLOBAL_STATEMENT).is(
       f.globalStatement(
@@ -973,127 +935,47 @@ public class PHPGrammar {
         POSTFIX_EXPRESSION()));
   }
 
-  public ExpressionTree CONCATENATION_EXPR() {
-    return b.<ExpressionTree>nonterminal(Kind.CONCATENATION).is(
-      f.concatenationExpr(
+  public ExpressionTree BINARY_EXPR() {
+    return b.<ExpressionTree>nonterminal(PHPLexicalGrammar.BINARY_EXPR).is(
+      f.binaryExpression(
         UNARY_EXPR(),
         b.zeroOrMore(f.newTuple60(
-          b.token(DOT),
+          // longest operators first, precedence being handled by the tree factory
+          b.firstOf(
+            b.token(PHPPunctuator.NULL_COALESCE),
+            b.token(PHPPunctuator.OROR),
+            b.token(PHPKeyword.OR),
+            b.token(PHPKeyword.XOR),
+            b.token(PHPPunctuator.ANDAND),
+            b.token(PHPKeyword.AND),
+            b.token(PHPPunctuator.OR),
+            b.token(PHPPunctuator.XOR),
+            b.token(PHPPunctuator.AMPERSAND),
+            b.token(NOTEQUAL2),
+            b.token(NOTEQUAL),
+            b.token(EQUAL2),
+            b.token(EQUAL),
+            b.token(SPACESHIP),
+            b.token(NOTEQUALBIS),
+            b.token(SL),
+            b.token(SR),
+            b.token(LE),
+            b.token(GE),
+            b.token(LT),
+            b.token(GT),
+            b.token(PLUS),
+            b.token(MINUS),
+            b.token(STAR),
+            b.token(DIV),
+            b.token(MOD),
+            b.token(DOT)),
           UNARY_EXPR()))));
   }
 
-  public ExpressionTree MULTIPLICATIVE_EXPR() {
-    return b.<ExpressionTree>nonterminal(PHPLexicalGrammar.MULTIPLICATIVE_EXPR).is(
-      f.multiplicativeExpr(
-        CONCATENATION_EXPR(),
-        b.zeroOrMore(f.newTuple61(
-          b.firstOf(b.token(STAR), b.token(DIV), b.token(MOD)),
-          CONCATENATION_EXPR()))));
-  }
-
-  public ExpressionTree ADDITIVE_EXPR() {
-    return b.<ExpressionTree>nonterminal(PHPLexicalGrammar.ADDITIVE_EXPR).is(
-      f.additiveExpr(
-        MULTIPLICATIVE_EXPR(),
-        b.zeroOrMore(f.newTuple62(
-          b.firstOf(b.token(PLUS), b.token(MINUS)),
-          MULTIPLICATIVE_EXPR()))));
-  }
-
-  public ExpressionTree SHIFT_EXPR() {
-    return b.<ExpressionTree>nonterminal(PHPLexicalGrammar.SHIFT_EXPR).is(
-      f.shiftExpr(
-        ADDITIVE_EXPR(),
-        b.zeroOrMore(f.newTuple63(
-          b.firstOf(b.token(SL), b.token(SR)),
-          ADDITIVE_EXPR()))));
-  }
-
-  public ExpressionTree RELATIONAL_EXPR() {
-    return b.<ExpressionTree>nonterminal(PHPLexicalGrammar.RELATIONAL_EXPR).is(
-      f.relationalExpr(
-        SHIFT_EXPR(),
-        b.zeroOrMore(f.newTuple64(
-          b.firstOf(b.token(LE), b.token(GE), b.token(LT), b.token(GT)),
-          SHIFT_EXPR()))));
-  }
-
-  public ExpressionTree EQUALITY_EXPR() {
-    return b.<ExpressionTree>nonterminal(PHPLexicalGrammar.EQUALITY_EXPR).is(
-      f.equalityExpr(
-        RELATIONAL_EXPR(),
-        b.zeroOrMore(f.newTuple65(
-          b.firstOf(b.token(NOTEQUAL2), b.token(NOTEQUAL), b.token(EQUAL2), b.token(EQUAL), b.token(NOTEQUALBIS), b.token(SPACESHIP)),
-          RELATIONAL_EXPR()))));
-  }
-
-  public ExpressionTree BITWISE_AND_EXPR() {
-    return b.<ExpressionTree>nonterminal(Kind.BITWISE_AND).is(
-      f.bitwiseAndExpr(
-        EQUALITY_EXPR(),
-        b.zeroOrMore(f.newTuple66(
-          b.token(PHPPunctuator.AMPERSAND),
-          EQUALITY_EXPR()))));
-  }
-
-  public ExpressionTree BITWISE_XOR_EXPR() {
-    return b.<ExpressionTree>nonterminal(Kind.BITWISE_XOR).is(
-      f.bitwiseXorExpr(
-        BITWISE_AND_EXPR(),
-        b.zeroOrMore(f.newTuple67(
-          b.token(PHPPunctuator.XOR),
-          BITWISE_AND_EXPR()))));
-  }
-
-  public ExpressionTree BITWISE_OR_EXPR() {
-    return b.<ExpressionTree>nonterminal(Kind.BITWISE_OR).is(
-      f.bitwiseOrExpr(
-        BITWISE_XOR_EXPR(),
-        b.zeroOrMore(f.newTuple68(
-          b.token(PHPPunctuator.OR),
-          BITWISE_XOR_EXPR()))));
-  }
-
-  public ExpressionTree CONDITIONAL_AND_EXPR() {
-    return b.<ExpressionTree>nonterminal(Kind.CONDITIONAL_AND).is(
-      f.logicalAndExpr(
-        BITWISE_OR_EXPR(),
-        b.zeroOrMore(f.newTuple69(
-          b.firstOf(b.token(PHPPunctuator.ANDAND), b.token(PHPKeyword.AND)),
-          BITWISE_OR_EXPR()))));
-  }
-
-  public ExpressionTree CONDITIONAL_XOR_EXPR() {
-    return b.<ExpressionTree>nonterminal(Kind.ALTERNATIVE_CONDITIONAL_XOR).is(
-      f.logicalXorExpr(
-        CONDITIONAL_AND_EXPR(),
-        b.zeroOrMore(f.newTuple70(
-          b.token(PHPKeyword.XOR),
-          CONDITIONAL_AND_EXPR()))));
-  }
-
-  public ExpressionTree CONDITIONAL_OR_EXPR() {
-    return b.<ExpressionTree>nonterminal(Kind.CONDITIONAL_OR).is(
-      f.logicalOrExpr(
-        CONDITIONAL_XOR_EXPR(),
-        b.zeroOrMore(f.newTuple71(
-          b.firstOf(b.token(PHPPunctuator.OROR), b.token(PHPKeyword.OR)),
-          CONDITIONAL_XOR_EXPR()))));
-  }
-
-  public ExpressionTree NULL_COALESCING_EXPRESSION() {
-    return b.<ExpressionTree>nonterminal(Kind.NULL_COALESCING_EXPRESSION).is(
-      f.nullCoalescingExpr(
-        b.zeroOrMore(f.newTuple72(
-          CONDITIONAL_OR_EXPR(),
-          b.token(PHPPunctuator.NULL_COALESCE))),
-        CONDITIONAL_OR_EXPR()));
-  }
-
   public ExpressionTree CONDITIONAL_EXPR() {
     return b.<ExpressionTree>nonterminal(Kind.CONDITIONAL_EXPRESSION).is(
       f.completeConditionalExpr(
-        NULL_COALESCING_EXPRESSION(),
+        BINARY_EXPR(),
         b.optional(
           f.newConditionalExpr(b.token(QUERY), b.optional(CONDITIONAL_EXPR()), b.token(COLON), CONDITIONAL_EXPR())
         )));
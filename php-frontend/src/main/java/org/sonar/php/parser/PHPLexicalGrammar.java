@@ -22,9 +22,9 @@ package org.sonar.php.parser;
 import com.sonar.sslr.api.GenericTokenType;
 import org.sonar.php.api.PHPKeyword;
 import org.sonar.php.api.PHPPunctuator;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
-import org.sonar.sslr.parser.LexerlessGrammar;
 
 public enum PHPLexicalGrammar implements GrammarRuleKey {
 
@@ -97,6 +97,12 @@ public enum PHPLexicalGrammar implements GrammarRuleKey {
   STATEMENT,
   INNER_STATEMENT,
 
+  TOP_STATEMENT_DISPATCH,
+  STATEMENT_DISPATCH,
+  INNER_STATEMENT_DISPATCH,
+
+  HALT_COMPILER_STATEMENT,
+
   BLOCK,
 
   EMPTY_STATEMENT,
@@ -173,11 +179,14 @@ public enum PHPLexicalGrammar implements GrammarRuleKey {
   BOOLEAN_LITERAL,
   LEXICAL_VARIABLE,
   ASSIGNMENT_EXPRESSION,
-  MULTIPLICATIVE_EXPR,
-  ADDITIVE_EXPR,
-  SHIFT_EXPR,
-  RELATIONAL_EXPR,
-  EQUALITY_EXPR,
+  /**
+   * All the binary expressions, from the null coalescing one to the concatenation, built by precedence climbing.
+   * It replaces the rule keys of the former levels of precedence, which can no longer be used to start parsing:
+   * MULTIPLICATIVE_EXPR, ADDITIVE_EXPR, SHIFT_EXPR, RELATIONAL_EXPR and EQUALITY_EXPR, as well as Kind.CONCATENATION,
+   * Kind.BITWISE_AND, Kind.BITWISE_XOR, Kind.BITWISE_OR, Kind.CONDITIONAL_AND, Kind.ALTERNATIVE_CONDITIONAL_XOR,
+   * Kind.CONDITIONAL_OR and Kind.NULL_COALESCING_EXPRESSION, which remain the kinds of the trees.
+   */
+  BINARY_EXPR,
   POSTFIX_EXPR,
   UNARY_EXPR,
   ASSIGNMENT_BY_REFERENCE,
@@ -234,47 +243,48 @@ public enum PHPLexicalGrammar implements GrammarRuleKey {
   FROM
   ;
 
-  public static LexerlessGrammar createGrammar() {
-    return createGrammarBuilder().build();
+  public static LexerlessGrammarBuilder createGrammarBuilder() {
+    return createGrammarBuilder(new BacktrackCounter());
   }
 
-  public static LexerlessGrammarBuilder createGrammarBuilder() {
+  static LexerlessGrammarBuilder createGrammarBuilder(BacktrackCounter backtracks) {
     LexerlessGrammarBuilder b = LexerlessGrammarBuilder.create();
 
     lexical(b);
     punctuators(b);
     keywords(b);
+    statementDispatch(b, backtracks);
 
     return b;
   }
 
   public static void lexical(LexerlessGrammarBuilder b) {
     b.rule(SPACING).is(
-      b.skippedTrivia(b.regexp("[" + LexicalConstant.LINE_TERMINATOR + LexicalConstant.WHITESPACE + "]*+")),
+      b.skippedTrivia(LexicalTerminal.LINE_TERMINATORS_AND_WHITESPACES.expression()),
       b.zeroOrMore(
-        b.commentTrivia(b.regexp(LexicalConstant.COMMENT)),
-        b.skippedTrivia(b.regexp("[" + LexicalConstant.LINE_TERMINATOR + LexicalConstant.WHITESPACE + "]*+")))
+        b.commentTrivia(LexicalTerminal.COMMENT.expression()),
+        b.skippedTrivia(LexicalTerminal.LINE_TERMINATORS_AND_WHITESPACES.expression()))
       ).skip();
 
     // Literals
-    b.rule(HEREDOC).is(SPACING, b.regexp(LexicalConstant.HEREDOC));
-    b.rule(NUMERIC_LITERAL).is(SPACING, b.regexp(LexicalConstant.NUMERIC_LITERAL));
-    b.rule(REGULAR_STRING_LITERAL).is(SPACING, b.regexp(LexicalConstant.STRING_LITERAL));
+    b.rule(HEREDOC).is(SPACING, LexicalTerminal.HEREDOC.expression());
+    b.rule(NUMERIC_LITERAL).is(SPACING, LexicalTerminal.NUMERIC_LITERAL.expression());
+    b.rule(REGULAR_STRING_LITERAL).is(SPACING, LexicalTerminal.STRING_LITERAL.expression());
 
-    b.rule(STRING_WITH_ENCAPS_VAR_CHARACTERS).is(b.regexp(LexicalConstant.STRING_WITH_ENCAPS_VAR_CHARACTERS));
+    b.rule(STRING_WITH_ENCAPS_VAR_CHARACTERS).is(LexicalTerminal.STRING_WITH_ENCAPS_VAR_CHARACTERS.expression());
     b.rule(DOUBLE_QUOTE).is("\"");
     // FIXME: this recovery is introduce in order to parse ${var}, as expression cannot match keywords.
     b.rule(SEMI_COMPLEX_RECOVERY_EXPRESSION).is(b.regexp("[^}]++"));
 
     // Identifier
-    b.rule(WHITESPACES).is(b.regexp("[" + LexicalConstant.WHITESPACE + "]*+"));
+    b.rule(WHITESPACES).is(LexicalTerminal.WHITESPACES.expression());
     b.rule(REGULAR_VAR_IDENTIFIER).is(SPACING, VARIABLE_IDENTIFIER).skip();
-    b.rule(VARIABLE_IDENTIFIER).is(b.regexp(LexicalConstant.VAR_IDENTIFIER));
-    b.rule(IDENTIFIER).is(SPACING, b.nextNot(KEYWORDS), b.regexp(LexicalConstant.IDENTIFIER));
+    b.rule(VARIABLE_IDENTIFIER).is(LexicalTerminal.VAR_IDENTIFIER.expression());
+    b.rule(IDENTIFIER).is(SPACING, b.nextNot(KEYWORDS), LexicalTerminal.IDENTIFIER.expression());
 
     // Tags & Inline HTML
-    b.rule(FILE_OPENING_TAG).is(SPACING, b.regexp(LexicalConstant.PHP_START_TAG)).skip();
-    b.rule(INLINE_HTML).is(SPACING, b.regexp(LexicalConstant.PHP_END_TAG)).skip();
+    b.rule(FILE_OPENING_TAG).is(SPACING, LexicalTerminal.PHP_START_TAG.expression()).skip();
+    b.rule(INLINE_HTML).is(SPACING, LexicalTerminal.PHP_END_TAG.expression()).skip();
 
     b.rule(EOF).is(b.token(GenericTokenType.EOF, b.endOfInput())).skip();
 
@@ -319,6 +329,55 @@ public enum PHPLexicalGrammar implements GrammarRuleKey {
 
   }
 
+  /**
+   * Alternatives of the statement rules of {@link PHPGrammar}, in the order in which they are tried, with the tokens they can start with.
+   */
+  private static void statementDispatch(LexerlessGrammarBuilder b, BacktrackCounter backtracks) {
+    b.rule(TOP_STATEMENT_DISPATCH).is(new FirstTokenDispatchExpression(b, backtracks)
+      .alternative(CLASS_DECLARATION, PHPKeyword.ABSTRACT, PHPKeyword.FINAL, PHPKeyword.CLASS)
+      .alternative(TRAIT_DECLARATION, PHPKeyword.TRAIT)
+      .alternative(FUNCTION_DECLARATION, PHPKeyword.FUNCTION)
+      .alternative(INTERFACE_DECLARATION, PHPKeyword.INTERFACE)
+      .alternative(NAMESPACE_STATEMENT, PHPKeyword.NAMESPACE)
+      .alternative(Kind.GROUP_USE_STATEMENT, PHPKeyword.USE)
+      .alternative(USE_STATEMENT, PHPKeyword.USE)
+      .alternative(CONSTANT_DECLARATION, PHPKeyword.CONST)
+      .alternative(HALT_COMPILER_STATEMENT, PHPKeyword.HALT_COMPILER)
+      .alternative(STATEMENT));
+
+    b.rule(STATEMENT_DISPATCH).is(new FirstTokenDispatchExpression(b, backtracks)
+      .alternative(BLOCK, PHPPunctuator.LCURLYBRACE)
+      .alternative(THROW_STATEMENT, PHPKeyword.THROW)
+      .alternative(IF_STATEMENT, PHPKeyword.IF)
+      .alternative(WHILE_STATEMENT, PHPKeyword.WHILE)
+      .alternative(DO_WHILE_STATEMENT, PHPKeyword.DO)
+      .alternative(FOREACH_STATEMENT, PHPKeyword.FOREACH)
+      .alternative(FOR_STATEMENT, PHPKeyword.FOR)
+      .alternative(SWITCH_STATEMENT, PHPKeyword.SWITCH)
+      .alternative(BREAK_STATEMENT, PHPKeyword.BREAK)
+      .alternative(CONTINUE_STATEMENT, PHPKeyword.CONTINUE)
+      .alternative(RETURN_STATEMENT, PHPKeyword.RETURN)
+      .alternative(EMPTY_STATEMENT, PHPPunctuator.SEMICOLON)
+      .alternative(YIELD_STATEMENT, PHPKeyword.YIELD)
+      .alternative(GLOBAL_STATEMENT, PHPKeyword.GLOBAL)
+      .alternative(STATIC_STATEMENT, PHPKeyword.STATIC)
+      .alternative(ECHO_STATEMENT, PHPKeyword.ECHO)
+      .alternative(TRY_STATEMENT, PHPKeyword.TRY)
+      .alternative(DECLARE_STATEMENT, PHPKeyword.DECLARE)
+      .alternative(GOTO_STATEMENT, PHPKeyword.GOTO)
+      .alternative(INLINE_HTML_STATEMENT, INLINE_HTML)
+      .alternative(UNSET_VARIABLE_STATEMENT, PHPKeyword.UNSET)
+      .alternative(EXPRESSION_STATEMENT)
+      .alternative(LABEL, IDENTIFIER));
+
+    b.rule(INNER_STATEMENT_DISPATCH).is(new FirstTokenDispatchExpression(b, backtracks)
+      .alternative(FUNCTION_DECLARATION, PHPKeyword.FUNCTION)
+      .alternative(CLASS_DECLARATION, PHPKeyword.ABSTRACT, PHPKeyword.FINAL, PHPKeyword.CLASS)
+      .alternative(TRAIT_DECLARATION, PHPKeyword.TRAIT)
+      .alternative(INTERFACE_DECLARATION, PHPKeyword.INTERFACE)
+      .alternative(STATEMENT));
+  }
+
   private static void keywords(LexerlessGrammarBuilder b) {
     Object[] rest = new Object[PHPKeyword.values().length - 2];
 
@@ -326,7 +385,7 @@ public enum PHPLexicalGrammar implements GrammarRuleKey {
       PHPKeyword tokenType = PHPKeyword.values()[i];
 
       // PHP keywords are case insensitive
-      b.rule(tokenType).is(SPACING, b.regexp("(?i)" + tokenType.getValue()), b.nextNot(b.regexp(LexicalConstant.IDENTIFIER_PART))).skip();
+      b.rule(tokenType).is(SPACING, b.regexp("(?i)" + tokenType.getValue()), b.nextNot(LexicalTerminal.IDENTIFIER_PART.expression())).skip();
       if (i > 1) {
         rest[i - 2] = b.regexp("(?i)" + tokenType.getValue());
       }
@@ -337,7 +396,7 @@ public enum PHPLexicalGrammar implements GrammarRuleKey {
         PHPKeyword.getKeywordValues()[0],
         PHPKeyword.getKeywordValues()[1],
         rest),
-      b.nextNot(b.regexp(LexicalConstant.IDENTIFIER_PART))
+      b.nextNot(LexicalTerminal.IDENTIFIER_PART.expression())
       );
   }
 
@@ -348,7 +407,7 @@ public enum PHPLexicalGrammar implements GrammarRuleKey {
   }
 
   private static Object word(LexerlessGrammarBuilder b, String word) {
-    return b.sequence(SPACING, b.regexp("(?i)" + word), b.nextNot(b.regexp(LexicalConstant.IDENTIFIER_PART)));
+    return b.sequence(SPACING, b.regexp("(?i)" + word), b.nextNot(LexicalTerminal.IDENTIFIER_PART.expression()));
   }
 
 }
@@ -19,7 +19,6 @@
  */
 package org.sonar.php.parser;
 
-import com.google.common.collect.Lists;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Rule;
 import com.sonar.sslr.api.Token;
@@ -30,18 +29,39 @@ import com.sonar.sslr.api.typed.NodeBuilder;
 import org.sonar.php.tree.impl.PHPTree;
 import org.sonar.php.tree.impl.lexical.InternalSyntaxToken;
 import org.sonar.php.tree.impl.lexical.InternalSyntaxTrivia;
+import org.sonar.php.tree.impl.lexical.TokenTable;
+import org.sonar.php.utils.AnalysisInterruptedException;
 import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
 import org.sonar.plugins.php.api.visitors.VisitorCheck;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 public class PHPNodeBuilder implements NodeBuilder {
 
+  /**
+   * Table the tokens of the file being parsed refer to.
+   */
+  private TokenTable tokenTable;
+
+  /**
+   * @return the table of the tokens created from now on, to be filled with the tree of the parsed file
+   */
+  TokenTable newTokenTable() {
+    tokenTable = new TokenTable();
+    return tokenTable;
+  }
+
   @Override
   public Object createNonTerminal(GrammarRuleKey ruleKey, Rule rule, List<Object> children, int startIndex, int endIndex) {
+    if (isStatementDispatch(ruleKey)) {
+      // stands for the statement it matched
+      return children.get(0);
+    }
     for (Object child : children) {
       if (child instanceof InternalSyntaxToken) {
         return child;
@@ -50,44 +70,78 @@ public class PHPNodeBuilder implements NodeBuilder {
     return new InternalSyntaxSpacing();
   }
 
+  private static boolean isStatementDispatch(GrammarRuleKey ruleKey) {
+    return ruleKey == PHPLexicalGrammar.TOP_STATEMENT_DISPATCH
+      || ruleKey == PHPLexicalGrammar.STATEMENT_DISPATCH
+      || ruleKey == PHPLexicalGrammar.INNER_STATEMENT_DISPATCH;
+  }
+
   @Override
   public Object createTerminal(Input input, int startIndex, int endIndex, List<Trivia> trivias, TokenType type) {
+    AnalysisInterruptedException.throwIfInterrupted();
     boolean isEof = GenericTokenType.EOF.equals(type);
-    LineColumnValue lineColumnValue = tokenPosition(input, startIndex, endIndex);
+    int[] lineAndColumn = input.lineAndColumnAt(startIndex);
+    char[] source = input.input();
     return new InternalSyntaxToken(
-      lineColumnValue.line,
-      lineColumnValue.column,
-      lineColumnValue.value,
-      createTrivias(trivias),
+      lineAndColumn[0],
+      lineAndColumn[1] - 1,
+      source,
       startIndex,
-      isEof);
+      endIndex,
+      TokenTexts.lookup(source, startIndex, endIndex),
+      createTrivias(source, startIndex, trivias),
+      isEof,
+      tokenTable);
   }
 
-  private static List<SyntaxTrivia> createTrivias(List<Trivia> trivias) {
-    List<SyntaxTrivia> result = Lists.newArrayList();
-    for (Trivia trivia : trivias) {
-      Token trivialToken = trivia.getToken();
-      result.add(InternalSyntaxTrivia.create(trivialToken.getValue(), trivialToken.getLine(), trivialToken.getColumn()));
+  /**
+   * The comments preceding a token are found in its spacing, from the last one to the first one, so that they slice
+   * their text from the source instead of retaining the value of the SSLR tokens.
+   */
+  private static List<SyntaxTrivia> createTrivias(char[] source, int tokenStartIndex, List<Trivia> trivias) {
+    if (trivias.isEmpty()) {
+      return Collections.emptyList();
+    }
+    SyntaxTrivia[] result = new SyntaxTrivia[trivias.size()];
+    int end = tokenStartIndex;
+    for (int i = result.length - 1; i >= 0; i--) {
+      Token trivialToken = trivias.get(i).getToken();
+      String comment = trivialToken.getValue();
+      int start = end < 0 ? -1 : commentStart(source, end, comment);
+      if (start < 0) {
+        result[i] = InternalSyntaxTrivia.create(comment, trivialToken.getLine(), trivialToken.getColumn());
+      } else {
+        result[i] = new InternalSyntaxTrivia(source, start, start + comment.length(), trivialToken.getLine(), trivialToken.getColumn());
+      }
+      end = start;
     }
-    return result;
+    return Arrays.asList(result);
   }
 
-  private static LineColumnValue tokenPosition(Input input, int startIndex, int endIndex) {
-    int[] lineAndColumn = input.lineAndColumnAt(startIndex);
-    String value = input.substring(startIndex, endIndex);
-    return new LineColumnValue(lineAndColumn[0], lineAndColumn[1] - 1, value);
+  /**
+   * @return the start index of the given comment when it ends before the given index, with only whitespaces between
+   * them, otherwise -1
+   */
+  private static int commentStart(char[] source, int end, String comment) {
+    int length = comment.length();
+    for (int commentEnd = end; commentEnd >= length; commentEnd--) {
+      if (matches(source, commentEnd - length, comment)) {
+        return commentEnd - length;
+      }
+      if (!Character.isWhitespace(source[commentEnd - 1])) {
+        return -1;
+      }
+    }
+    return -1;
   }
 
-  private static class LineColumnValue {
-    final int line;
-    final int column;
-    final String value;
-
-    private LineColumnValue(int line, int column, String value) {
-      this.line = line;
-      this.column = column;
-      this.value = value;
+  private static boolean matches(char[] source, int start, String comment) {
+    for (int i = 0; i < comment.length(); i++) {
+      if (source[start + i] != comment.charAt(i)) {
+        return false;
+      }
     }
+    return true;
   }
 
   private static class InternalSyntaxSpacing extends PHPTree {
@@ -0,0 +1,77 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.php.tree.impl.lexical.TokenTable;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.sslr.grammar.GrammarRuleKey;
+
+import java.io.File;
+import java.nio.charset.Charset;
+
+/**
+ * Parser indexing the tokens of each tree it creates in a {@link TokenTable}.
+ */
+class PHPParser extends ActionParser<Tree> {
+
+  private final BacktrackCounter backtracks;
+  private final PHPNodeBuilder nodeBuilder;
+
+  PHPParser(Charset charset, GrammarRuleKey rootRuleKey) {
+    this(charset, rootRuleKey, new BacktrackCounter(), new PHPNodeBuilder());
+  }
+
+  private PHPParser(Charset charset, GrammarRuleKey rootRuleKey, BacktrackCounter backtracks, PHPNodeBuilder nodeBuilder) {
+    super(charset, PHPLexicalGrammar.createGrammarBuilder(backtracks), PHPGrammar.class, new TreeFactory(), nodeBuilder, rootRuleKey);
+    this.backtracks = backtracks;
+    this.nodeBuilder = nodeBuilder;
+  }
+
+  @Override
+  public Tree parse(File file) {
+    backtracks.reset();
+    TokenTable tokenTable = nodeBuilder.newTokenTable();
+    return indexed(super.parse(file), tokenTable);
+  }
+
+  @Override
+  public Tree parse(String source) {
+    backtracks.reset();
+    TokenTable tokenTable = nodeBuilder.newTokenTable();
+    return indexed(super.parse(source), tokenTable);
+  }
+
+  /**
+   * @return the number of alternatives of the statement rules tried without success by the last parse
+   */
+  long backtracks() {
+    return backtracks.count();
+  }
+
+  private static Tree indexed(Tree tree, TokenTable tokenTable) {
+    if (tree instanceof PHPTree) {
+      tokenTable.index(tree);
+    }
+    return tree;
+  }
+
+}
@@ -32,29 +32,26 @@ public class PHPParserBuilder {
   }
 
   public static ActionParser<Tree> createParser(Charset charset) {
-    return new ActionParser<>(
-        charset,
-        PHPLexicalGrammar.createGrammarBuilder(),
-        PHPGrammar.class,
-        new TreeFactory(),
-        new PHPNodeBuilder(),
-        PHPLexicalGrammar.COMPILATION_UNIT);
+    return new PHPParser(charset, PHPLexicalGrammar.COMPILATION_UNIT);
   }
 
   /**
    * This method should be used by tests only.
    * Provides ability to start parsing from some rule other than PHPLexicalGrammar.COMPILATION_UNIT.
+   * The binary expressions of all levels of precedence are parsed from {@link PHPLexicalGrammar#BINARY_EXPR}.
    * @param rootRule rule from which parsing starts
    * @param charset
    */
   public static ActionParser<Tree> createParser(GrammarRuleKey rootRule, Charset charset) {
-    return new ActionParser<>(
-        charset,
-        PHPLexicalGrammar.createGrammarBuilder(),
-        PHPGrammar.class,
-        new TreeFactory(),
-        new PHPNodeBuilder(),
-        rootRule);
+    return new PHPParser(charset, rootRule);
+  }
+
+  /**
+   * @return the number of alternatives of the statement rules tried without success by the last parse
+   * of the given parser, or 0 if it was not created by this builder
+   */
+  public static long backtracks(ActionParser<Tree> parser) {
+    return parser instanceof PHPParser ? ((PHPParser) parser).backtracks() : 0;
   }
 
 
@@ -0,0 +1,167 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser;
+
+import com.sonar.sslr.api.typed.Optional;
+import org.sonar.php.api.PHPKeyword;
+import org.sonar.php.api.PHPPunctuator;
+import org.sonar.php.parser.TreeFactory.Tuple;
+import org.sonar.php.tree.impl.expression.BinaryExpressionTreeImpl;
+import org.sonar.php.tree.impl.lexical.InternalSyntaxToken;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.expression.ExpressionTree;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the binary expressions by precedence climbing from the flat sequence of operands and operators matched by
+ * {@link PHPLexicalGrammar#BINARY_EXPR}, instead of going through a grammar rule for each level of precedence.
+ *
+ * <p>The operators of a level are left associative, except the null coalescing one which is right associative. As in
+ * the former grammar rules, the concatenation has the highest precedence.
+ */
+final class PrecedenceClimbing {
+
+  /**
+   * Operators by canonical text of their keyword or punctuator, shared by all their tokens thanks to {@link TokenTexts}.
+   */
+  private static final Map<String, Operator> OPERATORS = new IdentityHashMap<>();
+  private static final List<Operator> ALL_OPERATORS = new ArrayList<>();
+
+  static {
+    add(1, PHPPunctuator.NULL_COALESCE.getValue(), Kind.NULL_COALESCING_EXPRESSION);
+    add(2, PHPPunctuator.OROR.getValue(), Kind.CONDITIONAL_OR);
+    add(2, PHPKeyword.OR.getValue(), Kind.ALTERNATIVE_CONDITIONAL_OR);
+    add(3, PHPKeyword.XOR.getValue(), Kind.ALTERNATIVE_CONDITIONAL_XOR);
+    add(4, PHPPunctuator.ANDAND.getValue(), Kind.CONDITIONAL_AND);
+    add(4, PHPKeyword.AND.getValue(), Kind.ALTERNATIVE_CONDITIONAL_AND);
+    add(5, PHPPunctuator.OR.getValue(), Kind.BITWISE_OR);
+    add(6, PHPPunctuator.XOR.getValue(), Kind.BITWISE_XOR);
+    add(7, PHPPunctuator.AMPERSAND.getValue(), Kind.BITWISE_AND);
+    add(8, PHPPunctuator.EQUAL.getValue(), Kind.EQUAL_TO);
+    add(8, PHPPunctuator.EQUAL2.getValue(), Kind.STRICT_EQUAL_TO);
+    add(8, PHPPunctuator.NOTEQUAL.getValue(), Kind.NOT_EQUAL_TO);
+    add(8, PHPPunctuator.NOTEQUAL2.getValue(), Kind.STRICT_NOT_EQUAL_TO);
+    add(8, PHPPunctuator.NOTEQUALBIS.getValue(), Kind.ALTERNATIVE_NOT_EQUAL_TO);
+    add(8, PHPPunctuator.SPACESHIP.getValue(), Kind.COMPARISON);
+    add(9, PHPPunctuator.LT.getValue(), Kind.LESS_THAN);
+    add(9, PHPPunctuator.GT.getValue(), Kind.GREATER_THAN);
+    add(9, PHPPunctuator.LE.getValue(), Kind.LESS_THAN_OR_EQUAL_TO);
+    add(9, PHPPunctuator.GE.getValue(), Kind.GREATER_THAN_OR_EQUAL_TO);
+    add(10, PHPPunctuator.SL.getValue(), Kind.LEFT_SHIFT);
+    add(10, PHPPunctuator.SR.getValue(), Kind.RIGHT_SHIFT);
+    add(11, PHPPunctuator.PLUS.getValue(), Kind.PLUS);
+    add(11, PHPPunctuator.MINUS.getValue(), Kind.MINUS);
+    add(12, PHPPunctuator.STAR.getValue(), Kind.MULTIPLY);
+    add(12, PHPPunctuator.DIV.getValue(), Kind.DIVIDE);
+    add(12, PHPPunctuator.MOD.getValue(), Kind.REMAINDER);
+    add(13, PHPPunctuator.DOT.getValue(), Kind.CONCATENATION);
+  }
+
+  private final ExpressionTree[] operands;
+  private final InternalSyntaxToken[] tokens;
+  private final Operator[] operators;
+  private int next = 0;
+
+  private PrecedenceClimbing(ExpressionTree[] operands, InternalSyntaxToken[] tokens, Operator[] operators) {
+    this.operands = operands;
+    this.tokens = tokens;
+    this.operators = operators;
+  }
+
+  static ExpressionTree binaryExpression(ExpressionTree firstOperand, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
+    if (!operatorsAndOperands.isPresent()) {
+      return firstOperand;
+    }
+    List<Tuple<InternalSyntaxToken, ExpressionTree>> list = operatorsAndOperands.get();
+    if (list.size() == 1) {
+      Tuple<InternalSyntaxToken, ExpressionTree> tuple = list.get(0);
+      return new BinaryExpressionTreeImpl(operator(tuple.first()).kind, firstOperand, tuple.first(), tuple.second());
+    }
+
+    ExpressionTree[] operands = new ExpressionTree[list.size() + 1];
+    InternalSyntaxToken[] tokens = new InternalSyntaxToken[list.size()];
+    Operator[] operators = new Operator[list.size()];
+    operands[0] = firstOperand;
+    for (int i = 0; i < list.size(); i++) {
+      Tuple<InternalSyntaxToken, ExpressionTree> tuple = list.get(i);
+      tokens[i] = tuple.first();
+      operators[i] = operator(tuple.first());
+      operands[i + 1] = tuple.second();
+    }
+    return new PrecedenceClimbing(operands, tokens, operators).climb(0);
+  }
+
+  /**
+   * @return the expression starting at the next operand and made of the operators having at least the given precedence
+   */
+  private ExpressionTree climb(int minPrecedence) {
+    ExpressionTree result = operands[next];
+    while (next < operators.length && operators[next].precedence >= minPrecedence) {
+      Operator operator = operators[next];
+      InternalSyntaxToken token = tokens[next];
+      next++;
+      ExpressionTree rightOperand = climb(operator.rightAssociative ? operator.precedence : (operator.precedence + 1));
+      result = new BinaryExpressionTreeImpl(operator.kind, result, token, rightOperand);
+    }
+    return result;
+  }
+
+  private static Operator operator(InternalSyntaxToken token) {
+    String text = token.text();
+    Operator operator = OPERATORS.get(text);
+    if (operator == null) {
+      // keyword which is not in lower case, or token created without its canonical text
+      for (Operator candidate : ALL_OPERATORS) {
+        if (candidate.text.equalsIgnoreCase(text)) {
+          return candidate;
+        }
+      }
+      throw new IllegalArgumentException("Mapping not found for binary operator " + text);
+    }
+    return operator;
+  }
+
+  private static void add(int precedence, String text, Kind kind) {
+    Operator operator = new Operator(text, kind, precedence, kind == Kind.NULL_COALESCING_EXPRESSION);
+    OPERATORS.put(text, operator);
+    ALL_OPERATORS.add(operator);
+  }
+
+  private static final class Operator {
+
+    private final String text;
+    private final Kind kind;
+    private final int precedence;
+    private final boolean rightAssociative;
+
+    Operator(String text, Kind kind, int precedence, boolean rightAssociative) {
+      this.text = text;
+      this.kind = kind;
+      this.precedence = precedence;
+      this.rightAssociative = rightAssociative;
+    }
+
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser;
+
+import org.sonar.php.api.PHPKeyword;
+import org.sonar.php.api.PHPPunctuator;
+
+import javax.annotation.Nullable;
+
+/**
+ * Canonical texts of the keywords and punctuators, looked up from a range of the source code without creating a string,
+ * so that all the tokens with the same keyword or punctuator share the same text.
+ */
+final class TokenTexts {
+
+  private static final String[] TABLE;
+  private static final int MASK;
+  private static final int MAX_LENGTH;
+
+  static {
+    int count = PHPKeyword.values().length + PHPPunctuator.values().length;
+    int size = Integer.highestOneBit(count * 4);
+    TABLE = new String[size];
+    MASK = size - 1;
+
+    int maxLength = 0;
+    for (PHPKeyword keyword : PHPKeyword.values()) {
+      maxLength = Math.max(maxLength, add(keyword.getValue()));
+    }
+    for (PHPPunctuator punctuator : PHPPunctuator.values()) {
+      maxLength = Math.max(maxLength, add(punctuator.getValue()));
+    }
+    MAX_LENGTH = maxLength;
+  }
+
+  private TokenTexts() {
+  }
+
+  /**
+   * @return the keyword or punctuator having exactly the characters of the given range, or null if there is none
+   */
+  @Nullable
+  static String lookup(char[] chars, int start, int end) {
+    int length = end - start;
+    if (length == 0 || length > MAX_LENGTH) {
+      return null;
+    }
+    int slot = hash(chars, start, end) & MASK;
+    String candidate;
+    while ((candidate = TABLE[slot]) != null) {
+      if (matches(candidate, chars, start, length)) {
+        return candidate;
+      }
+      slot = (slot + 1) & MASK;
+    }
+    return null;
+  }
+
+  private static int add(String text) {
+    char[] chars = text.toCharArray();
+    int slot = hash(chars, 0, chars.length) & MASK;
+    while (TABLE[slot] != null) {
+      slot = (slot + 1) & MASK;
+    }
+    TABLE[slot] = text;
+    return chars.length;
+  }
+
+  private static boolean matches(String candidate, char[] chars, int start, int length) {
+    if (candidate.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (candidate.charAt(i) != chars[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int hash(char[] chars, int start, int end) {
+    int h = 0;
+    for (int i = start; i < end; i++) {
+      h = 31 * h + chars[i];
+    }
+    return h ^ (h >>> 16);
+  }
+
+}
@@ -22,12 +22,10 @@ package org.sonar.php.parser;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
 import com.sonar.sslr.api.typed.Optional;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.sonar.php.api.PHPKeyword;
@@ -198,36 +196,6 @@ import org.sonar.plugins.php.api.tree.statement.YieldStatementTree;
 
 public class TreeFactory {
 
-  private static final Map<String, Kind> BINARY_EXPRESSION_KINDS_BY_OPERATOR = ImmutableMap.<String, Kind>builder()
-    .put(PHPPunctuator.DOT.getValue(), Kind.CONCATENATION)
-    .put(PHPPunctuator.STAR.getValue(), Kind.MULTIPLY)
-    .put(PHPPunctuator.DIV.getValue(), Kind.DIVIDE)
-    .put(PHPPunctuator.MOD.getValue(), Kind.REMAINDER)
-    .put(PHPPunctuator.PLUS.getValue(), Kind.PLUS)
-    .put(PHPPunctuator.MINUS.getValue(), Kind.MINUS)
-    .put(PHPPunctuator.SL.getValue(), Kind.LEFT_SHIFT)
-    .put(PHPPunctuator.SR.getValue(), Kind.RIGHT_SHIFT)
-    .put(PHPPunctuator.LT.getValue(), Kind.LESS_THAN)
-    .put(PHPPunctuator.GT.getValue(), Kind.GREATER_THAN)
-    .put(PHPPunctuator.LE.getValue(), Kind.LESS_THAN_OR_EQUAL_TO)
-    .put(PHPPunctuator.GE.getValue(), Kind.GREATER_THAN_OR_EQUAL_TO)
-    .put(PHPPunctuator.EQUAL.getValue(), Kind.EQUAL_TO)
-    .put(PHPPunctuator.EQUAL2.getValue(), Kind.STRICT_EQUAL_TO)
-    .put(PHPPunctuator.NOTEQUAL.getValue(), Kind.NOT_EQUAL_TO)
-    .put(PHPPunctuator.NOTEQUAL2.getValue(), Kind.STRICT_NOT_EQUAL_TO)
-    .put(PHPPunctuator.NOTEQUALBIS.getValue(), Kind.ALTERNATIVE_NOT_EQUAL_TO)
-    .put(PHPPunctuator.SPACESHIP.getValue(), Kind.COMPARISON)
-    .put(PHPPunctuator.AMPERSAND.getValue(), Kind.BITWISE_AND)
-    .put(PHPPunctuator.XOR.getValue(), Kind.BITWISE_XOR)
-    .put(PHPPunctuator.OR.getValue(), Kind.BITWISE_OR)
-    .put(PHPPunctuator.ANDAND.getValue(), Kind.CONDITIONAL_AND)
-    .put(PHPPunctuator.OROR.getValue(), Kind.CONDITIONAL_OR)
-    .put(PHPKeyword.AND.getValue(), Kind.ALTERNATIVE_CONDITIONAL_AND)
-    .put(PHPKeyword.XOR.getValue(), Kind.ALTERNATIVE_CONDITIONAL_XOR)
-    .put(PHPKeyword.OR.getValue(), Kind.ALTERNATIVE_CONDITIONAL_OR)
-    .put(PHPPunctuator.NULL_COALESCE.getValue(), Kind.NULL_COALESCING_EXPRESSION)
-    .build();
-
   private static final Map<String, Kind> UNARY_EXPRESSION_KINDS_BY_OPERATOR = ImmutableMap.<String, Kind>builder()
     .put(PHPPunctuator.INC.getValue(), Kind.PREFIX_INCREMENT)
     .put(PHPPunctuator.DEC.getValue(), Kind.PREFIX_DECREMENT)
@@ -1026,85 +994,8 @@ public class TreeFactory {
     return new PrefixExpressionTreeImpl(kind, operator, expression);
   }
 
-  public ExpressionTree concatenationExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree multiplicativeExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree additiveExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree shiftExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree relationalExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree equalityExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree bitwiseAndExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree bitwiseXorExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree bitwiseOrExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree logicalAndExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree logicalXorExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree logicalOrExpr(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    return binaryExpression(exp1, operatorsAndOperands);
-  }
-
-  public ExpressionTree nullCoalescingExpr(Optional<List<Tuple<ExpressionTree, InternalSyntaxToken>>> operatorsAndOperands, ExpressionTree exp1) {
-    if (!operatorsAndOperands.isPresent()) {
-      return exp1;
-    }
-
-    // coalescing operator has right associativity
-    ExpressionTree result = exp1;
-    for (Tuple<ExpressionTree, InternalSyntaxToken> t : Lists.reverse(operatorsAndOperands.get())) {
-      result = new BinaryExpressionTreeImpl(binaryKind(t.second()), t.first(), t.second(), result);
-    }
-    return result;
-  }
-
-  private static ExpressionTree binaryExpression(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
-    if (!operatorsAndOperands.isPresent()) {
-      return exp1;
-    }
-
-    ExpressionTree result = exp1;
-    for (Tuple<InternalSyntaxToken, ExpressionTree> t : operatorsAndOperands.get()) {
-      result = new BinaryExpressionTreeImpl(binaryKind(t.first()), result, t.first(), t.second());
-    }
-    return result;
-  }
-
-  private static Kind binaryKind(InternalSyntaxToken token) {
-    Kind kind = BINARY_EXPRESSION_KINDS_BY_OPERATOR.get(token.text().toLowerCase(Locale.ENGLISH));
-    if (kind == null) {
-      throw new IllegalArgumentException("Mapping not found for binary operator " + token.text());
-    }
-    return kind;
+  public ExpressionTree binaryExpression(ExpressionTree exp1, Optional<List<Tuple<InternalSyntaxToken, ExpressionTree>>> operatorsAndOperands) {
+    return PrecedenceClimbing.binaryExpression(exp1, operatorsAndOperands);
   }
 
   public LiteralTree numericLiteral(InternalSyntaxToken token) {
@@ -1783,54 +1674,6 @@ public class TreeFactory {
     return newTuple(first, second);
   }
 
-  public <T, U> Tuple<T, U> newTuple61(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple62(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple63(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple64(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple65(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple66(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple67(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple68(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple69(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple70(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple71(T first, U second) {
-    return newTuple(first, second);
-  }
-
-  public <T, U> Tuple<T, U> newTuple72(T first, U second) {
-    return newTuple(first, second);
-  }
-
   public <T, U> Tuple<T, U> newTuple75(T first, U second) {
     return newTuple(first, second);
   }
@@ -0,0 +1,166 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.profiling;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the wall time, the CPU time and the memory allocated by the current thread while running named
+ * pieces of work: phases of the analysis and checks.
+ *
+ * An instance must not be used by several threads at the same time: each analyzer has its own profiler,
+ * and the profilers are merged once the analysis is done.
+ */
+public class AnalysisProfiler {
+
+  public static final String PARSING = "Parsing";
+  public static final String SYMBOL_TABLE = "Symbol table";
+  public static final String METRICS = "Metrics";
+  public static final String SYNTAX_HIGHLIGHTING = "Syntax highlighting";
+  public static final String SYMBOL_HIGHLIGHTING = "Symbol highlighting";
+  public static final String CPD_TOKENS = "CPD tokens";
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+  private final boolean cpuTimeSupported;
+  private final Method allocatedBytesMethod;
+  private final Map<String, ProfileEntry> entries = new LinkedHashMap<>();
+
+  public AnalysisProfiler() {
+    cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    allocatedBytesMethod = allocatedBytesMethod(threadMXBean);
+  }
+
+  /**
+   * The allocated memory is only measured by the HotSpot extension of {@link ThreadMXBean}, which is looked up
+   * by reflection so that the analysis still runs on other JVMs.
+   */
+  @Nullable
+  private static Method allocatedBytesMethod(ThreadMXBean threadMXBean) {
+    try {
+      Class<?> extension = Class.forName("com.sun.management.ThreadMXBean");
+      if (extension.isInstance(threadMXBean)
+        && (Boolean) extension.getMethod("isThreadAllocatedMemorySupported").invoke(threadMXBean)
+        && (Boolean) extension.getMethod("isThreadAllocatedMemoryEnabled").invoke(threadMXBean)) {
+        return extension.getMethod("getThreadAllocatedBytes", long.class);
+      }
+    } catch (ReflectiveOperationException e) {
+      // not a HotSpot JVM
+    }
+    return null;
+  }
+
+  /**
+   * @return the current state of the thread, to be given to {@link #stop(String, Snapshot)} at the end of the work
+   */
+  public Snapshot start() {
+    return new Snapshot(System.nanoTime(), cpuTime(), allocatedBytes());
+  }
+
+  public void stop(String name, Snapshot start) {
+    long wallTime = System.nanoTime() - start.wallTimeNanos;
+    long cpuTime = cpuTime() - start.cpuTimeNanos;
+    long allocated = allocatedBytes() - start.allocatedBytes;
+    entry(name).add(wallTime, cpuTime, allocated);
+  }
+
+  /**
+   * Counts events which occurred while running the named work, without measuring it.
+   */
+  public void count(String name, long events) {
+    entry(name).addEvents(events);
+  }
+
+  /**
+   * Adds the entries of the other profiler to the ones of this profiler.
+   */
+  public void merge(AnalysisProfiler other) {
+    for (ProfileEntry otherEntry : other.entries.values()) {
+      entry(otherEntry.name()).add(otherEntry);
+    }
+  }
+
+  public Collection<ProfileEntry> entries() {
+    return Collections.unmodifiableCollection(entries.values());
+  }
+
+  /**
+   * @return entries sorted by decreasing wall time
+   */
+  public List<ProfileEntry> sortedEntries() {
+    List<ProfileEntry> sorted = new ArrayList<>(entries.values());
+    Collections.sort(sorted, new Comparator<ProfileEntry>() {
+      @Override
+      public int compare(ProfileEntry e1, ProfileEntry e2) {
+        return Long.compare(e2.wallTimeNanos(), e1.wallTimeNanos());
+      }
+    });
+    return ImmutableList.copyOf(sorted);
+  }
+
+  private ProfileEntry entry(String name) {
+    ProfileEntry entry = entries.get(name);
+    if (entry == null) {
+      entry = new ProfileEntry(name);
+      entries.put(name, entry);
+    }
+    return entry;
+  }
+
+  private long cpuTime() {
+    return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+  }
+
+  private long allocatedBytes() {
+    if (allocatedBytesMethod != null) {
+      try {
+        return (Long) allocatedBytesMethod.invoke(threadMXBean, Thread.currentThread().getId());
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return 0L;
+  }
+
+  public static class Snapshot {
+    private final long wallTimeNanos;
+    private final long cpuTimeNanos;
+    private final long allocatedBytes;
+
+    private Snapshot(long wallTimeNanos, long cpuTimeNanos, long allocatedBytes) {
+      this.wallTimeNanos = wallTimeNanos;
+      this.cpuTimeNanos = cpuTimeNanos;
+      this.allocatedBytes = allocatedBytes;
+    }
+  }
+
+}
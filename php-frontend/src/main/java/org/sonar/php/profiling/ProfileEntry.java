@@ -0,0 +1,91 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.profiling;
+
+/**
+ * Cumulative cost of an analysis phase or of a check.
+ */
+public class ProfileEntry {
+
+  private final String name;
+  private long calls;
+  private long wallTimeNanos;
+  private long cpuTimeNanos;
+  private long allocatedBytes;
+  private long events;
+
+  public ProfileEntry(String name) {
+    this.name = name;
+  }
+
+  public void add(long wallTimeNanos, long cpuTimeNanos, long allocatedBytes) {
+    this.calls++;
+    this.wallTimeNanos += wallTimeNanos;
+    this.cpuTimeNanos += cpuTimeNanos;
+    this.allocatedBytes += allocatedBytes;
+  }
+
+  public void add(ProfileEntry other) {
+    this.calls += other.calls;
+    this.wallTimeNanos += other.wallTimeNanos;
+    this.cpuTimeNanos += other.cpuTimeNanos;
+    this.allocatedBytes += other.allocatedBytes;
+    this.events += other.events;
+  }
+
+  public void addEvents(long events) {
+    this.events += events;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public long calls() {
+    return calls;
+  }
+
+  public long wallTimeNanos() {
+    return wallTimeNanos;
+  }
+
+  /**
+   * @return 0 if the JVM does not measure the CPU time of threads
+   */
+  public long cpuTimeNanos() {
+    return cpuTimeNanos;
+  }
+
+  /**
+   * @return 0 if the JVM does not measure the memory allocated by threads
+   */
+  public long allocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @return number of occurrences of the event counted by the work, such as the backtracks of the parser while
+   * {@link AnalysisProfiler#PARSING}
+   */
+  public long events() {
+    return events;
+  }
+
+}
@@ -27,6 +27,7 @@ import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
 import org.sonar.plugins.php.api.visitors.VisitorCheck;
 
+import javax.annotation.Nullable;
 import java.util.Iterator;
 import java.util.List;
 
@@ -36,32 +37,101 @@ public class InternalSyntaxToken extends PHPTree implements SyntaxToken {
 
   private final List<SyntaxTrivia> trivias;
   private final int startIndex;
+  private final int endIndex;
   private final int line;
   private final int column;
-  private final String value;
   private final boolean isEOF;
 
+  /**
+   * Source code the text of the token is sliced from, on first access, when the text is not known at creation time.
+   * Inline HTML tokens, which can hold most of a template file, keep reading their text from it instead of retaining a copy.
+   * The source is never released, as it is shared by all the tokens of the file, so that a token can be read by
+   * several threads.
+   */
+  @Nullable
+  private final char[] source;
+  private volatile String value;
+
+  /**
+   * Table of the tokens of the parsed file, or null for a token created outside of the parser.
+   */
+  @Nullable
+  final TokenTable table;
+
+  /**
+   * Position of this token in its table, written by {@link TokenTable#index(Tree)} before the table is published.
+   */
+  int index = -1;
+
   public InternalSyntaxToken(int line, int column, String value, List<SyntaxTrivia> trivias, int startIndex, boolean isEOF) {
     this.value = value;
+    this.source = null;
     this.line = line;
     this.column = column;
     this.trivias = trivias;
     this.startIndex = startIndex;
+    this.endIndex = startIndex + value.length();
     this.isEOF = isEOF;
     this.kind = isInlineHTML(value) ? Kind.INLINE_HTML_TOKEN : Kind.TOKEN;
+    this.table = null;
+  }
+
+  /**
+   * @param source whole source code of the file, shared by all its tokens
+   * @param value text of the token when it is already available, for instance for keywords and punctuators
+   * @param table table of the tokens of the file being parsed, filled once its tree is built
+   */
+  public InternalSyntaxToken(int line, int column, char[] source, int startIndex, int endIndex, @Nullable String value, List<SyntaxTrivia> trivias, boolean isEOF,
+    @Nullable TokenTable table) {
+    this.line = line;
+    this.column = column;
+    this.trivias = trivias;
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+    this.isEOF = isEOF;
+    this.value = value;
+    this.source = source;
+    this.kind = isInlineHTML(source, startIndex, endIndex) ? Kind.INLINE_HTML_TOKEN : Kind.TOKEN;
+    this.table = table;
   }
 
   private static boolean isInlineHTML(String value) {
     return value.startsWith("?>") || value.startsWith("%>");
   }
 
+  private static boolean isInlineHTML(char[] source, int startIndex, int endIndex) {
+    return endIndex - startIndex >= 2 && (source[startIndex] == '?' || source[startIndex] == '%') && source[startIndex + 1] == '>';
+  }
+
   public int toIndex() {
-    return startIndex + value.length();
+    return endIndex;
   }
 
   @Override
   public String text() {
-    return value;
+    String text = value;
+    if (text == null) {
+      text = new String(source, startIndex, endIndex - startIndex);
+      if (kind != Kind.INLINE_HTML_TOKEN) {
+        value = text;
+      }
+    }
+    return text;
+  }
+
+  /**
+   * @return the length of the text of the token, without materializing it
+   */
+  public int length() {
+    return endIndex - startIndex;
+  }
+
+  /**
+   * @return the character at the given index of the text of the token, without materializing it
+   */
+  public char charAt(int index) {
+    String text = value;
+    return text != null ? text.charAt(index) : source[startIndex + index];
   }
 
   @Override
@@ -87,8 +157,20 @@ public class InternalSyntaxToken extends PHPTree implements SyntaxToken {
     return isEOF;
   }
 
+  /**
+   * Compares the text of the token without materializing it, as the text of inline HTML tokens is not cached.
+   */
   public boolean is(TokenType type) {
-    return this.text().equals(type.getValue());
+    String expected = type.getValue();
+    if (length() != expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < expected.length(); i++) {
+      if (charAt(i) != expected.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -25,25 +25,53 @@ import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
 import org.sonar.plugins.php.api.visitors.VisitorCheck;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 public class InternalSyntaxTrivia extends PHPTree implements SyntaxTrivia {
 
-  private final String comment;
   private final int column;
-  private int startLine;
+  private final int startLine;
+
+  /**
+   * Source code the comment is sliced from on first access, like the text of {@link InternalSyntaxToken}.
+   */
+  @Nullable
+  private final char[] source;
+  private final int startIndex;
+  private final int endIndex;
+  private volatile String comment;
 
   public InternalSyntaxTrivia(String comment, int startLine, int column) {
     this.comment = comment;
     this.startLine = startLine;
     this.column = column;
+    this.source = null;
+    this.startIndex = 0;
+    this.endIndex = comment.length();
+  }
+
+  /**
+   * @param source whole source code of the file, shared by all its tokens and trivias
+   */
+  public InternalSyntaxTrivia(char[] source, int startIndex, int endIndex, int startLine, int column) {
+    this.source = source;
+    this.startIndex = startIndex;
+    this.endIndex = endIndex;
+    this.startLine = startLine;
+    this.column = column;
   }
 
   @Override
   public String text() {
-    return comment;
+    String text = comment;
+    if (text == null) {
+      text = new String(source, startIndex, endIndex - startIndex);
+      comment = text;
+    }
+    return text;
   }
 
   @Override
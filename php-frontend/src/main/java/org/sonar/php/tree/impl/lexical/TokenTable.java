@@ -0,0 +1,216 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.tree.impl.lexical;
+
+import com.google.common.base.Preconditions;
+import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tokens of a tree, in source order, including inline HTML tokens.
+ * <p>
+ * The table of a parsed file is created by the parser before the file is parsed, so that each token refers to it
+ * from its creation, and it is filled once the tree is built, storing the position of each token in the token itself.
+ * The neighbours of a token are then found in constant time.
+ * <p>
+ * Checks navigate the tokens of the file they analyze with {@link org.sonar.plugins.php.api.visitors.CheckContext}.
+ */
+public class TokenTable {
+
+  private static final List<SyntaxToken> NOT_INDEXED = Collections.emptyList();
+
+  /**
+   * Written once, by {@link #index(Tree)}, for the table of a parsed file.
+   */
+  private volatile List<SyntaxToken> tokens;
+
+  /**
+   * Positions of the tokens, for a table built afterwards on a tree whose tokens already belong to another table
+   * or to none.
+   */
+  @Nullable
+  private final Map<SyntaxToken, Integer> detachedIndexes;
+
+  /**
+   * Creates the empty table of a file about to be parsed.
+   */
+  public TokenTable() {
+    this(NOT_INDEXED, null);
+  }
+
+  private TokenTable(List<SyntaxToken> tokens, @Nullable Map<SyntaxToken, Integer> detachedIndexes) {
+    this.tokens = tokens;
+    this.detachedIndexes = detachedIndexes;
+  }
+
+  /**
+   * Fills this table with the tokens of the given tree, which has been parsed with this table.
+   */
+  public void index(Tree tree) {
+    Preconditions.checkState(tokens == NOT_INDEXED, "Token table already filled");
+    List<SyntaxToken> treeTokens = new ArrayList<>();
+    collect(tree, treeTokens);
+    for (int i = 0; i < treeTokens.size(); i++) {
+      InternalSyntaxToken token = (InternalSyntaxToken) treeTokens.get(i);
+      Preconditions.checkArgument(token.table == this, "Tree not parsed with this token table");
+      token.index = i;
+    }
+    // the volatile write publishes the indexes of the tokens along with the table
+    tokens = Collections.unmodifiableList(treeTokens);
+  }
+
+  /**
+   * @return the table built by the parser when it covers the given tree, otherwise a new table for this tree only
+   */
+  public static TokenTable of(Tree tree) {
+    SyntaxToken first = firstToken(tree);
+    SyntaxToken last = lastToken(tree);
+    if (first != null && last != null) {
+      TokenTable table = ((InternalSyntaxToken) first).table;
+      if (table != null && ((InternalSyntaxToken) last).table == table && table.tokens != NOT_INDEXED) {
+        return table;
+      }
+    }
+    List<SyntaxToken> tokens = new ArrayList<>();
+    collect(tree, tokens);
+    Map<SyntaxToken, Integer> indexes = new IdentityHashMap<>(tokens.size());
+    for (int i = 0; i < tokens.size(); i++) {
+      indexes.put(tokens.get(i), i);
+    }
+    return new TokenTable(Collections.unmodifiableList(tokens), indexes);
+  }
+
+  public List<SyntaxToken> tokens() {
+    return tokens;
+  }
+
+  public int size() {
+    return tokens.size();
+  }
+
+  public SyntaxToken get(int index) {
+    return tokens.get(index);
+  }
+
+  /**
+   * @return position of the token in this table, or -1 when it does not belong to it
+   */
+  public int indexOf(SyntaxToken token) {
+    if (detachedIndexes != null) {
+      Integer index = detachedIndexes.get(token);
+      return index == null ? -1 : index;
+    }
+    InternalSyntaxToken internalToken = (InternalSyntaxToken) token;
+    return internalToken.table == this && tokens != NOT_INDEXED ? internalToken.index : -1;
+  }
+
+  @Nullable
+  public SyntaxToken previous(SyntaxToken token) {
+    int index = indexOf(token);
+    return index > 0 ? tokens.get(index - 1) : null;
+  }
+
+  @Nullable
+  public SyntaxToken next(SyntaxToken token) {
+    int index = indexOf(token);
+    return index >= 0 && index < tokens.size() - 1 ? tokens.get(index + 1) : null;
+  }
+
+  /**
+   * Same as {@link PHPTree#getFirstToken()}, returning null for a tree without tokens.
+   */
+  @Nullable
+  public static SyntaxToken firstToken(Tree tree) {
+    if (tree instanceof SyntaxToken) {
+      return (SyntaxToken) tree;
+    }
+    PHPTree phpTree = (PHPTree) tree;
+    if (phpTree.isLeaf()) {
+      return null;
+    }
+    Iterator<Tree> childrenIterator = phpTree.childrenIterator();
+    while (childrenIterator.hasNext()) {
+      Tree child = childrenIterator.next();
+      SyntaxToken token = child == null ? null : firstToken(child);
+      if (token != null) {
+        return token;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Same as {@link PHPTree#getLastToken()}, but only descends into the last children having tokens instead of
+   * the whole tree.
+   */
+  @Nullable
+  public static SyntaxToken lastToken(Tree tree) {
+    if (tree instanceof SyntaxToken) {
+      return (SyntaxToken) tree;
+    }
+    PHPTree phpTree = (PHPTree) tree;
+    if (phpTree.isLeaf()) {
+      return null;
+    }
+    List<Tree> children = new ArrayList<>();
+    Iterator<Tree> childrenIterator = phpTree.childrenIterator();
+    while (childrenIterator.hasNext()) {
+      Tree child = childrenIterator.next();
+      if (child != null) {
+        children.add(child);
+      }
+    }
+    for (int i = children.size() - 1; i >= 0; i--) {
+      SyntaxToken token = lastToken(children.get(i));
+      if (token != null) {
+        return token;
+      }
+    }
+    return null;
+  }
+
+  private static void collect(Tree tree, List<SyntaxToken> tokens) {
+    if (tree instanceof SyntaxToken) {
+      tokens.add((SyntaxToken) tree);
+      return;
+    }
+    PHPTree phpTree = (PHPTree) tree;
+    if (phpTree.isLeaf()) {
+      return;
+    }
+    Iterator<Tree> childrenIterator = phpTree.childrenIterator();
+    while (childrenIterator.hasNext()) {
+      Tree child = childrenIterator.next();
+      if (child != null) {
+        collect(child, tokens);
+      }
+    }
+  }
+
+}
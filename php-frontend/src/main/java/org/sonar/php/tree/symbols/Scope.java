@@ -25,15 +25,19 @@ import org.sonar.plugins.php.api.tree.Tree;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Scope {
 
   private final Scope outer;
   private final Tree tree;
   protected List<Symbol> symbols = new ArrayList<>();
+  private final Map<String, List<Symbol>> symbolsByName = new HashMap<>();
+  private final Map<Kind, List<Symbol>> symbolsByKind = new EnumMap<>(Kind.class);
 
   public Scope(Scope outer, Tree tree) {
     this.outer = outer;
@@ -53,13 +57,7 @@ public class Scope {
    * @return the symbols corresponding to the given kind
    */
   public List<Symbol> getSymbols(Symbol.Kind kind) {
-    List<Symbol> result = new LinkedList<>();
-    for (Symbol symbol : symbols) {
-      if (symbol.is(kind)) {
-        result.add(symbol);
-      }
-    }
-    return result;
+    return unmodifiable(symbolsByKind.get(kind));
   }
 
   public boolean isGlobal() {
@@ -68,6 +66,8 @@ public class Scope {
 
   public void addSymbol(Symbol symbol) {
     symbols.add(symbol);
+    index(symbolsByName, nameKey(symbol.name()), symbol);
+    index(symbolsByKind, symbol.kind(), symbol);
   }
 
   /**
@@ -76,14 +76,63 @@ public class Scope {
    */
   @Nullable
   public Symbol getSymbol(String name, Kind ... kinds) {
-    List<Kind> kindList = Arrays.asList(kinds);
-    List<Symbol> result = new ArrayList<>();
-    for (Symbol s : symbols) {
-      if (s.called(name) && (kindList.isEmpty() || kindList.contains(s.kind()))) {
-        result.add(s);
+    List<Symbol> candidates = symbolsByName.get(nameKey(name));
+    if (candidates == null) {
+      return null;
+    }
+    Symbol result = null;
+    for (Symbol s : candidates) {
+      if (kinds.length == 0 || hasKind(s, kinds)) {
+        if (result != null) {
+          return null;
+        }
+        result = s;
+      }
+    }
+    return result;
+  }
+
+  private static boolean hasKind(Symbol symbol, Kind[] kinds) {
+    for (Kind kind : kinds) {
+      if (symbol.is(kind)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Symbol names are case insensitive: two names have the same key if and only if they are equal ignoring case,
+   * as defined by {@link String#equalsIgnoreCase(String)}.
+   */
+  static String nameKey(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c >= 'A' && c <= 'Z' || c > 0x7F) {
+        return foldCase(name);
       }
     }
+    return name;
+  }
+
+  private static String foldCase(String name) {
+    char[] chars = name.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+    }
+    return new String(chars);
+  }
+
+  static <K> void index(Map<K, List<Symbol>> index, K key, Symbol symbol) {
+    List<Symbol> indexed = index.get(key);
+    if (indexed == null) {
+      indexed = new ArrayList<>(1);
+      index.put(key, indexed);
+    }
+    indexed.add(symbol);
+  }
 
-    return result.size() == 1 ? result.get(0) : null;
+  static List<Symbol> unmodifiable(@Nullable List<Symbol> symbols) {
+    return symbols == null ? Collections.<Symbol>emptyList() : Collections.unmodifiableList(symbols);
   }
 }
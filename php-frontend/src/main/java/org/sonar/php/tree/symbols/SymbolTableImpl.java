@@ -21,7 +21,6 @@ package org.sonar.php.tree.symbols;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import org.sonar.plugins.php.api.symbols.Symbol;
 import org.sonar.plugins.php.api.symbols.SymbolTable;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
@@ -30,13 +29,19 @@ import org.sonar.plugins.php.api.tree.expression.IdentifierTree;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 public class SymbolTableImpl implements SymbolTable {
 
   private List<Symbol> symbols = new ArrayList<>();
-  private Set<Scope> scopes = Sets.newHashSet();
+  private final List<Scope> scopes = new ArrayList<>();
+  private final Map<Tree, Scope> scopesByTree = new IdentityHashMap<>();
+  private final Map<String, List<Symbol>> symbolsByName = new HashMap<>();
+  private final Map<Symbol.Kind, List<Symbol>> symbolsByKind = new EnumMap<>(Symbol.Kind.class);
 
   private SymbolTableImpl(){
   }
@@ -49,6 +54,7 @@ public class SymbolTableImpl implements SymbolTable {
 
   public void addScope(Scope scope){
     scopes.add(scope);
+    scopesByTree.put(scope.tree(), scope);
   }
 
   @Override
@@ -59,17 +65,14 @@ public class SymbolTableImpl implements SymbolTable {
   @Nullable
   @Override
   public Scope getScopeFor(Tree tree) {
-    for (Scope scope : scopes) {
-      if (scope.tree().equals(tree)) {
-        return scope;
-      }
-    }
-    return null;
+    return scopesByTree.get(tree);
   }
 
   public Symbol declareSymbol(IdentifierTree name, Symbol.Kind kind, Scope scope) {
     Symbol symbol = new Symbol(name, kind, scope);
     symbols.add(symbol);
+    Scope.index(symbolsByName, Scope.nameKey(symbol.name()), symbol);
+    Scope.index(symbolsByKind, kind, symbol);
     scope.addSymbol(symbol);
     return symbol;
   }
@@ -88,13 +91,7 @@ public class SymbolTableImpl implements SymbolTable {
    */
   @Override
   public List<Symbol> getSymbols(Symbol.Kind kind) {
-    List<Symbol> result = new ArrayList<>();
-    for (Symbol symbol : getSymbols()){
-      if (kind.equals(symbol.kind())){
-        result.add(symbol);
-      }
-    }
-    return result;
+    return Scope.unmodifiable(symbolsByKind.get(kind));
   }
 
   /**
@@ -103,13 +100,7 @@ public class SymbolTableImpl implements SymbolTable {
    * @return list of symbols with the given name
    */
   public List<Symbol> getSymbols(String name) {
-    List<Symbol> result = new ArrayList<>();
-    for (Symbol symbol : getSymbols()){
-      if (name.equalsIgnoreCase(symbol.name())){
-        result.add(symbol);
-      }
-    }
-    return result;
+    return Scope.unmodifiable(symbolsByName.get(Scope.nameKey(name)));
   }
 
 }
@@ -26,9 +26,9 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Locale;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonar.php.api.PHPKeyword;
 import org.sonar.php.tree.impl.PHPTree;
-import org.sonar.php.utils.SourceBuilder;
 import org.sonar.plugins.php.api.symbols.Symbol;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.tree.SeparatedList;
@@ -312,8 +312,7 @@ public class SymbolVisitor extends PHPVisitorCheck {
     tree.callee().accept(this);
     this.insideCallee.pop();
 
-    String callee = SourceBuilder.build(tree.callee()).trim();
-    if ("compact".equals(callee)) {
+    if (isCompact(tree.callee())) {
       visitCompactFunctionCall(tree.arguments());
     }
 
@@ -355,18 +354,51 @@ public class SymbolVisitor extends PHPVisitorCheck {
   public void visitMemberAccess(MemberAccessTree tree) {
     tree.object().accept(this);
 
-    final ImmutableSet<String> selfObjects = ImmutableSet.of("$this", "self", "static");
-    String strObject = SourceBuilder.build(tree.object()).trim();
-
     classMemberUsageState = new ClassMemberUsageState();
     classMemberUsageState.isStatic = tree.isStatic();
-    classMemberUsageState.isSelfMember = selfObjects.contains(strObject.toLowerCase(Locale.ENGLISH));
+    classMemberUsageState.isSelfMember = isSelfObject(tree.object());
     classMemberUsageState.isField = insideCallee.isEmpty();
     classMemberUsageState.isConst = classMemberUsageState.isField && tree.isStatic();
 
     tree.member().accept(this);
   }
 
+  /**
+   * Looks at the kind and the tokens of the callee only, instead of rendering it, as callees of fluent chains are deep.
+   */
+  private static boolean isCompact(ExpressionTree callee) {
+    IdentifierTree name = unqualifiedName(callee);
+    return name != null && "compact".equals(name.text());
+  }
+
+  /**
+   * @return true for "$this", "self" and "static", ignoring case
+   */
+  private static boolean isSelfObject(ExpressionTree object) {
+    IdentifierTree name;
+    if (object.is(Kind.VARIABLE_IDENTIFIER, Kind.NAME_IDENTIFIER)) {
+      name = (IdentifierTree) object;
+    } else {
+      name = unqualifiedName(object);
+    }
+    if (name == null) {
+      return false;
+    }
+    String text = name.text();
+    return "$this".equalsIgnoreCase(text) || "self".equalsIgnoreCase(text) || "static".equalsIgnoreCase(text);
+  }
+
+  @Nullable
+  private static IdentifierTree unqualifiedName(ExpressionTree tree) {
+    if (tree.is(Kind.NAMESPACE_NAME)) {
+      NamespaceNameTree namespaceName = (NamespaceNameTree) tree;
+      if (namespaceName.absoluteSeparator() == null && namespaceName.namespaces().isEmpty()) {
+        return namespaceName.name();
+      }
+    }
+    return null;
+  }
+
   @Override
   public void visitComputedVariable(ComputedVariableTree tree) {
     classMemberUsageState = null;
@@ -19,15 +19,22 @@
  */
 package org.sonar.php.tree.visitors;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import org.sonar.php.tree.impl.lexical.TokenTable;
 import org.sonar.php.tree.symbols.SymbolTableImpl;
 import org.sonar.plugins.php.api.symbols.SymbolTable;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
 import org.sonar.plugins.php.api.visitors.CheckContext;
+import org.sonar.plugins.php.api.visitors.FileContent;
 import org.sonar.plugins.php.api.visitors.Issue;
 import org.sonar.plugins.php.api.visitors.PHPCheck;
 
+import javax.annotation.Nullable;
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -35,21 +42,53 @@ public class PHPCheckContext implements CheckContext {
 
   private final File file;
   private final CompilationUnitTree tree;
-  private final SymbolTable symbolTable;
+  private final Supplier<? extends SymbolTable> symbolTable;
+  private final Charset charset;
+  private FileContent fileContent;
+  private TokenTable tokenTable;
   private List<Issue> issues;
 
+  /**
+   * The symbol table is built on first access. File content is read on first access with the platform encoding,
+   * which is the default encoding of the sources.
+   */
   public PHPCheckContext(File file, CompilationUnitTree tree) {
-    this(file, tree, SymbolTableImpl.create(tree));
+    this(file, tree, lazySymbolTable(tree), Charset.defaultCharset());
   }
 
+  /**
+   * File content is read on first access with the platform encoding, which is the default encoding of the sources.
+   */
   public PHPCheckContext(File file, CompilationUnitTree tree, SymbolTable symbolTable) {
+    this(file, tree, Suppliers.ofInstance(symbolTable), Charset.defaultCharset());
+  }
+
+  /**
+   * @param symbolTable supplies the symbol table of the file when a check asks for it, so that it can be shared by
+   * several contexts, and not built at all when no check needs it
+   * @param charset encoding of the file, which is read on first access to its content
+   */
+  public PHPCheckContext(File file, CompilationUnitTree tree, Supplier<? extends SymbolTable> symbolTable, Charset charset) {
+    this(file, tree, symbolTable, charset, null);
+  }
+
+  /**
+   * @param fileContent content of the file, already read by the analyzer
+   */
+  public PHPCheckContext(File file, CompilationUnitTree tree, Supplier<? extends SymbolTable> symbolTable, FileContent fileContent) {
+    this(file, tree, symbolTable, null, fileContent);
+  }
+
+  private PHPCheckContext(File file, CompilationUnitTree tree, Supplier<? extends SymbolTable> symbolTable,
+    @Nullable Charset charset, @Nullable FileContent fileContent) {
     this.file = file;
     this.tree = tree;
     this.symbolTable = symbolTable;
+    this.charset = charset;
+    this.fileContent = fileContent;
     this.issues = new ArrayList<>();
   }
 
-
   @Override
   public CompilationUnitTree tree() {
     return tree;
@@ -75,7 +114,54 @@ public class PHPCheckContext implements CheckContext {
 
   @Override
   public SymbolTable symbolTable() {
-    return symbolTable;
+    return symbolTable.get();
+  }
+
+  @Override
+  public FileContent fileContent() {
+    if (fileContent == null) {
+      fileContent = FileContent.read(file, charset);
+    }
+    return fileContent;
+  }
+
+  @Override
+  public List<SyntaxToken> tokens() {
+    return tokenTable().tokens();
+  }
+
+  @Nullable
+  @Override
+  public SyntaxToken previous(SyntaxToken token) {
+    return tokenTable().previous(token);
+  }
+
+  @Nullable
+  @Override
+  public SyntaxToken next(SyntaxToken token) {
+    return tokenTable().next(token);
+  }
+
+  /**
+   * @return the table built by the parser, found without walking the tree for a parsed file
+   */
+  private TokenTable tokenTable() {
+    if (tokenTable == null) {
+      tokenTable = TokenTable.of(tree);
+    }
+    return tokenTable;
+  }
+
+  /**
+   * @return a supplier building the symbol table of the given tree on first call, and returning the same instance afterwards
+   */
+  public static Supplier<SymbolTableImpl> lazySymbolTable(final CompilationUnitTree tree) {
+    return Suppliers.memoize(new Supplier<SymbolTableImpl>() {
+      @Override
+      public SymbolTableImpl get() {
+        return SymbolTableImpl.create(tree);
+      }
+    });
   }
 
 }
@@ -0,0 +1,41 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.utils;
+
+/**
+ * Thrown by the analysis of a file when the analysing thread has been interrupted, for instance because the
+ * analysis of the file exceeds its time budget. The interrupt flag of the thread is left untouched.
+ */
+public class AnalysisInterruptedException extends RuntimeException {
+
+  public AnalysisInterruptedException() {
+    super("Analysis interrupted");
+  }
+
+  /**
+   * Cheap enough to be called for each token or tree node.
+   */
+  public static void throwIfInterrupted() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new AnalysisInterruptedException();
+    }
+  }
+
+}
@@ -20,16 +20,22 @@
 package org.sonar.plugins.php.api.tests;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
 import com.sonar.sslr.api.typed.ActionParser;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.php.api.CharsetAwareVisitor;
 import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.visitors.PHPCheckContext;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
+import org.sonar.plugins.php.api.visitors.CheckDispatcher;
+import org.sonar.plugins.php.api.visitors.FileContent;
 import org.sonar.plugins.php.api.visitors.Issue;
 import org.sonar.plugins.php.api.visitors.PHPCheck;
+import org.sonar.plugins.php.api.visitors.PHPSubscriptionCheck;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.api.visitors.SinglePassVisitorCheck;
 
 import java.io.File;
 import java.nio.charset.Charset;
@@ -78,18 +84,20 @@ public class PHPCheckTest {
    * @param file File containing the php code sample annotated with comment for expected issues.
    */
   public static void check(PHPCheck check, File file) {
-    CompilationUnitTree tree = (CompilationUnitTree) parser.parse(file);
+    FileContent fileContent = FileContent.read(file, charset);
+    CompilationUnitTree tree = (CompilationUnitTree) parser.parse(fileContent.text());
     check.init();
-    List<Issue> actualIssues = getActualIssues(check, file, tree);
+    List<Issue> actualIssues = getActualIssues(check, file, tree, fileContent);
     List<Issue> expectedIssues = getExpectedIssues(check, file, tree);
     compare(actualIssues, expectedIssues);
+    compareDispatchedIssues(check, file, tree, fileContent, expectedIssues);
   }
 
-  private static List<Issue> getActualIssues(PHPCheck check, File file, CompilationUnitTree tree) {
+  private static List<Issue> getActualIssues(PHPCheck check, File file, CompilationUnitTree tree, FileContent fileContent) {
     if (check instanceof CharsetAwareVisitor) {
       ((CharsetAwareVisitor) check).setCharset(charset);
     }
-    return check.analyze(file, tree);
+    return CheckDispatcher.analyze(check, new PHPCheckContext(file, tree, PHPCheckContext.lazySymbolTable(tree), fileContent));
   }
 
   /**
@@ -100,10 +108,22 @@ public class PHPCheckTest {
    * @param expectedIssues expected issues that should be raise. Overrides the comments in the code sample.
    */
   public static void check(PHPCheck check, File file, List<Issue> expectedIssues) {
-    CompilationUnitTree tree = (CompilationUnitTree)parser.parse(file);
+    FileContent fileContent = FileContent.read(file, charset);
+    CompilationUnitTree tree = (CompilationUnitTree) parser.parse(fileContent.text());
     check.init();
-    List<Issue> actualIssues = getActualIssues(check, file, tree);
+    List<Issue> actualIssues = getActualIssues(check, file, tree, fileContent);
     compare(actualIssues, expectedIssues);
+    compareDispatchedIssues(check, file, tree, fileContent, expectedIssues);
+  }
+
+  /**
+   * Checks which can share a walk of the tree with other checks must raise the same issues when they do.
+   */
+  private static void compareDispatchedIssues(PHPCheck check, File file, CompilationUnitTree tree, FileContent fileContent, List<Issue> expectedIssues) {
+    if (check instanceof PHPSubscriptionCheck || check instanceof SinglePassVisitorCheck) {
+      CheckDispatcher dispatcher = new CheckDispatcher(ImmutableList.of(check));
+      compare(dispatcher.analyze(file, tree, PHPCheckContext.lazySymbolTable(tree), fileContent), expectedIssues);
+    }
   }
 
   private static void compare(List<Issue> actualIssues, List<Issue> expectedIssues) {
@@ -22,7 +22,9 @@ package org.sonar.plugins.php.api.visitors;
 import com.google.common.annotations.Beta;
 import org.sonar.plugins.php.api.symbols.SymbolTable;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.List;
 
@@ -58,4 +60,26 @@ public interface CheckContext {
 
   SymbolTable symbolTable();
 
+  /**
+   * @return the content of the current file, read once and shared by all checks.
+   */
+  FileContent fileContent();
+
+  /**
+   * @return all tokens of the current file in source order, including inline HTML and end of file tokens
+   */
+  List<SyntaxToken> tokens();
+
+  /**
+   * @return the token preceding the given one in the current file, or null for the first token
+   */
+  @Nullable
+  SyntaxToken previous(SyntaxToken token);
+
+  /**
+   * @return the token following the given one in the current file, or null for the last token
+   */
+  @Nullable
+  SyntaxToken next(SyntaxToken token);
+
 }
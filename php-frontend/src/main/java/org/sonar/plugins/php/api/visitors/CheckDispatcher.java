@@ -0,0 +1,225 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.api.visitors;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.php.tree.visitors.PHPCheckContext;
+import org.sonar.php.utils.AnalysisInterruptedException;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs checks on a file with a single walk of its tree.
+ *
+ * During this walk, each tree is notified to the {@link PHPSubscriptionCheck}s subscribed to its kind and to
+ * the {@link PHPVisitorCheck}s implementing {@link SinglePassVisitorCheck}. Other checks analyze the file on their own.
+ * Issues are grouped by check, in the order of the checks. The issues of a check are in the order it reported them,
+ * which for a {@link SinglePassVisitorCheck} may differ from the one of a separate analysis: see that interface.
+ */
+public class CheckDispatcher {
+
+  private final List<PHPCheck> checks;
+  private final boolean[] dispatched;
+  private final List<PHPVisitorCheck> visitors = new ArrayList<>();
+  private final Map<Kind, List<PHPSubscriptionCheck>> subscriptionsByKind = new EnumMap<>(Kind.class);
+
+  /**
+   * @param checks initialized checks, the kinds of nodes visited by subscription checks are read once here
+   */
+  public CheckDispatcher(List<? extends PHPCheck> checks) {
+    this.checks = ImmutableList.copyOf(checks);
+    this.dispatched = new boolean[checks.size()];
+
+    for (int i = 0; i < checks.size(); i++) {
+      PHPCheck check = checks.get(i);
+      if (check instanceof PHPSubscriptionCheck) {
+        PHPSubscriptionCheck subscription = (PHPSubscriptionCheck) check;
+        for (Kind kind : subscription.nodesToVisit()) {
+          subscribe(kind, subscription);
+        }
+        dispatched[i] = true;
+
+      } else if (check instanceof PHPVisitorCheck && check instanceof SinglePassVisitorCheck) {
+        visitors.add((PHPVisitorCheck) check);
+        dispatched[i] = true;
+      }
+    }
+  }
+
+  private void subscribe(Kind kind, PHPSubscriptionCheck subscription) {
+    List<PHPSubscriptionCheck> subscribers = subscriptionsByKind.get(kind);
+    if (subscribers == null) {
+      subscribers = new ArrayList<>();
+      subscriptionsByKind.put(kind, subscribers);
+    }
+    if (!subscribers.contains(subscription)) {
+      subscribers.add(subscription);
+    }
+  }
+
+  public List<Issue> analyze(File file, CompilationUnitTree tree, SymbolTable symbolTable, FileContent fileContent) {
+    return analyze(file, tree, Suppliers.ofInstance(symbolTable), fileContent);
+  }
+
+  /**
+   * @param symbolTable shared by the contexts of all the checks, only asked for when a check needs it
+   */
+  public List<Issue> analyze(File file, CompilationUnitTree tree, Supplier<? extends SymbolTable> symbolTable, FileContent fileContent) {
+    List<CheckContext> contexts = new ArrayList<>(checks.size());
+    for (int i = 0; i < checks.size(); i++) {
+      CheckContext context = new PHPCheckContext(file, tree, symbolTable, fileContent);
+      contexts.add(context);
+      if (dispatched[i]) {
+        startDispatch(checks.get(i), context);
+      }
+    }
+
+    try {
+      visit(tree);
+    } finally {
+      for (PHPVisitorCheck visitor : visitors) {
+        visitor.endDispatch();
+      }
+    }
+
+    ImmutableList.Builder<Issue> issues = ImmutableList.builder();
+    for (int i = 0; i < checks.size(); i++) {
+      CheckContext context = contexts.get(i);
+      issues.addAll(dispatched[i] ? context.getIssues() : analyze(checks.get(i), context));
+    }
+    return issues.build();
+  }
+
+  /**
+   * Analyzes the file described by the given context with the given check. Checks which do not extend
+   * {@link PHPVisitorCheck} or {@link PHPSubscriptionCheck} analyze the file and the tree of the context, and their
+   * issues are returned without being added to the context.
+   */
+  public static List<Issue> analyze(PHPCheck check, CheckContext context) {
+    if (check instanceof PHPVisitorCheck) {
+      return ((PHPVisitorCheck) check).analyze(context);
+    } else if (check instanceof PHPSubscriptionCheck) {
+      return ((PHPSubscriptionCheck) check).analyze(context);
+    }
+    return check.analyze(context.file(), context.tree(), context.symbolTable());
+  }
+
+  private static void startDispatch(PHPCheck check, CheckContext context) {
+    if (check instanceof PHPSubscriptionCheck) {
+      ((PHPSubscriptionCheck) check).startDispatch(context);
+    } else {
+      ((PHPVisitorCheck) check).startDispatch(context);
+    }
+  }
+
+  /**
+   * Same traversal as {@link PHPTreeSubscriber}, with an explicit stack.
+   */
+  private void visit(Tree tree) {
+    Deque<VisitedTree> stack = new ArrayDeque<>();
+    stack.push(enter(tree));
+
+    while (!stack.isEmpty()) {
+      AnalysisInterruptedException.throwIfInterrupted();
+      VisitedTree visitedTree = stack.peek();
+      Tree child = visitedTree.nextChild();
+      if (child != null) {
+        stack.push(enter(child));
+      } else {
+        stack.pop();
+        leave(visitedTree);
+      }
+    }
+  }
+
+  private VisitedTree enter(Tree tree) {
+    List<PHPSubscriptionCheck> subscribers = subscriptionsByKind.get(tree.getKind());
+    if (subscribers != null) {
+      for (PHPSubscriptionCheck subscriber : subscribers) {
+        subscriber.visitNode(tree);
+      }
+    }
+    for (PHPVisitorCheck visitor : visitors) {
+      tree.accept(visitor);
+    }
+
+    if (tree instanceof SyntaxToken && !visitors.isEmpty()) {
+      // trivias are visited by visitor checks only, as they are not part of the trees notified to subscription checks
+      for (SyntaxTrivia trivia : ((SyntaxToken) tree).trivias()) {
+        for (PHPVisitorCheck visitor : visitors) {
+          trivia.accept(visitor);
+        }
+      }
+    }
+    return new VisitedTree(tree, subscribers);
+  }
+
+  private static void leave(VisitedTree visitedTree) {
+    if (visitedTree.subscribers != null) {
+      for (PHPSubscriptionCheck subscriber : visitedTree.subscribers) {
+        subscriber.leaveNode(visitedTree.tree);
+      }
+    }
+  }
+
+  private static class VisitedTree {
+    private final Tree tree;
+    private final List<PHPSubscriptionCheck> subscribers;
+    private final Iterator<Tree> children;
+
+    VisitedTree(Tree tree, @Nullable List<PHPSubscriptionCheck> subscribers) {
+      this.tree = tree;
+      this.subscribers = subscribers;
+      PHPTree phpTree = (PHPTree) tree;
+      this.children = phpTree.isLeaf() ? null : phpTree.childrenIterator();
+    }
+
+    @Nullable
+    Tree nextChild() {
+      if (children != null) {
+        while (children.hasNext()) {
+          Tree child = children.next();
+          if (child != null) {
+            return child;
+          }
+        }
+      }
+      return null;
+    }
+  }
+
+}
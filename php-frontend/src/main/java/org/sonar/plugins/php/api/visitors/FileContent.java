@@ -0,0 +1,133 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.api.visitors;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decoded content of a source file together with the offsets at which its lines start.
+ * It is read once per file and shared by the parser, the highlighters and the checks.
+ * Lines can be terminated by "\n", "\r" or "\r\n".
+ */
+@Beta
+public class FileContent {
+
+  private final String text;
+  private final int[] lineStartOffsets;
+  private final int lineNumber;
+  private List<String> lines;
+
+  public FileContent(String text) {
+    this.text = text;
+
+    int[] offsets = new int[16];
+    int count = 0;
+    offsets[count++] = 0;
+    int length = text.length();
+    int i = 0;
+    while (i < length) {
+      char c = text.charAt(i);
+      if (c == '\n' || c == '\r') {
+        if (c == '\r' && i < length - 1 && text.charAt(i + 1) == '\n') {
+          i++;
+        }
+        if (count == offsets.length) {
+          offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        offsets[count++] = i + 1;
+      }
+      i++;
+    }
+    this.lineStartOffsets = offsets;
+    this.lineNumber = count;
+  }
+
+  public static FileContent read(File file, Charset charset) {
+    try {
+      return new FileContent(Files.toString(file, charset));
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read " + file, e);
+    }
+  }
+
+  public String text() {
+    return text;
+  }
+
+  public int length() {
+    return text.length();
+  }
+
+  /**
+   * @return number of line starts, i.e. number of line terminators + 1
+   */
+  public int lineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * @param line line number, starting at 1
+   */
+  public int lineStartOffset(int line) {
+    if (line < 1 || line > lineNumber) {
+      throw new IndexOutOfBoundsException("Invalid line " + line + ", content has " + lineNumber + " lines");
+    }
+    return lineStartOffsets[line - 1];
+  }
+
+  /**
+   * Lines without their terminator, with the same semantics as {@link Files#readLines(File, Charset)}:
+   * a terminator at the end of the content does not start a new line.
+   */
+  public List<String> lines() {
+    if (lines == null) {
+      ImmutableList.Builder<String> builder = ImmutableList.builder();
+      for (int line = 1; line <= lineNumber; line++) {
+        int start = lineStartOffsets[line - 1];
+        if (line == lineNumber) {
+          if (start < text.length()) {
+            builder.add(text.substring(start));
+          }
+        } else {
+          builder.add(text.substring(start, lineEndOffset(line)));
+        }
+      }
+      lines = builder.build();
+    }
+    return lines;
+  }
+
+  private int lineEndOffset(int line) {
+    int end = lineStartOffsets[line] - 1;
+    if (end > 0 && text.charAt(end) == '\n' && text.charAt(end - 1) == '\r') {
+      end--;
+    }
+    return end;
+  }
+
+}
@@ -46,18 +46,29 @@ public abstract class PHPSubscriptionCheck extends PHPTreeSubscriber implements
 
   @Override
   public final List<Issue> analyze(File file, CompilationUnitTree tree) {
-    this.context = new PHPCheckContext(file, tree);
-    scanTree(context.tree());
-
-    return context().getIssues();
+    return analyze(new PHPCheckContext(file, tree));
   }
 
   @Override
   public List<Issue> analyze(File file, CompilationUnitTree tree, SymbolTable symbolTable) {
-    this.context = new PHPCheckContext(file, tree, symbolTable);
+    return analyze(new PHPCheckContext(file, tree, symbolTable));
+  }
+
+  /**
+   * Analyzes the file described by the given context, issues are created in this context.
+   * Use {@link CheckDispatcher#analyze(PHPCheck, CheckContext)} to analyze a context with any {@link PHPCheck}.
+   */
+  public List<Issue> analyze(CheckContext context) {
+    this.context = context;
     scanTree(context.tree());
 
     return context().getIssues();
   }
-}
 
+  /**
+   * Sets the context of a file whose nodes are notified by a {@link CheckDispatcher} rather than by {@link #scanTree(org.sonar.plugins.php.api.tree.Tree)}.
+   */
+  void startDispatch(CheckContext context) {
+    this.context = context;
+  }
+}
@@ -23,13 +23,17 @@ import org.sonar.php.tree.impl.PHPTree;
 import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 
-import java.util.Collection;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 public abstract class PHPTreeSubscriber {
 
-  private Collection<Tree.Kind> nodesToVisit;
+  private Set<Tree.Kind> nodesToVisit;
 
   public abstract List<Kind> nodesToVisit();
 
@@ -42,36 +46,71 @@ public abstract class PHPTreeSubscriber {
   }
 
   public void scanTree(Tree tree) {
-    nodesToVisit = nodesToVisit();
+    nodesToVisit = EnumSet.noneOf(Tree.Kind.class);
+    nodesToVisit.addAll(nodesToVisit());
     visit(tree);
   }
 
+  /**
+   * Visits the tree with an explicit stack rather than with recursive calls, so that deeply nested
+   * trees (e.g. generated array literals) cannot overflow the call stack.
+   */
   private void visit(Tree tree) {
+    Deque<VisitedTree> stack = new ArrayDeque<>();
+    stack.push(enter(tree));
+
+    while (!stack.isEmpty()) {
+      VisitedTree visitedTree = stack.peek();
+      Tree child = visitedTree.nextChild();
+      if (child != null) {
+        stack.push(enter(child));
+      } else {
+        stack.pop();
+        if (visitedTree.isSubscribed) {
+          leaveNode(visitedTree.tree);
+        }
+      }
+    }
+  }
+
+  private VisitedTree enter(Tree tree) {
     boolean isSubscribed = isSubscribed(tree);
     if (isSubscribed) {
       visitNode(tree);
     }
-    visitChildren(tree);
-    if (isSubscribed) {
-      leaveNode(tree);
-    }
+    return new VisitedTree(tree, isSubscribed);
   }
 
   private boolean isSubscribed(Tree tree) {
     return nodesToVisit.contains(tree.getKind());
   }
 
-  private void visitChildren(Tree tree) {
-    PHPTree javaTree = (PHPTree) tree;
+  private static class VisitedTree {
+    private final Tree tree;
+    private final boolean isSubscribed;
+    private final Iterator<Tree> children;
 
-    if (!javaTree.isLeaf()) {
-      for (Iterator<Tree> iter = javaTree.childrenIterator(); iter.hasNext();) {
-        Tree next = iter.next();
+    VisitedTree(Tree tree, boolean isSubscribed) {
+      this.tree = tree;
+      this.isSubscribed = isSubscribed;
+      PHPTree phpTree = (PHPTree) tree;
+      this.children = phpTree.isLeaf() ? null : phpTree.childrenIterator();
+    }
 
-        if (next != null) {
-          visit(next);
+    /**
+     * @return the next non-null child of the tree, or null if all of them have been returned
+     */
+    @Nullable
+    Tree nextChild() {
+      if (children != null) {
+        while (children.hasNext()) {
+          Tree child = children.next();
+          if (child != null) {
+            return child;
+          }
         }
       }
+      return null;
     }
   }
 
@@ -107,7 +107,8 @@ import org.sonar.plugins.php.api.tree.statement.YieldStatementTree;
 
 public abstract class PHPVisitorCheck implements VisitorCheck {
 
-  private PHPCheckContext context;
+  private CheckContext context;
+  private boolean dispatched = false;
 
   @Override
   public void init() {
@@ -515,6 +516,9 @@ public abstract class PHPVisitorCheck implements VisitorCheck {
   }
 
   protected void scan(Tree tree) {
+    if (dispatched) {
+      return;
+    }
     Iterator<Tree> childrenIterator = ((PHPTree) tree).childrenIterator();
     Tree child;
 
@@ -527,6 +531,9 @@ public abstract class PHPVisitorCheck implements VisitorCheck {
   }
 
   protected <T extends Tree> void scan(List<T> trees) {
+    if (dispatched) {
+      return;
+    }
     for (T tree : trees) {
       tree.accept(this);
     }
@@ -535,17 +542,34 @@ public abstract class PHPVisitorCheck implements VisitorCheck {
 
   @Override
   public final List<Issue> analyze(File file, CompilationUnitTree tree) {
-    this.context = new PHPCheckContext(file, tree);
-    visitCompilationUnit(tree);
-
-    return context().getIssues();
+    return analyze(new PHPCheckContext(file, tree));
   }
 
   @Override
   public List<Issue> analyze(File file, CompilationUnitTree tree, SymbolTable symbolTable) {
-    this.context = new PHPCheckContext(file, tree, symbolTable);
-    visitCompilationUnit(tree);
+    return analyze(new PHPCheckContext(file, tree, symbolTable));
+  }
+
+  /**
+   * Analyzes the file described by the given context, issues are created in this context.
+   * Use {@link CheckDispatcher#analyze(PHPCheck, CheckContext)} to analyze a context with any {@link PHPCheck}.
+   */
+  public List<Issue> analyze(CheckContext context) {
+    this.context = context;
+    visitCompilationUnit(context.tree());
 
     return context().getIssues();
   }
+
+  /**
+   * From now on, the children of the visited trees are visited by the given dispatcher rather than by this check.
+   */
+  void startDispatch(CheckContext context) {
+    this.context = context;
+    this.dispatched = true;
+  }
+
+  void endDispatch() {
+    this.dispatched = false;
+  }
 }
@@ -0,0 +1,36 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.api.visitors;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Marker interface for {@link PHPVisitorCheck}s which can share a single walk of the tree with other checks.
+ *
+ * A check may implement it only when each of its overridden visit methods calls the method of the
+ * superclass unconditionally (so that no subtree is skipped), never visits trees by itself and does nothing
+ * which depends on the children having been visited. When analyzing a file, the children of each tree are then
+ * visited by the analyzer right after the visit method of the check has returned. The issues reported by a visit
+ * method after calling the method of the superclass are therefore reported before the issues of the children, and
+ * not after them as in a separate analysis of the file.
+ */
+@Beta
+public interface SinglePassVisitorCheck {
+}
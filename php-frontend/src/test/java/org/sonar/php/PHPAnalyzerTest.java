@@ -25,14 +25,24 @@ import org.apache.commons.io.FileUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.sonar.api.measures.FileLinesContext;
+import org.sonar.php.profiling.AnalysisProfiler;
+import org.sonar.php.profiling.ProfileEntry;
+import org.sonar.php.utils.AnalysisInterruptedException;
 import org.sonar.php.utils.DummyCheck;
 import org.sonar.plugins.php.api.visitors.Issue;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.visitors.PHPCheck;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 public class PHPAnalyzerTest {
   @Rule
@@ -53,4 +63,70 @@ public class PHPAnalyzerTest {
     assertThat(issues.get(0).message()).isEqualTo(DummyCheck.MESSAGE);
   }
 
+  @Test
+  public void symbol_table_shared_by_checks() throws Exception {
+    SymbolTableCheck check1 = new SymbolTableCheck();
+    SymbolTableCheck check2 = new SymbolTableCheck();
+    PHPAnalyzer analyzer = new PHPAnalyzer(Charsets.UTF_8, ImmutableList.<PHPCheck>of(check1, check2));
+    File file =  tmpFolder.newFile();
+    FileUtils.write(file, "<?php $a = 1;");
+
+    analyzer.nextFile(file);
+    analyzer.analyze();
+    assertThat(check1.symbolTable).isNotNull();
+    assertThat(check1.symbolTable).isSameAs(check2.symbolTable);
+  }
+
+  @Test(expected = AnalysisInterruptedException.class)
+  public void interrupted_parsing() throws Exception {
+    PHPAnalyzer analyzer = new PHPAnalyzer(Charsets.UTF_8, ImmutableList.<PHPCheck>of());
+    File file =  tmpFolder.newFile();
+    FileUtils.write(file, "<?php $a = 1;");
+
+    Thread.currentThread().interrupt();
+    try {
+      analyzer.nextFile(file);
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  public void test_analyze_with_profiler() throws Exception {
+    PHPCheck check = new DummyCheck();
+    AnalysisProfiler profiler = new AnalysisProfiler();
+    PHPAnalyzer analyzer = new PHPAnalyzer(Charsets.UTF_8, ImmutableList.of(check), profiler);
+    File file =  tmpFolder.newFile();
+    FileUtils.write(file, "<?php $a = 1;");
+
+    analyzer.nextFile(file);
+    assertThat(analyzer.analyze()).hasSize(1);
+    analyzer.computeMeasures(mock(FileLinesContext.class));
+
+    Map<String, Long> calls = new HashMap<>();
+    Map<String, Long> events = new HashMap<>();
+    for (ProfileEntry entry : profiler.entries()) {
+      calls.put(entry.name(), entry.calls());
+      events.put(entry.name(), entry.events());
+    }
+    assertThat(calls).hasSize(4);
+    assertThat(calls.get(AnalysisProfiler.PARSING)).isEqualTo(1L);
+    assertThat(calls.get(AnalysisProfiler.SYMBOL_TABLE)).isEqualTo(1L);
+    assertThat(calls.get(AnalysisProfiler.METRICS)).isEqualTo(1L);
+    assertThat(calls.get(DummyCheck.class.getName())).isEqualTo(1L);
+    // backtracks of the statement rules at the end of the file
+    assertThat(events.get(AnalysisProfiler.PARSING)).isGreaterThan(0L);
+    assertThat(events.get(AnalysisProfiler.METRICS)).isEqualTo(0L);
+  }
+
+
+  private static class SymbolTableCheck extends PHPVisitorCheck {
+    private SymbolTable symbolTable;
+
+    @Override
+    public void visitCompilationUnit(CompilationUnitTree tree) {
+      symbolTable = context().symbolTable();
+    }
+  }
+
 }
@@ -0,0 +1,83 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.duplications;
+
+import com.google.common.base.Charsets;
+import org.junit.Test;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.plugins.php.api.tree.Tree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CpdVisitorTest {
+
+  @Test
+  public void literals_are_normalized() throws Exception {
+    assertThat(values("<?php $a = 'x' . \"y $b\" . 1.5 + 0x1F;"))
+      .containsExactly("$a", "=", "$CHARS", ".", "$CHARS", ".", "$NUMBER", "+", "$NUMBER", ";");
+    assertThat(values("<?php $a = <<<EOF\n  foo\nEOF;\n"))
+      .containsExactly("$a", "=", "$CHARS", ";");
+    assertThat(values("<?php f(null, TRUE);"))
+      .containsExactly("f", "(", "null", ",", "TRUE", ")", ";");
+  }
+
+  @Test
+  public void use_statements_are_ignored() throws Exception {
+    assertThat(values("<?php use A\\B;\nuse C\\{D, E};\n$f = function () use ($a) {};"))
+      .containsExactly("$f", "=", "function", "(", ")", "use", "(", "$a", ")", "{", "}", ";");
+  }
+
+  @Test
+  public void inline_html_is_hashed() throws Exception {
+    List<String> values = values("<?php f(); ?>\n<p>html</p>\n<?php f(); ?>\n<p>html</p>\n<?php f(); ?>\n<p>other</p>\n<?php ");
+
+    assertThat(values).hasSize(15);
+    assertThat(values.get(4)).startsWith(CpdVisitor.INLINE_HTML_PREFIX);
+    assertThat(values.get(9)).isEqualTo(values.get(4));
+    assertThat(values.get(14)).startsWith(CpdVisitor.INLINE_HTML_PREFIX).isNotEqualTo(values.get(4));
+    assertThat(values.get(4).length()).isLessThanOrEqualTo(CpdVisitor.INLINE_HTML_PREFIX.length() + 16);
+  }
+
+  @Test
+  public void lines() throws Exception {
+    List<CpdToken> tokens = CpdVisitor.getTokens(parse("<?php\n$a =\n  \"x\n$b\";"));
+
+    assertThat(tokens).hasSize(4);
+    assertThat(tokens.get(0).line()).isEqualTo(2);
+    assertThat(tokens.get(2).line()).isEqualTo(3);
+    assertThat(tokens.get(3).line()).isEqualTo(4);
+  }
+
+  private static List<String> values(String source) {
+    List<String> values = new ArrayList<>();
+    for (CpdToken token : CpdVisitor.getTokens(parse(source))) {
+      values.add(token.value());
+    }
+    return values;
+  }
+
+  private static Tree parse(String source) {
+    return PHPParserBuilder.createParser(Charsets.UTF_8).parse(source);
+  }
+
+}
@@ -21,6 +21,9 @@ package org.sonar.php.metrics;
 
 import org.junit.Test;
 import org.sonar.php.ParsingTestUtils;
+import org.sonar.php.tree.impl.lexical.InternalSyntaxTrivia;
+
+import java.util.BitSet;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -36,4 +39,37 @@ public class CommentLineVisitorTest extends ParsingTestUtils {
     assertThat(comment.noSonarLines()).containsOnly(14);
   }
 
+  @Test
+  public void commented_out_code_lines() throws Exception {
+    CommentLineVisitor comment = new CommentLineVisitor(parse("metrics/commented_out_code.php"));
+
+    assertThat(comment.commentedOutCodeLineNumber()).isEqualTo(6);
+  }
+
+  @Test
+  public void line_separators() throws Exception {
+    BitSet comments = new BitSet();
+    BitSet noSonar = new BitSet();
+    BitSet commentedOutCode = new BitSet();
+
+    CommentLineVisitor.addCommentLines(InternalSyntaxTrivia.create("/* a\r\n\r NOSONAR\n * b\n $a++;\n */", 10, 0), comments, noSonar, commentedOutCode);
+
+    assertThat(comments.toString()).isEqualTo("{10, 13, 14}");
+    assertThat(noSonar.toString()).isEqualTo("{12}");
+    assertThat(commentedOutCode.toString()).isEqualTo("{14}");
+  }
+
+  @Test
+  public void no_sonar_lines_of_multi_line_comment() throws Exception {
+    BitSet comments = new BitSet();
+    BitSet noSonar = new BitSet();
+    BitSet commentedOutCode = new BitSet();
+
+    CommentLineVisitor.addCommentLines(
+      InternalSyntaxTrivia.create("/** NOSONAR NOSONAR\n * a\n * NOSO\n * NAR\n * b NOSONAR\n\n * c NOSONAR*/", 1, 0), comments, noSonar, commentedOutCode);
+
+    assertThat(comments.toString()).isEqualTo("{2, 3, 4}");
+    assertThat(noSonar.toString()).isEqualTo("{1, 5, 7}");
+  }
+
 }
@@ -19,14 +19,28 @@
  */
 package org.sonar.php.metrics;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Supplier;
 import org.junit.Test;
+import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.php.ParsingTestUtils;
+import org.sonar.php.tree.visitors.PHPCheckContext;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.visitors.CheckContext;
+import org.sonar.plugins.php.api.visitors.PHPSubscriptionCheck;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class MetricsVisitorTest extends ParsingTestUtils {
 
@@ -54,4 +68,84 @@ public class MetricsVisitorTest extends ParsingTestUtils {
     assertThat(fileMeasures.getNoSonarLines()).containsOnly(18);
     assertThat(fileMeasures.getCommentLinesNumber()).isEqualTo(5);
   }
+
+  @Test
+  public void symbol_table_not_needed() {
+    String filename = "metrics/lines_of_code.php";
+    Supplier<SymbolTable> failingSymbolTable = new Supplier<SymbolTable>() {
+      @Override
+      public SymbolTable get() {
+        throw new IllegalStateException("symbol table should not be built");
+      }
+    };
+    CheckContext context = new PHPCheckContext(new File(filename), parse(filename), failingSymbolTable, Charsets.UTF_8);
+
+    FileMeasures fileMeasures = new MetricsVisitor().getFileMeasures(context, mock(FileLinesContext.class));
+
+    assertThat(fileMeasures.getLinesOfCodeNumber()).isEqualTo(7);
+  }
+
+  @Test
+  public void same_measures_as_separate_visitors() {
+    for (File file : new File("src/test/resources/metrics").listFiles()) {
+      String filename = "metrics/" + file.getName();
+      CompilationUnitTree tree = parse(filename);
+      FileLinesContext fileLinesContext = mock(FileLinesContext.class);
+
+      FileMeasures fileMeasures = new MetricsVisitor().getFileMeasures(file, tree, fileLinesContext);
+
+      CounterVisitor counter = new CounterVisitor(tree);
+      LineVisitor lineVisitor = new LineVisitor(tree);
+      CommentLineVisitor commentVisitor = new CommentLineVisitor(tree);
+      FileMeasures expected = MetricsVisitor.newFileMeasures();
+      expected.setFileComplexity(ComplexityVisitor.complexity(tree));
+      for (Tree classOrFunction : classesAndFunctions(tree)) {
+        if (classOrFunction.is(MetricsVisitor.getClassNodes())) {
+          expected.addClassComplexity(ComplexityVisitor.complexity(classOrFunction));
+        } else {
+          expected.addFunctionComplexity(ComplexityVisitor.complexity(classOrFunction));
+        }
+      }
+
+      assertThat(fileMeasures.getFileComplexity()).as(filename).isEqualTo(expected.getFileComplexity());
+      assertThat(fileMeasures.getClassComplexity()).as(filename).isEqualTo(expected.getClassComplexity());
+      assertThat(fileMeasures.getFunctionComplexity()).as(filename).isEqualTo(expected.getFunctionComplexity());
+      assertThat(fileMeasures.getFileComplexityDistribution().build().getData()).as(filename)
+        .isEqualTo(expected.getFileComplexityDistribution().build().getData());
+      assertThat(fileMeasures.getFunctionComplexityDistribution().build().getData()).as(filename)
+        .isEqualTo(expected.getFunctionComplexityDistribution().build().getData());
+      assertThat(fileMeasures.getClassNumber()).as(filename).isEqualTo(counter.getClassNumber());
+      assertThat(fileMeasures.getFunctionNumber()).as(filename).isEqualTo(counter.getFunctionNumber());
+      assertThat(fileMeasures.getStatementNumber()).as(filename).isEqualTo(counter.getStatementNumber());
+      assertThat(fileMeasures.getLinesNumber()).as(filename).isEqualTo(lineVisitor.getLinesNumber());
+      assertThat(fileMeasures.getLinesOfCodeNumber()).as(filename).isEqualTo(lineVisitor.getLinesOfCodeNumber());
+      assertThat(fileMeasures.getCommentLinesNumber()).as(filename).isEqualTo(commentVisitor.commentLineNumber());
+      assertThat(fileMeasures.getCommentedOutCodeLinesNumber()).as(filename).isEqualTo(commentVisitor.commentedOutCodeLineNumber());
+      assertThat(fileMeasures.getNoSonarLines()).as(filename).isEqualTo(commentVisitor.noSonarLines());
+
+      for (int line = 1; line <= lineVisitor.getLinesNumber(); line++) {
+        verify(fileLinesContext).setIntValue(CoreMetrics.NCLOC_DATA_KEY, line, lineVisitor.getLinesOfCode().contains(line) ? 1 : 0);
+        verify(fileLinesContext).setIntValue(CoreMetrics.COMMENT_LINES_DATA_KEY, line, commentVisitor.commentLines().contains(line) ? 1 : 0);
+      }
+      verify(fileLinesContext).save();
+    }
+  }
+
+  private static List<Tree> classesAndFunctions(CompilationUnitTree tree) {
+    final List<Tree> result = new ArrayList<>();
+    new PHPSubscriptionCheck() {
+      @Override
+      public List<Kind> nodesToVisit() {
+        List<Kind> kinds = new ArrayList<>(Arrays.asList(MetricsVisitor.getClassNodes()));
+        kinds.addAll(Arrays.asList(MetricsVisitor.getFunctionNodes()));
+        return kinds;
+      }
+
+      @Override
+      public void visitNode(Tree tree) {
+        result.add(tree);
+      }
+    }.scanTree(tree);
+    return result;
+  }
 }
@@ -0,0 +1,96 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class LexicalTerminalTest {
+
+  /**
+   * PHP files of the tests of this module and of the checks.
+   */
+  private static final String[] CORPUS = {"src/test/resources", "../php-checks/src/test/resources"};
+
+  private static final String[] EDGE_CASES = {
+    "0 00 09 0777 0778 0x 0x1F 0XaB 0b 0b101 0B1 1. .5 1.5 .e1 1e 1e5 1E+5 1e-x .5e3 1.e3 012.5 1_000",
+    "'' 'a\\'b' 'a\\\\' 'unclosed\\",
+    "\"\" \"a\\\"b\" \"$\" \"$1\" \"${a}\" \"{$a}\" \"{ $\" \"\\$a\" \"unclosed\\",
+    "`ls` `unclosed",
+    "# a ?> b\n// a %> b\r/* a */ /*/ */ /* unclosed",
+    "<<<EOT\nEOT\n<<< \"EOT\"\r\nEOT;\n<<<'EOT'\nEOT\n<<<  EOT\n EOT\n<<<EOT\r\rEOT\n<<<\"EOT\nEOT\n<<<'A\"\n<<<",
+    "html <?PhP a ?> html <?= a %> html <% <?xml <?",
+    "$ $a $_1 $1 \u00E9t\u00E9 \u2028\u2029\u00A0\uFEFF\u3000\u000B\f",
+  };
+
+  @Test
+  public void same_matches_as_regular_expressions() throws Exception {
+    List<String> texts = new ArrayList<>();
+    for (String directory : CORPUS) {
+      addFiles(new File(directory), texts);
+    }
+    assertThat(texts.size()).isGreaterThan(100);
+    for (String edgeCase : EDGE_CASES) {
+      texts.add(edgeCase);
+    }
+
+    for (LexicalTerminal terminal : LexicalTerminal.values()) {
+      Matcher matcher = Pattern.compile(terminal.regexp()).matcher("");
+      for (String text : texts) {
+        matcher.reset(text);
+        for (int start = 0; start <= text.length(); start++) {
+          // the opening tag is only searched at the start of the file and after a closing tag
+          if (terminal != LexicalTerminal.PHP_START_TAG || start == 0 || text.charAt(start - 1) == '>') {
+            int expected = matcher.region(start, text.length()).lookingAt() ? matcher.end() : -1;
+            assertThat(terminal.scan(text, start)).as(terminal + " at " + start + " of " + text).isEqualTo(expected);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void spacing() throws Exception {
+    assertThat(LexicalTerminal.spacingEnd(" \n/* a */ // b\n# c\n d", 0)).isEqualTo(20);
+    assertThat(LexicalTerminal.spacingEnd(" /* unclosed", 0)).isEqualTo(1);
+    assertThat(LexicalTerminal.spacingEnd("a", 0)).isEqualTo(0);
+  }
+
+  private static void addFiles(File file, List<String> texts) throws IOException {
+    if (file.isDirectory()) {
+      for (File child : file.listFiles()) {
+        addFiles(child, texts);
+      }
+    } else if (file.getName().endsWith(".php") || file.getName().endsWith(".inc")) {
+      texts.add(Files.toString(file, Charsets.UTF_8));
+    }
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser;
+
+import com.google.common.base.Charsets;
+import com.sonar.sslr.api.typed.ActionParser;
+import org.junit.Test;
+import org.sonar.php.utils.AnalysisInterruptedException;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.statement.StatementTree;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class PHPParserTest {
+
+  private final PHPParser parser = new PHPParser(Charsets.UTF_8, PHPLexicalGrammar.COMPILATION_UNIT);
+
+  @Test
+  public void statements_dispatched_on_first_token() throws Exception {
+    assertThat(kinds("<?php IF ($a) {} /* comment */ # comment\n foreach ($a as $b) {} $a = 1; { } ;"))
+      .containsExactly(Kind.IF_STATEMENT, Kind.FOREACH_STATEMENT, Kind.EXPRESSION_STATEMENT, Kind.BLOCK, Kind.EMPTY_STATEMENT);
+    assertThat(kinds("<?php abstract class A {} Final class B {} function f() {} use A; use A\\{B}; const A = 1;"))
+      .containsExactly(Kind.CLASS_DECLARATION, Kind.CLASS_DECLARATION, Kind.FUNCTION_DECLARATION, Kind.USE_STATEMENT, Kind.GROUP_USE_STATEMENT,
+        Kind.CONSTANT_DECLARATION);
+    assertThat(kinds("<?php ?> html <?php echo 1; // comment ?> html"))
+      .containsExactly(Kind.INLINE_HTML, Kind.EXPRESSION_STATEMENT, Kind.INLINE_HTML);
+  }
+
+  @Test
+  public void alternatives_which_may_start_with_any_word() throws Exception {
+    assertThat(kinds("<?php iffy(); static::f(); label: STATIC $a;"))
+      .containsExactly(Kind.EXPRESSION_STATEMENT, Kind.EXPRESSION_STATEMENT, Kind.LABEL, Kind.STATIC_STATEMENT);
+  }
+
+  @Test
+  public void backtracks() throws Exception {
+    // the statements are only tried without success at the end of the block and at the end of the file
+    parser.parse("<?php if ($a) { f(); } $a = 1; echo $a;");
+    assertThat(parser.backtracks()).isEqualTo(4);
+
+    // static statement and expression statement, before the end of the file
+    parser.parse("<?php static::f(); label:");
+    assertThat(parser.backtracks()).isEqualTo(4);
+  }
+
+  @Test
+  public void interrupted_while_matching() throws Exception {
+    StringBuilder source = new StringBuilder("<?php ");
+    for (int i = 0; i < 10000; i++) {
+      source.append("if ($a) { $b = f($c); }\n");
+    }
+    Thread.currentThread().interrupt();
+    try {
+      parser.parse(source.toString());
+      fail("expected AnalysisInterruptedException");
+    } catch (AnalysisInterruptedException e) {
+      // thrown by the parsing machine, before any node is built
+      for (StackTraceElement element : e.getStackTrace()) {
+        assertThat(element.getClassName()).isNotEqualTo(PHPNodeBuilder.class.getName());
+      }
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  /**
+   * {@link FirstTokenDispatchExpression} compiles to SSLR internal instructions, which may change in any version.
+   * Upgrading SSLR requires checking that the statements are still dispatched the same way, then updating this test.
+   */
+  @Test
+  public void sslr_version() throws Exception {
+    Properties properties = new Properties();
+    try (InputStream in = ActionParser.class.getResourceAsStream("/META-INF/maven/org.sonarsource.sslr/sslr-core/pom.properties")) {
+      properties.load(in);
+    }
+    assertThat(properties.getProperty("version"))
+      .overridingErrorMessage("FirstTokenDispatchExpression relies on the internals of SSLR 1.21, check it against SSLR " + properties.getProperty("version"))
+      .isEqualTo("1.21");
+  }
+
+  private List<Kind> kinds(String source) {
+    CompilationUnitTree tree = (CompilationUnitTree) parser.parse(source);
+    List<Kind> kinds = new ArrayList<>();
+    for (StatementTree statement : tree.script().statements()) {
+      kinds.add(((Tree) statement).getKind());
+    }
+    return kinds;
+  }
+
+}
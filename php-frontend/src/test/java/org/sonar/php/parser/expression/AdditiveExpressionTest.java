@@ -19,18 +19,40 @@
  */
 package org.sonar.php.parser.expression;
 
-import static org.sonar.php.utils.Assertions.assertThat;
-
 import org.junit.Test;
 import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertHigherPrecedence;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertLeftAssociative;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
+import static org.sonar.php.utils.Assertions.assertThat;
 
 public class AdditiveExpressionTest {
 
   @Test
   public void test() {
-    assertThat(PHPLexicalGrammar.ADDITIVE_EXPR)
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
       .matches("$a")
       .matches("$a + $a")
       .matches("$a - $a");
   }
+
+  @Test
+  public void operators() {
+    assertOperator("+", Kind.PLUS);
+    assertOperator("-", Kind.MINUS);
+  }
+
+  @Test
+  public void associativity() {
+    assertLeftAssociative("+", "-");
+  }
+
+  @Test
+  public void precedence() {
+    assertHigherPrecedence("+", "<<");
+    assertHigherPrecedence("-", "<<");
+  }
+
 }
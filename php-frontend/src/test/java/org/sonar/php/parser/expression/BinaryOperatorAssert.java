@@ -0,0 +1,87 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.parser.expression;
+
+import com.google.common.base.Charsets;
+import com.sonar.sslr.api.typed.ActionParser;
+import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.utils.SourceBuilder;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.expression.BinaryExpressionTree;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Assertions on the shape of the trees built from {@link PHPLexicalGrammar#BINARY_EXPR}, for the tests of each level of
+ * precedence of the binary operators.
+ */
+final class BinaryOperatorAssert {
+
+  private static final ActionParser<Tree> PARSER = PHPParserBuilder.createParser(PHPLexicalGrammar.BINARY_EXPR, Charsets.UTF_8);
+
+  private BinaryOperatorAssert() {
+  }
+
+  /**
+   * "$a op $b" is a binary expression of the given kind.
+   */
+  static void assertOperator(String operator, Kind kind) {
+    BinaryExpressionTree tree = parse("$a " + operator + " $b");
+    assertThat(tree.getKind()).as(operator).isEqualTo(kind);
+    assertThat(tree.operator().text()).isEqualTo(operator);
+  }
+
+  /**
+   * Both operators have the same precedence and are left associative: "$a first $b second $c" is "($a first $b) second $c",
+   * and the other way round.
+   */
+  static void assertLeftAssociative(String first, String second) {
+    assertGrouping("$a " + first + " $b " + second + " $c", "$a " + first + " $b", "$c");
+    assertGrouping("$a " + second + " $b " + first + " $c", "$a " + second + " $b", "$c");
+  }
+
+  /**
+   * The operator is right associative: "$a op $b op $c" is "$a op ($b op $c)".
+   */
+  static void assertRightAssociative(String operator) {
+    assertGrouping("$a " + operator + " $b " + operator + " $c", "$a", "$b " + operator + " $c");
+  }
+
+  /**
+   * The first operator binds tighter than the second one, on both sides of it.
+   */
+  static void assertHigherPrecedence(String higher, String lower) {
+    assertGrouping("$a " + lower + " $b " + higher + " $c", "$a", "$b " + higher + " $c");
+    assertGrouping("$a " + higher + " $b " + lower + " $c", "$a " + higher + " $b", "$c");
+  }
+
+  private static void assertGrouping(String source, String leftOperand, String rightOperand) {
+    BinaryExpressionTree tree = parse(source);
+    assertThat(SourceBuilder.build(tree.leftOperand()).trim()).as(source).isEqualTo(leftOperand);
+    assertThat(SourceBuilder.build(tree.rightOperand()).trim()).as(source).isEqualTo(rightOperand);
+  }
+
+  private static BinaryExpressionTree parse(String source) {
+    return (BinaryExpressionTree) PARSER.parse(source);
+  }
+
+}
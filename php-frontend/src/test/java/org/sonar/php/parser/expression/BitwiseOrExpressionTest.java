@@ -20,16 +20,36 @@
 package org.sonar.php.parser.expression;
 
 import org.junit.Test;
+import org.sonar.php.parser.PHPLexicalGrammar;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertHigherPrecedence;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertLeftAssociative;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
 import static org.sonar.php.utils.Assertions.assertThat;
 
 public class BitwiseOrExpressionTest {
 
   @Test
   public void test() {
-    assertThat(Kind.BITWISE_OR)
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
       .matches("$a")
       .matches("$a | $a");
   }
+
+  @Test
+  public void operators() {
+    assertOperator("|", Kind.BITWISE_OR);
+  }
+
+  @Test
+  public void associativity() {
+    assertLeftAssociative("|", "|");
+  }
+
+  @Test
+  public void precedence() {
+    assertHigherPrecedence("|", "&&");
+  }
+
 }
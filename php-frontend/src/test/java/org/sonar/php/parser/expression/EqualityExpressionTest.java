@@ -19,21 +19,52 @@
  */
 package org.sonar.php.parser.expression;
 
-import static org.sonar.php.utils.Assertions.assertThat;
-
 import org.junit.Test;
 import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertHigherPrecedence;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertLeftAssociative;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
+import static org.sonar.php.utils.Assertions.assertThat;
 
 public class EqualityExpressionTest {
 
   @Test
   public void test() {
-    assertThat(PHPLexicalGrammar.EQUALITY_EXPR)
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
       .matches("$a")
-      .matches("$a <> $a")
       .matches("$a == $a")
-      .matches("$a === $a")
       .matches("$a != $a")
-      .matches("$a !== $a");
+      .matches("$a === $a")
+      .matches("$a !== $a")
+      .matches("$a <> $a")
+      .matches("$a <=> $a");
+  }
+
+  @Test
+  public void operators() {
+    assertOperator("==", Kind.EQUAL_TO);
+    assertOperator("!=", Kind.NOT_EQUAL_TO);
+    assertOperator("===", Kind.STRICT_EQUAL_TO);
+    assertOperator("!==", Kind.STRICT_NOT_EQUAL_TO);
+    assertOperator("<>", Kind.ALTERNATIVE_NOT_EQUAL_TO);
+    assertOperator("<=>", Kind.COMPARISON);
+  }
+
+  @Test
+  public void associativity() {
+    assertLeftAssociative("==", "!=");
+    assertLeftAssociative("!=", "===");
+    assertLeftAssociative("===", "!==");
+    assertLeftAssociative("!==", "<>");
+    assertLeftAssociative("<>", "<=>");
   }
+
+  @Test
+  public void precedence() {
+    assertHigherPrecedence("==", "&");
+    assertHigherPrecedence("<=>", "&");
+  }
+
 }
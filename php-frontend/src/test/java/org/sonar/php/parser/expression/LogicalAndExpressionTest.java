@@ -20,18 +20,41 @@
 package org.sonar.php.parser.expression;
 
 import org.junit.Test;
+import org.sonar.php.parser.PHPLexicalGrammar;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertHigherPrecedence;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertLeftAssociative;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
 import static org.sonar.php.utils.Assertions.assertThat;
 
 public class LogicalAndExpressionTest {
 
   @Test
   public void test() {
-    assertThat(Kind.CONDITIONAL_AND)
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
       .matches("$a")
       .matches("$a && $a")
-      .matches("$a AND $a")
-      .matches("$a and $a");
+      .matches("$a and $a")
+      .matches("$a AND $a");
   }
+
+  @Test
+  public void operators() {
+    assertOperator("&&", Kind.CONDITIONAL_AND);
+    assertOperator("and", Kind.ALTERNATIVE_CONDITIONAL_AND);
+    assertOperator("AND", Kind.ALTERNATIVE_CONDITIONAL_AND);
+  }
+
+  @Test
+  public void associativity() {
+    assertLeftAssociative("&&", "and");
+  }
+
+  @Test
+  public void precedence() {
+    assertHigherPrecedence("&&", "xor");
+    assertHigherPrecedence("AND", "xor");
+  }
+
 }
@@ -20,18 +20,41 @@
 package org.sonar.php.parser.expression;
 
 import org.junit.Test;
+import org.sonar.php.parser.PHPLexicalGrammar;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertHigherPrecedence;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertLeftAssociative;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
 import static org.sonar.php.utils.Assertions.assertThat;
 
 public class LogicalOrExpressionTest {
 
   @Test
   public void test() {
-    assertThat(Kind.CONDITIONAL_OR)
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
       .matches("$a")
       .matches("$a || $a")
-      .matches("$a OR $a")
-      .matches("$a or $a");
+      .matches("$a or $a")
+      .matches("$a OR $a");
   }
+
+  @Test
+  public void operators() {
+    assertOperator("||", Kind.CONDITIONAL_OR);
+    assertOperator("or", Kind.ALTERNATIVE_CONDITIONAL_OR);
+    assertOperator("OR", Kind.ALTERNATIVE_CONDITIONAL_OR);
+  }
+
+  @Test
+  public void associativity() {
+    assertLeftAssociative("||", "or");
+  }
+
+  @Test
+  public void precedence() {
+    assertHigherPrecedence("||", "??");
+    assertHigherPrecedence("OR", "??");
+  }
+
 }
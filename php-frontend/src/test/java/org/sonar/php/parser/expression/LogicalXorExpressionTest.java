@@ -20,17 +20,38 @@
 package org.sonar.php.parser.expression;
 
 import org.junit.Test;
+import org.sonar.php.parser.PHPLexicalGrammar;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertHigherPrecedence;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertLeftAssociative;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
 import static org.sonar.php.utils.Assertions.assertThat;
 
 public class LogicalXorExpressionTest {
 
   @Test
   public void test() {
-    assertThat(Kind.ALTERNATIVE_CONDITIONAL_XOR)
-    .matches("$a")
-    .matches("$a XOR $a")
-    .matches("$a xor $a");
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
+      .matches("$a")
+      .matches("$a xor $a")
+      .matches("$a XOR $a");
   }
+
+  @Test
+  public void operators() {
+    assertOperator("xor", Kind.ALTERNATIVE_CONDITIONAL_XOR);
+    assertOperator("XOR", Kind.ALTERNATIVE_CONDITIONAL_XOR);
+  }
+
+  @Test
+  public void associativity() {
+    assertLeftAssociative("xor", "xor");
+  }
+
+  @Test
+  public void precedence() {
+    assertHigherPrecedence("xor", "||");
+  }
+
 }
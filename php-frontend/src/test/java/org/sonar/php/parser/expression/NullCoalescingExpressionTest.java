@@ -20,17 +20,30 @@
 package org.sonar.php.parser.expression;
 
 import org.junit.Test;
+import org.sonar.php.parser.PHPLexicalGrammar;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
 
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertRightAssociative;
 import static org.sonar.php.utils.Assertions.assertThat;
 
 public class NullCoalescingExpressionTest {
 
   @Test
   public void test() {
-    assertThat(Kind.NULL_COALESCING_EXPRESSION)
-      .matches("$a ?? $b")
-      .matches("$a ?? $b ?? $c");
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
+      .matches("$a")
+      .matches("$a ?? $a");
+  }
+
+  @Test
+  public void operators() {
+    assertOperator("??", Kind.NULL_COALESCING_EXPRESSION);
+  }
+
+  @Test
+  public void associativity() {
+    assertRightAssociative("??");
   }
 
 }
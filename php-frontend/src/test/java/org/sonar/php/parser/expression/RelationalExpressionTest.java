@@ -19,20 +19,46 @@
  */
 package org.sonar.php.parser.expression;
 
-import static org.sonar.php.utils.Assertions.assertThat;
-
 import org.junit.Test;
 import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertHigherPrecedence;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertLeftAssociative;
+import static org.sonar.php.parser.expression.BinaryOperatorAssert.assertOperator;
+import static org.sonar.php.utils.Assertions.assertThat;
 
 public class RelationalExpressionTest {
 
   @Test
   public void test() {
-    assertThat(PHPLexicalGrammar.RELATIONAL_EXPR)
+    assertThat(PHPLexicalGrammar.BINARY_EXPR)
       .matches("$a")
       .matches("$a < $a")
       .matches("$a > $a")
-      .matches("$a >= $a")
-      .matches("$a <= $a");
+      .matches("$a <= $a")
+      .matches("$a >= $a");
+  }
+
+  @Test
+  public void operators() {
+    assertOperator("<", Kind.LESS_THAN);
+    assertOperator(">", Kind.GREATER_THAN);
+    assertOperator("<=", Kind.LESS_THAN_OR_EQUAL_TO);
+    assertOperator(">=", Kind.GREATER_THAN_OR_EQUAL_TO);
   }
+
+  @Test
+  public void associativity() {
+    assertLeftAssociative("<", ">");
+    assertLeftAssociative(">", "<=");
+    assertLeftAssociative("<=", ">=");
+  }
+
+  @Test
+  public void precedence() {
+    assertHigherPrecedence("<", "==");
+    assertHigherPrecedence(">=", "==");
+  }
+
 }
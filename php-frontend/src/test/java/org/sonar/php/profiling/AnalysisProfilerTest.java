@@ -0,0 +1,79 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.profiling;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class AnalysisProfilerTest {
+
+  @Test
+  public void record_entries() throws Exception {
+    AnalysisProfiler profiler = new AnalysisProfiler();
+    profiler.stop("a", profiler.start());
+    profiler.stop("a", profiler.start());
+    AnalysisProfiler.Snapshot start = profiler.start();
+    Thread.sleep(100);
+    profiler.stop("b", start);
+
+    assertThat(profiler.entries()).hasSize(2);
+    List<ProfileEntry> sorted = profiler.sortedEntries();
+    assertThat(sorted.get(0).name()).isEqualTo("b");
+    assertThat(sorted.get(0).calls()).isEqualTo(1);
+    assertThat(sorted.get(0).wallTimeNanos()).isGreaterThanOrEqualTo(100000000L);
+    assertThat(sorted.get(1).name()).isEqualTo("a");
+    assertThat(sorted.get(1).calls()).isEqualTo(2);
+  }
+
+  @Test
+  public void count_events() throws Exception {
+    AnalysisProfiler profiler = new AnalysisProfiler();
+    profiler.stop("a", profiler.start());
+    profiler.count("a", 3);
+    profiler.count("a", 2);
+
+    ProfileEntry entry = profiler.entries().iterator().next();
+    assertThat(entry.calls()).isEqualTo(1);
+    assertThat(entry.events()).isEqualTo(5);
+  }
+
+  @Test
+  public void merge() throws Exception {
+    AnalysisProfiler profiler1 = new AnalysisProfiler();
+    profiler1.stop("a", profiler1.start());
+    AnalysisProfiler profiler2 = new AnalysisProfiler();
+    profiler2.stop("a", profiler2.start());
+    profiler2.stop("b", profiler2.start());
+    profiler2.count("b", 2);
+
+    profiler1.merge(profiler2);
+
+    assertThat(profiler1.entries()).hasSize(2);
+    for (ProfileEntry entry : profiler1.entries()) {
+      assertThat(entry.calls()).isEqualTo("a".equals(entry.name()) ? 2 : 1);
+      assertThat(entry.events()).isEqualTo("a".equals(entry.name()) ? 0 : 2);
+    }
+    assertThat(profiler2.entries()).hasSize(2);
+  }
+
+}
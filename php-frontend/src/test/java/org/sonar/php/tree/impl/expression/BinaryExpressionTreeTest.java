@@ -33,7 +33,7 @@ public class BinaryExpressionTreeTest extends PHPTreeModelTest {
   @Test
   public void conditional_or() throws Exception {
     testBinary(Kind.CONDITIONAL_OR, "||");
-    testBinary(Kind.ALTERNATIVE_CONDITIONAL_OR, "or", Kind.CONDITIONAL_OR);
+    testBinary(Kind.ALTERNATIVE_CONDITIONAL_OR, "or");
   }
 
   @Test
@@ -44,7 +44,7 @@ public class BinaryExpressionTreeTest extends PHPTreeModelTest {
   @Test
   public void conditional_and() throws Exception {
     testBinary(Kind.CONDITIONAL_AND, "&&");
-    testBinary(Kind.ALTERNATIVE_CONDITIONAL_AND, "and", Kind.CONDITIONAL_AND);
+    testBinary(Kind.ALTERNATIVE_CONDITIONAL_AND, "and");
   }
 
   @Test
@@ -64,39 +64,39 @@ public class BinaryExpressionTreeTest extends PHPTreeModelTest {
 
   @Test
   public void equality() throws Exception {
-    testBinary(Kind.STRICT_NOT_EQUAL_TO, "!==", PHPLexicalGrammar.EQUALITY_EXPR);
-    testBinary(Kind.NOT_EQUAL_TO, "!=", PHPLexicalGrammar.EQUALITY_EXPR);
-    testBinary(Kind.STRICT_EQUAL_TO, "===", PHPLexicalGrammar.EQUALITY_EXPR);
-    testBinary(Kind.EQUAL_TO, "==", PHPLexicalGrammar.EQUALITY_EXPR);
-    testBinary(Kind.ALTERNATIVE_NOT_EQUAL_TO, "<>", PHPLexicalGrammar.EQUALITY_EXPR);
-    testBinary(Kind.COMPARISON, "<=>", PHPLexicalGrammar.EQUALITY_EXPR);
+    testBinary(Kind.STRICT_NOT_EQUAL_TO, "!==");
+    testBinary(Kind.NOT_EQUAL_TO, "!=");
+    testBinary(Kind.STRICT_EQUAL_TO, "===");
+    testBinary(Kind.EQUAL_TO, "==");
+    testBinary(Kind.ALTERNATIVE_NOT_EQUAL_TO, "<>");
+    testBinary(Kind.COMPARISON, "<=>");
   }
 
   @Test
   public void relational() throws Exception {
-    testBinary(Kind.LESS_THAN_OR_EQUAL_TO, "<=", PHPLexicalGrammar.RELATIONAL_EXPR);
-    testBinary(Kind.GREATER_THAN_OR_EQUAL_TO, ">=", PHPLexicalGrammar.RELATIONAL_EXPR);
-    testBinary(Kind.LESS_THAN, "<", PHPLexicalGrammar.RELATIONAL_EXPR);
-    testBinary(Kind.GREATER_THAN, ">", PHPLexicalGrammar.RELATIONAL_EXPR);
+    testBinary(Kind.LESS_THAN_OR_EQUAL_TO, "<=");
+    testBinary(Kind.GREATER_THAN_OR_EQUAL_TO, ">=");
+    testBinary(Kind.LESS_THAN, "<");
+    testBinary(Kind.GREATER_THAN, ">");
   }
 
   @Test
   public void shift() throws Exception {
-    testBinary(Kind.LEFT_SHIFT, "<<", PHPLexicalGrammar.SHIFT_EXPR);
-    testBinary(Kind.RIGHT_SHIFT, ">>", PHPLexicalGrammar.SHIFT_EXPR);
+    testBinary(Kind.LEFT_SHIFT, "<<");
+    testBinary(Kind.RIGHT_SHIFT, ">>");
   }
 
   @Test
   public void additive() throws Exception {
-    testBinary(Kind.PLUS, "+", PHPLexicalGrammar.ADDITIVE_EXPR);
-    testBinary(Kind.MINUS, "-", PHPLexicalGrammar.ADDITIVE_EXPR);
+    testBinary(Kind.PLUS, "+");
+    testBinary(Kind.MINUS, "-");
   }
 
   @Test
   public void multiplicative() throws Exception {
-    testBinary(Kind.MULTIPLY, "*", PHPLexicalGrammar.MULTIPLICATIVE_EXPR);
-    testBinary(Kind.DIVIDE, "/", PHPLexicalGrammar.MULTIPLICATIVE_EXPR);
-    testBinary(Kind.REMAINDER, "%", PHPLexicalGrammar.MULTIPLICATIVE_EXPR);
+    testBinary(Kind.MULTIPLY, "*");
+    testBinary(Kind.DIVIDE, "/");
+    testBinary(Kind.REMAINDER, "%");
   }
 
   @Test
@@ -110,7 +110,7 @@ public class BinaryExpressionTreeTest extends PHPTreeModelTest {
   }
 
   private void testBinary(Kind kind, String operator) throws Exception {
-    BinaryExpressionTree tree = parse("$a " + operator + " $b", kind);
+    BinaryExpressionTree tree = parse("$a " + operator + " $b", PHPLexicalGrammar.BINARY_EXPR);
 
     assertThat(tree.is(kind)).isTrue();
     assertThat(tree.leftOperand().is(Kind.VARIABLE_IDENTIFIER)).isTrue();
@@ -134,7 +134,7 @@ public class BinaryExpressionTreeTest extends PHPTreeModelTest {
   @Test
   public void test_associativity_or() throws Exception {
     Kind conditionalOr = Kind.CONDITIONAL_OR;
-    BinaryExpressionTree tree = parse("$a || $b || $c", conditionalOr);
+    BinaryExpressionTree tree = parse("$a || $b || $c", PHPLexicalGrammar.BINARY_EXPR);
 
     assertThat(tree.is(conditionalOr)).isTrue();
     assertThat(tree.leftOperand().is(conditionalOr)).isTrue();
@@ -146,7 +146,7 @@ public class BinaryExpressionTreeTest extends PHPTreeModelTest {
   @Test
   public void test_associativity_null_coalescing() throws Exception {
     Kind coalescingExpr = Kind.NULL_COALESCING_EXPRESSION;
-    BinaryExpressionTree tree = parse("$a ?? $b ?? $c", coalescingExpr);
+    BinaryExpressionTree tree = parse("$a ?? $b ?? $c", PHPLexicalGrammar.BINARY_EXPR);
 
     assertThat(tree.is(coalescingExpr)).isTrue();
     assertThat(tree.leftOperand().is(Kind.VARIABLE_IDENTIFIER)).isTrue();
@@ -155,5 +155,21 @@ public class BinaryExpressionTreeTest extends PHPTreeModelTest {
     assertThat(expressionToString(tree.rightOperand())).isEqualTo("$b ?? $c");
   }
 
+  @Test
+  public void precedence() throws Exception {
+    BinaryExpressionTree tree = parse("$a || $b && $c . $d * $e", PHPLexicalGrammar.BINARY_EXPR);
+    assertThat(tree.is(Kind.CONDITIONAL_OR)).isTrue();
+    BinaryExpressionTree right = (BinaryExpressionTree) tree.rightOperand();
+    assertThat(right.is(Kind.CONDITIONAL_AND)).isTrue();
+    assertThat(right.rightOperand().is(Kind.MULTIPLY)).isTrue();
+    assertThat(expressionToString(((BinaryExpressionTree) right.rightOperand()).leftOperand())).isEqualTo("$c . $d");
+
+    tree = parse("$a * $b + $c ?? $d OR $e", PHPLexicalGrammar.BINARY_EXPR);
+    assertThat(tree.is(Kind.NULL_COALESCING_EXPRESSION)).isTrue();
+    assertThat(expressionToString(tree.leftOperand())).isEqualTo("$a * $b + $c");
+    assertThat(tree.leftOperand().is(Kind.PLUS)).isTrue();
+    assertThat(tree.rightOperand().is(Kind.ALTERNATIVE_CONDITIONAL_OR)).isTrue();
+    assertThat(((BinaryExpressionTree) tree.rightOperand()).operator().text()).isEqualTo("OR");
+  }
 
 }
@@ -19,10 +19,20 @@
  */
 package org.sonar.php.tree.impl.lexical;
 
+import com.google.common.base.Charsets;
 import org.junit.Test;
 import org.sonar.php.PHPTreeModelTest;
+import org.sonar.php.api.PHPPunctuator;
 import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.expression.AssignmentExpressionTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
+import org.sonar.plugins.php.api.tree.statement.ExpressionStatementTree;
+
+import java.util.Collections;
+import java.util.List;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -42,6 +52,56 @@ public class InternalSyntaxTokenTest extends PHPTreeModelTest {
 
     assertThat(tree.is(Kind.TOKEN)).isTrue();
     assertThat(tree.text()).isEqualTo("foo");
+    assertThat(tree.toIndex()).isEqualTo(3);
+    assertThat(tree.trivias()).isEmpty();
+  }
+
+  @Test
+  public void sliced_from_source() throws Exception {
+    char[] source = "<?php ECHO $a; ?>x".toCharArray();
+    InternalSyntaxToken token = new InternalSyntaxToken(1, 6, source, 6, 10, null, Collections.<SyntaxTrivia>emptyList(), false, null);
+    assertThat(token.text()).isEqualTo("ECHO");
+    assertThat(token.text()).isSameAs(token.text());
+    assertThat(token.toIndex()).isEqualTo(10);
+    assertThat(token.is(Kind.TOKEN)).isTrue();
+
+    InternalSyntaxToken inlineHtml = new InternalSyntaxToken(1, 15, source, 15, 18, null, Collections.<SyntaxTrivia>emptyList(), false, null);
+    assertThat(inlineHtml.is(Kind.INLINE_HTML_TOKEN)).isTrue();
+    assertThat(inlineHtml.text()).isEqualTo("?>x");
+  }
+
+  @Test
+  public void inline_html_kept_as_offsets() throws Exception {
+    char[] source = "<?php ECHO $a; ?> <html> <?php".toCharArray();
+    InternalSyntaxToken inlineHtml = new InternalSyntaxToken(1, 15, source, 15, 30, null, Collections.<SyntaxTrivia>emptyList(), false, null);
+
+    assertThat(inlineHtml.length()).isEqualTo(15);
+    assertThat(inlineHtml.charAt(3)).isEqualTo('<');
+    assertThat(inlineHtml.text()).isEqualTo("?> <html> <?php");
+    assertThat(inlineHtml.text()).isNotSameAs(inlineHtml.text());
+  }
+
+  @Test
+  public void trivias_sliced_from_source() throws Exception {
+    Tree tree = PHPParserBuilder.createParser(Charsets.UTF_8).parse("<?php /* a */ # b  \n\t// c\n$a;");
+    List<SyntaxTrivia> trivias = TokenTable.of(tree).get(1).trivias();
+
+    assertThat(trivias).hasSize(3);
+    assertThat(trivias.get(0).text()).isEqualTo("/* a */");
+    assertThat(trivias.get(1).text()).isEqualTo("# b  ");
+    assertThat(trivias.get(2).text()).isEqualTo("// c");
+    assertThat(trivias.get(2).text()).isSameAs(trivias.get(2).text());
+    assertThat(trivias.get(2).line()).isEqualTo(2);
+    assertThat(trivias.get(2).column()).isEqualTo(1);
+  }
+
+  @Test
+  public void keywords_and_punctuators_share_their_text() throws Exception {
+    ExpressionStatementTree first = parse("$a = $b;", PHPLexicalGrammar.EXPRESSION_STATEMENT);
+    ExpressionStatementTree second = parse("$c = $d;", PHPLexicalGrammar.EXPRESSION_STATEMENT);
+
+    assertThat(first.eosToken().text()).isSameAs(second.eosToken().text());
+    assertThat(((AssignmentExpressionTree) first.expression()).operator()).isSameAs(PHPPunctuator.EQU.getValue());
   }
 
 }
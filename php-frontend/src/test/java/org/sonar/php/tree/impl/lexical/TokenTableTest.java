@@ -0,0 +1,141 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.tree.impl.lexical;
+
+import com.google.common.base.Charsets;
+import com.sonar.sslr.api.typed.ActionParser;
+import org.junit.Test;
+import org.sonar.php.PHPTreeModelTest;
+import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.php.tree.visitors.PHPCheckContext;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.php.api.tree.statement.ExpressionStatementTree;
+import org.sonar.plugins.php.api.tree.statement.IfStatementTree;
+import org.sonar.plugins.php.api.visitors.CheckContext;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class TokenTableTest extends PHPTreeModelTest {
+
+  @Test
+  public void built_by_parser_in_source_order() throws Exception {
+    CompilationUnitTree tree = (CompilationUnitTree) PHPParserBuilder.createParser(Charsets.UTF_8)
+      .parse("<?php if ($a) { f($b, 1); } ?> html <?php echo $c;");
+    TokenTable table = TokenTable.of(tree);
+
+    assertThat(table).isSameAs(TokenTable.of(tree.script()));
+    assertThat(table.tokens()).isEqualTo(visitedTokens(tree));
+    for (int i = 0; i < table.size(); i++) {
+      assertThat(table.indexOf(table.get(i))).isEqualTo(i);
+    }
+    assertThat(table.get(0).text()).isEqualTo("<?php");
+    assertThat(((InternalSyntaxToken) table.get(table.size() - 1)).isEOF()).isTrue();
+  }
+
+  @Test
+  public void previous_and_next() throws Exception {
+    ExpressionStatementTree tree = parse("f($a);", PHPLexicalGrammar.EXPRESSION_STATEMENT);
+    TokenTable table = TokenTable.of(tree);
+    SyntaxToken first = table.get(0);
+    SyntaxToken last = table.get(table.size() - 1);
+
+    assertThat(table.previous(first)).isNull();
+    assertThat(table.next(first).text()).isEqualTo("(");
+    assertThat(table.previous(last).text()).isEqualTo(")");
+    assertThat(table.next(last)).isNull();
+  }
+
+  @Test
+  public void token_of_another_tree() throws Exception {
+    ExpressionStatementTree tree = parse("f($a);", PHPLexicalGrammar.EXPRESSION_STATEMENT);
+    ExpressionStatementTree other = parse("g($b);", PHPLexicalGrammar.EXPRESSION_STATEMENT);
+
+    assertThat(TokenTable.of(tree).indexOf(other.eosToken())).isEqualTo(-1);
+    assertThat(TokenTable.of(tree).previous(other.eosToken())).isNull();
+    assertThat(TokenTable.of(tree).next(other.eosToken())).isNull();
+  }
+
+  @Test
+  public void first_and_last_tokens() throws Exception {
+    IfStatementTree tree = parse("if ($a) { f(); } else { g(); }", PHPLexicalGrammar.IF_STATEMENT);
+
+    assertThat(TokenTable.firstToken(tree)).isSameAs(((PHPTree) tree).getFirstToken());
+    assertThat(TokenTable.lastToken(tree)).isSameAs(((PHPTree) tree).getLastToken());
+    assertThat(TokenTable.lastToken(tree).text()).isEqualTo("}");
+  }
+
+  @Test
+  public void token_of_same_source_parsed_again() throws Exception {
+    ActionParser<Tree> parser = PHPParserBuilder.createParser(Charsets.UTF_8);
+    TokenTable table = TokenTable.of(parser.parse("<?php $a;"));
+    TokenTable other = TokenTable.of(parser.parse("<?php $a;"));
+
+    assertThat(other).isNotSameAs(table);
+    assertThat(table.indexOf(other.get(1))).isEqualTo(-1);
+    assertThat(other.indexOf(other.get(1))).isEqualTo(1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void filled_once() throws Exception {
+    Tree tree = PHPParserBuilder.createParser(Charsets.UTF_8).parse("<?php $a;");
+    TokenTable.of(tree).index(tree);
+  }
+
+  @Test
+  public void check_context() throws Exception {
+    CompilationUnitTree tree = (CompilationUnitTree) PHPParserBuilder.createParser(Charsets.UTF_8).parse("<?php $a = 1; ?>\n<?php ?>");
+    CheckContext context = new PHPCheckContext(new File("file.php"), tree);
+    TokenTable table = TokenTable.of(context.tree());
+    List<SyntaxToken> tokens = context.tokens();
+
+    assertThat(tokens).isSameAs(table.tokens());
+    assertThat(tokens).hasSize(8);
+    for (int i = 0; i < tokens.size(); i++) {
+      assertThat(table.indexOf(tokens.get(i))).isEqualTo(i);
+    }
+    assertThat(context.previous(tokens.get(0))).isNull();
+    assertThat(context.next(tokens.get(1)).text()).isEqualTo("=");
+    assertThat(context.previous(tokens.get(2)).text()).isEqualTo("$a");
+    assertThat(context.next(tokens.get(7))).isNull();
+    assertThat(tokens.get(7).is(Kind.TOKEN)).isTrue();
+  }
+
+  private static List<SyntaxToken> visitedTokens(Tree tree) {
+    final List<SyntaxToken> tokens = new ArrayList<>();
+    tree.accept(new PHPVisitorCheck() {
+      @Override
+      public void visitToken(SyntaxToken token) {
+        tokens.add(token);
+      }
+    });
+    return tokens;
+  }
+
+}
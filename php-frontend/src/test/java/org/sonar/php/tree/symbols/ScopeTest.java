@@ -121,6 +121,25 @@ public class ScopeTest extends ParsingTestUtils {
 
     assertThat(scope.getSymbol("FOO", Symbol.Kind.FUNCTION)).isNotNull();
     assertThat(scope.getSymbol("FOO", Symbol.Kind.CLASS)).isNotNull();
+    assertThat(scope.getSymbol("FOO")).isNull();
+    assertThat(scope.getSymbol("FOO", Symbol.Kind.FUNCTION, Symbol.Kind.CLASS)).isNull();
+  }
+
+  @Test
+  public void case_insensitive_names() throws Exception {
+    Scope classScope = getScopeFor(Kind.CLASS_DECLARATION);
+
+    assertThat(classScope.getSymbol("METHOD")).isSameAs(classScope.getSymbol("method"));
+    assertThat(classScope.getSymbol("$FIELD1")).isSameAs(classScope.getSymbol("$field1"));
+    assertThat(classScope.getSymbol("$field1", Symbol.Kind.FUNCTION)).isNull();
+  }
+
+  @Test
+  public void scope_for_tree() throws Exception {
+    for (Scope scope : SYMBOL_TABLE.getScopes()) {
+      assertThat(SYMBOL_TABLE.getScopeFor(scope.tree())).isSameAs(scope);
+    }
+    assertThat(SYMBOL_TABLE.getScopeFor(parse("symbols/scopes.php"))).isNull();
   }
 
   private Scope getScopeFor(Tree.Kind kind, SymbolTable symbolTable){
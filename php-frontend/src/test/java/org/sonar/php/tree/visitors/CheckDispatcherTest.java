@@ -0,0 +1,180 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.tree.visitors;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.sonar.sslr.api.typed.ActionParser;
+import org.junit.Test;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.symbols.SymbolTableImpl;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.declaration.ClassDeclarationTree;
+import org.sonar.plugins.php.api.tree.expression.VariableIdentifierTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxTrivia;
+import org.sonar.plugins.php.api.visitors.CheckContext;
+import org.sonar.plugins.php.api.visitors.CheckDispatcher;
+import org.sonar.plugins.php.api.visitors.FileContent;
+import org.sonar.plugins.php.api.visitors.Issue;
+import org.sonar.plugins.php.api.visitors.PHPCheck;
+import org.sonar.plugins.php.api.visitors.PHPSubscriptionCheck;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.api.visitors.SinglePassVisitorCheck;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CheckDispatcherTest {
+
+  private final File file = new File("src/test/resources/visitors/test.php");
+
+  @Test
+  public void should_notify_checks_as_if_they_were_run_separately() {
+    TestSubscription subscription = new TestSubscription();
+    TestVisitor singlePassVisitor = new TestSinglePassVisitor();
+    TestVisitor visitor = new TestVisitor();
+
+    List<Issue> issues = analyze(subscription, singlePassVisitor, visitor);
+
+    TestSubscription separateSubscription = new TestSubscription();
+    separateSubscription.analyze(new PHPCheckContext(file, parse()));
+    assertThat(subscription.events).isEqualTo(separateSubscription.events);
+    assertThat(subscription.events).containsExactly("visit CLASS_DECLARATION", "visit VARIABLE_IDENTIFIER", "leave VARIABLE_IDENTIFIER",
+      "visit VARIABLE_IDENTIFIER", "leave VARIABLE_IDENTIFIER", "leave CLASS_DECLARATION");
+    assertThat(singlePassVisitor.events).isEqualTo(visitor.events);
+    assertThat(visitor.events).containsExactly("class A", "$field", "/* comment 1 */", "// comment 2", "$var");
+
+    assertThat(issues).hasSize(3);
+    assertThat(issues.get(0).check()).isSameAs(subscription);
+    assertThat(issues.get(1).check()).isSameAs(singlePassVisitor);
+    assertThat(issues.get(2).check()).isSameAs(visitor);
+  }
+
+  @Test
+  public void should_restore_visitors_after_analysis() {
+    TestVisitor singlePassVisitor = new TestSinglePassVisitor();
+    analyze(singlePassVisitor);
+
+    singlePassVisitor.events.clear();
+    CompilationUnitTree tree = parse();
+    singlePassVisitor.analyze(new PHPCheckContext(file, tree));
+    assertThat(singlePassVisitor.events).hasSize(5);
+  }
+
+  @Test
+  public void should_analyze_context_with_checks_implementing_only_php_check() {
+    TestCheck check = new TestCheck();
+
+    List<Issue> issues = analyze(check);
+
+    assertThat(issues).hasSize(1);
+    assertThat(issues.get(0).check()).isSameAs(check);
+    assertThat(check.symbolTable).isNotNull();
+  }
+
+  private List<Issue> analyze(PHPCheck... checks) {
+    CompilationUnitTree tree = parse();
+    return new CheckDispatcher(ImmutableList.copyOf(checks)).analyze(file, tree, SymbolTableImpl.create(tree), FileContent.read(file, Charsets.UTF_8));
+  }
+
+  private CompilationUnitTree parse() {
+    ActionParser<Tree> parser = PHPParserBuilder.createParser(Charsets.UTF_8);
+    return (CompilationUnitTree) parser.parse(file);
+  }
+
+  private static class TestSubscription extends PHPSubscriptionCheck {
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ImmutableList.of(Tree.Kind.CLASS_DECLARATION, Tree.Kind.VARIABLE_IDENTIFIER, Tree.Kind.VARIABLE_IDENTIFIER);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      events.add("visit " + tree.getKind());
+      if (tree.is(Tree.Kind.CLASS_DECLARATION)) {
+        context().newIssue(this, "class").tree(tree);
+      }
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      events.add("leave " + tree.getKind());
+    }
+  }
+
+  private static class TestVisitor extends PHPVisitorCheck {
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void visitClassDeclaration(ClassDeclarationTree tree) {
+      events.add("class " + tree.name().text());
+      context().newIssue(this, "class").tree(tree);
+      super.visitClassDeclaration(tree);
+    }
+
+    @Override
+    public void visitVariableIdentifier(VariableIdentifierTree tree) {
+      events.add(tree.text());
+      super.visitVariableIdentifier(tree);
+    }
+
+    @Override
+    public void visitTrivia(SyntaxTrivia trivia) {
+      events.add(trivia.text());
+      super.visitTrivia(trivia);
+    }
+  }
+
+  private static class TestCheck implements PHPCheck {
+    private SymbolTable symbolTable;
+
+    @Override
+    public CheckContext context() {
+      return null;
+    }
+
+    @Override
+    public void init() {
+      // no initialization
+    }
+
+    @Override
+    public List<Issue> analyze(File file, CompilationUnitTree tree) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public List<Issue> analyze(File file, CompilationUnitTree tree, SymbolTable symbolTable) {
+      this.symbolTable = symbolTable;
+      return ImmutableList.<Issue>of(new PHPIssue(this, "file"));
+    }
+  }
+
+  private static class TestSinglePassVisitor extends TestVisitor implements SinglePassVisitorCheck {
+  }
+
+}
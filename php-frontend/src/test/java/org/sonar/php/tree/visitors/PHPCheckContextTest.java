@@ -0,0 +1,53 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.php.tree.visitors;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Suppliers;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.plugins.php.api.symbols.SymbolTable;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+
+import java.io.File;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class PHPCheckContextTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void file_content_read_with_given_charset() throws Exception {
+    File file = tmpFolder.newFile();
+    FileUtils.write(file, "<?php echo 'é';", Charsets.ISO_8859_1.name());
+    CompilationUnitTree tree = (CompilationUnitTree) PHPParserBuilder.createParser(Charsets.ISO_8859_1).parse(file);
+
+    PHPCheckContext context = new PHPCheckContext(file, tree, Suppliers.ofInstance(mock(SymbolTable.class)), Charsets.ISO_8859_1);
+
+    assertThat(context.fileContent().text()).isEqualTo("<?php echo 'é';");
+  }
+
+}
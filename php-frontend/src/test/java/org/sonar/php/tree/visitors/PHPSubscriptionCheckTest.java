@@ -49,6 +49,23 @@ public class PHPSubscriptionCheckTest {
     assertThat(testVisitor.varIdentifierCounter).isEqualTo(2);
   }
 
+  @Test
+  public void no_subscription() {
+    ActionParser<Tree> parser = PHPParserBuilder.createParser(Charsets.UTF_8);
+    File file = new File("src/test/resources/visitors/test.php");
+    CompilationUnitTree tree = (CompilationUnitTree) parser.parse(file);
+
+    TestSubscription testVisitor = new TestSubscription() {
+      @Override
+      public List<Tree.Kind> nodesToVisit() {
+        return ImmutableList.of();
+      }
+    };
+    testVisitor.analyze(file, tree);
+
+    assertThat(testVisitor.classCounter).isEqualTo(0);
+  }
+
 
   private class TestSubscription extends PHPSubscriptionCheck {
     int classCounter = 0;
@@ -0,0 +1,77 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.api.visitors;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class FileContentTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void line_start_offsets() throws Exception {
+    FileContent content = new FileContent("a\nbc\r\nd\re");
+
+    assertThat(content.lineNumber()).isEqualTo(4);
+    assertThat(content.lineStartOffset(1)).isEqualTo(0);
+    assertThat(content.lineStartOffset(2)).isEqualTo(2);
+    assertThat(content.lineStartOffset(3)).isEqualTo(6);
+    assertThat(content.lineStartOffset(4)).isEqualTo(8);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void invalid_line() throws Exception {
+    new FileContent("a\nb").lineStartOffset(3);
+  }
+
+  @Test
+  public void lines() throws Exception {
+    assertThat(new FileContent("a\nbc\r\nd\re").lines()).containsExactly("a", "bc", "d", "e");
+    assertThat(new FileContent("a\n\nb\n").lines()).containsExactly("a", "", "b");
+    assertThat(new FileContent("\r\n").lines()).containsExactly("");
+    assertThat(new FileContent("").lines()).isEmpty();
+  }
+
+  @Test
+  public void read() throws Exception {
+    File file = tmpFolder.newFile();
+    FileUtils.write(file, "<?php\n$a = 1;", Charsets.UTF_8.name());
+
+    FileContent content = FileContent.read(file, Charsets.UTF_8);
+    assertThat(content.text()).isEqualTo("<?php\n$a = 1;");
+    assertThat(content.length()).isEqualTo(13);
+    assertThat(content.lines()).containsExactly("<?php", "$a = 1;");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void read_missing_file() throws Exception {
+    FileContent.read(new File("missing.php"), Charsets.UTF_8);
+  }
+
+}
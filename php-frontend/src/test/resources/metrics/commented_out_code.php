@@ -0,0 +1,20 @@
+<?php /* $header = true;
+*/
+
+// $a = 1;
+# $b = 2;
+// Plain text comment
+//
+
+/*
+ * if ($a) {
+ *   $a++;
+ * }
+ */
+
+/**
+ * $phpDoc = true;
+ */
+function f() {
+  return 1; // return 2;
+}
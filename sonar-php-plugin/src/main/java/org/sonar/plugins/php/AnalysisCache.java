@@ -0,0 +1,455 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Table;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.check.RuleProperty;
+import org.sonar.php.duplications.CpdToken;
+import org.sonar.php.highlighter.SymbolHighlightingData;
+import org.sonar.php.highlighter.SyntaxHighlightingData;
+import org.sonar.php.metrics.FileMeasures;
+import org.sonar.php.metrics.MetricsVisitor;
+import org.sonar.plugins.php.api.visitors.FileContent;
+import org.sonar.plugins.php.api.visitors.PHPCheck;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk cache of the analysis results of PHP files.
+ *
+ * <p>An entry is stored under the SHA-256 digest of the file relative path, of the file content and of a
+ * fingerprint of everything else which can influence the result: cache format, plugin version, encoding and
+ * the active checks with the values of their rule properties and a digest of their code. Any change in one of them leads to a different
+ * key, so a stale entry can never be read; it is deleted by {@link #purgeUnusedEntries()} at the end of the analysis.
+ */
+class AnalysisCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AnalysisCache.class);
+
+  private static final int FORMAT_VERSION = 3;
+  private static final String ENTRY_SUFFIX = ".bin";
+  private static final String PLUGIN_PROPERTIES = "/org/sonar/plugins/php/php-plugin.properties";
+
+  private final File directory;
+  private final String fingerprint;
+  private final Set<String> usedKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+  AnalysisCache(File directory, String fingerprint) {
+    this.directory = directory;
+    this.fingerprint = fingerprint;
+  }
+
+  /**
+   * @return the version of this plugin, or null if it cannot be determined, in which case no cache should be used
+   */
+  @Nullable
+  static String pluginVersion() {
+    try (InputStream in = AnalysisCache.class.getResourceAsStream(PLUGIN_PROPERTIES)) {
+      if (in == null) {
+        return null;
+      }
+      Properties properties = new Properties();
+      properties.load(in);
+      String version = properties.getProperty("version");
+      return version == null || version.contains("${") ? null : version;
+    } catch (IOException e) {
+      LOG.debug("Unable to read " + PLUGIN_PROPERTIES, e);
+      return null;
+    }
+  }
+
+  /**
+   * @param checks active checks, configured with the rule properties of the quality profile
+   */
+  static String fingerprint(String pluginVersion, Charset charset, PHPChecks checks) {
+    Map<String, String> checkDescriptions = new TreeMap<>();
+    Map<File, String> jarDigests = new HashMap<>();
+    for (PHPCheck check : checks.all()) {
+      RuleKey ruleKey = checks.ruleKeyFor(check);
+      checkDescriptions.put(String.valueOf(ruleKey) + "/" + check.getClass().getName(), ruleProperties(check) + "/" + codeDigest(check.getClass(), jarDigests));
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("format=").append(FORMAT_VERSION).append('\n');
+    sb.append("plugin=").append(pluginVersion).append('\n');
+    sb.append("charset=").append(charset.name()).append('\n');
+    for (Map.Entry<String, String> entry : checkDescriptions.entrySet()) {
+      sb.append(entry.getKey()).append(entry.getValue()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Digest of the jar the class is loaded from, which changes with any new build of a plugin providing checks even
+   * if its version does not change, or of the bytecode of the class and of its superclasses when it is not loaded
+   * from a jar.
+   *
+   * @param jarDigests digests of the jars already read
+   */
+  @VisibleForTesting
+  static String codeDigest(Class<?> clazz, Map<File, String> jarDigests) {
+    CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+    URL location = codeSource == null ? null : codeSource.getLocation();
+    try {
+      File jar = location != null && "file".equals(location.getProtocol()) ? new File(location.toURI()) : null;
+      if (jar != null && jar.isFile()) {
+        String digest = jarDigests.get(jar);
+        if (digest == null) {
+          MessageDigest jarDigest = sha256();
+          try (InputStream in = new FileInputStream(jar)) {
+            update(jarDigest, in);
+          }
+          digest = hex(jarDigest.digest());
+          jarDigests.put(jar, digest);
+        }
+        return digest;
+      }
+      MessageDigest digest = sha256();
+      for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+        try (InputStream in = c.getResourceAsStream("/" + c.getName().replace('.', '/') + ".class")) {
+          if (in != null) {
+            update(digest, in);
+          }
+        }
+      }
+      return hex(digest.digest());
+    } catch (IOException | URISyntaxException e) {
+      throw new IllegalStateException("Unable to read the code of " + clazz.getName(), e);
+    }
+  }
+
+  private static String ruleProperties(PHPCheck check) {
+    Map<String, String> properties = new TreeMap<>();
+    for (Class<?> clazz = check.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+      for (Field field : clazz.getDeclaredFields()) {
+        if (field.isAnnotationPresent(RuleProperty.class)) {
+          properties.put(clazz.getName() + "#" + field.getName(), fieldValue(check, field));
+        }
+      }
+    }
+    return properties.toString();
+  }
+
+  private static String fieldValue(PHPCheck check, Field field) {
+    try {
+      field.setAccessible(true);
+      return String.valueOf(field.get(check));
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Unable to read rule property " + field, e);
+    }
+  }
+
+  @Nullable
+  FileAnalysisResult read(InputFile inputFile, FileContent content) {
+    String key = key(inputFile, content);
+    usedKeys.add(key);
+    File entry = entryFile(key);
+    if (!entry.isFile()) {
+      return null;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+      return readResult(in, inputFile);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Ignoring invalid cache entry for " + inputFile.absolutePath(), e);
+      return null;
+    }
+  }
+
+  void write(FileAnalysisResult result, FileContent content) {
+    String key = key(result.inputFile(), content);
+    usedKeys.add(key);
+    File entry = entryFile(key);
+    File tmpEntry = new File(entry.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+
+    try {
+      FileUtils.forceMkdir(entry.getParentFile());
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpEntry)))) {
+        writeResult(out, result);
+      }
+      FileUtils.deleteQuietly(entry);
+      if (!tmpEntry.renameTo(entry)) {
+        throw new IOException("Unable to rename " + tmpEntry + " to " + entry);
+      }
+    } catch (IOException e) {
+      FileUtils.deleteQuietly(tmpEntry);
+      LOG.warn("Unable to write cache entry for " + result.inputFile().absolutePath() + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Deletes the entries which have been neither read nor written since this cache was created.
+   */
+  void purgeUnusedEntries() {
+    if (!directory.isDirectory()) {
+      return;
+    }
+    Collection<File> entries = FileUtils.listFiles(directory, null, true);
+    Set<String> used = new HashSet<>(usedKeys);
+    for (File entry : entries) {
+      String name = entry.getName();
+      if (!name.endsWith(ENTRY_SUFFIX) || !used.contains(name.substring(0, name.length() - ENTRY_SUFFIX.length()))) {
+        FileUtils.deleteQuietly(entry);
+      }
+    }
+  }
+
+  private String key(InputFile inputFile, FileContent content) {
+    MessageDigest digest = sha256();
+    digest.update(fingerprint.getBytes(Charsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(inputFile.relativePath().getBytes(Charsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(content.text().getBytes(Charsets.UTF_8));
+    return hex(digest.digest());
+  }
+
+  private static void update(MessageDigest digest, InputStream in) throws IOException {
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder sb = new StringBuilder();
+    for (byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+  private File entryFile(String key) {
+    return new File(new File(directory, key.substring(0, 2)), key + ENTRY_SUFFIX);
+  }
+
+  private static void writeResult(DataOutputStream out, FileAnalysisResult result) throws IOException {
+    out.writeInt(FORMAT_VERSION);
+
+    out.writeInt(result.issues().size());
+    for (IssueData issue : result.issues()) {
+      writeNullableString(out, issue.ruleKey() == null ? null : issue.ruleKey().toString());
+      writeString(out, issue.message());
+      out.writeInt(issue.line());
+      out.writeBoolean(issue.cost() != null);
+      if (issue.cost() != null) {
+        out.writeDouble(issue.cost());
+      }
+    }
+
+    out.writeInt(result.syntaxHighlighting().size());
+    for (SyntaxHighlightingData data : result.syntaxHighlighting()) {
+      out.writeInt(data.startOffset());
+      out.writeInt(data.endOffset());
+      writeString(out, data.highlightCode());
+    }
+
+    out.writeInt(result.symbolHighlighting().size());
+    for (SymbolHighlightingData data : result.symbolHighlighting()) {
+      out.writeInt(data.startOffset());
+      out.writeInt(data.endOffset());
+      out.writeInt(data.referencesStartOffset().size());
+      for (Integer reference : data.referencesStartOffset()) {
+        out.writeInt(reference);
+      }
+    }
+
+    FileMeasures measures = result.measures();
+    out.writeInt((int) measures.getLinesNumber());
+    out.writeInt((int) measures.getLinesOfCodeNumber());
+    out.writeInt((int) measures.getCommentLinesNumber());
+    out.writeInt((int) measures.getCommentedOutCodeLinesNumber());
+    out.writeInt((int) measures.getClassNumber());
+    out.writeInt((int) measures.getFunctionNumber());
+    out.writeInt((int) measures.getStatementNumber());
+    out.writeInt((int) measures.getFileComplexity());
+    out.writeInt((int) measures.getClassComplexity());
+    out.writeInt((int) measures.getFunctionComplexity());
+    writeString(out, measures.getFunctionComplexityDistribution().build(true).getData());
+    out.writeInt(measures.getNoSonarLines().size());
+    for (Integer line : measures.getNoSonarLines()) {
+      out.writeInt(line);
+    }
+
+    BufferedFileLinesContext fileLinesContext = result.fileLinesContext();
+    out.writeInt(fileLinesContext.intValues().size());
+    for (Table.Cell<String, Integer, Integer> cell : fileLinesContext.intValues().cellSet()) {
+      writeString(out, cell.getRowKey());
+      out.writeInt(cell.getColumnKey());
+      out.writeInt(cell.getValue());
+    }
+    out.writeInt(fileLinesContext.stringValues().size());
+    for (Table.Cell<String, Integer, String> cell : fileLinesContext.stringValues().cellSet()) {
+      writeString(out, cell.getRowKey());
+      out.writeInt(cell.getColumnKey());
+      writeString(out, cell.getValue());
+    }
+    out.writeBoolean(fileLinesContext.isSaved());
+
+    out.writeInt(result.cpdTokens().size());
+    for (CpdToken token : result.cpdTokens()) {
+      writeString(out, token.value());
+      out.writeInt(token.line());
+    }
+  }
+
+  private static FileAnalysisResult readResult(DataInputStream in, InputFile inputFile) throws IOException {
+    if (in.readInt() != FORMAT_VERSION) {
+      throw new IOException("Unsupported cache format");
+    }
+
+    int size = in.readInt();
+    List<IssueData> issues = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      String ruleKey = readNullableString(in);
+      String message = readString(in);
+      int line = in.readInt();
+      Double cost = in.readBoolean() ? in.readDouble() : null;
+      issues.add(new IssueData(ruleKey == null ? null : RuleKey.parse(ruleKey), message, line, cost));
+    }
+
+    size = in.readInt();
+    List<SyntaxHighlightingData> syntaxHighlighting = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      syntaxHighlighting.add(new SyntaxHighlightingData(in.readInt(), in.readInt(), readString(in)));
+    }
+
+    size = in.readInt();
+    List<SymbolHighlightingData> symbolHighlighting = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      SymbolHighlightingData data = new SymbolHighlightingData(in.readInt(), in.readInt());
+      int references = in.readInt();
+      for (int j = 0; j < references; j++) {
+        data.addReference(in.readInt());
+      }
+      symbolHighlighting.add(data);
+    }
+
+    FileMeasures measures = MetricsVisitor.newFileMeasures();
+    measures.setLinesNumber(in.readInt());
+    measures.setLinesOfCodeNumber(in.readInt());
+    measures.setCommentLinesNumber(in.readInt());
+    measures.setCommentedOutCodeLinesNumber(in.readInt());
+    measures.setClassNumber(in.readInt());
+    measures.setFunctionNumber(in.readInt());
+    measures.setStatementNumber(in.readInt());
+    measures.setFileComplexity(in.readInt());
+    measures.addClassComplexity(in.readInt());
+    measures.setFunctionComplexity(in.readInt());
+    measures.getFunctionComplexityDistribution().add(new Measure<String>(CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION, readString(in)));
+    size = in.readInt();
+    Set<Integer> noSonarLines = new HashSet<>();
+    for (int i = 0; i < size; i++) {
+      noSonarLines.add(in.readInt());
+    }
+    measures.setNoSonarLines(noSonarLines);
+
+    BufferedFileLinesContext fileLinesContext = new BufferedFileLinesContext();
+    size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      fileLinesContext.setIntValue(readString(in), in.readInt(), in.readInt());
+    }
+    size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      fileLinesContext.setStringValue(readString(in), in.readInt(), readString(in));
+    }
+    if (in.readBoolean()) {
+      fileLinesContext.save();
+    }
+
+    size = in.readInt();
+    List<CpdToken> cpdTokens = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      cpdTokens.add(new CpdToken(readString(in), in.readInt()));
+    }
+
+    return new FileAnalysisResult(inputFile, issues, syntaxHighlighting, symbolHighlighting, measures, fileLinesContext, cpdTokens);
+  }
+
+  private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      writeString(out, value);
+    }
+  }
+
+  @Nullable
+  private static String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+}
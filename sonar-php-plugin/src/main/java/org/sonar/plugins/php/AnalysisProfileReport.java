@@ -0,0 +1,111 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.php.profiling.AnalysisProfiler;
+import org.sonar.php.profiling.ProfileEntry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the cost of the analysis phases and of the checks recorded by an {@link AnalysisProfiler}.
+ */
+class AnalysisProfileReport {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AnalysisProfileReport.class);
+
+  static final int TOP_ENTRIES = 20;
+
+  private final AnalysisProfiler profiler;
+
+  AnalysisProfileReport(AnalysisProfiler profiler) {
+    this.profiler = profiler;
+  }
+
+  /**
+   * Logs the entries with the highest wall time.
+   */
+  void log() {
+    List<ProfileEntry> entries = profiler.sortedEntries();
+    StringBuilder sb = new StringBuilder("PHP analysis profile (top ").append(TOP_ENTRIES).append(" by wall time):\n");
+    sb.append(String.format(Locale.ENGLISH, "%-70s %10s %12s %12s %14s %12s%n", "Name", "Calls", "Wall (ms)", "CPU (ms)", "Allocated (MB)", "Events"));
+    for (ProfileEntry entry : entries.subList(0, Math.min(TOP_ENTRIES, entries.size()))) {
+      sb.append(String.format(Locale.ENGLISH, "%-70s %10d %12d %12d %14.1f %12d%n",
+        StringUtils.abbreviate(entry.name(), 70),
+        entry.calls(),
+        TimeUnit.NANOSECONDS.toMillis(entry.wallTimeNanos()),
+        TimeUnit.NANOSECONDS.toMillis(entry.cpuTimeNanos()),
+        entry.allocatedBytes() / (1024.0 * 1024.0),
+        entry.events()));
+    }
+    LOG.info(sb.toString());
+  }
+
+  /**
+   * Writes all the entries, sorted by decreasing wall time.
+   */
+  void writeJson(File file) {
+    StringBuilder sb = new StringBuilder("[\n");
+    List<ProfileEntry> entries = profiler.sortedEntries();
+    for (int i = 0; i < entries.size(); i++) {
+      ProfileEntry entry = entries.get(i);
+      sb.append("  {\"name\": \"").append(escape(entry.name())).append('"')
+        .append(", \"calls\": ").append(entry.calls())
+        .append(", \"wallTimeNanos\": ").append(entry.wallTimeNanos())
+        .append(", \"cpuTimeNanos\": ").append(entry.cpuTimeNanos())
+        .append(", \"allocatedBytes\": ").append(entry.allocatedBytes())
+        .append(", \"events\": ").append(entry.events())
+        .append(i < entries.size() - 1 ? "},\n" : "}\n");
+    }
+    sb.append("]\n");
+
+    try {
+      Files.createParentDirs(file);
+      Files.write(sb, file, Charsets.UTF_8);
+      LOG.info("PHP analysis profile written to " + file.getAbsolutePath());
+    } catch (IOException e) {
+      LOG.warn("Unable to write the PHP analysis profile to " + file.getAbsolutePath(), e);
+    }
+  }
+
+  private static String escape(String value) {
+    StringBuilder sb = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < ' ') {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+}
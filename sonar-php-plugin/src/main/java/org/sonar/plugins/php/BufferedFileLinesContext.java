@@ -0,0 +1,85 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import org.sonar.api.measures.FileLinesContext;
+
+/**
+ * {@link FileLinesContext} which only records values, so that they can be computed on an analysis
+ * thread and later replayed on the thread which owns the sensor context.
+ */
+class BufferedFileLinesContext implements FileLinesContext {
+
+  private final Table<String, Integer, Integer> intValues = HashBasedTable.create();
+  private final Table<String, Integer, String> stringValues = HashBasedTable.create();
+  private boolean saved = false;
+
+  @Override
+  public void setIntValue(String metricKey, int line, int value) {
+    intValues.put(metricKey, line, value);
+  }
+
+  @Override
+  public Integer getIntValue(String metricKey, int line) {
+    return intValues.get(metricKey, line);
+  }
+
+  @Override
+  public void setStringValue(String metricKey, int line, String value) {
+    stringValues.put(metricKey, line, value);
+  }
+
+  @Override
+  public String getStringValue(String metricKey, int line) {
+    return stringValues.get(metricKey, line);
+  }
+
+  @Override
+  public void save() {
+    saved = true;
+  }
+
+  Table<String, Integer, Integer> intValues() {
+    return intValues;
+  }
+
+  Table<String, Integer, String> stringValues() {
+    return stringValues;
+  }
+
+  boolean isSaved() {
+    return saved;
+  }
+
+  void replayTo(FileLinesContext fileLinesContext) {
+    for (Table.Cell<String, Integer, Integer> cell : intValues.cellSet()) {
+      fileLinesContext.setIntValue(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+    }
+    for (Table.Cell<String, Integer, String> cell : stringValues.cellSet()) {
+      fileLinesContext.setStringValue(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+    }
+    if (saved) {
+      fileLinesContext.save();
+    }
+  }
+
+}
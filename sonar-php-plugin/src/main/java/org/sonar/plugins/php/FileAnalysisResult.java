@@ -0,0 +1,82 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.php.duplications.CpdToken;
+import org.sonar.php.highlighter.SymbolHighlightingData;
+import org.sonar.php.highlighter.SyntaxHighlightingData;
+import org.sonar.php.metrics.FileMeasures;
+
+import java.util.List;
+
+/**
+ * Everything computed for one file by a {@link org.sonar.php.PHPAnalyzer}, kept until it is saved.
+ */
+class FileAnalysisResult {
+
+  private final InputFile inputFile;
+  private final List<IssueData> issues;
+  private final List<SyntaxHighlightingData> syntaxHighlighting;
+  private final List<SymbolHighlightingData> symbolHighlighting;
+  private final FileMeasures measures;
+  private final BufferedFileLinesContext fileLinesContext;
+  private final List<CpdToken> cpdTokens;
+
+  FileAnalysisResult(InputFile inputFile, List<IssueData> issues, List<SyntaxHighlightingData> syntaxHighlighting,
+    List<SymbolHighlightingData> symbolHighlighting, FileMeasures measures, BufferedFileLinesContext fileLinesContext, List<CpdToken> cpdTokens) {
+    this.inputFile = inputFile;
+    this.issues = issues;
+    this.syntaxHighlighting = syntaxHighlighting;
+    this.symbolHighlighting = symbolHighlighting;
+    this.measures = measures;
+    this.fileLinesContext = fileLinesContext;
+    this.cpdTokens = cpdTokens;
+  }
+
+  InputFile inputFile() {
+    return inputFile;
+  }
+
+  List<IssueData> issues() {
+    return issues;
+  }
+
+  List<SyntaxHighlightingData> syntaxHighlighting() {
+    return syntaxHighlighting;
+  }
+
+  List<SymbolHighlightingData> symbolHighlighting() {
+    return symbolHighlighting;
+  }
+
+  FileMeasures measures() {
+    return measures;
+  }
+
+  BufferedFileLinesContext fileLinesContext() {
+    return fileLinesContext;
+  }
+
+  List<CpdToken> cpdTokens() {
+    return cpdTokens;
+  }
+
+}
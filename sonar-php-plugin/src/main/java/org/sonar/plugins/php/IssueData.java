@@ -0,0 +1,61 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import org.sonar.api.rule.RuleKey;
+
+import javax.annotation.Nullable;
+
+/**
+ * Issue raised on a file, with the key of the rule which raised it.
+ */
+class IssueData {
+
+  private final RuleKey ruleKey;
+  private final String message;
+  private final int line;
+  private final Double cost;
+
+  IssueData(@Nullable RuleKey ruleKey, String message, int line, @Nullable Double cost) {
+    this.ruleKey = ruleKey;
+    this.message = message;
+    this.line = line;
+    this.cost = cost;
+  }
+
+  @Nullable
+  RuleKey ruleKey() {
+    return ruleKey;
+  }
+
+  String message() {
+    return message;
+  }
+
+  int line() {
+    return line;
+  }
+
+  @Nullable
+  Double cost() {
+    return cost;
+  }
+
+}
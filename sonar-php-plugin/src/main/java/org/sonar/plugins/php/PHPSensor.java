@@ -23,10 +23,13 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sonar.sslr.api.RecognitionException;
 import javax.annotation.Nullable;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.Phase;
 import org.sonar.api.batch.Sensor;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FilePredicate;
@@ -35,13 +38,13 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.component.Perspective;
 import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.Settings;
 import org.sonar.api.issue.Issuable;
 import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.measures.PersistenceMode;
 import org.sonar.api.resources.Project;
-import org.sonar.api.rule.RuleKey;
 import org.sonar.api.source.Highlightable;
 import org.sonar.api.source.Highlightable.HighlightingBuilder;
 import org.sonar.api.source.Symbolizable;
@@ -51,50 +54,90 @@ import org.sonar.php.checks.CheckList;
 import org.sonar.php.highlighter.SymbolHighlightingData;
 import org.sonar.php.highlighter.SyntaxHighlightingData;
 import org.sonar.php.metrics.FileMeasures;
+import org.sonar.php.profiling.AnalysisProfiler;
+import org.sonar.php.utils.AnalysisInterruptedException;
 import org.sonar.plugins.php.api.Php;
+import org.sonar.plugins.php.api.visitors.FileContent;
 import org.sonar.plugins.php.api.visitors.PHPCheck;
 import org.sonar.plugins.php.api.visitors.PHPCustomRulesDefinition;
+import org.sonar.plugins.php.duplications.CpdTokenStore;
 import org.sonar.squidbridge.ProgressReport;
 import org.sonar.squidbridge.api.AnalysisException;
 
+import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Runs in the first phase of the sensors, so that the CPD sensor of the platform, which cannot declare a dependency
+ * on it, reads the tokens it puts in the {@link CpdTokenStore}.
+ */
+@Phase(name = Phase.Name.PRE)
 public class PHPSensor implements Sensor {
 
   private static final Logger LOG = LoggerFactory.getLogger(PHPSensor.class);
 
   private final ResourcePerspectives resourcePerspectives;
   private final FileSystem fileSystem;
+  private final Settings settings;
   private final FilePredicate mainFilePredicate;
   private final FileLinesContextFactory fileLinesContextFactory;
+  private final CheckFactory checkFactory;
+  private final PHPCustomRulesDefinition[] customRulesDefinitions;
   private final PHPChecks checks;
   private final NoSonarFilter noSonarFilter;
+  private final CpdTokenStore cpdTokenStore;
   private SensorContext context;
+  private AnalysisCache cache;
+  private SlowFileDetector slowFileDetector;
+  private final List<AnalysisProfiler> profilers = new ArrayList<>();
 
 
-  public PHPSensor(ResourcePerspectives resourcePerspectives, FileSystem fileSystem, FileLinesContextFactory fileLinesContextFactory,
-                   CheckFactory checkFactory, NoSonarFilter noSonarFilter) {
-    this(resourcePerspectives, fileSystem, fileLinesContextFactory, checkFactory, noSonarFilter, null);
+  public PHPSensor(ResourcePerspectives resourcePerspectives, FileSystem fileSystem, Settings settings, FileLinesContextFactory fileLinesContextFactory,
+                   CheckFactory checkFactory, NoSonarFilter noSonarFilter, CpdTokenStore cpdTokenStore) {
+    this(resourcePerspectives, fileSystem, settings, fileLinesContextFactory, checkFactory, noSonarFilter, cpdTokenStore, null);
   }
 
-  public PHPSensor(ResourcePerspectives resourcePerspectives, FileSystem fileSystem, FileLinesContextFactory fileLinesContextFactory,
-                   CheckFactory checkFactory, NoSonarFilter noSonarFilter, @Nullable PHPCustomRulesDefinition[] customRulesDefinitions) {
+  public PHPSensor(ResourcePerspectives resourcePerspectives, FileSystem fileSystem, Settings settings, FileLinesContextFactory fileLinesContextFactory,
+                   CheckFactory checkFactory, NoSonarFilter noSonarFilter, CpdTokenStore cpdTokenStore,
+                   @Nullable PHPCustomRulesDefinition[] customRulesDefinitions) {
 
-    this.checks = PHPChecks.createPHPCheck(checkFactory)
-      .addChecks(CheckList.REPOSITORY_KEY, CheckList.getChecks())
-      .addCustomChecks(customRulesDefinitions);
+    this.checkFactory = checkFactory;
+    this.customRulesDefinitions = customRulesDefinitions;
+    this.checks = createChecks();
     this.resourcePerspectives = resourcePerspectives;
     this.fileLinesContextFactory = fileLinesContextFactory;
     this.fileSystem = fileSystem;
+    this.settings = settings;
     this.noSonarFilter = noSonarFilter;
+    this.cpdTokenStore = cpdTokenStore;
     this.mainFilePredicate = this.fileSystem.predicates().and(
       this.fileSystem.predicates().hasType(InputFile.Type.MAIN),
       this.fileSystem.predicates().hasLanguage(Php.KEY));
   }
 
+  /**
+   * Each call returns new check instances, configured from the active rules.
+   */
+  private PHPChecks createChecks() {
+    return PHPChecks.createPHPCheck(checkFactory)
+      .addChecks(CheckList.REPOSITORY_KEY, CheckList.getChecks())
+      .addCustomChecks(customRulesDefinitions);
+  }
+
   @Override
   public boolean shouldExecuteOnProject(Project project) {
     return fileSystem.hasFiles(mainFilePredicate);
@@ -104,15 +147,83 @@ public class PHPSensor implements Sensor {
   public void analyse(Project project, SensorContext context) {
     this.context = context;
 
-    ImmutableList<PHPCheck> visitors = getCheckVisitors();
-
-    PHPAnalyzer phpAnalyzer = new PHPAnalyzer(fileSystem.encoding(), visitors);
     ArrayList<InputFile> inputFiles = Lists.newArrayList(fileSystem.inputFiles(mainFilePredicate));
 
     ProgressReport progressReport = new ProgressReport("Report about progress of PHP analyzer", TimeUnit.SECONDS.toMillis(10));
     progressReport.start(Lists.newArrayList(fileSystem.files(mainFilePredicate)));
 
-    analyseFiles(phpAnalyzer, inputFiles, progressReport);
+    cache = createCache();
+    slowFileDetector = createSlowFileDetector();
+    int threads = settings.getInt(PhpPlugin.ANALYSIS_THREADS_KEY);
+    try {
+      if (threads > 1) {
+        analyseFilesInParallel(inputFiles, threads, progressReport);
+      } else {
+        analyseFiles(createAnalyzer(checks), inputFiles, progressReport);
+      }
+    } finally {
+      if (slowFileDetector != null) {
+        slowFileDetector.close();
+      }
+    }
+    if (cache != null) {
+      cache.purgeUnusedEntries();
+    }
+    reportProfile();
+  }
+
+  @Nullable
+  private SlowFileDetector createSlowFileDetector() {
+    long maxFileSize = settings.getLong(PhpPlugin.ANALYSIS_MAX_FILE_SIZE_KEY) * 1024;
+    long timeoutMillis = TimeUnit.SECONDS.toMillis(settings.getLong(PhpPlugin.ANALYSIS_FILE_TIMEOUT_KEY));
+    boolean excludeSlowFiles = settings.getBoolean(PhpPlugin.ANALYSIS_EXCLUDE_SLOW_FILES_KEY);
+    if (maxFileSize <= 0 && timeoutMillis <= 0 && !excludeSlowFiles) {
+      return null;
+    }
+    File report = new File(fileSystem.workDir(), "php-slow-files.txt");
+    return new SlowFileDetector(Math.max(maxFileSize, 0), Math.max(timeoutMillis, 0), report, excludeSlowFiles);
+  }
+
+  private PHPAnalyzer createAnalyzer(PHPChecks analyzerChecks) {
+    AnalysisProfiler profiler = null;
+    if (settings.getBoolean(PhpPlugin.ANALYSIS_PROFILE_KEY)) {
+      profiler = new AnalysisProfiler();
+      profilers.add(profiler);
+    }
+    return new PHPAnalyzer(fileSystem.encoding(), getCheckVisitors(analyzerChecks), profiler);
+  }
+
+  private void reportProfile() {
+    if (profilers.isEmpty()) {
+      return;
+    }
+    AnalysisProfiler profile = new AnalysisProfiler();
+    for (AnalysisProfiler profiler : profilers) {
+      profile.merge(profiler);
+    }
+    profilers.clear();
+
+    AnalysisProfileReport report = new AnalysisProfileReport(profile);
+    report.log();
+    String output = settings.getString(PhpPlugin.ANALYSIS_PROFILE_OUTPUT_KEY);
+    if (StringUtils.isNotBlank(output)) {
+      File outputFile = new File(output);
+      report.writeJson(outputFile.isAbsolute() ? outputFile : new File(fileSystem.baseDir(), output));
+    }
+  }
+
+  @Nullable
+  private AnalysisCache createCache() {
+    if (!settings.getBoolean(PhpPlugin.ANALYSIS_CACHE_KEY)) {
+      return null;
+    }
+    String pluginVersion = AnalysisCache.pluginVersion();
+    if (pluginVersion == null) {
+      LOG.warn("Analysis cache disabled: unable to determine the version of the PHP plugin");
+      return null;
+    }
+    File directory = new File(fileSystem.workDir(), "php-analysis-cache");
+    return new AnalysisCache(directory, AnalysisCache.fingerprint(pluginVersion, fileSystem.encoding(), checks));
   }
 
   @VisibleForTesting
@@ -121,14 +232,79 @@ public class PHPSensor implements Sensor {
     try {
       for (InputFile inputFile : inputFiles) {
         progressReport.nextFile();
-        analyseFile(phpAnalyzer, inputFile);
+        saveResult(analyseFile(phpAnalyzer, checks, inputFile, needsSymbolHighlighting(inputFile)));
+      }
+      success = true;
+    } finally {
+      stopProgressReport(progressReport, success);
+    }
+  }
+
+  /**
+   * Files are analysed by a pool of workers, each one owning its own {@link PHPAnalyzer} and check instances.
+   * Results are saved on the calling thread, in the order of the input files, so that the outcome is the
+   * same as a sequential analysis.
+   */
+  @VisibleForTesting
+  void analyseFilesInParallel(List<InputFile> inputFiles, int threads, ProgressReport progressReport) {
+    final BlockingQueue<AnalysisWorker> workers = new ArrayBlockingQueue<>(threads);
+    for (int i = 0; i < threads; i++) {
+      PHPChecks workerChecks = createChecks();
+      workers.add(new AnalysisWorker(createAnalyzer(workerChecks), workerChecks));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+      .setNameFormat("php-analysis-%d")
+      .setDaemon(true)
+      .build());
+    boolean success = false;
+    try {
+      Deque<Future<FileAnalysisResult>> pendingResults = new ArrayDeque<>();
+      Iterator<InputFile> inputFileIterator = inputFiles.iterator();
+
+      while (inputFileIterator.hasNext() || !pendingResults.isEmpty()) {
+        // bound the number of results waiting to be saved
+        while (inputFileIterator.hasNext() && pendingResults.size() < threads * 2) {
+          final InputFile inputFile = inputFileIterator.next();
+          final boolean symbolHighlighting = needsSymbolHighlighting(inputFile);
+          pendingResults.add(executor.submit(new Callable<FileAnalysisResult>() {
+            @Override
+            public FileAnalysisResult call() throws InterruptedException {
+              AnalysisWorker worker = workers.take();
+              try {
+                return analyseFile(worker.analyzer, worker.checks, inputFile, symbolHighlighting);
+              } finally {
+                workers.put(worker);
+              }
+            }
+          }));
+        }
+        progressReport.nextFile();
+        saveResult(awaitResult(pendingResults.poll()));
       }
       success = true;
     } finally {
+      executor.shutdownNow();
       stopProgressReport(progressReport, success);
     }
   }
 
+  @Nullable
+  private static FileAnalysisResult awaitResult(Future<FileAnalysisResult> pendingResult) {
+    try {
+      return pendingResult.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new AnalysisException("Analysis cancelled", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof AnalysisException) {
+        throw (AnalysisException) cause;
+      }
+      throw Throwables.propagate(cause);
+    }
+  }
+
   private static void stopProgressReport(ProgressReport progressReport, boolean success) {
     if (success) {
       progressReport.stop();
@@ -137,27 +313,90 @@ public class PHPSensor implements Sensor {
     }
   }
 
-  private void analyseFile(PHPAnalyzer phpAnalyzer, InputFile inputFile) {
+  /**
+   * @return the analysis result, or null if the file could not be parsed or exceeds the analysis budget
+   */
+  @Nullable
+  private FileAnalysisResult analyseFile(PHPAnalyzer phpAnalyzer, PHPChecks checks, InputFile inputFile, boolean symbolHighlighting) {
+    if (slowFileDetector == null) {
+      return analyseFileContent(phpAnalyzer, checks, inputFile, symbolHighlighting);
+    }
+    if (!slowFileDetector.accept(inputFile)) {
+      return null;
+    }
+    SlowFileDetector.Watch watch = slowFileDetector.startWatch();
     try {
-      phpAnalyzer.nextFile(inputFile.file());
-      saveIssues(phpAnalyzer.analyze(), inputFile);
-      saveSyntaxHighlighting(phpAnalyzer.getSyntaxHighlighting(), inputFile);
-      saveSymbolHighlighting(phpAnalyzer.getSymbolHighlighting(), inputFile);
-      saveNewFileMeasures(phpAnalyzer.computeMeasures(fileLinesContextFactory.createFor(inputFile)), inputFile);
+      return analyseFileContent(phpAnalyzer, checks, inputFile, symbolHighlighting);
+    } catch (AnalysisException e) {
+      if (watch.stop()) {
+        slowFileDetector.timedOut(inputFile, watch);
+        return null;
+      }
+      throw e;
+    } finally {
+      watch.stop();
+    }
+  }
+
+  /**
+   * The symbol table of a file is only built for its symbol highlighting when the highlighting can be saved, or when
+   * the result is cached, as cache entries must be complete. Otherwise it is only built if a check needs it.
+   * Called on the thread of the sensor, as the resource perspectives are not meant to be used by the workers.
+   */
+  private boolean needsSymbolHighlighting(InputFile inputFile) {
+    return cache != null || resourcePerspectives.as(Symbolizable.class, inputFile) != null;
+  }
+
+  @Nullable
+  private FileAnalysisResult analyseFileContent(PHPAnalyzer phpAnalyzer, PHPChecks checks, InputFile inputFile, boolean symbolHighlighting) {
+    try {
+      FileContent content = FileContent.read(inputFile.file(), fileSystem.encoding());
+      FileAnalysisResult result = cache == null ? null : cache.read(inputFile, content);
+      if (result != null) {
+        return result;
+      }
+
+      phpAnalyzer.nextFile(inputFile.file(), content);
+      BufferedFileLinesContext fileLinesContext = new BufferedFileLinesContext();
+      result = new FileAnalysisResult(
+        inputFile,
+        issueData(checks, phpAnalyzer.analyze()),
+        phpAnalyzer.getSyntaxHighlighting(),
+        symbolHighlighting ? phpAnalyzer.getSymbolHighlighting() : Collections.<SymbolHighlightingData>emptyList(),
+        phpAnalyzer.computeMeasures(fileLinesContext),
+        fileLinesContext,
+        phpAnalyzer.computeCpdTokens());
+      if (cache != null) {
+        cache.write(result, content);
+      }
+      return result;
     } catch (RecognitionException e) {
       checkInterrupted(e);
       LOG.error("Unable to parse file: " + inputFile.absolutePath());
       LOG.error(e.getMessage());
-      return;
+      return null;
     } catch (Exception e) {
       checkInterrupted(e);
       throw new AnalysisException("Could not analyse " + inputFile.absolutePath(), e);
     }
   }
 
+  private void saveResult(@Nullable FileAnalysisResult result) {
+    if (result == null) {
+      return;
+    }
+    InputFile inputFile = result.inputFile();
+    saveIssues(result.issues(), inputFile);
+    saveSyntaxHighlighting(result.syntaxHighlighting(), inputFile);
+    saveSymbolHighlighting(result.symbolHighlighting(), inputFile);
+    result.fileLinesContext().replayTo(fileLinesContextFactory.createFor(inputFile));
+    saveNewFileMeasures(result.measures(), inputFile);
+    cpdTokenStore.put(inputFile, result.cpdTokens());
+  }
+
   private static void checkInterrupted(Exception e) {
     Throwable cause = Throwables.getRootCause(e);
-    if (cause instanceof InterruptedException || cause instanceof InterruptedIOException) {
+    if (cause instanceof InterruptedException || cause instanceof InterruptedIOException || cause instanceof AnalysisInterruptedException) {
       throw new AnalysisException("Analysis cancelled", e);
     }
   }
@@ -206,6 +445,7 @@ public class PHPSensor implements Sensor {
     context.saveMeasure(inputFile, CoreMetrics.LINES, fileMeasures.getLinesNumber());
     context.saveMeasure(inputFile, CoreMetrics.NCLOC, fileMeasures.getLinesOfCodeNumber());
     context.saveMeasure(inputFile, CoreMetrics.COMMENT_LINES, fileMeasures.getCommentLinesNumber());
+    context.saveMeasure(inputFile, CoreMetrics.COMMENTED_OUT_CODE_LINES, fileMeasures.getCommentedOutCodeLinesNumber());
     context.saveMeasure(inputFile, CoreMetrics.CLASSES, fileMeasures.getClassNumber());
     context.saveMeasure(inputFile, CoreMetrics.FUNCTIONS, fileMeasures.getFunctionNumber());
     context.saveMeasure(inputFile, CoreMetrics.STATEMENTS, fileMeasures.getStatementNumber());
@@ -220,14 +460,21 @@ public class PHPSensor implements Sensor {
     noSonarFilter.addComponent(context.getResource(inputFile).getEffectiveKey(), fileMeasures.getNoSonarLines());
   }
 
-  private void saveIssues(List<org.sonar.plugins.php.api.visitors.Issue> issues, InputFile inputFile) {
+  private static List<IssueData> issueData(PHPChecks checks, List<org.sonar.plugins.php.api.visitors.Issue> issues) {
+    List<IssueData> result = new ArrayList<>(issues.size());
     for (org.sonar.plugins.php.api.visitors.Issue phpIssue : issues) {
-      RuleKey ruleKey = checks.ruleKeyFor(phpIssue.check());
+      result.add(new IssueData(checks.ruleKeyFor(phpIssue.check()), phpIssue.message(), phpIssue.line(), phpIssue.cost()));
+    }
+    return result;
+  }
+
+  private void saveIssues(List<IssueData> issues, InputFile inputFile) {
+    for (IssueData phpIssue : issues) {
       Issuable issuable = resourcePerspectives.as(Issuable.class, inputFile);
 
       if (issuable != null) {
         Issuable.IssueBuilder issueBuilder = issuable.newIssueBuilder()
-          .ruleKey(ruleKey)
+          .ruleKey(phpIssue.ruleKey())
           .message(phpIssue.message())
           .effortToFix(phpIssue.cost());
 
@@ -240,10 +487,20 @@ public class PHPSensor implements Sensor {
     }
   }
 
-  private ImmutableList<PHPCheck> getCheckVisitors() {
+  private static ImmutableList<PHPCheck> getCheckVisitors(PHPChecks checks) {
     return ImmutableList.copyOf(checks.all());
   }
 
+  private static class AnalysisWorker {
+    private final PHPAnalyzer analyzer;
+    private final PHPChecks checks;
+
+    AnalysisWorker(PHPAnalyzer analyzer, PHPChecks checks) {
+      this.analyzer = analyzer;
+      this.checks = checks;
+    }
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
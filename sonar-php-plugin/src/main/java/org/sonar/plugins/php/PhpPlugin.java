@@ -20,14 +20,16 @@
 package org.sonar.plugins.php;
 
 import com.google.common.collect.ImmutableList;
+import org.sonar.api.PropertyType;
 import org.sonar.api.SonarPlugin;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.plugins.php.api.Php;
-import org.sonar.plugins.php.core.NoSonarAndCommentedOutLocSensor;
 import org.sonar.plugins.php.core.PhpCommonRulesDecorator;
 import org.sonar.plugins.php.core.PhpCommonRulesEngine;
+import org.sonar.plugins.php.duplications.CpdTokenStore;
 import org.sonar.plugins.php.duplications.PhpCPDMapping;
+import org.sonar.plugins.php.phpunit.InputFileIndex;
 import org.sonar.plugins.php.phpunit.PhpUnitCoverageResultParser;
 import org.sonar.plugins.php.phpunit.PhpUnitItCoverageResultParser;
 import org.sonar.plugins.php.phpunit.PhpUnitOverallCoverageResultParser;
@@ -39,10 +41,18 @@ import java.util.List;
 public class PhpPlugin extends SonarPlugin {
 
   public static final String FILE_SUFFIXES_KEY = "sonar.php.file.suffixes";
+  public static final String ANALYSIS_THREADS_KEY = "sonar.php.analysis.threads";
+  public static final String ANALYSIS_CACHE_KEY = "sonar.php.analysis.cache";
+  public static final String ANALYSIS_PROFILE_KEY = "sonar.php.analysis.profile";
+  public static final String ANALYSIS_PROFILE_OUTPUT_KEY = "sonar.php.analysis.profile.output";
+  public static final String ANALYSIS_MAX_FILE_SIZE_KEY = "sonar.php.analysis.maxFileSize";
+  public static final String ANALYSIS_FILE_TIMEOUT_KEY = "sonar.php.analysis.fileTimeout";
+  public static final String ANALYSIS_EXCLUDE_SLOW_FILES_KEY = "sonar.php.analysis.excludeSlowFiles";
   public static final String PHPUNIT_OVERALL_COVERAGE_REPORT_PATH_KEY = "sonar.php.coverage.overallReportPath";
   public static final String PHPUNIT_IT_COVERAGE_REPORT_PATH_KEY = "sonar.php.coverage.itReportPath";
   public static final String PHPUNIT_COVERAGE_REPORT_PATH_KEY = "sonar.php.coverage.reportPath";
   public static final String PHPUNIT_TESTS_REPORT_PATH_KEY = "sonar.php.tests.reportPath";
+  public static final String PHPUNIT_COVERAGE_LEGACY_PARSER_KEY = "sonar.php.coverage.legacyParser";
 
   public static final String PHP_CATEGORY = "PHP";
   public static final String GENERAL_SUBCATEGORY = "General";
@@ -61,10 +71,10 @@ public class PhpPlugin extends SonarPlugin {
       Php.class,
 
       // Core extensions
-      NoSonarAndCommentedOutLocSensor.class,
 
       // Duplications
       PhpCPDMapping.class,
+      CpdTokenStore.class,
 
       // Common rules
       PhpCommonRulesEngine.class,
@@ -79,6 +89,7 @@ public class PhpPlugin extends SonarPlugin {
 
       // PhpUnit
       PhpUnitSensor.class,
+      InputFileIndex.class,
       PhpUnitResultParser.class,
       PhpUnitCoverageResultParser.class,
       PhpUnitItCoverageResultParser.class,
@@ -94,9 +105,80 @@ public class PhpPlugin extends SonarPlugin {
         .subCategory(GENERAL_SUBCATEGORY)
         .build(),
 
+      PropertyDefinition.builder(ANALYSIS_THREADS_KEY)
+        .defaultValue("1")
+        .name("Analysis Threads")
+        .description("Number of threads used to analyze PHP files. Values greater than 1 analyze files in parallel.")
+        .type(PropertyType.INTEGER)
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(GENERAL_SUBCATEGORY)
+        .build(),
+
+      PropertyDefinition.builder(ANALYSIS_CACHE_KEY)
+        .defaultValue("false")
+        .name("Analysis Cache")
+        .description("Keep the analysis results of PHP files in the working directory and reuse them for unchanged files. "
+          + "The cache is invalidated when the plugin version, the encoding or the active rules change.")
+        .type(PropertyType.BOOLEAN)
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(GENERAL_SUBCATEGORY)
+        .build(),
+
+      PropertyDefinition.builder(ANALYSIS_PROFILE_KEY)
+        .defaultValue("false")
+        .name("Analysis Profiling")
+        .description("Measure the time and the memory spent by each phase of the analysis and by each rule, and log the most expensive ones.")
+        .type(PropertyType.BOOLEAN)
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(GENERAL_SUBCATEGORY)
+        .build(),
+
+      PropertyDefinition.builder(ANALYSIS_PROFILE_OUTPUT_KEY)
+        .name("Analysis Profile Output")
+        .description("Path of a JSON file where the measures of analysis profiling are written. The path may be either absolute or relative to the project base directory.")
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(GENERAL_SUBCATEGORY)
+        .build(),
+
+      PropertyDefinition.builder(ANALYSIS_MAX_FILE_SIZE_KEY)
+        .defaultValue("0")
+        .name("Maximum File Size")
+        .description("Size in KB above which a PHP file is not analyzed. 0 means no limit. "
+          + "Skipped files are listed in the php-slow-files.txt file of the working directory.")
+        .type(PropertyType.INTEGER)
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(GENERAL_SUBCATEGORY)
+        .build(),
+
+      PropertyDefinition.builder(ANALYSIS_FILE_TIMEOUT_KEY)
+        .defaultValue("0")
+        .name("File Analysis Timeout")
+        .description("Time in seconds after which the analysis of a PHP file is aborted. 0 means no limit. "
+          + "Aborted files are listed in the php-slow-files.txt file of the working directory.")
+        .type(PropertyType.INTEGER)
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(GENERAL_SUBCATEGORY)
+        .build(),
+
+      PropertyDefinition.builder(ANALYSIS_EXCLUDE_SLOW_FILES_KEY)
+        .defaultValue("false")
+        .name("Exclude Slow Files")
+        .description("Skip the PHP files which exceeded the maximum file size or the file analysis timeout during the previous analysis.")
+        .type(PropertyType.BOOLEAN)
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(GENERAL_SUBCATEGORY)
+        .build(),
+
       PropertyDefinition.builder(PHPUNIT_TESTS_REPORT_PATH_KEY)
         .name("Unit Test Report")
-        .description("Path to the PHPUnit unit test execution report file. The path may be either absolute or relative to the project base directory.")
+        .description("Comma-separated paths to the PHPUnit unit test execution reports. Each path may be either absolute or relative to the project base directory, and may contain the wildcards '*', '**' and '?'. Several reports, for instance written by the shards of a test run, are merged.")
         .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
         .category(PHP_CATEGORY)
         .subCategory(PHPUNIT_SUBCATEGORY)
@@ -104,7 +186,7 @@ public class PhpPlugin extends SonarPlugin {
 
       PropertyDefinition.builder(PHPUNIT_COVERAGE_REPORT_PATH_KEY)
         .name("Coverage Report")
-        .description("Path to the PHPUnit code coverage report file. The path may be either absolute or relative to the project base directory.")
+        .description("Comma-separated paths to the PHPUnit code coverage reports. Each path may be either absolute or relative to the project base directory, and may contain the wildcards '*', '**' and '?'. Several reports, for instance written by the shards of a test run, are merged.")
         .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
         .category(PHP_CATEGORY)
         .subCategory(PHPUNIT_SUBCATEGORY)
@@ -112,7 +194,7 @@ public class PhpPlugin extends SonarPlugin {
 
       PropertyDefinition.builder(PHPUNIT_IT_COVERAGE_REPORT_PATH_KEY)
         .name("IT Coverage Report")
-        .description("Path to the PHPUnit integration test code coverage report file. The path may be either absolute or relative to the project base directory.")
+        .description("Comma-separated paths to the PHPUnit integration test code coverage reports. Each path may be either absolute or relative to the project base directory, and may contain the wildcards '*', '**' and '?'. Several reports, for instance written by the shards of a test run, are merged.")
         .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
         .category(PHP_CATEGORY)
         .subCategory(PHPUNIT_SUBCATEGORY)
@@ -120,7 +202,17 @@ public class PhpPlugin extends SonarPlugin {
 
       PropertyDefinition.builder(PHPUNIT_OVERALL_COVERAGE_REPORT_PATH_KEY)
         .name("Overall Coverage Report")
-        .description("Path to the PHPUnit overall code coverage report file. The path may be either absolute or relative to the project base directory.")
+        .description("Comma-separated paths to the PHPUnit overall code coverage reports. Each path may be either absolute or relative to the project base directory, and may contain the wildcards '*', '**' and '?'. Several reports, for instance written by the shards of a test run, are merged.")
+        .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
+        .category(PHP_CATEGORY)
+        .subCategory(PHPUNIT_SUBCATEGORY)
+        .build(),
+
+      PropertyDefinition.builder(PHPUNIT_COVERAGE_LEGACY_PARSER_KEY)
+        .defaultValue("false")
+        .name("Legacy Coverage Report Parser")
+        .description("Load whole coverage reports in memory before saving any measure, instead of streaming them file by file.")
+        .type(PropertyType.BOOLEAN)
         .onQualifiers(Qualifiers.MODULE, Qualifiers.PROJECT)
         .category(PHP_CATEGORY)
         .subCategory(PHPUNIT_SUBCATEGORY)
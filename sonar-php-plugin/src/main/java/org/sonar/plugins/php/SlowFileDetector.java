@@ -0,0 +1,236 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the analysis of each file within a size and a time budget.
+ *
+ * Files larger than the size budget are not analysed at all. When the analysis of a file exceeds the time budget,
+ * the analysing thread is interrupted: the parser and the checks regularly test the interrupt flag and abort the
+ * analysis of the file. Both kinds of files are listed in a report, which the next analysis can read to skip them
+ * without trying again.
+ */
+class SlowFileDetector {
+
+  private static final Logger LOG = LoggerFactory.getLogger(SlowFileDetector.class);
+
+  private static final String SIZE = "size";
+  private static final String TIME = "time";
+  private static final char SEPARATOR = '\t';
+  private static final String HEADER = "# Files skipped by the PHP analysis because they exceed its size or time budget\n"
+    + "# path" + SEPARATOR + "reason" + SEPARATOR + "size (bytes)" + SEPARATOR + "time (ms)\n";
+
+  private final long maxFileSize;
+  private final long timeoutMillis;
+  private final File reportFile;
+  private final Map<String, String> excludedFiles;
+  private final Map<String, String> reportedFiles = new TreeMap<>();
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * @param maxFileSize in bytes, 0 for no limit
+   * @param timeoutMillis 0 for no limit
+   * @param excludeReportedFiles whether the files listed by the report of the previous analysis are skipped
+   */
+  SlowFileDetector(long maxFileSize, long timeoutMillis, File reportFile, boolean excludeReportedFiles) {
+    this.maxFileSize = maxFileSize;
+    this.timeoutMillis = timeoutMillis;
+    this.reportFile = reportFile;
+    this.excludedFiles = excludeReportedFiles ? readReport(reportFile) : Collections.<String, String>emptyMap();
+    this.scheduler = timeoutMillis > 0 ? Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("php-analysis-timeout")
+      .setDaemon(true)
+      .build()) : null;
+  }
+
+  /**
+   * @return false if the file should not be analysed, either because it is too large or because it exceeded the
+   * budget during the previous analysis
+   */
+  boolean accept(InputFile inputFile) {
+    String path = inputFile.relativePath();
+    String previousEntry = excludedFiles.get(path);
+    if (previousEntry != null) {
+      LOG.info("Skipping " + path + ": it exceeded the analysis budget during a previous analysis, see " + reportFile.getAbsolutePath());
+      report(path, previousEntry);
+      return false;
+    }
+
+    long size = inputFile.file().length();
+    if (maxFileSize > 0 && size > maxFileSize) {
+      LOG.warn("Skipping " + path + ": its size (" + size + " bytes) exceeds the limit of " + maxFileSize + " bytes");
+      report(path, entry(path, SIZE, size, 0));
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Starts measuring the analysis of a file on the current thread. The returned watch must be stopped by the same
+   * thread once the analysis is done.
+   */
+  Watch startWatch() {
+    Watch watch = new Watch(Thread.currentThread());
+    if (scheduler != null) {
+      watch.timeout = scheduler.schedule(watch, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    return watch;
+  }
+
+  void timedOut(InputFile inputFile, Watch watch) {
+    String path = inputFile.relativePath();
+    long size = inputFile.file().length();
+    LOG.warn("Analysis of " + path + " (" + size + " bytes) aborted after " + watch.elapsedMillis() + " ms: "
+      + "it exceeds the limit of " + timeoutMillis + " ms");
+    report(path, entry(path, TIME, size, watch.elapsedMillis()));
+  }
+
+  /**
+   * Writes the report and releases the timer thread. The report is removed when no file exceeded the budget.
+   */
+  void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    synchronized (reportedFiles) {
+      if (reportedFiles.isEmpty()) {
+        if (reportFile.exists() && !reportFile.delete()) {
+          LOG.warn("Unable to delete " + reportFile.getAbsolutePath());
+        }
+        return;
+      }
+      StringBuilder sb = new StringBuilder(HEADER);
+      for (String entry : reportedFiles.values()) {
+        sb.append(entry).append('\n');
+      }
+      try {
+        Files.createParentDirs(reportFile);
+        Files.write(sb, reportFile, Charsets.UTF_8);
+      } catch (IOException e) {
+        LOG.warn("Unable to write the list of slow PHP files to " + reportFile.getAbsolutePath(), e);
+        return;
+      }
+      LOG.warn(reportedFiles.size() + " PHP file(s) exceeded the analysis budget, they are listed in " + reportFile.getAbsolutePath());
+    }
+  }
+
+  private void report(String path, String entry) {
+    synchronized (reportedFiles) {
+      reportedFiles.put(path, entry);
+    }
+  }
+
+  private static String entry(String path, String reason, long size, long millis) {
+    return Joiner.on(SEPARATOR).join(path, reason, size, millis);
+  }
+
+  private static Map<String, String> readReport(File reportFile) {
+    Map<String, String> entries = new TreeMap<>();
+    if (!reportFile.isFile()) {
+      return entries;
+    }
+    try {
+      for (String line : Files.readLines(reportFile, Charsets.UTF_8)) {
+        Iterator<String> fields = Splitter.on(SEPARATOR).split(line).iterator();
+        String path = fields.next();
+        if (!path.isEmpty() && !path.startsWith("#")) {
+          entries.put(path, line);
+        }
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to read the list of slow PHP files from " + reportFile.getAbsolutePath(), e);
+    }
+    return entries;
+  }
+
+  /**
+   * Measures the analysis of a file, and interrupts the analysing thread when the time budget is exceeded.
+   */
+  static class Watch implements Runnable {
+
+    private final Thread thread;
+    private final long startNanos = System.nanoTime();
+    private long stopNanos;
+    private ScheduledFuture<?> timeout;
+    private boolean stopped;
+    private boolean expired;
+
+    private Watch(Thread thread) {
+      this.thread = thread;
+    }
+
+    @Override
+    public synchronized void run() {
+      if (!stopped) {
+        expired = true;
+        thread.interrupt();
+      }
+    }
+
+    /**
+     * Can be called several times: only the first call has an effect.
+     *
+     * @return true if the time budget was exceeded. The interruption raised by this watch is then cleared.
+     */
+    boolean stop() {
+      boolean clearInterruption;
+      synchronized (this) {
+        if (stopped) {
+          return expired;
+        }
+        stopped = true;
+        stopNanos = System.nanoTime();
+        clearInterruption = expired;
+      }
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+      if (clearInterruption) {
+        Thread.interrupted();
+      }
+      return clearInterruption;
+    }
+
+    synchronized long elapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis((stopped ? stopNanos : System.nanoTime()) - startNanos);
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.duplications;
+
+import org.sonar.api.BatchExtension;
+import org.sonar.api.CoreProperties;
+import org.sonar.api.batch.fs.FilePredicate;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.Settings;
+import org.sonar.php.duplications.CpdToken;
+import org.sonar.plugins.php.api.Php;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands the CPD tokens computed by {@link org.sonar.plugins.php.PHPSensor} over to {@link PhpCPDMapping}, so that
+ * files are not lexed a second time for copy-paste detection.
+ *
+ * <p>Nothing is kept for the files which copy-paste detection does not read: when it is skipped for PHP or for all
+ * languages, and for the files matching the CPD exclusions.
+ */
+public class CpdTokenStore implements BatchExtension {
+
+  private static final String PHP_CPD_SKIP_PROPERTY = "sonar.cpd." + Php.KEY + ".skip";
+
+  private final boolean skipped;
+  private final FilePredicate excluded;
+  private final Map<String, List<CpdToken>> tokensByFile = new ConcurrentHashMap<>();
+
+  public CpdTokenStore(Settings settings, FileSystem fileSystem) {
+    this.skipped = settings.hasKey(PHP_CPD_SKIP_PROPERTY)
+      ? settings.getBoolean(PHP_CPD_SKIP_PROPERTY)
+      : settings.getBoolean(CoreProperties.CPD_SKIP_PROPERTY);
+    String[] exclusions = settings.getStringArray(CoreProperties.CPD_EXCLUSIONS);
+    this.excluded = exclusions.length == 0 ? fileSystem.predicates().none() : fileSystem.predicates().matchesPathPatterns(exclusions);
+  }
+
+  public void put(InputFile inputFile, List<CpdToken> tokens) {
+    if (!skipped && !excluded.apply(inputFile)) {
+      tokensByFile.put(inputFile.file().getAbsolutePath(), tokens);
+    }
+  }
+
+  /**
+   * Tokens are only handed over once, so that they do not stay in memory after the file has been tokenized.
+   *
+   * @return the tokens of the file, or null if the file was not analysed
+   */
+  @Nullable
+  public List<CpdToken> remove(File file) {
+    return tokensByFile.remove(file.getAbsolutePath());
+  }
+
+}
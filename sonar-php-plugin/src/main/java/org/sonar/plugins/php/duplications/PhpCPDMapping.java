@@ -19,11 +19,13 @@
  */
 package org.sonar.plugins.php.duplications;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.Iterator;
+import java.util.List;
 import net.sourceforge.pmd.cpd.SourceCode;
 import net.sourceforge.pmd.cpd.TokenEntry;
 import net.sourceforge.pmd.cpd.Tokenizer;
@@ -35,6 +37,7 @@ import org.sonar.api.resources.Project;
 import org.sonar.duplications.token.Token;
 import org.sonar.duplications.token.TokenChunker;
 import org.sonar.duplications.token.TokenQueue;
+import org.sonar.php.duplications.CpdToken;
 import org.sonar.plugins.php.api.Php;
 
 /**
@@ -44,16 +47,19 @@ public class PhpCPDMapping extends AbstractCpdMapping {
 
   private Php php;
   private FileSystem fileSystem;
+  private CpdTokenStore cpdTokenStore;
 
   /**
    * Creates a {@link PhpCPDMapping} object
    *
    * @param php
    * @param project
+   * @param cpdTokenStore tokens of the files analysed by the PHP sensor
    */
-  public PhpCPDMapping(Php php, Project project, FileSystem fileSystem) {
+  public PhpCPDMapping(Php php, Project project, FileSystem fileSystem, CpdTokenStore cpdTokenStore) {
     this.php = php;
     this.fileSystem = fileSystem;
+    this.cpdTokenStore = cpdTokenStore;
   }
 
   /**
@@ -90,12 +96,30 @@ public class PhpCPDMapping extends AbstractCpdMapping {
     }
 
     /**
-     * Cuts the given source into a list of tokens.
+     * Cuts the given source into a list of tokens, reusing the tokens of the syntax tree when the file has been analysed
+     * by the PHP sensor, and lexing the file otherwise, for instance when it could not be parsed.
+     *
+     * <p>The tokens of the syntax tree are the ones of the PHP grammar, so their boundaries differ from the lexed ones:
+     * a variable such as {@code $var} and an operator such as {@code ->} are single tokens, the sign of a number is
+     * a token of its own, the opening tag of the file is left out, and a closing tag followed by inline HTML is
+     * a single token holding all their text. Duplications are then reported on slightly different token counts.
      */
     @Override
     public final void tokenize(SourceCode source, Tokens cpdTokens) {
       String fileName = source.getFileName();
+      List<CpdToken> tokens = cpdTokenStore.remove(new File(fileName));
+      if (tokens == null) {
+        chunk(fileName, cpdTokens);
+      } else {
+        for (CpdToken token : tokens) {
+          cpdTokens.add(new TokenEntry(token.value(), fileName, token.line()));
+        }
+      }
 
+      cpdTokens.add(TokenEntry.getEOF());
+    }
+
+    private void chunk(String fileName, Tokens cpdTokens) {
       try (Reader reader = new InputStreamReader(new FileInputStream(fileName), fileSystem.encoding())) {
 
         TokenQueue queue = tokenChunker.chunk(reader);
@@ -119,8 +143,6 @@ public class PhpCPDMapping extends AbstractCpdMapping {
       } catch (IOException e) {
         throw new IllegalStateException(e);
       }
-
-      cpdTokens.add(TokenEntry.getEOF());
     }
   }
 
@@ -0,0 +1,153 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.sonar.plugins.php.phpunit.xml.FileNode;
+import org.sonar.plugins.php.phpunit.xml.LineNode;
+import org.sonar.plugins.php.phpunit.xml.MetricsNode;
+
+/**
+ * Pull parser of PHPUnit clover coverage reports, handing each {@code <file>} element over as soon as it has been read,
+ * so that memory usage does not depend on the size of the report.
+ * <p>
+ * Like the XStream model, only the files of the first {@code <project>} element are read, whether they are direct
+ * children of the project or of one of its packages.
+ */
+class CoverageReportReader {
+
+  private static final String PROJECT = "project";
+  private static final String PACKAGE = "package";
+  private static final String FILE = "file";
+  private static final String LINE = "line";
+  private static final String METRICS = "metrics";
+
+  interface FileNodeHandler {
+    void handle(FileNode fileNode);
+  }
+
+  private final FileNodeHandler handler;
+  private final Deque<String> elements = new ArrayDeque<>();
+  private boolean projectFound = false;
+  private FileNode currentFile;
+
+  private CoverageReportReader(FileNodeHandler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * @return false if the report has no project element
+   */
+  static boolean read(File coverageReportFile, FileNodeHandler handler) {
+    try (InputStream inputStream = new FileInputStream(coverageReportFile)) {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+      try {
+        return new CoverageReportReader(handler).read(reader);
+      } finally {
+        reader.close();
+      }
+    } catch (IOException | XMLStreamException | NumberFormatException e) {
+      throw new IllegalStateException("Can't read phpUnit report: " + coverageReportFile.getName(), e);
+    }
+  }
+
+  private boolean read(XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        startElement(reader);
+      } else if (event == XMLStreamConstants.END_ELEMENT && endElement()) {
+        break;
+      }
+    }
+    return projectFound;
+  }
+
+  private void startElement(XMLStreamReader reader) {
+    String name = reader.getLocalName();
+    String parent = elements.peek();
+    elements.push(name);
+
+    if (PROJECT.equals(name) && elements.size() == 2) {
+      projectFound = true;
+    } else if (!projectFound) {
+      return;
+    } else if (FILE.equals(name) && (PROJECT.equals(parent) || PACKAGE.equals(parent)) && currentFile == null) {
+      currentFile = new FileNode();
+      currentFile.setName(reader.getAttributeValue(null, "name"));
+    } else if (currentFile != null && FILE.equals(parent)) {
+      if (LINE.equals(name)) {
+        addLine(reader);
+      } else if (METRICS.equals(name)) {
+        MetricsNode metrics = new MetricsNode();
+        metrics.setTotalStatementsCount(parseDouble(reader.getAttributeValue(null, "statements")));
+        metrics.setCoveredStatements(parseInt(reader.getAttributeValue(null, "coveredstatements")));
+        currentFile.setMetrics(metrics);
+      }
+    }
+  }
+
+  private void addLine(XMLStreamReader reader) {
+    LineNode line = new LineNode();
+    line.setNum(parseInt(reader.getAttributeValue(null, "num")));
+    line.setCount(parseInt(reader.getAttributeValue(null, "count")));
+    line.setType(reader.getAttributeValue(null, "type"));
+    if (currentFile.getLines() == null) {
+      currentFile.setLines(new ArrayList<LineNode>());
+    }
+    currentFile.getLines().add(line);
+  }
+
+  /**
+   * @return true when the end of the first project has been reached
+   */
+  private boolean endElement() {
+    String name = elements.pop();
+    if (currentFile != null && FILE.equals(name) && !elements.contains(FILE)) {
+      FileNode fileNode = currentFile;
+      currentFile = null;
+      handler.handle(fileNode);
+    }
+    return projectFound && PROJECT.equals(name) && elements.size() == 1;
+  }
+
+  private static int parseInt(@Nullable String value) {
+    return value == null ? 0 : Integer.parseInt(value.trim());
+  }
+
+  private static double parseDouble(@Nullable String value) {
+    return value == null ? 0 : Double.parseDouble(value.trim());
+  }
+
+}
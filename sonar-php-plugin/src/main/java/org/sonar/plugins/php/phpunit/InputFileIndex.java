@@ -0,0 +1,158 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sonar.api.BatchExtension;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.PathUtils;
+import org.sonar.plugins.php.api.Php;
+
+/**
+ * Index of the files of the module by path, built on first use and shared by the PHPUnit report parsers, so that
+ * resolving the paths of a report does not query the file system for each of them.
+ * <p>
+ * A path is resolved as an absolute path, then as a path relative to the module, and finally as a path ending with
+ * the relative path of a file, for reports generated from another directory. Such a path must end with the relative
+ * path of a single file, at a path segment boundary. It is not resolved when it lies in the module directory, as it
+ * then points to a file which is not part of the analysis, nor when it goes through a {@code vendor} directory,
+ * as it then points to a dependency.
+ */
+public class InputFileIndex implements BatchExtension {
+
+  private static final String VENDOR_SEGMENT = "/vendor/";
+
+  private final FileSystem fileSystem;
+
+  private String baseDirPath;
+  private Map<String, InputFile> filesByAbsolutePath;
+  private Map<String, InputFile> filesByRelativePath;
+  private Map<String, List<InputFile>> filesByName;
+  private List<InputFile> mainPhpFiles;
+
+  public InputFileIndex(FileSystem fileSystem) {
+    this.fileSystem = fileSystem;
+  }
+
+  /**
+   * @return the file the given report path points to, or null if it does not belong to the module
+   */
+  @Nullable
+  public InputFile inputFile(String path) {
+    return inputFile(path, null);
+  }
+
+  /**
+   * @return the PHP file of the given type the given report path points to, or null if there is none
+   */
+  @Nullable
+  public InputFile phpFile(String path, InputFile.Type type) {
+    return inputFile(path, type);
+  }
+
+  /**
+   * @return the PHP source files of the module
+   */
+  public List<InputFile> mainPhpFiles() {
+    index();
+    return mainPhpFiles;
+  }
+
+  @Nullable
+  private InputFile inputFile(String path, @Nullable InputFile.Type phpType) {
+    index();
+    String sanitizedPath = PathUtils.sanitize(path);
+    InputFile inputFile = filesByAbsolutePath.get(sanitizedPath);
+    if (inputFile == null) {
+      inputFile = filesByRelativePath.get(sanitizedPath);
+    }
+    if (inputFile != null) {
+      return accept(inputFile, phpType) ? inputFile : null;
+    }
+    return inputFileBySuffix(sanitizedPath, phpType);
+  }
+
+  @Nullable
+  private InputFile inputFileBySuffix(String path, @Nullable InputFile.Type phpType) {
+    List<InputFile> candidates = filesByName.get(fileName(path));
+    if (candidates == null || (baseDirPath != null && path.startsWith(baseDirPath))) {
+      return null;
+    }
+    InputFile result = null;
+    for (InputFile candidate : candidates) {
+      String relativePath = candidate.relativePath();
+      int start = path.length() - relativePath.length();
+      boolean matches = start > 0 && path.endsWith(relativePath) && path.charAt(start - 1) == '/';
+      if (matches) {
+        if (result != null || path.substring(0, start).contains(VENDOR_SEGMENT)) {
+          // ambiguous, or a dependency
+          return null;
+        }
+        result = candidate;
+      }
+    }
+    return result != null && accept(result, phpType) ? result : null;
+  }
+
+  private static boolean accept(InputFile inputFile, @Nullable InputFile.Type phpType) {
+    return phpType == null || (phpType == inputFile.type() && Php.KEY.equals(inputFile.language()));
+  }
+
+  private synchronized void index() {
+    if (filesByAbsolutePath != null) {
+      return;
+    }
+    Map<String, InputFile> byAbsolutePath = new HashMap<>();
+    Map<String, InputFile> byRelativePath = new HashMap<>();
+    Map<String, List<InputFile>> byName = new HashMap<>();
+    List<InputFile> mainFiles = new ArrayList<>();
+    for (InputFile inputFile : fileSystem.inputFiles(fileSystem.predicates().all())) {
+      byAbsolutePath.put(inputFile.absolutePath(), inputFile);
+      byRelativePath.put(inputFile.relativePath(), inputFile);
+      String name = fileName(inputFile.relativePath());
+      List<InputFile> sameName = byName.get(name);
+      if (sameName == null) {
+        sameName = new ArrayList<>(1);
+        byName.put(name, sameName);
+      }
+      sameName.add(inputFile);
+      if (inputFile.type() == InputFile.Type.MAIN && Php.KEY.equals(inputFile.language())) {
+        mainFiles.add(inputFile);
+      }
+    }
+    File baseDir = fileSystem.baseDir();
+    baseDirPath = baseDir == null ? null : (PathUtils.sanitize(baseDir.getAbsolutePath()) + "/");
+    filesByRelativePath = byRelativePath;
+    filesByName = byName;
+    mainPhpFiles = mainFiles;
+    filesByAbsolutePath = byAbsolutePath;
+  }
+
+  private static String fileName(String path) {
+    return path.substring(path.lastIndexOf('/') + 1);
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.plugins.php.phpunit.xml.MetricsNode;
+
+/**
+ * Coverage of the files of the module, summed over the shards of a test run, keyed by relative path.
+ * <p>
+ * The hits of a file are kept in an array indexed by line number, so memory only depends on the lines of the
+ * covered files and not on the number or the size of the reports.
+ */
+class MergedCoverage {
+
+  private static final String STATEMENT = "stmt";
+
+  private final ConcurrentMap<String, FileCoverage> files = new ConcurrentHashMap<>();
+
+  FileCoverage of(InputFile inputFile) {
+    FileCoverage fileCoverage = files.get(inputFile.relativePath());
+    if (fileCoverage == null) {
+      FileCoverage newFileCoverage = new FileCoverage(inputFile);
+      fileCoverage = files.putIfAbsent(inputFile.relativePath(), newFileCoverage);
+      if (fileCoverage == null) {
+        fileCoverage = newFileCoverage;
+      }
+    }
+    return fileCoverage;
+  }
+
+  Collection<FileCoverage> files() {
+    return files.values();
+  }
+
+  Set<String> relativePaths() {
+    return files.keySet();
+  }
+
+  /**
+   * Coverage of a single file. Instances are not thread-safe: reports adding the lines of a file synchronize on it.
+   * A single report is streamed through instances which are not kept in a {@link MergedCoverage}.
+   */
+  static class FileCoverage {
+
+    private final InputFile inputFile;
+    private final BitSet lines = new BitSet();
+    private final BitSet statementLines = new BitSet();
+    private int[] hits = new int[0];
+    private int reports = 0;
+    private double statements = 0;
+    private double coveredStatements = 0;
+
+    FileCoverage(InputFile inputFile) {
+      this.inputFile = inputFile;
+    }
+
+    InputFile inputFile() {
+      return inputFile;
+    }
+
+    void addLine(int line, int count, String type) {
+      if (line >= hits.length) {
+        hits = Arrays.copyOf(hits, Math.max(line + 1, Math.min(hits.length * 2, inputFile.lines() + 1)));
+      }
+      long sum = (long) hits[line] + count;
+      hits[line] = (int) Math.min(sum, Integer.MAX_VALUE);
+      lines.set(line);
+      if (STATEMENT.equals(type)) {
+        statementLines.set(line);
+      }
+    }
+
+    void addMetrics(MetricsNode metrics) {
+      reports++;
+      statements = Math.max(statements, metrics.getTotalStatementsCount());
+      coveredStatements = Math.max(coveredStatements, metrics.getCoveredStatements());
+    }
+
+    /**
+     * @return the lines found in the reports
+     */
+    BitSet lines() {
+      return lines;
+    }
+
+    int hits(int line) {
+      return hits[line];
+    }
+
+    double statements() {
+      return statements;
+    }
+
+    /**
+     * When several reports cover the file, a statement is covered if one of them hit it, which the statement metrics
+     * of each report cannot tell: they are counted from the hits of the statement lines instead.
+     */
+    double uncoveredStatements() {
+      double covered = coveredStatements;
+      if (reports > 1) {
+        int coveredLines = 0;
+        for (int line = statementLines.nextSetBit(0); line >= 0; line = statementLines.nextSetBit(line + 1)) {
+          if (hits[line] > 0) {
+            coveredLines++;
+          }
+        }
+        covered = Math.max(covered, coveredLines);
+      }
+      return statements - covered;
+    }
+
+  }
+
+}
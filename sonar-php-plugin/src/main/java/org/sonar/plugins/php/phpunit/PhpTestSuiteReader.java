@@ -21,26 +21,39 @@ package org.sonar.plugins.php.phpunit;
 
 import org.apache.commons.lang.StringUtils;
 import org.sonar.plugins.php.phpunit.xml.TestCase;
-import org.sonar.plugins.php.phpunit.xml.TestSuite;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
- * The PhpTestSuiteParser .
+ * The PhpTestSuiteParser reads the test cases of a single report. The report of a test class is handed over to the
+ * {@link ReportHandler} as soon as the outermost test suite of the class ends, so that only the reports of the test
+ * classes being read are kept in memory.
  */
 public class PhpTestSuiteReader {
 
+  public interface ReportHandler {
+    void handle(PhpUnitTestReport report);
+  }
+
   /**
    */
   private static final String TESTSUITE_CLASS_NAME_SEPARATOR = "::";
   /**
-   * The reports per class.
+   * The reports per class, for the classes whose test suite has not ended yet.
+   */
+  private final Map<String, PhpUnitTestReport> reportsPerClass = new HashMap<>();
+  /**
+   * The depth of the outermost test suite of each class of <code>reportsPerClass</code>.
    */
-  private Map<String, PhpUnitTestReport> reportsPerClass = new HashMap<>();
+  private final Map<String, Integer> classSuiteDepths = new HashMap<>();
+  private final ReportHandler reportHandler;
+
+  public PhpTestSuiteReader(ReportHandler reportHandler) {
+    this.reportHandler = reportHandler;
+  }
 
   /**
    * Cumulates test case details.
@@ -58,67 +71,71 @@ public class PhpTestSuiteReader {
       report.setErrors(report.getErrors() + 1);
     }
     report.setTests(report.getTests() + 1);
-    report.getDetails().add(testCase);
+    report.addDetail(testCase);
   }
 
   /**
-   * Reads the given test suite.
+   * Reads the given test case.
    * <p/>
    * Due to a inconsistent XML format in phpUnit, we have to parse enclosing testsuite name for generated testcases when a testcase holds
    * the annotation dataProvider.
    *
-   * @param testSuite the test suite
+   * @param testCase the test case
+   * @param suiteName the name of the test suite holding the test case
+   * @param parentFileName the file of the test suite enclosing that test suite, if any
+   * @param suiteTime the time of the test suite holding the test case
+   * @param suiteDepth the depth of the test suite holding the test case, 1 for a top level test suite
    * Method adds to the field <code>reportsPerClass</code> reports per php class
    */
-  public void readSuite(TestSuite testSuite, String parentFileName) {
-    List<TestSuite> testSuites = testSuite.getTestSuites();
-    if (testSuites != null) {
-      for (TestSuite childSuite : testSuites) {
-        readSuite(childSuite, testSuite.getFile());
-      }
+  public void readTestCase(TestCase testCase, String suiteName, @Nullable String parentFileName, double suiteTime, int suiteDepth) {
+    String testClassName = testCase.getClassName();
+    // For test cases with @dataProvider. we get the fileName in the enclosing testSuite in the name attribute before string "::"
+    if (testClassName == null) {
+      testClassName = StringUtils.substringBefore(suiteName, TESTSUITE_CLASS_NAME_SEPARATOR);
     }
-    // For all cases
-    List<TestCase> testCases = testSuite.getTestCases();
-    if (testCases != null) {
-      for (TestCase testCase : testCases) {
-        String testClassName = testCase.getClassName();
-        // For test cases with @dataProvider. we get the fileName in the enclosing testSuite in the name attribute before string "::"
-        if (testClassName == null) {
-          testClassName = StringUtils.substringBefore(testSuite.getName(), TESTSUITE_CLASS_NAME_SEPARATOR);
-        }
-        PhpUnitTestReport report = reportsPerClass.get(testClassName);
-        // If no reports exists for this class we create one
-        if (report == null) {
-          report = new PhpUnitTestReport();
-          report.setDetails(new ArrayList<TestCase>());
-          report.setClassKey(testClassName);
+    PhpUnitTestReport report = reportsPerClass.get(testClassName);
+    // If no reports exists for this class we create one
+    if (report == null) {
+      report = new PhpUnitTestReport();
+      report.setClassKey(testClassName);
 
-          String file = testCase.getFile();
-          // test cases with @dataProvider, we get the file name in the parent test suite.
-          if (file == null) {
-            file = parentFileName;
-          }
+      String file = testCase.getFile();
+      // test cases with @dataProvider, we get the file name in the parent test suite.
+      if (file == null) {
+        file = parentFileName;
+      }
 
-          if (file != null) {
-            report.setFile(file);
-            reportsPerClass.put(testClassName, report);
-          }
-        }
-        if (parentFileName == null) {
-          report.setTime(testSuite.getTime());
-        }
-        cumulateTestCaseDetails(testCase, report);
+      if (file != null) {
+        report.setFile(file);
+        reportsPerClass.put(testClassName, report);
       }
     }
+    // test cases with @dataProvider are held by a test suite nested in the one of their class
+    int classSuiteDepth = parentFileName == null ? suiteDepth : (suiteDepth - 1);
+    Integer depth = classSuiteDepths.get(testClassName);
+    if (reportsPerClass.containsKey(testClassName) && (depth == null || classSuiteDepth < depth)) {
+      classSuiteDepths.put(testClassName, classSuiteDepth);
+    }
+    if (parentFileName == null) {
+      report.setTime(suiteTime);
+    }
+    cumulateTestCaseDetails(testCase, report);
   }
 
   /**
-   * Returns the collection of test results for the suite that has been analyzed.
+   * Hands over the reports of the classes whose outermost test suite is the one which ends.
    *
-   * @return the collection of {@link PhpUnitTestReport} objects
+   * @param suiteDepth the depth of the test suite which ends, 1 for a top level test suite
    */
-  public Collection<PhpUnitTestReport> getReportsPerClass() {
-    return reportsPerClass.values();
+  public void endSuite(int suiteDepth) {
+    Iterator<Map.Entry<String, Integer>> iterator = classSuiteDepths.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Integer> entry = iterator.next();
+      if (entry.getValue() >= suiteDepth) {
+        iterator.remove();
+        reportHandler.handle(reportsPerClass.remove(entry.getKey()));
+      }
+    }
   }
 
 }
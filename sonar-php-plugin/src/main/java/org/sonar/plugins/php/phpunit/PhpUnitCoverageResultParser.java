@@ -19,28 +19,35 @@
  */
 package org.sonar.plugins.php.phpunit;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.thoughtworks.xstream.XStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.BatchExtension;
 import org.sonar.api.batch.SensorContext;
-import org.sonar.api.batch.fs.FilePredicate;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.Settings;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Measure;
 import org.sonar.api.measures.Metric;
 import org.sonar.api.measures.PropertiesBuilder;
 import org.sonar.api.resources.Resource;
-import org.sonar.plugins.php.api.Php;
+import org.sonar.plugins.php.PhpPlugin;
 import org.sonar.plugins.php.phpunit.xml.CoverageNode;
 import org.sonar.plugins.php.phpunit.xml.FileNode;
 import org.sonar.plugins.php.phpunit.xml.LineNode;
@@ -58,7 +65,8 @@ public class PhpUnitCoverageResultParser implements BatchExtension, PhpUnitParse
 
   private static final Logger LOG = LoggerFactory.getLogger(PhpUnitCoverageResultParser.class);
   private final SensorContext context;
-  private final FileSystem fileSystem;
+  private final InputFileIndex fileIndex;
+  private final boolean legacyParser;
 
   protected Metric<Integer> linesToCoverMetric = CoreMetrics.LINES_TO_COVER;
   protected Metric<Integer> uncoveredLinesMetric = CoreMetrics.UNCOVERED_LINES;
@@ -72,9 +80,19 @@ public class PhpUnitCoverageResultParser implements BatchExtension, PhpUnitParse
    * @param context the context
    */
   public PhpUnitCoverageResultParser(SensorContext context, FileSystem fileSystem) {
+    this(context, new Settings(), new InputFileIndex(fileSystem));
+  }
+
+  /**
+   * @param settings tells whether the report is loaded as a whole with XStream rather than streamed, see
+   * {@link PhpPlugin#PHPUNIT_COVERAGE_LEGACY_PARSER_KEY}
+   * @param fileIndex resolves the paths of the report, shared with the other PHPUnit parsers
+   */
+  public PhpUnitCoverageResultParser(SensorContext context, Settings settings, InputFileIndex fileIndex) {
     super();
     this.context = context;
-    this.fileSystem = fileSystem;
+    this.fileIndex = fileIndex;
+    this.legacyParser = settings.getBoolean(PhpPlugin.PHPUNIT_COVERAGE_LEGACY_PARSER_KEY);
   }
 
   /**
@@ -84,26 +102,125 @@ public class PhpUnitCoverageResultParser implements BatchExtension, PhpUnitParse
    */
   @Override
   public void parse(File coverageReportFile) {
-    LOG.debug("Parsing file: " + coverageReportFile.getAbsolutePath());
-    parseFile(coverageReportFile);
+    parse(Collections.singletonList(coverageReportFile));
+  }
+
+  /**
+   * Parses the coverage reports of the shards of a test run, one after the other, and saves the coverage they add up to.
+   *
+   * @param coverageReportFiles the coverage report files
+   */
+  @Override
+  public void parse(List<File> coverageReportFiles) {
+    read(coverageReportFiles, MoreExecutors.sameThreadExecutor()).save();
+  }
+
+  /**
+   * A single report is streamed: it is read with the executor, and the coverage of each file is handed over to the
+   * sensor thread as soon as it is read. The coverage of several reports is first merged in memory, reading them with
+   * the executor.
+   */
+  @Override
+  public Result read(final List<File> coverageReportFiles, Executor executor) {
+    if (coverageReportFiles.size() == 1) {
+      return new ReportStream() {
+        @Override
+        protected void read() {
+          readReport(coverageReportFiles.get(0), this);
+        }
+      }.start(executor);
+    }
+
+    final MergedCoverage coverage = new MergedCoverage();
+    final AtomicBoolean projectFound = new AtomicBoolean(false);
+    ReportShards.readAll(coverageReportFiles, executor, new ReportShards.ReportTask() {
+      @Override
+      public void read(File report) {
+        if (parseFile(report, new ResolvedFileNodeHandler() {
+          @Override
+          public void handle(FileNode fileNode, InputFile inputFile) {
+            MergedCoverage.FileCoverage fileCoverage = coverage.of(inputFile);
+            synchronized (fileCoverage) {
+              addCoverage(fileNode, fileCoverage);
+            }
+          }
+        })) {
+          projectFound.set(true);
+        }
+      }
+    });
+    return new Result() {
+      @Override
+      public void save() {
+        for (MergedCoverage.FileCoverage fileCoverage : coverage.files()) {
+          saveCoverageMeasure(fileCoverage);
+        }
+        if (projectFound.get()) {
+          saveMeasureForMissingFiles(coverage.relativePaths());
+        }
+      }
+    };
+  }
+
+  private void readReport(File coverageReportFile, final ReportStream stream) {
+    final Set<String> resolvedPaths = new HashSet<>();
+    boolean projectFound = parseFile(coverageReportFile, new ResolvedFileNodeHandler() {
+      @Override
+      public void handle(FileNode fileNode, InputFile inputFile) {
+        final MergedCoverage.FileCoverage fileCoverage = new MergedCoverage.FileCoverage(inputFile);
+        addCoverage(fileNode, fileCoverage);
+        stream.handOver(new Runnable() {
+          @Override
+          public void run() {
+            saveCoverageMeasure(fileCoverage);
+          }
+        });
+        resolvedPaths.add(inputFile.relativePath());
+      }
+    });
+    if (projectFound) {
+      stream.handOver(new Runnable() {
+        @Override
+        public void run() {
+          saveMeasureForMissingFiles(resolvedPaths);
+        }
+      });
+    }
+  }
+
+  private interface ResolvedFileNodeHandler {
+    void handle(FileNode fileNode, InputFile inputFile);
   }
 
   /**
    * Parses the file.
    *
    * @param coverageReportFile the coverage report file
+   * @param handler called for each file node pointing to an imported file
+   * @return false if the report has no project
    */
-  private void parseFile(File coverageReportFile) {
-    CoverageNode coverage = getCoverage(coverageReportFile);
-
-    List<String> unresolvedPaths = new ArrayList<>();
-    List<String> resolvedPaths = new ArrayList<>();
-    List<ProjectNode> projects = coverage.getProjects();
-    if (projects != null && !projects.isEmpty()) {
-      ProjectNode projectNode = projects.get(0);
-      parseFileNodes(projectNode.getFiles(), unresolvedPaths, resolvedPaths);
-      parsePackagesNodes(projectNode.getPackages(), unresolvedPaths, resolvedPaths);
-      saveMeasureForMissingFiles(resolvedPaths);
+  private boolean parseFile(File coverageReportFile, final ResolvedFileNodeHandler handler) {
+    LOG.debug("Parsing file: " + coverageReportFile.getAbsolutePath());
+    final List<String> unresolvedPaths = new ArrayList<>();
+    CoverageReportReader.FileNodeHandler fileNodeHandler = new CoverageReportReader.FileNodeHandler() {
+      @Override
+      public void handle(FileNode fileNode) {
+        String path = fileNode.getName();
+        InputFile inputFile = fileIndex.inputFile(path);
+        // Due to an unexpected behaviour in phpunit.coverage.xml containing references to covered source files, we have to check that the
+        // targeted file for coverage is not null.
+        if (inputFile != null) {
+          handler.handle(fileNode, inputFile);
+        } else {
+          unresolvedPaths.add(path);
+        }
+      }
+    };
+    boolean projectFound;
+    if (legacyParser) {
+      projectFound = parseCoverage(coverageReportFile, fileNodeHandler);
+    } else {
+      projectFound = CoverageReportReader.read(coverageReportFile, fileNodeHandler);
     }
     if (!unresolvedPaths.isEmpty()) {
       LOG.warn(
@@ -111,18 +228,32 @@ public class PhpUnitCoverageResultParser implements BatchExtension, PhpUnitParse
           "Could not resolve %d file paths in %s, first unresolved path: %s",
           unresolvedPaths.size(), coverageReportFile.getName(), unresolvedPaths.get(0)));
     }
+    return projectFound;
+  }
+
+  /**
+   * Loads the whole report before handling any file.
+   *
+   * @return false if the report has no project
+   */
+  private boolean parseCoverage(File coverageReportFile, CoverageReportReader.FileNodeHandler handler) {
+    CoverageNode coverage = getCoverage(coverageReportFile);
+    List<ProjectNode> projects = coverage.getProjects();
+    if (projects != null && !projects.isEmpty()) {
+      ProjectNode projectNode = projects.get(0);
+      parseFileNodes(projectNode.getFiles(), handler);
+      parsePackagesNodes(projectNode.getPackages(), handler);
+      return true;
+    }
+    return false;
   }
 
   /**
    * Set default 0 value for files that do not have coverage metrics because they were not touched by any test,
    * and thus not present in the coverage report file.
    */
-  private void saveMeasureForMissingFiles(List<String> resolvedPaths) {
-    FilePredicate mainFilesPredicate = fileSystem.predicates().and(
-      fileSystem.predicates().hasType(InputFile.Type.MAIN),
-      fileSystem.predicates().hasLanguage(Php.KEY));
-
-    for (InputFile phpFile : fileSystem.inputFiles(mainFilesPredicate)) {
+  private void saveMeasureForMissingFiles(Set<String> resolvedPaths) {
+    for (InputFile phpFile : fileIndex.mainPhpFiles()) {
       if (!resolvedPaths.contains(phpFile.relativePath())) {
         org.sonar.api.resources.File resource = org.sonar.api.resources.File.create(phpFile.relativePath());
         LOG.debug("Coverage metrics have not been set on '{}': default values will be inserted.", phpFile.file().getName());
@@ -138,66 +269,65 @@ public class PhpUnitCoverageResultParser implements BatchExtension, PhpUnitParse
     }
   }
 
-  private void parsePackagesNodes(List<PackageNode> packages, List<String> unresolvedPaths, List<String> resolvedPaths) {
+  private static void parsePackagesNodes(List<PackageNode> packages, CoverageReportReader.FileNodeHandler handler) {
     if (packages != null) {
       for (PackageNode packageNode : packages) {
-        parseFileNodes(packageNode.getFiles(), unresolvedPaths, resolvedPaths);
+        parseFileNodes(packageNode.getFiles(), handler);
       }
     }
   }
 
-  private void parseFileNodes(List<FileNode> fileNodes, List<String> unresolvedPaths, List<String> resolvedPaths) {
+  private static void parseFileNodes(List<FileNode> fileNodes, CoverageReportReader.FileNodeHandler handler) {
     if (fileNodes != null) {
       for (FileNode file : fileNodes) {
-        saveCoverageMeasure(file, unresolvedPaths, resolvedPaths);
+        handler.handle(file);
       }
     }
   }
 
   /**
-   * Saves the required metrics found on the fileNode
+   * Adds the coverage found on the fileNode to the one of the file it points to
    *
    * @param fileNode the file
-   * @param unresolvedPaths list of paths which cannot be mapped to imported files
-   * @param resolvedPaths list of paths which can be mapped to imported files
+   * @param fileCoverage the coverage of the file
    */
-  protected void saveCoverageMeasure(FileNode fileNode, List<String> unresolvedPaths, List<String> resolvedPaths) {
-    //PHP supports only absolute paths
-    String path = fileNode.getName();
-    InputFile inputFile = fileSystem.inputFile(fileSystem.predicates().hasAbsolutePath(path));
-
-    // Due to an unexpected behaviour in phpunit.coverage.xml containing references to covered source files, we have to check that the
-    // targeted file for coverage is not null.
-    if (inputFile != null) {
-      org.sonar.api.resources.File phpFile = org.sonar.api.resources.File.create(inputFile.relativePath());
-      resolvedPaths.add(inputFile.relativePath());
-      saveCoverageLineHitsData(fileNode, inputFile, phpFile);
-
-      // Save uncovered statements (lines)
-      MetricsNode metrics = fileNode.getMetrics();
-      double totalStatementsCount = metrics.getTotalStatementsCount();
-      double uncoveredLines = totalStatementsCount - metrics.getCoveredStatements();
-      context.saveMeasure(phpFile, linesToCoverMetric, totalStatementsCount);
-      context.saveMeasure(phpFile, this.uncoveredLinesMetric, uncoveredLines);
-    } else {
-      unresolvedPaths.add(path);
-    }
-  }
-
-  private void saveCoverageLineHitsData(FileNode fileNode, InputFile inputFile, org.sonar.api.resources.File phpFile) {
-    // Properties builder will generate the data associate with COVERAGE_LINE_HITS_DATA metrics.
-    // This should look like (lineNumber=Count) : 1=0;2=1;3=1....
-    PropertiesBuilder<Integer, Integer> lineHits = new PropertiesBuilder<>(coverageLineHitsDataMetric);
+  private static void addCoverage(FileNode fileNode, MergedCoverage.FileCoverage fileCoverage) {
+    InputFile inputFile = fileCoverage.inputFile();
     if (fileNode.getLines() != null) {
       for (LineNode line : fileNode.getLines()) {
         int lineNum = line.getNum();
         if (lineNum > 0 && lineNum <= inputFile.lines()) {
-          saveLineMeasure(line, lineHits);
+          fileCoverage.addLine(lineNum, line.getCount(), line.getType());
         } else {
-          LOG.warn(String.format(WRONG_LINE_EXCEPTION_MESSAGE, lineNum, phpFile.getLongName()));
+          LOG.warn(String.format(WRONG_LINE_EXCEPTION_MESSAGE, lineNum, inputFile.relativePath()));
         }
       }
     }
+    fileCoverage.addMetrics(fileNode.getMetrics());
+  }
+
+  /**
+   * Saves the required metrics of a file
+   *
+   * @param fileCoverage the coverage of the file
+   */
+  private void saveCoverageMeasure(MergedCoverage.FileCoverage fileCoverage) {
+    org.sonar.api.resources.File phpFile = org.sonar.api.resources.File.create(fileCoverage.inputFile().relativePath());
+    saveCoverageLineHitsData(fileCoverage, phpFile);
+
+    // Save uncovered statements (lines)
+    context.saveMeasure(phpFile, linesToCoverMetric, fileCoverage.statements());
+    context.saveMeasure(phpFile, this.uncoveredLinesMetric, fileCoverage.uncoveredStatements());
+  }
+
+  private void saveCoverageLineHitsData(MergedCoverage.FileCoverage fileCoverage, org.sonar.api.resources.File phpFile) {
+    // Properties builder will generate the data associate with COVERAGE_LINE_HITS_DATA metrics.
+    // This should look like (lineNumber=Count) : 1=0;2=1;3=1....
+    PropertiesBuilder<Integer, Integer> lineHits = new PropertiesBuilder<>(coverageLineHitsDataMetric);
+    BitSet lines = fileCoverage.lines();
+    for (int line = lines.nextSetBit(0); line >= 0; line = lines.nextSetBit(line + 1)) {
+      lineHits.add(line, fileCoverage.hits(line));
+    }
     Measure measure = lineHits.build();
     logMeasureByResource(phpFile, measure);
     context.saveMeasure(phpFile, measure);
@@ -214,16 +344,6 @@ public class PhpUnitCoverageResultParser implements BatchExtension, PhpUnitParse
     }
   }
 
-  /**
-   * Save line measure.
-   *
-   * @param line     the line
-   * @param lineHits the line hits
-   */
-  private static void saveLineMeasure(LineNode line, PropertiesBuilder<Integer, Integer> lineHits) {
-    lineHits.add(line.getNum(), line.getCount());
-  }
-
   /**
    * Gets the coverage.
    *
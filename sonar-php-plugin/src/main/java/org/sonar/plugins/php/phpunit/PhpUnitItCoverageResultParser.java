@@ -21,6 +21,7 @@ package org.sonar.plugins.php.phpunit;
 
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.Settings;
 import org.sonar.api.measures.CoreMetrics;
 
 /**
@@ -34,7 +35,11 @@ public class PhpUnitItCoverageResultParser extends PhpUnitCoverageResultParser {
    * @param context    the context
    */
   public PhpUnitItCoverageResultParser(SensorContext context, FileSystem fileSystem) {
-    super(context, fileSystem);
+    this(context, new Settings(), new InputFileIndex(fileSystem));
+  }
+
+  public PhpUnitItCoverageResultParser(SensorContext context, Settings settings, InputFileIndex fileIndex) {
+    super(context, settings, fileIndex);
     linesToCoverMetric = CoreMetrics.IT_LINES_TO_COVER;
     uncoveredLinesMetric = CoreMetrics.IT_UNCOVERED_LINES;
     coverageLineHitsDataMetric = CoreMetrics.IT_COVERAGE_LINE_HITS_DATA;
@@ -21,6 +21,7 @@ package org.sonar.plugins.php.phpunit;
 
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.Settings;
 import org.sonar.api.measures.CoreMetrics;
 
 /**
@@ -34,7 +35,11 @@ public class PhpUnitOverallCoverageResultParser extends PhpUnitCoverageResultPar
    * @param context    the context
    */
   public PhpUnitOverallCoverageResultParser(SensorContext context, FileSystem fileSystem) {
-    super(context, fileSystem);
+    this(context, new Settings(), new InputFileIndex(fileSystem));
+  }
+
+  public PhpUnitOverallCoverageResultParser(SensorContext context, Settings settings, InputFileIndex fileIndex) {
+    super(context, settings, fileIndex);
     linesToCoverMetric = CoreMetrics.OVERALL_LINES_TO_COVER;
     uncoveredLinesMetric = CoreMetrics.OVERALL_UNCOVERED_LINES;
     coverageLineHitsDataMetric = CoreMetrics.OVERALL_COVERAGE_LINE_HITS_DATA;
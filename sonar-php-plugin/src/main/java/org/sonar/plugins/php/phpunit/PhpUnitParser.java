@@ -20,7 +20,28 @@
 package org.sonar.plugins.php.phpunit;
 
 import java.io.File;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 public interface PhpUnitParser {
   void parse(File coverageReportFile);
+
+  /**
+   * Parses the reports of the shards of a single test run as if they were one report.
+   */
+  void parse(List<File> reportFiles);
+
+  /**
+   * Reads the reports of the shards of a single test run without touching the sensor context, so that several
+   * parsers can read their reports concurrently. A parser streaming a report reads it with the executor and hands
+   * the measures read so far over to {@link Result#save()}.
+   *
+   * @param executor executor shared by the parsers of the sensor, reading the shards in parallel
+   * @return the measures read, to be saved by the sensor thread
+   */
+  Result read(List<File> reportFiles, Executor executor);
+
+  interface Result {
+    void save();
+  }
 }
@@ -19,29 +19,25 @@
  */
 package org.sonar.plugins.php.phpunit;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.mapper.MapperWrapper;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import org.apache.commons.lang.StringEscapeUtils;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.BatchExtension;
 import org.sonar.api.batch.SensorContext;
-import org.sonar.api.batch.fs.FilePredicates;
-import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Measure;
 import org.sonar.api.utils.ParsingUtils;
-import org.sonar.plugins.php.api.Php;
 import org.sonar.plugins.php.phpunit.xml.TestCase;
-import org.sonar.plugins.php.phpunit.xml.TestSuite;
-import org.sonar.plugins.php.phpunit.xml.TestSuites;
 
 /**
  * The Class PhpUnitResultParser.
@@ -52,8 +48,6 @@ public class PhpUnitResultParser implements BatchExtension, PhpUnitParser {
 
   private static final double MILLISECONDS = 1000d;
 
-  private static final int PRECISION = 1;
-
   /**
    * The logger.
    */
@@ -63,58 +57,18 @@ public class PhpUnitResultParser implements BatchExtension, PhpUnitParser {
    * The context.
    */
   private SensorContext context;
-  private FileSystem fileSystem;
-  private FilePredicates filePredicates;
+  private InputFileIndex fileIndex;
 
   /**
    * Instantiates a new php unit result parser.
    *
    * @param context the context
+   * @param fileIndex resolves the paths of the report, shared with the coverage parsers
    */
-  public PhpUnitResultParser(SensorContext context, FileSystem fileSystem) {
+  public PhpUnitResultParser(SensorContext context, InputFileIndex fileIndex) {
     super();
     this.context = context;
-    this.fileSystem = fileSystem;
-    this.filePredicates = fileSystem.predicates();
-  }
-
-  /**
-   * Gets the test suites.
-   *
-   * @param report the report
-   * @return the test suites
-   */
-  protected TestSuites getTestSuites(File report) {
-    try (InputStream inputStream = new FileInputStream(report)){
-      XStream xstream = getXStream();
-      TestSuites testSuites = (TestSuites) xstream.fromXML(inputStream);
-      LOG.debug("Tests suites: " + testSuites.getTestSuiteList());
-      return testSuites;
-    } catch (IOException e) {
-      throw new IllegalStateException("Can't read PhpUnit report : " + report.getAbsolutePath(), e);
-    }
-  }
-
-  private XStream getXStream() {
-    XStream xstream = new XStream(){
-      // Trick to ignore unknown elements
-      @Override
-      protected MapperWrapper wrapMapper(MapperWrapper next) {
-        return new MapperWrapper(next) {
-          @Override
-          public boolean shouldSerializeMember(Class definedIn, String fieldName) {
-            return definedIn != Object.class && super.shouldSerializeMember(definedIn, fieldName);
-          }
-        };
-      }
-    };
-    // Sonar 2.2 migration
-    xstream.setClassLoader(getClass().getClassLoader());
-    xstream.aliasSystemAttribute("fileName", "class");
-    xstream.processAnnotations(TestSuites.class);
-    xstream.processAnnotations(TestSuite.class);
-    xstream.processAnnotations(TestCase.class);
-    return xstream;
+    this.fileIndex = fileIndex;
   }
 
   /**
@@ -123,10 +77,7 @@ public class PhpUnitResultParser implements BatchExtension, PhpUnitParser {
    * @param report the unit test report
    */
   private InputFile getUnitTestInputFile(PhpUnitTestReport report) {
-    return fileSystem.inputFile(fileSystem.predicates().and(
-      filePredicates.hasPath(report.getFile()),
-      filePredicates.hasType(InputFile.Type.TEST),
-      filePredicates.hasLanguage(Php.KEY)));
+    return fileIndex.phpFile(report.getFile(), InputFile.Type.TEST);
   }
 
   /**
@@ -146,38 +97,100 @@ public class PhpUnitResultParser implements BatchExtension, PhpUnitParser {
     if (reportFile == null) {
       insertZeroWhenNoReports();
     } else {
-      LOG.debug("Parsing file: " + reportFile.getAbsolutePath());
-      parseFile(reportFile);
+      parse(Collections.singletonList(reportFile));
     }
   }
 
   /**
-   * Parses the report file.
+   * Parses the reports of the shards of a test run, one after the other, and saves the measures of the test classes
+   * they add up to.
    *
-   * @param report the report file
+   * @param reportFiles the report files
    */
-  private void parseFile(File report) {
-    TestSuites testSuites = getTestSuites(report);
-    List<PhpUnitTestReport> fileReports = readSuites(testSuites);
-    for (PhpUnitTestReport fileReport : fileReports) {
-      saveTestReportMeasures(fileReport);
-    }
+  @Override
+  public void parse(List<File> reportFiles) {
+    read(reportFiles, MoreExecutors.sameThreadExecutor()).save();
   }
 
   /**
-   * Launches {@see PhpTestSuiteReader#readSuite(TestSuite)} for all its descendants.
-   *
-   * @param testSuites the test suites
-   * @return List<PhpUnitTestReport> A list of all test reports
+   * A single report is streamed: it is read with the executor, and each test class is handed over to the sensor
+   * thread as soon as its test suite has been read. The test classes of several reports are first merged in memory,
+   * reading them with the executor.
    */
-  private static List<PhpUnitTestReport> readSuites(TestSuites testSuites) {
-    List<PhpUnitTestReport> result = new ArrayList<>();
-    for (TestSuite testSuite : testSuites.getTestSuiteList()) {
-      PhpTestSuiteReader reader = new PhpTestSuiteReader();
-      reader.readSuite(testSuite, null);
-      result.addAll(reader.getReportsPerClass());
+  @Override
+  public Result read(final List<File> reportFiles, Executor executor) {
+    if (reportFiles.size() == 1) {
+      return new ReportStream() {
+        @Override
+        protected void read() {
+          readReport(reportFiles.get(0), this);
+        }
+      }.start(executor);
     }
-    return result;
+
+    final Map<String, PhpUnitTestReport> reportsPerClass = new HashMap<>();
+    ReportShards.readAll(reportFiles, executor, new ReportShards.ReportTask() {
+      @Override
+      public void read(File report) {
+        readReport(report, new PhpTestSuiteReader.ReportHandler() {
+          @Override
+          public void handle(PhpUnitTestReport classReport) {
+            synchronized (reportsPerClass) {
+              PhpUnitTestReport mergedReport = reportsPerClass.get(classReport.getClassKey());
+              if (mergedReport == null) {
+                reportsPerClass.put(classReport.getClassKey(), classReport);
+              } else {
+                mergedReport.add(classReport);
+              }
+            }
+          }
+        });
+      }
+    });
+    return new Result() {
+      @Override
+      public void save() {
+        for (PhpUnitTestReport fileReport : reportsPerClass.values()) {
+          saveTestReportMeasures(fileReport);
+        }
+      }
+    };
+  }
+
+  private void readReport(final File reportFile, final ReportStream stream) {
+    final Set<String> savedClasses = new HashSet<>();
+    readReport(reportFile, new PhpTestSuiteReader.ReportHandler() {
+      @Override
+      public void handle(final PhpUnitTestReport classReport) {
+        if (savedClasses.add(classReport.getClassKey())) {
+          stream.handOver(new Runnable() {
+            @Override
+            public void run() {
+              saveTestReportMeasures(classReport);
+            }
+          });
+        } else {
+          LOG.warn("Test class " + classReport.getClassKey() + " found in several test suites of " + reportFile.getAbsolutePath()
+            + ", only the results of the first one are reported.");
+        }
+      }
+    });
+  }
+
+  private static void readReport(File report, PhpTestSuiteReader.ReportHandler reportHandler) {
+    LOG.debug("Parsing file: " + report.getAbsolutePath());
+    final PhpTestSuiteReader reader = new PhpTestSuiteReader(reportHandler);
+    TestReportReader.read(report, new TestReportReader.TestCaseHandler() {
+      @Override
+      public void handle(TestCase testCase, String suiteName, @Nullable String parentFileName, double suiteTime, int suiteDepth) {
+        reader.readTestCase(testCase, suiteName, parentFileName, suiteTime, suiteDepth);
+      }
+
+      @Override
+      public void endSuite(int suiteDepth) {
+        reader.endSuite(suiteDepth);
+      }
+    });
   }
 
   /**
@@ -205,7 +218,7 @@ public class PhpUnitResultParser implements BatchExtension, PhpUnitParser {
         double percentage = passedTests * PERCENT / testsCount;
         context.saveMeasure(unitTestFile, CoreMetrics.TEST_SUCCESS_DENSITY, ParsingUtils.scaleValue(percentage));
       }
-      saveTestsDetails(fileReport);
+      saveTestsDetails(fileReport, unitTestFile);
     } else {
       LOG.debug("Following file is not located in the test folder specified in the Sonar configuration: " + fileReport.getFile()
         + ". The test results won't be reported in Sonar.");
@@ -216,29 +229,9 @@ public class PhpUnitResultParser implements BatchExtension, PhpUnitParser {
    * Save tests details.
    *
    * @param fileReport the file report
+   * @param unitTestFile the test file the report points to
    */
-  private void saveTestsDetails(PhpUnitTestReport fileReport) {
-    StringBuilder details = new StringBuilder();
-    details.append("<tests-details>");
-    for (TestCase detail : fileReport.getDetails()) {
-      double time = ParsingUtils.scaleValue(detail.getTime() * MILLISECONDS, PRECISION);
-      details.append("<testcase status=\"").append(detail.getStatus()).append("\" time=\"");
-      details.append(time).append("\" name=\"").append(detail.getName().replaceAll(" ", "_")).append("\"");
-      boolean isError = TestCase.STATUS_ERROR.equals(detail.getStatus());
-      if (isError || TestCase.STATUS_FAILURE.equals(detail.getStatus())) {
-        details.append(">").append(isError ? "<error message=\"" : "<failure message=\"");
-        details.append(StringEscapeUtils.escapeXml(detail.getErrorMessage())).append("\"><![CDATA[");
-
-        details.append(StringEscapeUtils.escapeXml(detail.getStackTrace())).append("]]>");
-        details.append(isError ? "</error>" : "</failure>").append("</testcase>");
-      } else {
-        details.append("/>");
-      }
-    }
-    details.append("</tests-details>");
-    InputFile unitTestFile = getUnitTestInputFile(fileReport);
-    if (unitTestFile != null) {
-      context.saveMeasure(unitTestFile, new Measure(CoreMetrics.TEST_DATA, details.toString()));
-    }
+  private void saveTestsDetails(PhpUnitTestReport fileReport, InputFile unitTestFile) {
+    context.saveMeasure(unitTestFile, new Measure(CoreMetrics.TEST_DATA, fileReport.getDetails()));
   }
 }
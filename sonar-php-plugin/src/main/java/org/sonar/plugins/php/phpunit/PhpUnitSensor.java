@@ -21,6 +21,25 @@ package org.sonar.plugins.php.phpunit;
 
 import com.thoughtworks.xstream.XStreamException;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.Sensor;
@@ -30,6 +49,7 @@ import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
+import org.sonar.api.utils.WildcardPattern;
 import org.sonar.plugins.php.PhpPlugin;
 import org.sonar.plugins.php.api.Php;
 
@@ -40,6 +60,7 @@ public class PhpUnitSensor implements Sensor {
 
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PhpUnitSensor.class);
+  private static final String WILDCARDS = "*?";
   private final Settings settings;
 
   private final PhpUnitOverallCoverageResultParser overallCoverageParser;
@@ -68,35 +89,128 @@ public class PhpUnitSensor implements Sensor {
    */
   @Override
   public void analyse(Project project, SensorContext context) {
-    parseReport(PhpPlugin.PHPUNIT_TESTS_REPORT_PATH_KEY, parser, "test");
-    parseReport(PhpPlugin.PHPUNIT_COVERAGE_REPORT_PATH_KEY, coverageParser, "unit test coverage");
-    parseReport(PhpPlugin.PHPUNIT_IT_COVERAGE_REPORT_PATH_KEY, itCoverageParser, "integration test coverage");
-    parseReport(PhpPlugin.PHPUNIT_OVERALL_COVERAGE_REPORT_PATH_KEY, overallCoverageParser, "overall coverage");
+    Map<PhpUnitParser, List<File>> reports = new LinkedHashMap<>();
+    addReports(reports, PhpPlugin.PHPUNIT_TESTS_REPORT_PATH_KEY, parser, "test");
+    addReports(reports, PhpPlugin.PHPUNIT_COVERAGE_REPORT_PATH_KEY, coverageParser, "unit test coverage");
+    addReports(reports, PhpPlugin.PHPUNIT_IT_COVERAGE_REPORT_PATH_KEY, itCoverageParser, "integration test coverage");
+    addReports(reports, PhpPlugin.PHPUNIT_OVERALL_COVERAGE_REPORT_PATH_KEY, overallCoverageParser, "overall coverage");
+    if (reports.isEmpty()) {
+      return;
+    }
+    // at least one thread per parser, so that the streamed reports are all read at the same time
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(Runtime.getRuntime().availableProcessors(), reports.size()));
+    try {
+      readReports(reports, executor);
+    } finally {
+      executor.shutdownNow();
+    }
   }
 
+  private void addReports(Map<PhpUnitParser, List<File>> reports, String reportPathKey, PhpUnitParser parser, String msg) {
+    String[] reportPaths = settings.getStringArray(reportPathKey);
 
-  private void parseReport(String reportPathKey, PhpUnitParser parser, String msg) {
-    String reportPath = settings.getString(reportPathKey);
-
-    if (reportPath != null) {
-      File xmlFile = getIOFile(reportPath);
-
-      if (xmlFile.exists()) {
-        LOGGER.info("Analyzing PHPUnit " + msg + " report: " + reportPath + " with " + parser.toString());
-
-        try {
-          parser.parse(xmlFile);
-        } catch (XStreamException e) {
-          throw new IllegalStateException("Report file is invalid, plugin will stop.", e);
+    if (reportPaths.length > 0) {
+      List<File> xmlFiles = new ArrayList<>();
+      for (String reportPath : reportPaths) {
+        List<File> reportFiles = getIOFiles(reportPath);
+        if (reportFiles.isEmpty()) {
+          LOGGER.info("PHPUnit xml " + msg + " report not found: " + reportPath);
+        }
+        for (File reportFile : reportFiles) {
+          LOGGER.info("Analyzing PHPUnit " + msg + " report: " + reportFile.getPath() + " with " + parser.toString());
         }
-      } else {
-        LOGGER.info("PHPUnit xml " + msg + " report not found: " + reportPath);
+        xmlFiles.addAll(reportFiles);
+      }
+
+      if (!xmlFiles.isEmpty()) {
+        reports.put(parser, xmlFiles);
       }
     } else {
       LOGGER.info("No PHPUnit " + msg + " report provided (see '" + reportPathKey + "' property)");
     }
   }
 
+  /**
+   * Reads the reports of the different parsers concurrently, with the executor which is also shared by the parsers
+   * to read the shards of their reports. The measures of each parser are saved on the sensor thread, so that the
+   * sensor context is never used concurrently.
+   */
+  private static void readReports(Map<PhpUnitParser, List<File>> reports, final Executor executor) {
+    try {
+      CompletionService<PhpUnitParser.Result> completionService = new ExecutorCompletionService<>(executor);
+      for (final Map.Entry<PhpUnitParser, List<File>> entry : reports.entrySet()) {
+        completionService.submit(new Callable<PhpUnitParser.Result>() {
+          @Override
+          public PhpUnitParser.Result call() {
+            return entry.getKey().read(entry.getValue(), executor);
+          }
+        });
+      }
+      for (int i = 0; i < reports.size(); i++) {
+        completionService.take().get().save();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading PHPUnit reports", e);
+    } catch (ExecutionException e) {
+      throw propagate(e.getCause());
+    }
+  }
+
+  private static RuntimeException propagate(Throwable cause) {
+    if (cause instanceof XStreamException) {
+      return new IllegalStateException("Report file is invalid, plugin will stop.", cause);
+    }
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IllegalStateException(cause);
+  }
+
+  /**
+   * Returns the existing files a report path points to. The path may be a pattern with wildcards, for instance
+   * "build/logs/clover-*.xml", to read the reports of the shards of a test run.
+   */
+  private List<File> getIOFiles(String path) {
+    File file = getIOFile(path);
+    if (!StringUtils.containsAny(path, WILDCARDS)) {
+      return file.exists() ? Collections.singletonList(file) : Collections.<File>emptyList();
+    }
+    String pattern = file.getPath().replace(File.separatorChar, '/');
+    int directoryEnd = pattern.lastIndexOf('/', StringUtils.indexOfAny(pattern, WILDCARDS)) + 1;
+    Path directory = new File(pattern.substring(0, directoryEnd)).toPath().normalize();
+    WildcardPattern filePattern = WildcardPattern.create(pattern.substring(directoryEnd), "/");
+
+    List<File> files = new ArrayList<>();
+    if (Files.isDirectory(directory)) {
+      try {
+        files.addAll(matchingFiles(directory, filePattern));
+      } catch (IOException e) {
+        throw new IllegalStateException("Can't list PHPUnit reports matching: " + path, e);
+      }
+    }
+    Collections.sort(files);
+    return files;
+  }
+
+  private static List<File> matchingFiles(final Path directory, final WildcardPattern filePattern) throws IOException {
+    final List<File> files = new ArrayList<>();
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+        String relativePath = directory.relativize(file).toString().replace(File.separatorChar, '/');
+        if (attributes.isRegularFile() && filePattern.match(relativePath)) {
+          files.add(file.toFile());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return files;
+  }
+
   /**
    * Returns a java.io.File for the given path.
    * If path is not absolute, returns a File with module base directory as parent path.
@@ -19,25 +19,29 @@
  */
 package org.sonar.plugins.php.phpunit;
 
+import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.builder.ToStringBuilder;
+import org.sonar.api.utils.ParsingUtils;
 import org.sonar.plugins.php.phpunit.xml.TestCase;
 
-import java.util.List;
-
 /**
  * The Class PhpUnitTestReport.
  */
 public class PhpUnitTestReport {
 
+  private static final double MILLISECONDS = 1000d;
+
+  private static final int PRECISION = 1;
+
   /**
    * The class key.
    */
   private String classKey;
 
   /**
-   * A list of all test cases.
+   * The details of all test cases, serialized as they are added so that the test cases can be released.
    */
-  private List<TestCase> details;
+  private final StringBuilder details = new StringBuilder();
 
   /**
    * The numbers of errors.
@@ -69,13 +73,22 @@ public class PhpUnitTestReport {
    */
   private double time = 0;
 
+  /**
+   * Gets the class key.
+   *
+   * @return the class key
+   */
+  public String getClassKey() {
+    return classKey;
+  }
+
   /**
    * Gets the details.
    *
-   * @return the details
+   * @return the details of the test cases, as expected by the test data metric
    */
-  public List<TestCase> getDetails() {
-    return details;
+  public String getDetails() {
+    return "<tests-details>" + details + "</tests-details>";
   }
 
   /**
@@ -151,12 +164,38 @@ public class PhpUnitTestReport {
   }
 
   /**
-   * Sets the details.
+   * Adds the details of a test case.
+   *
+   * @param testCase the test case
+   */
+  public void addDetail(TestCase testCase) {
+    double testCaseTime = ParsingUtils.scaleValue(testCase.getTime() * MILLISECONDS, PRECISION);
+    details.append("<testcase status=\"").append(testCase.getStatus()).append("\" time=\"");
+    details.append(testCaseTime).append("\" name=\"").append(testCase.getName().replaceAll(" ", "_")).append("\"");
+    boolean isError = TestCase.STATUS_ERROR.equals(testCase.getStatus());
+    if (isError || TestCase.STATUS_FAILURE.equals(testCase.getStatus())) {
+      details.append(">").append(isError ? "<error message=\"" : "<failure message=\"");
+      details.append(StringEscapeUtils.escapeXml(testCase.getErrorMessage())).append("\"><![CDATA[");
+
+      details.append(StringEscapeUtils.escapeXml(testCase.getStackTrace())).append("]]>");
+      details.append(isError ? "</error>" : "</failure>").append("</testcase>");
+    } else {
+      details.append("/>");
+    }
+  }
+
+  /**
+   * Adds the results of the same class read in another report, such as the one of another shard of the test run.
    *
-   * @param details the new details
+   * @param report the report to add
    */
-  public void setDetails(List<TestCase> details) {
-    this.details = details;
+  public void add(PhpUnitTestReport report) {
+    tests += report.tests;
+    failures += report.failures;
+    errors += report.errors;
+    skipped += report.skipped;
+    time += report.time;
+    details.append(report.details);
   }
 
   /**
@@ -0,0 +1,93 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.io.File;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads the reports given for a single PHPUnit property, which are the shards of one test run when there are several
+ * of them. Shards are read in parallel: the tasks are expected to merge their results in thread-safe structures.
+ * <p>
+ * The threads are the ones of the executor shared by the parsers of the sensor. The calling thread, which may itself
+ * be a thread of this executor, reads shards too and only waits for the shards being read by other threads, never
+ * for a thread to become available: reading cannot deadlock when all the threads of the executor are busy.
+ */
+class ReportShards {
+
+  interface ReportTask {
+    void read(File report);
+  }
+
+  private ReportShards() {
+  }
+
+  static void readAll(List<File> reports, Executor executor, final ReportTask task) {
+    if (reports.size() == 1) {
+      task.read(reports.get(0));
+      return;
+    }
+    final Queue<File> pending = new ConcurrentLinkedQueue<>(reports);
+    final CountDownLatch done = new CountDownLatch(reports.size());
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    Runnable reader = new Runnable() {
+      @Override
+      public void run() {
+        for (File report = pending.poll(); report != null; report = pending.poll()) {
+          try {
+            if (failure.get() == null) {
+              task.read(report);
+            }
+          } catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            done.countDown();
+          }
+        }
+      }
+    };
+    for (int i = 1; i < reports.size(); i++) {
+      executor.execute(reader);
+    }
+    reader.run();
+    try {
+      done.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading PHPUnit reports", e);
+    }
+    if (failure.get() != null) {
+      throw propagate(failure.get());
+    }
+  }
+
+  static RuntimeException propagate(Throwable cause) {
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    throw (Error) cause;
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Result of a single report which is streamed: the report is read with the executor shared by the parsers, and the
+ * measures read so far are handed over to the sensor thread through a bounded queue, to be saved by
+ * {@link #save()}. Reading a report thus never waits for the other reports to be saved, and memory usage still does
+ * not depend on the size of the report.
+ * <p>
+ * When the report has not started to be read when the sensor thread saves it, for instance because all the threads
+ * of the executor are busy, the sensor thread reads it itself and saves the measures as soon as they are read.
+ */
+abstract class ReportStream implements PhpUnitParser.Result {
+
+  private static final int CAPACITY = 64;
+
+  private static final Runnable END = new Runnable() {
+    @Override
+    public void run() {
+      // marks the end of the report
+    }
+  };
+
+  private final BlockingQueue<Runnable> measures = new ArrayBlockingQueue<>(CAPACITY);
+  private final AtomicBoolean started = new AtomicBoolean(false);
+  private boolean readBySensorThread = false;
+  private volatile Throwable failure;
+
+  /**
+   * Reads the report, handing the measures to save over with {@link #handOver(Runnable)}.
+   */
+  protected abstract void read();
+
+  /**
+   * Starts reading the report with the executor. When the executor runs the reading on the calling thread, as a
+   * same thread executor does, the reading is left to {@link #save()} instead.
+   */
+  ReportStream start(Executor executor) {
+    final Thread caller = Thread.currentThread();
+    final AtomicBoolean submitted = new AtomicBoolean(false);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        if ((submitted.get() || Thread.currentThread() != caller) && started.compareAndSet(false, true)) {
+          readAndEnd();
+        }
+      }
+    });
+    submitted.set(true);
+    return this;
+  }
+
+  /**
+   * @param save saves measures to the sensor context, it is run by the sensor thread
+   */
+  protected void handOver(Runnable save) {
+    if (readBySensorThread) {
+      save.run();
+      return;
+    }
+    try {
+      measures.put(save);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading PHPUnit reports", e);
+    }
+  }
+
+  private void readAndEnd() {
+    try {
+      read();
+    } catch (RuntimeException | Error e) {
+      failure = e;
+    }
+    try {
+      measures.put(END);
+    } catch (InterruptedException e) {
+      // the sensor has been stopped, nothing waits for the end of the report
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void save() {
+    if (started.compareAndSet(false, true)) {
+      readBySensorThread = true;
+      read();
+      return;
+    }
+    try {
+      for (Runnable save = measures.take(); save != END; save = measures.take()) {
+        save.run();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while reading PHPUnit reports", e);
+    }
+    if (failure != null) {
+      throw ReportShards.propagate(failure);
+    }
+  }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.sonar.plugins.php.phpunit.xml.TestCase;
+
+/**
+ * Pull parser of PHPUnit junit test reports, handing each {@code <testcase>} element over as soon as it has been read,
+ * along with the test suite holding it, so that memory usage does not depend on the size of the report. The end of
+ * each test suite is handed over as well, so that the results of a test class can be released once its suite is read.
+ */
+class TestReportReader {
+
+  private static final String TEST_SUITES = "testsuites";
+  private static final String TEST_SUITE = "testsuite";
+  private static final String TEST_CASE = "testcase";
+
+  interface TestCaseHandler {
+    /**
+     * @param suiteDepth the depth of the test suite holding the test case, 1 for a top level test suite
+     */
+    void handle(TestCase testCase, String suiteName, @Nullable String parentFileName, double suiteTime, int suiteDepth);
+
+    void endSuite(int suiteDepth);
+  }
+
+  private static class Suite {
+    private final String name;
+    private final String file;
+    private final double time;
+
+    Suite(String name, @Nullable String file, double time) {
+      this.name = name;
+      this.file = file;
+      this.time = time;
+    }
+  }
+
+  private final TestCaseHandler handler;
+  private final Deque<String> elements = new ArrayDeque<>();
+  private final Deque<Suite> suites = new ArrayDeque<>();
+  private TestCase currentTestCase;
+
+  private TestReportReader(TestCaseHandler handler) {
+    this.handler = handler;
+  }
+
+  static void read(File report, TestCaseHandler handler) {
+    try (InputStream inputStream = new FileInputStream(report)) {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      XMLStreamReader reader = factory.createXMLStreamReader(inputStream);
+      try {
+        new TestReportReader(handler).read(reader);
+      } finally {
+        reader.close();
+      }
+    } catch (IOException | XMLStreamException | NumberFormatException e) {
+      throw new IllegalStateException("Can't read PhpUnit report : " + report.getAbsolutePath(), e);
+    }
+  }
+
+  private void read(XMLStreamReader reader) throws XMLStreamException {
+    while (reader.hasNext()) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        startElement(reader);
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        endElement();
+      }
+    }
+  }
+
+  private void startElement(XMLStreamReader reader) throws XMLStreamException {
+    String name = reader.getLocalName();
+    String parent = elements.peek();
+    if (parent == null && !TEST_SUITES.equals(name)) {
+      throw new XMLStreamException("Unexpected root element: " + name, reader.getLocation());
+    }
+
+    if (TEST_SUITE.equals(name) && (TEST_SUITES.equals(parent) || TEST_SUITE.equals(parent))) {
+      suites.push(new Suite(reader.getAttributeValue(null, "name"), reader.getAttributeValue(null, "file"), parseDouble(reader.getAttributeValue(null, "time"))));
+    } else if (TEST_CASE.equals(name) && TEST_SUITE.equals(parent)) {
+      currentTestCase = newTestCase(reader);
+    } else if (currentTestCase != null && TEST_CASE.equals(parent)) {
+      // the text of these elements is read at once, along with their end element
+      if (TestCase.STATUS_ERROR.equals(name)) {
+        currentTestCase.setError(reader.getElementText());
+        return;
+      } else if (TestCase.STATUS_FAILURE.equals(name)) {
+        currentTestCase.setFailure(reader.getElementText());
+        return;
+      } else if ("status".equals(name)) {
+        currentTestCase.setStatus(reader.getElementText());
+        return;
+      }
+    }
+    elements.push(name);
+  }
+
+  private static TestCase newTestCase(XMLStreamReader reader) {
+    TestCase testCase = new TestCase();
+    testCase.setName(reader.getAttributeValue(null, "name"));
+    testCase.setClassName(reader.getAttributeValue(null, "class"));
+    testCase.setFile(reader.getAttributeValue(null, "file"));
+    testCase.setLine(parseInt(reader.getAttributeValue(null, "line")));
+    testCase.setAssertions(parseInt(reader.getAttributeValue(null, "assertions")));
+    testCase.setTime(parseDouble(reader.getAttributeValue(null, "time")));
+    testCase.setErrorMessage(reader.getAttributeValue(null, "errorMessage"));
+    return testCase;
+  }
+
+  private void endElement() {
+    String name = elements.pop();
+    String parent = elements.peek();
+    if (TEST_SUITE.equals(name) && (TEST_SUITES.equals(parent) || TEST_SUITE.equals(parent))) {
+      handler.endSuite(suites.size());
+      suites.pop();
+    } else if (currentTestCase != null && TEST_CASE.equals(name) && TEST_SUITE.equals(parent)) {
+      Suite suite = suites.peek();
+      handler.handle(currentTestCase, suite.name, parentFileName(), suite.time, suites.size());
+      currentTestCase = null;
+    }
+  }
+
+  /**
+   * @return the file of the test suite enclosing the one of the current test case
+   */
+  @Nullable
+  private String parentFileName() {
+    Iterator<Suite> iterator = suites.iterator();
+    iterator.next();
+    return iterator.hasNext() ? iterator.next().file : null;
+  }
+
+  private static int parseInt(@Nullable String value) {
+    return value == null ? 0 : Integer.parseInt(value.trim());
+  }
+
+  private static double parseDouble(@Nullable String value) {
+    return value == null ? 0 : Double.parseDouble(value.trim());
+  }
+
+}
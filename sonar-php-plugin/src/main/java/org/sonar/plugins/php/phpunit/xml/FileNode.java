@@ -67,6 +67,10 @@ public class FileNode {
     return lines;
   }
 
+  public void setLines(List<LineNode> lines) {
+    this.lines = lines;
+  }
+
   /**
    * Gets the metrics.
    *
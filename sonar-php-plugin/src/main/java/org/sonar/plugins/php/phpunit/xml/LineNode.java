@@ -81,4 +81,13 @@ public class LineNode {
   public void setType(String type) {
     this.type = type;
   }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+
+  public void setNum(int num) {
+    this.num = num;
+  }
+
 }
@@ -58,4 +58,13 @@ public final class MetricsNode {
   public double getTotalStatementsCount() {
     return totalStatementsCount;
   }
+
+  public void setCoveredStatements(int coveredStatements) {
+    this.coveredStatements = coveredStatements;
+  }
+
+  public void setTotalStatementsCount(double totalStatementsCount) {
+    this.totalStatementsCount = totalStatementsCount;
+  }
+
 }
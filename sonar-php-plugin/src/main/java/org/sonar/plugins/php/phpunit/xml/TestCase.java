@@ -19,15 +19,11 @@
  */
 package org.sonar.plugins.php.phpunit.xml;
 
-import com.thoughtworks.xstream.annotations.XStreamAlias;
-import com.thoughtworks.xstream.annotations.XStreamAsAttribute;
-import com.thoughtworks.xstream.annotations.XStreamOmitField;
 import org.apache.commons.lang.StringUtils;
 
 /**
  * The Class TestCase.
  */
-@XStreamAlias("testcase")
 public final class TestCase {
 
   /**
@@ -53,62 +49,51 @@ public final class TestCase {
   /**
    * The assertions.
    */
-  @XStreamAsAttribute
   private int assertions;
 
   /**
    * The class name.
    */
-  @XStreamAsAttribute
-  @XStreamAlias("class")
   private String className;
 
   /**
    * The error message.
    */
-  @XStreamAsAttribute
   private String errorMessage;
 
   /**
    * The file.
    */
-  @XStreamAsAttribute
   private String file;
 
   /**
    * The line.
    */
-  @XStreamAsAttribute
   private int line;
 
   /**
    * The name.
    */
-  @XStreamAsAttribute
   private String name;
 
   /**
    * The status.
    */
-  @XStreamOmitField
   private String status;
 
   /**
    * The time.
    */
-  @XStreamAsAttribute
   private double time;
 
   /**
    * The error.
    */
-  @XStreamAlias("error")
   private String error;
 
   /**
    * The failure.
    */
-  @XStreamAlias("failure")
   private String failure;
 
   /**
@@ -238,6 +223,60 @@ public final class TestCase {
     this.name = name;
   }
 
+  /**
+   * Sets the class name.
+   *
+   * @param className the new class name
+   */
+  public void setClassName(final String className) {
+    this.className = className;
+  }
+
+  /**
+   * Sets the error message.
+   *
+   * @param errorMessage the new error message
+   */
+  public void setErrorMessage(final String errorMessage) {
+    this.errorMessage = errorMessage;
+  }
+
+  /**
+   * Sets the time.
+   *
+   * @param time the new time
+   */
+  public void setTime(final double time) {
+    this.time = time;
+  }
+
+  /**
+   * Sets the status, which is overridden by an error or a failure.
+   *
+   * @param status the new status
+   */
+  public void setStatus(final String status) {
+    this.status = status;
+  }
+
+  /**
+   * Sets the stack trace of the error.
+   *
+   * @param error the new error
+   */
+  public void setError(final String error) {
+    this.error = error;
+  }
+
+  /**
+   * Sets the stack trace of the failure.
+   *
+   * @param failure the new failure
+   */
+  public void setFailure(final String failure) {
+    this.failure = failure;
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -0,0 +1,256 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.php.duplications.CpdToken;
+import org.sonar.php.highlighter.SymbolHighlightingData;
+import org.sonar.php.highlighter.SyntaxHighlightingData;
+import org.sonar.php.metrics.FileMeasures;
+import org.sonar.php.metrics.MetricsVisitor;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.visitors.FileContent;
+import org.sonar.plugins.php.api.visitors.PHPCheck;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalysisCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File directory;
+  private final InputFile inputFile = new DefaultInputFile("file.php");
+  private final FileContent content = new FileContent("<?php echo 1;\n");
+
+  @Before
+  public void setUp() throws Exception {
+    directory = temporaryFolder.newFolder();
+  }
+
+  @Test
+  public void should_restore_written_result() {
+    new AnalysisCache(directory, "fingerprint").write(result(), content);
+
+    FileAnalysisResult restored = new AnalysisCache(directory, "fingerprint").read(inputFile, content);
+
+    assertThat(restored).isNotNull();
+    assertThat(restored.inputFile()).isSameAs(inputFile);
+
+    IssueData issue = restored.issues().get(0);
+    assertThat(issue.ruleKey()).isEqualTo(RuleKey.of("php", "S100"));
+    assertThat(issue.message()).isEqualTo("message");
+    assertThat(issue.line()).isEqualTo(1);
+    assertThat(issue.cost()).isEqualTo(2.5);
+    assertThat(restored.issues().get(1).ruleKey()).isNull();
+    assertThat(restored.issues().get(1).cost()).isNull();
+
+    assertThat(restored.syntaxHighlighting().toString()).isEqualTo(result().syntaxHighlighting().toString());
+    assertThat(restored.symbolHighlighting().toString()).isEqualTo(result().symbolHighlighting().toString());
+
+    FileMeasures measures = restored.measures();
+    FileMeasures expected = result().measures();
+    assertThat(measures.getLinesNumber()).isEqualTo(2);
+    assertThat(measures.getLinesOfCodeNumber()).isEqualTo(1);
+    assertThat(measures.getCommentedOutCodeLinesNumber()).isEqualTo(1);
+    assertThat(measures.getFileComplexity()).isEqualTo(4);
+    assertThat(measures.getClassComplexity()).isEqualTo(3);
+    assertThat(measures.getFunctionComplexity()).isEqualTo(3);
+    assertThat(measures.getNoSonarLines()).containsOnly(2);
+    assertThat(measures.getFunctionComplexityDistribution().build(true).getData())
+      .isEqualTo(expected.getFunctionComplexityDistribution().build(true).getData());
+    assertThat(measures.getFileComplexityDistribution().build(true).getData())
+      .isEqualTo(expected.getFileComplexityDistribution().build(true).getData());
+
+    assertThat(restored.fileLinesContext().getIntValue("ncloc_data", 1)).isEqualTo(1);
+    assertThat(restored.fileLinesContext().getStringValue("other", 2)).isEqualTo("value");
+    assertThat(restored.fileLinesContext().isSaved()).isTrue();
+    assertThat(restored.cpdTokens()).hasSize(1);
+    assertThat(restored.cpdTokens().get(0).value()).isEqualTo("$CHARS");
+    assertThat(restored.cpdTokens().get(0).line()).isEqualTo(3);
+  }
+
+  @Test
+  public void should_miss_when_content_or_configuration_changed() {
+    new AnalysisCache(directory, "fingerprint").write(result(), content);
+
+    assertThat(new AnalysisCache(directory, "fingerprint").read(inputFile, new FileContent("<?php echo 2;\n"))).isNull();
+    assertThat(new AnalysisCache(directory, "other fingerprint").read(inputFile, content)).isNull();
+    assertThat(new AnalysisCache(directory, "fingerprint").read(new DefaultInputFile("other.php"), content)).isNull();
+  }
+
+  @Test
+  public void should_ignore_invalid_entry() throws Exception {
+    new AnalysisCache(directory, "fingerprint").write(result(), content);
+    for (File entry : FileUtils.listFiles(directory, null, true)) {
+      FileUtils.write(entry, "corrupted");
+    }
+
+    assertThat(new AnalysisCache(directory, "fingerprint").read(inputFile, content)).isNull();
+  }
+
+  @Test
+  public void should_purge_unused_entries() {
+    new AnalysisCache(directory, "fingerprint").write(result(), content);
+    assertThat(FileUtils.listFiles(directory, null, true)).hasSize(1);
+
+    AnalysisCache cache = new AnalysisCache(directory, "fingerprint");
+    cache.read(inputFile, content);
+    cache.purgeUnusedEntries();
+    assertThat(FileUtils.listFiles(directory, null, true)).hasSize(1);
+
+    new AnalysisCache(directory, "fingerprint").purgeUnusedEntries();
+    assertThat(FileUtils.listFiles(directory, null, true)).isEmpty();
+  }
+
+  @Test
+  public void plugin_version_should_be_available() {
+    assertThat(AnalysisCache.pluginVersion()).isNotEmpty();
+  }
+
+  @Test
+  public void fingerprint_should_change_with_the_code_of_the_checks() throws Exception {
+    File jar = new File(temporaryFolder.newFolder(), "custom-rules.jar");
+    writeJar(jar, "1");
+    String fingerprint = fingerprint(jar);
+    assertThat(fingerprint(jar)).isEqualTo(fingerprint);
+
+    // new build of the plugin providing the check, with the same version
+    writeJar(jar, "2");
+    assertThat(fingerprint(jar)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void code_digest_of_classes_not_loaded_from_a_jar() {
+    String digest = AnalysisCache.codeDigest(CustomCheck.class, new HashMap<File, String>());
+    assertThat(AnalysisCache.codeDigest(CustomCheck.class, new HashMap<File, String>())).isEqualTo(digest);
+    assertThat(AnalysisCache.codeDigest(OtherCustomCheck.class, new HashMap<File, String>())).isNotEqualTo(digest);
+  }
+
+  private static String fingerprint(File jar) throws Exception {
+    try (URLClassLoader classLoader = new ChildFirstClassLoader(jar, CustomCheck.class.getName())) {
+      PHPCheck check = (PHPCheck) classLoader.loadClass(CustomCheck.class.getName()).newInstance();
+      assertThat(check.getClass()).isNotSameAs(CustomCheck.class);
+      PHPChecks checks = mock(PHPChecks.class);
+      when(checks.all()).thenReturn(ImmutableList.of(check));
+      return AnalysisCache.fingerprint("1.0", Charsets.UTF_8, checks);
+    }
+  }
+
+  private static void writeJar(File jar, String build) throws IOException {
+    String classFile = CustomCheck.class.getName().replace('.', '/') + ".class";
+    try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+      InputStream in = CustomCheck.class.getResourceAsStream("/" + classFile)) {
+      out.putNextEntry(new JarEntry(classFile));
+      ByteStreams.copy(in, out);
+      out.putNextEntry(new JarEntry("build.properties"));
+      out.write(("build=" + build).getBytes(Charsets.UTF_8));
+    }
+  }
+
+  /**
+   * Loads the given class from the jar even though it is available from the parent class loader.
+   */
+  private static class ChildFirstClassLoader extends URLClassLoader {
+
+    private final String className;
+
+    ChildFirstClassLoader(File jar, String className) throws IOException {
+      super(new URL[] {jar.toURI().toURL()}, AnalysisCacheTest.class.getClassLoader());
+      this.className = className;
+    }
+
+    @Override
+    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (name.equals(className)) {
+        Class<?> loaded = findLoadedClass(name);
+        return loaded == null ? findClass(name) : loaded;
+      }
+      return super.loadClass(name, resolve);
+    }
+
+  }
+
+  public static class CustomCheck extends PHPVisitorCheck {
+  }
+
+  public static class OtherCustomCheck extends PHPVisitorCheck {
+
+    @Override
+    public void visitCompilationUnit(CompilationUnitTree tree) {
+      context().newIssue(this, "message");
+    }
+
+  }
+
+  private FileAnalysisResult result() {
+    SymbolHighlightingData symbol = new SymbolHighlightingData(6, 10);
+    symbol.addReference(12);
+
+    FileMeasures measures = MetricsVisitor.newFileMeasures();
+    measures.setLinesNumber(2);
+    measures.setLinesOfCodeNumber(1);
+    measures.setCommentedOutCodeLinesNumber(1);
+    measures.setFileComplexity(4);
+    measures.addClassComplexity(3);
+    measures.addFunctionComplexity(1);
+    measures.addFunctionComplexity(2);
+    measures.setNoSonarLines(ImmutableSet.of(2));
+
+    BufferedFileLinesContext fileLinesContext = new BufferedFileLinesContext();
+    fileLinesContext.setIntValue("ncloc_data", 1, 1);
+    fileLinesContext.setStringValue("other", 2, "value");
+    fileLinesContext.save();
+
+    return new FileAnalysisResult(
+      inputFile,
+      ImmutableList.of(new IssueData(RuleKey.of("php", "S100"), "message", 1, 2.5), new IssueData(null, "file issue", 0, null)),
+      ImmutableList.of(new SyntaxHighlightingData(0, 5, "k")),
+      ImmutableList.of(symbol),
+      measures,
+      fileLinesContext,
+      ImmutableList.of(new CpdToken("$CHARS", 3)));
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import org.junit.Test;
+import org.sonar.api.measures.FileLinesContext;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class BufferedFileLinesContextTest {
+
+  @Test
+  public void should_record_values() {
+    BufferedFileLinesContext context = new BufferedFileLinesContext();
+    context.setIntValue("metric", 1, 42);
+    context.setStringValue("metric", 2, "value");
+
+    assertThat(context.getIntValue("metric", 1)).isEqualTo(42);
+    assertThat(context.getIntValue("metric", 2)).isNull();
+    assertThat(context.getStringValue("metric", 2)).isEqualTo("value");
+  }
+
+  @Test
+  public void should_replay_values() {
+    BufferedFileLinesContext context = new BufferedFileLinesContext();
+    context.setIntValue("metric", 1, 42);
+    context.setStringValue("metric", 2, "value");
+    context.save();
+
+    FileLinesContext target = mock(FileLinesContext.class);
+    context.replayTo(target);
+
+    verify(target).setIntValue("metric", 1, 42);
+    verify(target).setStringValue("metric", 2, "value");
+    verify(target).save();
+  }
+
+  @Test
+  public void should_not_save_unsaved_values() {
+    BufferedFileLinesContext context = new BufferedFileLinesContext();
+    context.setIntValue("metric", 1, 42);
+
+    FileLinesContext target = mock(FileLinesContext.class);
+    context.replayTo(target);
+
+    verify(target).setIntValue("metric", 1, 42);
+    verify(target, never()).save();
+  }
+
+}
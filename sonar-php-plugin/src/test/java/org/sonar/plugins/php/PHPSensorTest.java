@@ -19,12 +19,16 @@
  */
 package org.sonar.plugins.php;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.sonar.sslr.api.RecognitionException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
+import org.sonar.api.batch.Phase;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
@@ -32,20 +36,24 @@ import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.component.ResourcePerspectives;
+import org.sonar.api.config.Settings;
 import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.resources.Project;
 import org.sonar.api.resources.Resource;
+import org.sonar.api.source.Symbolizable;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.php.PHPAnalyzer;
+import org.sonar.php.profiling.AnalysisProfiler;
 import org.sonar.plugins.php.api.Php;
 import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.visitors.PHPCheck;
 import org.sonar.plugins.php.api.visitors.PHPCustomRulesDefinition;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.duplications.CpdTokenStore;
 import org.sonar.squidbridge.ProgressReport;
 import org.sonar.squidbridge.api.AnalysisException;
 import org.sonar.test.TestUtils;
@@ -54,10 +62,13 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 
@@ -65,6 +76,12 @@ public class PHPSensorTest {
 
   private final DefaultFileSystem fileSystem = new DefaultFileSystem();
 
+  private final Settings settings = new Settings();
+
+  private final CpdTokenStore cpdTokenStore = new CpdTokenStore(settings, fileSystem);
+
+  private final ResourcePerspectives resourcePerspectives = mock(ResourcePerspectives.class);
+
   private PHPSensor sensor;
 
   private ProgressReport progressReport = mock(ProgressReport.class);
@@ -72,6 +89,9 @@ public class PHPSensorTest {
   @org.junit.Rule
   public final ExpectedException thrown = ExpectedException.none();
 
+  @org.junit.Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private final PHPCustomRulesDefinition[] CUSTOM_RULES = {new PHPCustomRulesDefinition() {
     @Override
     public String repositoryName() {
@@ -110,13 +130,13 @@ public class PHPSensorTest {
     when(fileLinesContextFactory.createFor(any(InputFile.class))).thenReturn(fileLinesContext);
 
     CheckFactory checkFactory = new CheckFactory(mock(ActiveRules.class));
-    sensor = new PHPSensor(mock(ResourcePerspectives.class), fileSystem, fileLinesContextFactory, checkFactory, new NoSonarFilter(), CUSTOM_RULES);
+    sensor = new PHPSensor(resourcePerspectives, fileSystem, settings, fileLinesContextFactory, checkFactory, new NoSonarFilter(), cpdTokenStore, CUSTOM_RULES);
   }
 
   @Test
   public void shouldExecuteOnProject() {
     DefaultFileSystem localFS = new DefaultFileSystem();
-    PHPSensor localSensor = new PHPSensor(mock(ResourcePerspectives.class), localFS, null, new CheckFactory(mock(ActiveRules.class)), new NoSonarFilter());
+    PHPSensor localSensor = new PHPSensor(mock(ResourcePerspectives.class), localFS, new Settings(), null, new CheckFactory(mock(ActiveRules.class)), new NoSonarFilter(), new CpdTokenStore(new Settings(), localFS));
 
     // empty file system
     assertThat(localSensor.shouldExecuteOnProject(null), is(false));
@@ -125,6 +145,11 @@ public class PHPSensorTest {
     assertThat(localSensor.shouldExecuteOnProject(null), is(true));
   }
 
+  @Test
+  public void runs_before_the_cpd_sensor() {
+    assertThat(PHPSensor.class.getAnnotation(Phase.class).name(), is(Phase.Name.PRE));
+  }
+
   @Test
   public void analyse() {
     SensorContext context = mock(SensorContext.class);
@@ -135,11 +160,97 @@ public class PHPSensorTest {
     verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMPLEXITY_IN_CLASSES), Mockito.eq(7.0));
     verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMPLEXITY_IN_FUNCTIONS), Mockito.eq(10.0));
     verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMMENT_LINES), Mockito.eq(7.0));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMMENTED_OUT_CODE_LINES), Mockito.eq(0.0));
     verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMPLEXITY), Mockito.eq(12.0));
 
     verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.CLASSES), Mockito.eq(1.0));
     verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.STATEMENTS), Mockito.eq(16.0));
     verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.FUNCTIONS), Mockito.eq(3.0));
+
+    assertThat(cpdTokenStore.remove(TestUtils.getResource("PHPSquidSensor.php")).isEmpty(), is(false));
+  }
+
+  @Test
+  public void analyse_in_parallel() {
+    settings.setProperty(PhpPlugin.ANALYSIS_THREADS_KEY, 2);
+    SensorContext context = mock(SensorContext.class);
+    fileSystem.add(inputFile("parseError.php"));
+    analyseSingleFile(context, "PHPSquidSensor.php");
+
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.LINES), Mockito.eq(55.0));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.NCLOC), Mockito.eq(32.0));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMPLEXITY), Mockito.eq(12.0));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.FUNCTIONS), Mockito.eq(3.0));
+  }
+
+  @Test
+  public void analyse_with_cache() throws Exception {
+    settings.setProperty(PhpPlugin.ANALYSIS_CACHE_KEY, true);
+    fileSystem.setWorkDir(temporaryFolder.newFolder());
+    analyseSingleFile(mock(SensorContext.class), "PHPSquidSensor.php");
+
+    SensorContext context = mock(SensorContext.class);
+    analyseSingleFile(context, "PHPSquidSensor.php");
+
+    assertThat(fileSystem.workDir().list(), is(new String[] {"php-analysis-cache"}));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.LINES), Mockito.eq(55.0));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.NCLOC), Mockito.eq(32.0));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMPLEXITY_IN_FUNCTIONS), Mockito.eq(10.0));
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.COMPLEXITY), Mockito.eq(12.0));
+  }
+
+  @Test
+  public void analyse_with_profile() throws Exception {
+    File output = new File(temporaryFolder.newFolder(), "profile.json");
+    settings.setProperty(PhpPlugin.ANALYSIS_PROFILE_KEY, true);
+    settings.setProperty(PhpPlugin.ANALYSIS_PROFILE_OUTPUT_KEY, output.getAbsolutePath());
+    analyseSingleFile(mock(SensorContext.class), "PHPSquidSensor.php");
+
+    String profile = Files.toString(output, Charsets.UTF_8);
+    assertThat(profile.startsWith("[\n  {\"name\": "), is(true));
+    assertThat(profile.contains("\"name\": \"" + AnalysisProfiler.PARSING + "\", \"calls\": 1,"), is(true));
+    assertThat(profile.contains("\"name\": \"" + AnalysisProfiler.METRICS + "\", \"calls\": 1,"), is(true));
+  }
+
+  @Test
+  public void skip_files_exceeding_size_budget() throws Exception {
+    settings.setProperty(PhpPlugin.ANALYSIS_MAX_FILE_SIZE_KEY, 1);
+    fileSystem.setWorkDir(temporaryFolder.newFolder());
+    SensorContext context = mock(SensorContext.class);
+    analyseSingleFile(context, "PHPSquidSensor.php");
+
+    verify(context, Mockito.never()).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.LINES), Mockito.anyDouble());
+    File report = new File(fileSystem.workDir(), "php-slow-files.txt");
+    assertThat(Files.readLines(report, Charsets.UTF_8).get(2), is("PHPSquidSensor.php\tsize\t1647\t0"));
+
+    settings.setProperty(PhpPlugin.ANALYSIS_MAX_FILE_SIZE_KEY, 0);
+    settings.setProperty(PhpPlugin.ANALYSIS_EXCLUDE_SLOW_FILES_KEY, true);
+    context = mock(SensorContext.class);
+    analyseSingleFile(context, "PHPSquidSensor.php");
+    verify(context, Mockito.never()).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.LINES), Mockito.anyDouble());
+    assertThat(report.exists(), is(true));
+
+    settings.setProperty(PhpPlugin.ANALYSIS_EXCLUDE_SLOW_FILES_KEY, false);
+    settings.setProperty(PhpPlugin.ANALYSIS_FILE_TIMEOUT_KEY, 60);
+    context = mock(SensorContext.class);
+    analyseSingleFile(context, "PHPSquidSensor.php");
+    verify(context).saveMeasure(Mockito.any(InputFile.class), Mockito.eq(CoreMetrics.LINES), Mockito.eq(55.0));
+    assertThat(report.exists(), is(false));
+  }
+
+  @Test
+  public void exception_in_parallel_analysis_should_report_file_name() throws Exception {
+    thrown.expect(AnalysisException.class);
+    thrown.expectMessage("parseError.php");
+    DefaultInputFile missingFile = new DefaultInputFile("parseError.php")
+      .setAbsolutePath(new File("missing/parseError.php").getAbsolutePath())
+      .setType(InputFile.Type.MAIN)
+      .setLanguage(Php.KEY);
+    try {
+      sensor.analyseFilesInParallel(ImmutableList.<InputFile>of(missingFile), 2, progressReport);
+    } finally {
+      verify(progressReport).cancel();
+    }
   }
 
   @Test
@@ -165,6 +276,26 @@ public class PHPSensorTest {
       .setLanguage(Php.KEY);
   }
 
+  @Test
+  public void symbol_table_only_built_for_saved_symbol_highlighting() throws Exception {
+    SensorContext context = mock(SensorContext.class);
+    when(context.getResource(any(InputFile.class))).thenReturn(mock(Resource.class));
+    // no file: sets the context of the sensor
+    sensor.analyse(new Project(""), context);
+    InputFile inputFile = inputFile("PHPSquidSensor.php");
+
+    PHPAnalyzer phpAnalyzer = spy(new PHPAnalyzer(StandardCharsets.UTF_8, ImmutableList.<PHPCheck>of()));
+    sensor.analyseFiles(phpAnalyzer, ImmutableList.of(inputFile), progressReport);
+    verify(phpAnalyzer, never()).getSymbolHighlighting();
+
+    Symbolizable symbolizable = mock(Symbolizable.class);
+    when(symbolizable.newSymbolTableBuilder()).thenReturn(mock(Symbolizable.SymbolTableBuilder.class));
+    when(resourcePerspectives.as(Symbolizable.class, inputFile)).thenReturn(symbolizable);
+    sensor.analyseFiles(phpAnalyzer, ImmutableList.of(inputFile), progressReport);
+    verify(phpAnalyzer).getSymbolHighlighting();
+    verify(symbolizable).setSymbolTable(any(Symbolizable.SymbolTable.class));
+  }
+
   @Test
   public void progress_report_should_be_stopped() throws Exception {
     PHPAnalyzer phpAnalyzer = new PHPAnalyzer(StandardCharsets.UTF_8, ImmutableList.<PHPCheck>of());
@@ -0,0 +1,111 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.php.utils.AnalysisInterruptedException;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SlowFileDetectorTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void size_budget() throws Exception {
+    File report = new File(temporaryFolder.newFolder(), "report.txt");
+    SlowFileDetector detector = new SlowFileDetector(10, 0, report, false);
+    assertThat(detector.accept(inputFile("small.php", "<?php"))).isTrue();
+    assertThat(detector.accept(inputFile("large.php", "<?php echo 1;"))).isFalse();
+    detector.close();
+
+    assertThat(Files.readLines(report, Charsets.UTF_8)).hasSize(3);
+    assertThat(Files.readLines(report, Charsets.UTF_8).get(2)).isEqualTo("large.php\tsize\t13\t0");
+  }
+
+  @Test
+  public void exclude_reported_files() throws Exception {
+    File report = new File(temporaryFolder.newFolder(), "report.txt");
+    Files.write("# comment\nslow.php\ttime\t42\t1234\n\n", report, Charsets.UTF_8);
+
+    SlowFileDetector detector = new SlowFileDetector(0, 0, report, true);
+    assertThat(detector.accept(inputFile("slow.php", "<?php"))).isFalse();
+    assertThat(detector.accept(inputFile("other.php", "<?php"))).isTrue();
+    detector.close();
+    // excluded files are kept in the report, so that they are also excluded by the next analysis
+    assertThat(Files.readLines(report, Charsets.UTF_8).get(2)).isEqualTo("slow.php\ttime\t42\t1234");
+
+    detector = new SlowFileDetector(0, 0, report, false);
+    assertThat(detector.accept(inputFile("slow.php", "<?php"))).isTrue();
+    detector.close();
+    assertThat(report.exists()).isFalse();
+  }
+
+  @Test
+  public void time_budget() throws Exception {
+    File report = new File(temporaryFolder.newFolder(), "report.txt");
+    SlowFileDetector detector = new SlowFileDetector(0, 10, report, false);
+    InputFile inputFile = inputFile("slow.php", "<?php");
+
+    SlowFileDetector.Watch watch = detector.startWatch();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    try {
+      while (System.nanoTime() < deadline) {
+        AnalysisInterruptedException.throwIfInterrupted();
+      }
+    } catch (AnalysisInterruptedException e) {
+      // expected
+    }
+    assertThat(watch.stop()).isTrue();
+    assertThat(watch.stop()).isTrue();
+    assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    assertThat(watch.elapsedMillis()).isGreaterThanOrEqualTo(10);
+
+    detector.timedOut(inputFile, watch);
+    detector.close();
+    assertThat(Files.readLines(report, Charsets.UTF_8).get(2)).startsWith("slow.php\ttime\t5\t");
+  }
+
+  @Test
+  public void watch_stopped_before_time_budget() throws Exception {
+    SlowFileDetector detector = new SlowFileDetector(0, TimeUnit.MINUTES.toMillis(1), new File(temporaryFolder.newFolder(), "report.txt"), false);
+    SlowFileDetector.Watch watch = detector.startWatch();
+    assertThat(watch.stop()).isFalse();
+    assertThat(Thread.currentThread().isInterrupted()).isFalse();
+    detector.close();
+  }
+
+  private InputFile inputFile(String name, String content) throws Exception {
+    File file = new File(temporaryFolder.getRoot(), name);
+    Files.write(content, file, Charsets.UTF_8);
+    return new DefaultInputFile(name).setAbsolutePath(file.getAbsolutePath());
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.duplications;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.util.List;
+import org.junit.Test;
+import org.sonar.api.CoreProperties;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.Settings;
+import org.sonar.php.duplications.CpdToken;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class CpdTokenStoreTest {
+
+  private static final List<CpdToken> TOKENS = ImmutableList.of(new CpdToken("echo", 1));
+
+  private final Settings settings = new Settings();
+
+  @Test
+  public void put_and_remove() throws Exception {
+    CpdTokenStore store = new CpdTokenStore(settings, new DefaultFileSystem());
+    InputFile file = inputFile("src/file.php");
+    store.put(file, TOKENS);
+
+    assertThat(store.remove(file.file())).isEqualTo(TOKENS);
+    assertThat(store.remove(file.file())).isNull();
+  }
+
+  @Test
+  public void cpd_skipped() throws Exception {
+    settings.setProperty(CoreProperties.CPD_SKIP_PROPERTY, true);
+    assertThat(stored("src/file.php")).isFalse();
+
+    settings.setProperty("sonar.cpd.php.skip", false);
+    assertThat(stored("src/file.php")).isTrue();
+
+    settings.setProperty(CoreProperties.CPD_SKIP_PROPERTY, false);
+    settings.setProperty("sonar.cpd.php.skip", true);
+    assertThat(stored("src/file.php")).isFalse();
+  }
+
+  @Test
+  public void excluded_files() throws Exception {
+    settings.setProperty(CoreProperties.CPD_EXCLUSIONS, "**/generated/**,**/*Test.php");
+    assertThat(stored("src/file.php")).isTrue();
+    assertThat(stored("src/generated/file.php")).isFalse();
+    assertThat(stored("src/FileTest.php")).isFalse();
+  }
+
+  private boolean stored(String relativePath) {
+    CpdTokenStore store = new CpdTokenStore(settings, new DefaultFileSystem());
+    InputFile file = inputFile(relativePath);
+    store.put(file, TOKENS);
+    return store.remove(file.file()) != null;
+  }
+
+  private static InputFile inputFile(String relativePath) {
+    return new DefaultInputFile(relativePath).setAbsolutePath(new File(relativePath).getAbsolutePath());
+  }
+
+}
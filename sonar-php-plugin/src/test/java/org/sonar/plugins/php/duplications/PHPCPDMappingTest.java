@@ -20,28 +20,46 @@
 package org.sonar.plugins.php.duplications;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import net.sourceforge.pmd.cpd.SourceCode;
+import net.sourceforge.pmd.cpd.TokenEntry;
 import net.sourceforge.pmd.cpd.Tokenizer;
 import net.sourceforge.pmd.cpd.Tokens;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.Settings;
 import org.sonar.api.resources.Project;
+import org.sonar.php.duplications.CpdToken;
+import org.sonar.php.duplications.CpdVisitor;
+import org.sonar.php.parser.PHPParserBuilder;
 import org.sonar.test.TestUtils;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 public class PHPCPDMappingTest {
 
   private static final String UTF_8 = StandardCharsets.UTF_8.displayName();
 
+  private final DefaultFileSystem fs = new DefaultFileSystem();
+
+  private final CpdTokenStore cpdTokenStore = new CpdTokenStore(new Settings(), fs);
+
   private Tokenizer tokenizer;
 
   @Rule
@@ -49,11 +67,10 @@ public class PHPCPDMappingTest {
 
   @Before
   public void test() throws Exception {
-    FileSystem fs = mock(FileSystem.class);
-    when(fs.encoding()).thenReturn(Charsets.UTF_8);
+    fs.setEncoding(Charsets.UTF_8);
     Project project = mock(Project.class);
 
-    PhpCPDMapping phpcpdMapping = new PhpCPDMapping(null, project, fs);
+    PhpCPDMapping phpcpdMapping = new PhpCPDMapping(null, project, fs, cpdTokenStore);
     tokenizer = phpcpdMapping.getTokenizer();
   }
 
@@ -67,6 +84,44 @@ public class PHPCPDMappingTest {
     assertThat(tokens.size(), is(33));
   }
 
+  @Test
+  public void tokens_of_analysed_file() throws Exception {
+    File file = TestUtils.getResource("org/sonar/plugins/php/duplications/SmallFile.php");
+    cpdTokenStore.put(inputFile(file), ImmutableList.of(new CpdToken("echo", 20), new CpdToken("$CHARS", 20), new CpdToken(";", 24)));
+    SourceCode source = new SourceCode(new SourceCode.FileCodeLoader(file, UTF_8));
+    Tokens tokens = new Tokens();
+    tokenizer.tokenize(source, tokens);
+
+    assertThat(tokens.size(), is(4));
+    assertThat(tokens.getTokens().get(1).getValue(), is("$CHARS"));
+    assertThat(tokens.getTokens().get(1).getBeginLine(), is(20));
+    assertThat(cpdTokenStore.remove(file), is(nullValue()));
+  }
+
+  /**
+   * The tokens of the syntax tree are the tokens of the grammar, which differ from the lexed ones.
+   */
+  @Test
+  public void tokens_of_syntax_tree_compared_to_lexed_tokens() throws Exception {
+    File file = TestUtils.getResource("org/sonar/plugins/php/duplications/TokenBoundaries.php");
+    List<String> lexed = values(file);
+    cpdTokenStore.put(inputFile(file), CpdVisitor.getTokens(PHPParserBuilder.createParser(Charsets.UTF_8).parse(file)));
+    List<String> fromTree = values(file);
+
+    // use statements are left out in both cases, and so is the opening tag of the file in the tokens of the syntax tree
+    assertThat(lexed, is(Arrays.asList(
+      "<", "?", "php", "$", "a", "=", "$NUMBER", "+", "$", "b", "-", ">", "c", "(", "$CHARS", ")", "=", "=", "$NUMBER", ";",
+      "?", ">", "<", "p", ">", "html", "<", "/", "p", ">", "<", "?", "php", "f", "(", ")", ";", "?", ">", "")));
+    // variables and operators are single tokens, signs are not part of numbers, and inline HTML is a single token
+    // hashing all its text, including the tags around it
+    assertThat(fromTree.get(14), startsWith(CpdVisitor.INLINE_HTML_PREFIX));
+    assertThat(fromTree.get(19), startsWith(CpdVisitor.INLINE_HTML_PREFIX));
+    assertThat(fromTree.get(19), not(fromTree.get(14)));
+    assertThat(fromTree, is(Arrays.asList(
+      "$a", "=", "-", "$NUMBER", "+", "$b", "->", "c", "(", "$CHARS", ")", "==", "$NUMBER", ";",
+      fromTree.get(14), "f", "(", ")", ";", fromTree.get(19), "")));
+  }
+
   @Test
   public void unknown_file() throws Exception {
     SourceCode source = new SourceCode(new SourceCode.FileCodeLoader(new File("xxx"), UTF_8));
@@ -74,4 +129,18 @@ public class PHPCPDMappingTest {
     tokenizer.tokenize(source, new Tokens());
   }
 
+  private List<String> values(File file) throws IOException {
+    Tokens tokens = new Tokens();
+    tokenizer.tokenize(new SourceCode(new SourceCode.FileCodeLoader(file, UTF_8)), tokens);
+    List<String> values = new ArrayList<>();
+    for (TokenEntry token : tokens.getTokens()) {
+      values.add(token.getValue());
+    }
+    return values;
+  }
+
+  private static InputFile inputFile(File file) {
+    return new DefaultInputFile(file.getName()).setAbsolutePath(file.getAbsolutePath());
+  }
+
 }
@@ -0,0 +1,105 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.io.File;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultFileSystem;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.plugins.php.api.Php;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class InputFileIndexTest {
+
+  private final File baseDir = new File("src/test/resources/org/sonar/plugins/php/phpunit").getAbsoluteFile();
+  private DefaultInputFile mainFile;
+  private DefaultInputFile nestedFile;
+  private DefaultInputFile testFile;
+  private DefaultInputFile otherFile;
+  private InputFileIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    DefaultFileSystem fileSystem = new DefaultFileSystem();
+    fileSystem.setBaseDir(baseDir);
+    mainFile = addFile(fileSystem, "src/Foo.php", InputFile.Type.MAIN, Php.KEY);
+    nestedFile = addFile(fileSystem, "lib/src/Foo.php", InputFile.Type.MAIN, Php.KEY);
+    testFile = addFile(fileSystem, "tests/FooTest.php", InputFile.Type.TEST, Php.KEY);
+    otherFile = addFile(fileSystem, "src/Bar.js", InputFile.Type.MAIN, "js");
+    index = new InputFileIndex(fileSystem);
+  }
+
+  @Test
+  public void absolute_path() throws Exception {
+    assertThat(index.inputFile(mainFile.absolutePath())).isSameAs(mainFile);
+    assertThat(index.inputFile(new File(baseDir, "src/../src/Bar.js").getPath())).isSameAs(otherFile);
+  }
+
+  @Test
+  public void relative_path() throws Exception {
+    assertThat(index.inputFile("src/Foo.php")).isSameAs(mainFile);
+    assertThat(index.inputFile("./lib/src/Foo.php")).isSameAs(nestedFile);
+  }
+
+  @Test
+  public void path_suffix() throws Exception {
+    assertThat(index.inputFile("/build/workspace/src/Foo.php")).isSameAs(mainFile);
+    assertThat(index.inputFile("/build/workspace/tests/FooTest.php")).isSameAs(testFile);
+    assertThat(index.inputFile("/build/workspace/othersrc/Foo.php")).isNull();
+    assertThat(index.inputFile("/build/workspace/src/Unknown.php")).isNull();
+  }
+
+  @Test
+  public void path_suffix_not_resolved() throws Exception {
+    // ends with both src/Foo.php and lib/src/Foo.php
+    assertThat(index.inputFile("/build/workspace/lib/src/Foo.php")).isNull();
+    // file of a dependency
+    assertThat(index.inputFile("/build/workspace/vendor/acme/src/Foo.php")).isNull();
+    assertThat(index.inputFile("/build/workspace/vendor/tests/FooTest.php")).isNull();
+    // file of the module which is not analysed
+    assertThat(index.inputFile(new File(baseDir, "excluded/src/Foo.php").getPath())).isNull();
+  }
+
+  @Test
+  public void php_file_of_type() throws Exception {
+    assertThat(index.phpFile("tests/FooTest.php", InputFile.Type.TEST)).isSameAs(testFile);
+    assertThat(index.phpFile("/build/workspace/tests/FooTest.php", InputFile.Type.TEST)).isSameAs(testFile);
+    assertThat(index.phpFile("src/Foo.php", InputFile.Type.TEST)).isNull();
+    assertThat(index.phpFile("src/Bar.js", InputFile.Type.MAIN)).isNull();
+  }
+
+  @Test
+  public void main_php_files() throws Exception {
+    assertThat(index.mainPhpFiles()).containsOnly(mainFile, nestedFile);
+  }
+
+  private DefaultInputFile addFile(DefaultFileSystem fileSystem, String relativePath, InputFile.Type type, String language) {
+    DefaultInputFile inputFile = new DefaultInputFile(relativePath)
+      .setAbsolutePath(new File(baseDir, relativePath).getAbsolutePath())
+      .setType(type)
+      .setLanguage(language);
+    fileSystem.add(inputFile);
+    return inputFile;
+  }
+
+}
@@ -21,7 +21,9 @@ package org.sonar.plugins.php.phpunit;
 
 import com.google.common.base.Charsets;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
+import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -33,10 +35,12 @@ import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.config.Settings;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Measure;
 import org.sonar.api.resources.Resource;
 import org.sonar.plugins.php.MockUtils;
+import org.sonar.plugins.php.PhpPlugin;
 import org.sonar.plugins.php.api.Php;
 import org.sonar.test.TestUtils;
 
@@ -46,6 +50,7 @@ import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.sonar.api.measures.CoreMetrics.LINES_TO_COVER;
 import static org.sonar.api.measures.CoreMetrics.UNCOVERED_LINES;
@@ -113,6 +118,96 @@ public class PhpUnitCoverageResultParserTest {
     verify(context, atLeastOnce()).saveMeasure(any(Resource.class), eq(CoreMetrics.UNCOVERED_LINES), eq(2.));
   }
 
+  @Test
+  public void shouldGenerateCoverageMeasuresWithLegacyParser() throws Exception {
+    Settings settings = new Settings();
+    settings.setProperty(PhpPlugin.PHPUNIT_COVERAGE_LEGACY_PARSER_KEY, true);
+    parser = new PhpUnitCoverageResultParser(context, settings, new InputFileIndex(fileSystem));
+    parser.parse(getReportsWithAbsolutePath("phpunit.coverage.xml"));
+
+    ArgumentCaptor<Measure> measures = ArgumentCaptor.forClass(Measure.class);
+    verify(context, atLeastOnce()).saveMeasure(any(Resource.class), measures.capture());
+
+    assertThat(getMeasure(measures, CoreMetrics.COVERAGE_LINE_HITS_DATA_KEY).getData()).isEqualTo("34=1;35=1;38=1;40=0;45=1;46=1");
+    verify(context, atLeastOnce()).saveMeasure(any(Resource.class), eq(CoreMetrics.UNCOVERED_LINES), eq(2.));
+  }
+
+  @Test
+  public void shouldStreamSingleReportWhenSaving() throws Exception {
+    File report = new File(folder.getRoot(), "report.xml");
+    PhpUnitParser.Result result = parser.read(Arrays.asList(report), MoreExecutors.sameThreadExecutor());
+    verifyZeroInteractions(context);
+
+    // not read before the measures are saved
+    Files.copy(getReportsWithAbsolutePath("phpunit.coverage.xml"), report);
+    result.save();
+    verify(context, atLeastOnce()).saveMeasure(any(Resource.class), eq(CoreMetrics.UNCOVERED_LINES), eq(2.));
+  }
+
+  @Test
+  public void shouldOnlyReadFilesOfFirstProject() throws Exception {
+    File report = folder.newFile("report.xml");
+    Files.write(
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<coverage>\n"
+        + "  <project name=\"first\">\n"
+        + "    <file name=\"" + MONKEY_FILE.getAbsolutePath() + "\">\n"
+        + "      <class name=\"Monkey\"><metrics statements=\"10\" coveredstatements=\"10\"/></class>\n"
+        + "      <line num=\"3\" type=\"stmt\" count=\"2\"/>\n"
+        + "      <metrics statements=\"5\" coveredstatements=\"1\"/>\n"
+        + "    </file>\n"
+        + "    <package name=\"p\"><file name=\"/unknown.php\"><metrics statements=\"1\" coveredstatements=\"0\"/></file></package>\n"
+        + "  </project>\n"
+        + "  <project name=\"second\">\n"
+        + "    <file name=\"" + MONKEY_FILE.getAbsolutePath() + "\"><metrics statements=\"7\" coveredstatements=\"0\"/></file>\n"
+        + "  </project>\n"
+        + "</coverage>\n",
+      report, Charsets.UTF_8);
+
+    parser.parse(report);
+
+    ArgumentCaptor<Measure> measures = ArgumentCaptor.forClass(Measure.class);
+    verify(context).saveMeasure(any(Resource.class), measures.capture());
+    assertThat(measures.getValue().getData()).isEqualTo("3=2");
+    verify(context).saveMeasure(any(Resource.class), eq(LINES_TO_COVER), eq(5.0));
+    verify(context).saveMeasure(any(Resource.class), eq(UNCOVERED_LINES), eq(4.0));
+  }
+
+  @Test
+  public void shouldMergeReportsOfShards() throws Exception {
+    File firstShard = folder.newFile("clover-1.xml");
+    Files.write(shardReport("<line num=\"3\" type=\"stmt\" count=\"2\"/><line num=\"4\" type=\"stmt\" count=\"0\"/>"
+      + "<line num=\"5\" type=\"stmt\" count=\"0\"/><metrics statements=\"3\" coveredstatements=\"1\"/>"), firstShard, Charsets.UTF_8);
+    File secondShard = folder.newFile("clover-2.xml");
+    Files.write(shardReport("<line num=\"3\" type=\"stmt\" count=\"1\"/><line num=\"4\" type=\"stmt\" count=\"5\"/>"
+      + "<line num=\"5\" type=\"stmt\" count=\"0\"/><line num=\"99\" type=\"stmt\" count=\"1\"/>"
+      + "<metrics statements=\"3\" coveredstatements=\"2\"/>"), secondShard, Charsets.UTF_8);
+
+    parser.parse(Arrays.asList(firstShard, secondShard));
+
+    ArgumentCaptor<Measure> measures = ArgumentCaptor.forClass(Measure.class);
+    verify(context).saveMeasure(any(Resource.class), measures.capture());
+    assertThat(measures.getValue().getData()).isEqualTo("3=3;4=5;5=0");
+    verify(context).saveMeasure(any(Resource.class), eq(LINES_TO_COVER), eq(3.0));
+    verify(context).saveMeasure(any(Resource.class), eq(UNCOVERED_LINES), eq(1.0));
+  }
+
+  private static String shardReport(String fileContent) {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<coverage><project><file name=\"" + MONKEY_FILE.getAbsolutePath() + "\">" + fileContent + "</file></project></coverage>\n";
+  }
+
+  @Test
+  public void shouldThrowAnExceptionWhenReportIsInvalid() throws Exception {
+    File report = folder.newFile("invalid.xml");
+    Files.write("<coverage><project><file name=\"x\"></project>", report, Charsets.UTF_8);
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Can't read phpUnit report: invalid.xml");
+
+    parser.parse(report);
+  }
+
   private static Measure getMeasure(ArgumentCaptor<Measure> measures, String metric) {
     for (Measure measure : measures.getAllValues()) {
       if (measure.getMetricKey().equals(metric)) {
@@ -19,22 +19,29 @@
  */
 package org.sonar.plugins.php.phpunit;
 
-import com.thoughtworks.xstream.XStreamException;
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.measures.CoreMetrics;
+import org.sonar.api.measures.Measure;
 import org.sonar.api.measures.Metric;
 import org.sonar.plugins.php.MockUtils;
 import org.sonar.plugins.php.api.Php;
 import org.sonar.test.TestUtils;
 
+import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -47,7 +54,7 @@ public class PhpUnitResultParserTest {
   @Before
   public void setUp() throws Exception {
     context = mock(SensorContext.class);
-    parser = new PhpUnitResultParser(context, new DefaultFileSystem());
+    parser = new PhpUnitResultParser(context, new InputFileIndex(new DefaultFileSystem()));
   }
 
   /**
@@ -56,8 +63,8 @@ public class PhpUnitResultParserTest {
   @Test
   public void shouldNotThrowAnExceptionWhenReportNotFound() {
     context = mock(SensorContext.class);
-    PhpUnitResultParser parser = new PhpUnitResultParser(context, new DefaultFileSystem());
-    parser.parse(null);
+    PhpUnitResultParser parser = new PhpUnitResultParser(context, new InputFileIndex(new DefaultFileSystem()));
+    parser.parse((File) null);
 
     verify(context).saveMeasure(CoreMetrics.TESTS, 0.0);
   }
@@ -65,7 +72,7 @@ public class PhpUnitResultParserTest {
   /**
    * Should throw an exception when report is invalid.
    */
-  @Test(expected = XStreamException.class)
+  @Test(expected = IllegalStateException.class)
   public void shouldThrowAnExceptionWhenReportIsInvalid() {
     parser.parse(TestUtils.getResource(MockUtils.PHPUNIT_REPORT_DIR + "phpunit-invalid.xml"));
 
@@ -100,7 +107,7 @@ public class PhpUnitResultParserTest {
     fs.add(monkeyFile);
     fs.add(bananaFile);
 
-    parser = new PhpUnitResultParser(context, fs);
+    parser = new PhpUnitResultParser(context, new InputFileIndex(fs));
     parser.parse(TestUtils.getResource(MockUtils.PHPUNIT_REPORT_NAME));
 
     verify(context).saveMeasure(monkeyFile, CoreMetrics.TESTS, 3.0);
@@ -120,11 +127,74 @@ public class PhpUnitResultParserTest {
     verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_FAILURES, 2.0);
     verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_SUCCESS_DENSITY, 0.0);
     verify(context).saveMeasure(bananaFile, CoreMetrics.TEST_EXECUTION_TIME, 570.0);
+    verify(context).saveMeasure(bananaFile, CoreMetrics.SKIPPED_TESTS, 1.0);
+    ArgumentCaptor<Measure> testData = ArgumentCaptor.forClass(Measure.class);
+    verify(context).saveMeasure(eq(bananaFile), testData.capture());
+    assertThat(testData.getValue().getData()).isEqualTo("<tests-details>"
+      + "<testcase status=\"error\" time=\"570.0\" name=\"testFallFromTreeAction\"><error message=\"null\"><![CDATA[yo]]></error></testcase>"
+      + "<testcase status=\"skipped\" time=\"830.0\" name=\"skippedTest\"/>"
+      + "</tests-details>");
+  }
+
+  @Test
+  public void shouldMergeReportsOfShards() {
+    File baseDir = TestUtils.getResource("/org/sonar/plugins/php/phpunit/sensor/src/");
+    DefaultFileSystem fs = new DefaultFileSystem();
+    InputFile monkeyFile = new DefaultInputFile("Monkey.php").setAbsolutePath((new File(baseDir, "Monkey.php").getAbsolutePath())).setType(InputFile.Type.TEST).setLanguage(Php.KEY);
+    fs.setBaseDir(baseDir);
+    fs.add(monkeyFile);
+
+    parser = new PhpUnitResultParser(context, new InputFileIndex(fs));
+    File report = TestUtils.getResource(MockUtils.PHPUNIT_REPORT_NAME);
+    parser.parse(Arrays.asList(report, report));
+
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TESTS, 6.0);
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_FAILURES, 4.0);
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_ERRORS, 2.0);
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_EXECUTION_TIME, 895.0);
+  }
+
+  @Test
+  public void shouldSaveClassOfSingleReportWhenItsTestSuiteEnds() {
+    File baseDir = TestUtils.getResource("/org/sonar/plugins/php/phpunit/sensor/src/");
+    DefaultFileSystem fs = new DefaultFileSystem();
+    InputFile monkeyFile = new DefaultInputFile("Monkey.php").setAbsolutePath((new File(baseDir, "Monkey.php").getAbsolutePath())).setType(InputFile.Type.TEST).setLanguage(Php.KEY);
+    fs.setBaseDir(baseDir);
+    fs.add(monkeyFile);
+
+    parser = new PhpUnitResultParser(context, new InputFileIndex(fs));
+    parser.parse(TestUtils.getResource(MockUtils.PHPUNIT_REPORT_DIR + "class-in-two-suites.xml"));
+
+    // the class is saved once, with the results of its first test suite
+    verify(context).saveMeasure(eq(monkeyFile), eq(CoreMetrics.TESTS), anyDouble());
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TESTS, 2.0);
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_FAILURES, 1.0);
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_EXECUTION_TIME, 500.0);
+  }
+
+  @Test
+  public void shouldReadSingleReportWithExecutor() {
+    File baseDir = TestUtils.getResource("/org/sonar/plugins/php/phpunit/sensor/src/");
+    DefaultFileSystem fs = new DefaultFileSystem();
+    InputFile monkeyFile = new DefaultInputFile("Monkey.php").setAbsolutePath((new File(baseDir, "Monkey.php").getAbsolutePath())).setType(InputFile.Type.TEST).setLanguage(Php.KEY);
+    fs.setBaseDir(baseDir);
+    fs.add(monkeyFile);
+
+    parser = new PhpUnitResultParser(context, new InputFileIndex(fs));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      parser.read(Collections.singletonList(TestUtils.getResource(MockUtils.PHPUNIT_REPORT_NAME)), executor).save();
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TESTS, 3.0);
+    verify(context).saveMeasure(monkeyFile, CoreMetrics.TEST_EXECUTION_TIME, 447.0);
   }
 
   @Test(expected = IllegalStateException.class)
-  public void testGetTestSuitesWithUnexistingFile() throws Exception {
-    parser.getTestSuites(new File("target/unexistingFile.xml"));
+  public void shouldThrowAnExceptionWhenReportDoesNotExist() throws Exception {
+    parser.parse(new File("target/unexistingFile.xml"));
   }
 
 }
@@ -21,13 +21,22 @@ package org.sonar.plugins.php.phpunit;
 
 import com.thoughtworks.xstream.XStreamException;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.mockito.Mock;
-import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockito.MockitoAnnotations;
 import org.sonar.api.batch.SensorContext;
 import org.sonar.api.batch.fs.FileSystem;
@@ -43,10 +52,14 @@ import org.sonar.test.TestUtils;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class PhpUnitSensorTest {
 
@@ -66,6 +79,9 @@ public class PhpUnitSensorTest {
   @Mock
   private PhpUnitOverallCoverageResultParser overallCoverageParser;
 
+  @Mock
+  private PhpUnitParser.Result result;
+
   @Mock
   private SensorContext context;
 
@@ -79,6 +95,9 @@ public class PhpUnitSensorTest {
   public void init() throws Exception {
     MockitoAnnotations.initMocks(this);
 
+    for (PhpUnitParser mockedParser : Arrays.<PhpUnitParser>asList(parser, coverageParser, itCoverageParser, overallCoverageParser)) {
+      when(mockedParser.read(anyListOf(File.class), any(Executor.class))).thenReturn(result);
+    }
     settings = newSettings();
     project = mock(Project.class);
     sensor = createSensor(fs, settings);
@@ -108,10 +127,58 @@ public class PhpUnitSensorTest {
 
     sensor.analyse(project, context);
 
-    verify(parser, times(1)).parse(TEST_REPORT_FILE);
-    verify(coverageParser, times(1)).parse(COVERAGE_REPORT_FILE);
-    verify(itCoverageParser, times(1)).parse(COVERAGE_REPORT_FILE);
-    verify(overallCoverageParser, times(1)).parse(COVERAGE_REPORT_FILE);
+    verify(parser, times(1)).read(eq(Collections.singletonList(TEST_REPORT_FILE)), any(Executor.class));
+    verify(coverageParser, times(1)).read(eq(Collections.singletonList(COVERAGE_REPORT_FILE)), any(Executor.class));
+    verify(itCoverageParser, times(1)).read(eq(Collections.singletonList(COVERAGE_REPORT_FILE)), any(Executor.class));
+    verify(overallCoverageParser, times(1)).read(eq(Collections.singletonList(COVERAGE_REPORT_FILE)), any(Executor.class));
+    verify(result, times(4)).save();
+  }
+
+  @Test
+  public void should_save_measures_on_sensor_thread() {
+    final List<Thread> threads = new ArrayList<>();
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        threads.add(Thread.currentThread());
+        return null;
+      }
+    }).when(result).save();
+    sensor = createSensor(new DefaultFileSystem(), settings);
+
+    sensor.analyse(project, context);
+
+    assertThat(threads).hasSize(4);
+    assertThat(new HashSet<>(threads)).containsOnly(Thread.currentThread());
+  }
+
+  @Test
+  public void should_read_reports_at_the_same_time() {
+    final CountDownLatch reading = new CountDownLatch(2);
+    final List<Boolean> readTogether = Collections.synchronizedList(new ArrayList<Boolean>());
+    Answer<PhpUnitParser.Result> waitForOtherReport = new Answer<PhpUnitParser.Result>() {
+      @Override
+      public PhpUnitParser.Result answer(InvocationOnMock invocation) {
+        return new ReportStream() {
+          @Override
+          protected void read() {
+            reading.countDown();
+            try {
+              readTogether.add(reading.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        }.start((Executor) invocation.getArguments()[1]);
+      }
+    };
+    doAnswer(waitForOtherReport).when(parser).read(anyListOf(File.class), any(Executor.class));
+    doAnswer(waitForOtherReport).when(coverageParser).read(anyListOf(File.class), any(Executor.class));
+    sensor = createSensor(new DefaultFileSystem(), settings);
+
+    sensor.analyse(project, context);
+
+    assertThat(readTogether).isEqualTo(Arrays.asList(true, true));
   }
 
   @Test
@@ -119,7 +186,7 @@ public class PhpUnitSensorTest {
     sensor = createSensor(new DefaultFileSystem(), new Settings());
     sensor.analyse(project, context);
 
-    verify(parser, never()).parse(any(File.class));
+    verify(parser, never()).read(anyListOf(File.class), any(Executor.class));
   }
 
   @Test
@@ -127,12 +194,12 @@ public class PhpUnitSensorTest {
     sensor = createSensor(new DefaultFileSystem(), settings("/fake/path.xml"));
     sensor.analyse(project, context);
 
-    verify(parser, never()).parse(any(File.class));
+    verify(parser, never()).read(anyListOf(File.class), any(Executor.class));
   }
 
   @Test
   public void xstream_exception() throws Exception {
-    Mockito.doThrow(new XStreamException("")).when(parser).parse((File) any());
+    when(parser.read(anyListOf(File.class), any(Executor.class))).thenThrow(new XStreamException(""));
     sensor = createSensor(fs, settings("phpunit.xml"));
     expected.expect(IllegalStateException.class);
     sensor.analyse(project, context);
@@ -143,7 +210,19 @@ public class PhpUnitSensorTest {
     sensor = createSensor(fs, settings("phpunit.xml"));
     sensor.analyse(project, context);
 
-    verify(parser, times(1)).parse(TEST_REPORT_FILE);
+    verify(parser, times(1)).read(eq(Collections.singletonList(TEST_REPORT_FILE)), any(Executor.class));
+  }
+
+  @Test
+  public void should_parse_report_lists_and_patterns() {
+    sensor = createSensor(fs, settings("phpunit.xml, phpunit-*.xml, ../**/phpunit-in?alid.xml, unknown-*.xml"));
+    sensor.analyse(project, context);
+
+    File invalidReport = TestUtils.getResource(MockUtils.PHPUNIT_REPORT_DIR + "phpunit-invalid.xml");
+    File noFileNameReport = TestUtils.getResource(MockUtils.PHPUNIT_REPORT_DIR + "phpunit-no-filename.xml");
+    File emptySuitesReport = TestUtils.getResource(MockUtils.PHPUNIT_REPORT_DIR + "phpunit-with-empty-testsuites.xml");
+    verify(parser, times(1)).read(eq(Arrays.asList(TEST_REPORT_FILE, invalidReport, noFileNameReport, emptySuitesReport, invalidReport)), any(Executor.class));
+    verify(coverageParser, never()).read(anyListOf(File.class), any(Executor.class));
   }
 
   private PhpUnitSensor createSensor(FileSystem fs, Settings settings) {
@@ -20,7 +20,9 @@
 package org.sonar.plugins.php.phpunit;
 
 import org.junit.Test;
+import org.sonar.plugins.php.phpunit.xml.TestCase;
 
+import static org.fest.assertions.Assertions.assertThat;
 import static org.junit.Assert.assertNotNull;
 
 public class PhpUnitTestReportTest {
@@ -30,4 +32,33 @@ public class PhpUnitTestReportTest {
     assertNotNull((new PhpUnitTestReport()).toString());
 
   }
+
+  @Test
+  public void add() {
+    PhpUnitTestReport report = report(1, 0.5, "testSleepAction");
+    report.add(report(2, 0.25, "testEatAction"));
+
+    assertThat(report.getTests()).isEqualTo(3);
+    assertThat(report.getFailures()).isEqualTo(3);
+    assertThat(report.getErrors()).isEqualTo(3);
+    assertThat(report.getSkipped()).isEqualTo(3);
+    assertThat(report.getTime()).isEqualTo(0.75);
+    assertThat(report.getDetails()).isEqualTo("<tests-details>"
+      + "<testcase status=\"ok\" time=\"0.0\" name=\"testSleepAction\"/>"
+      + "<testcase status=\"ok\" time=\"0.0\" name=\"testEatAction\"/>"
+      + "</tests-details>");
+  }
+
+  private static PhpUnitTestReport report(int count, double time, String testName) {
+    PhpUnitTestReport report = new PhpUnitTestReport();
+    report.setTests(count);
+    report.setFailures(count);
+    report.setErrors(count);
+    report.setSkipped(count);
+    report.setTime(time);
+    TestCase testCase = new TestCase();
+    testCase.setName(testName);
+    report.addDetail(testCase);
+    return report;
+  }
 }
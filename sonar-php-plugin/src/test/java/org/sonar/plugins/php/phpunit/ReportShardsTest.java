@@ -0,0 +1,97 @@
+/*
+ * SonarQube PHP Plugin
+ * Copyright (C) 2010-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.php.phpunit;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ReportShardsTest {
+
+  private static final List<File> REPORTS = Arrays.asList(new File("a.xml"), new File("b.xml"), new File("c.xml"));
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @Rule
+  public ExpectedException thrown = ExpectedException.none();
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void read_all_reports() {
+    Set<File> read = readAll(REPORTS);
+    assertThat(read).containsOnly(REPORTS.toArray());
+  }
+
+  @Test
+  public void read_from_a_thread_of_the_busy_executor() throws Exception {
+    // the only thread of the executor is the one waiting for the shards
+    Future<Set<File>> read = executor.submit(new Callable<Set<File>>() {
+      @Override
+      public Set<File> call() {
+        return readAll(REPORTS);
+      }
+    });
+    assertThat(read.get(10, TimeUnit.SECONDS)).containsOnly(REPORTS.toArray());
+  }
+
+  @Test
+  public void failure_of_a_shard() {
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("b.xml");
+    ReportShards.readAll(REPORTS, executor, new ReportShards.ReportTask() {
+      @Override
+      public void read(File report) {
+        if ("b.xml".equals(report.getName())) {
+          throw new IllegalStateException("Invalid report " + report.getName());
+        }
+      }
+    });
+  }
+
+  private Set<File> readAll(List<File> reports) {
+    final Set<File> read = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+    ReportShards.readAll(reports, executor, new ReportShards.ReportTask() {
+      @Override
+      public void read(File report) {
+        read.add(report);
+      }
+    });
+    return read;
+  }
+
+}
@@ -0,0 +1,6 @@
+<?php
+use A\B;
+$a = -1 + $b->c("x $y") == 2;
+?>
+<p>html</p>
+<?php f(); ?>